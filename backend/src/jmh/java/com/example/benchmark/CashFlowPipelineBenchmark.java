@@ -0,0 +1,114 @@
+package com.example.benchmark;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import com.example.dto.CashFlowData;
+import com.example.enums.TransactionType;
+import com.example.model.Dividend;
+import com.example.model.Instrument;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.service.CashFlowService;
+import com.example.service.TransactionService;
+
+/**
+ * The in-memory half of a profitability request: turning a user's loaded investments
+ * into the sorted cash-flow list XIRR consumes, and the quantity sums valuation relies
+ * on, summed per investment as valuation does. The transactions are spread evenly over the investments, so the same total is
+ * measured as one large position and as many small ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CashFlowPipelineBenchmark {
+    private static final long START_SECOND = Instant.parse("2004-01-01T00:00:00Z").getEpochSecond();
+    private static final long SPAN_SECONDS = 20 * 365 * 86_400L;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int transactions;
+
+    @Param({"1", "10", "100"})
+    public int investments;
+
+    private final TransactionService transactionService = new TransactionService();
+    private final CashFlowService cashFlowService = new CashFlowService();
+
+    private List<Investment> portfolio;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Field field = ReflectionUtils.findField(CashFlowService.class, "transactionService");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, cashFlowService, transactionService);
+
+        SplittableRandom random = new SplittableRandom(42);
+        int perInvestment = Math.max(1, transactions / investments);
+        long step = SPAN_SECONDS / perInvestment;
+        portfolio = new ArrayList<>(investments);
+        for (int n = 0; n < investments; n++) {
+            Instrument instrument = new Instrument();
+            instrument.setName("Fund " + n);
+            instrument.setCurrentPrice(BigDecimal.valueOf(50 + random.nextInt(100)));
+            List<Transaction> history = new ArrayList<>(perInvestment);
+            List<Dividend> dividends = new ArrayList<>();
+            for (int i = 0; i < perInvestment; i++) {
+                Transaction transaction = new Transaction();
+                transaction.setType(random.nextInt(3) == 0 ? TransactionType.SELL : TransactionType.BUY);
+                transaction.setQuantity(1 + random.nextInt(10));
+                transaction.setPrice(BigDecimal.valueOf(5_000 + random.nextInt(10_000), 2));
+                transaction.setFee(BigDecimal.valueOf(random.nextInt(1_000), 2));
+                transaction.setTimestamp(Instant.ofEpochSecond(START_SECOND + i * step + random.nextLong(Math.max(1, step))));
+                history.add(transaction);
+                if (i % 90 == 89) {
+                    Dividend dividend = new Dividend();
+                    dividend.setAmount(BigDecimal.valueOf(random.nextInt(10_000), 2));
+                    dividend.setTimestamp(transaction.getTimestamp().plusSeconds(1));
+                    dividends.add(dividend);
+                }
+            }
+            Investment investment = new Investment();
+            investment.setUserId(1L);
+            investment.setInstrument(instrument);
+            investment.setTransactions(history);
+            investment.setDividends(dividends);
+            portfolio.add(investment);
+        }
+    }
+
+    @Benchmark
+    public List<CashFlowData> collectAndFilterCashFlows() {
+        return cashFlowService.collectAndFilterCashFlows(portfolio);
+    }
+
+    @Benchmark
+    public int calculateTotalQuantity() {
+        int quantity = 0;
+        for (Investment investment : portfolio) {
+            quantity += transactionService.calculateTotalQuantity(investment.getTransactions());
+        }
+        return quantity;
+    }
+}
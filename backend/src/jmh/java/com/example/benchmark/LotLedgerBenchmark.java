@@ -0,0 +1,76 @@
+package com.example.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.enums.CostBasisMethod;
+import com.example.enums.TransactionType;
+import com.example.util.FixedPoint;
+import com.example.util.LotLedger;
+
+/**
+ * Replays a synthetic trade history through a fresh {@link LotLedger}, i.e. the cost of
+ * a cold gains calculation. Roughly two thirds of the trades are buys so lots accumulate
+ * and FIFO sells regularly span several lots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LotLedgerBenchmark {
+
+    @Param({"1000000"})
+    public int trades;
+
+    @Param({"FIFO", "AVERAGE_COST"})
+    public CostBasisMethod method;
+
+    private TransactionType[] types;
+    private long[] quantities;
+    private long[] prices;
+    private long[] fees;
+    private long[] times;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        types = new TransactionType[trades];
+        quantities = new long[trades];
+        prices = new long[trades];
+        fees = new long[trades];
+        times = new long[trades];
+        long time = 1_600_000_000L;
+        for (int i = 0; i < trades; i++) {
+            types[i] = random.nextInt(3) == 0 ? TransactionType.SELL : TransactionType.BUY;
+            quantities[i] = 1 + random.nextInt(types[i] == TransactionType.SELL ? 30 : 10);
+            prices[i] = (50 + random.nextInt(100)) * FixedPoint.ONE;
+            fees[i] = random.nextInt(10) * FixedPoint.ONE;
+            time += 60 + random.nextInt(3600);
+            times[i] = time;
+        }
+    }
+
+    @Benchmark
+    public long replay() {
+        LotLedger ledger = new LotLedger(method);
+        for (int i = 0; i < trades; i++) {
+            ledger.apply(types[i], quantities[i], prices[i], fees[i], times[i]);
+        }
+        return ledger.getRealizedGainMicros() + ledger.getCostBasisMicros();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.util.ModifiedDietzCalculator;
+import com.example.util.TwrCalculator;
+import com.example.util.XirrCalculator;
+
+/**
+ * XIRR against its cheaper alternatives over the same cash-flow history. TWR is given
+ * precomputed valuations, so it measures the calculator alone; in the service the
+ * valuations are the dominant cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReturnMetricBenchmark {
+
+    @Param({"100", "10000"})
+    public int flows;
+
+    private final XirrCalculator xirrCalculator = new XirrCalculator();
+    private final ModifiedDietzCalculator modifiedDietzCalculator = new ModifiedDietzCalculator();
+    private final TwrCalculator twrCalculator = new TwrCalculator();
+
+    private List<Instant> dates;
+    private List<BigDecimal> cashFlows;
+    private List<BigDecimal> valuesAfterFlows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        dates = new ArrayList<>(flows + 1);
+        cashFlows = new ArrayList<>(flows + 1);
+        valuesAfterFlows = new ArrayList<>(flows + 1);
+        Instant date = Instant.parse("2015-01-01T00:00:00Z");
+        double value = 0;
+        for (int i = 0; i < flows; i++) {
+            date = date.plusSeconds(3_600 + random.nextInt(86_400));
+            value *= 1 + (random.nextDouble() - 0.48) / 100;
+            double deposit = 100 + random.nextInt(1_000);
+            value += deposit;
+            dates.add(date);
+            cashFlows.add(BigDecimal.valueOf(-deposit));
+            valuesAfterFlows.add(BigDecimal.valueOf(value));
+        }
+        dates.add(date.plusSeconds(86_400));
+        cashFlows.add(BigDecimal.valueOf(value * 1.01));
+        valuesAfterFlows.add(BigDecimal.ZERO);
+    }
+
+    @Benchmark
+    public BigDecimal xirr() {
+        return xirrCalculator.calculateXirr(dates, cashFlows);
+    }
+
+    @Benchmark
+    public BigDecimal modifiedDietz() {
+        return modifiedDietzCalculator.calculateModifiedDietz(dates, cashFlows);
+    }
+
+    @Benchmark
+    public BigDecimal twr() {
+        return twrCalculator.calculateTwr(dates, cashFlows, valuesAfterFlows);
+    }
+}
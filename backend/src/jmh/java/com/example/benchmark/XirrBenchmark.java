@@ -0,0 +1,112 @@
+package com.example.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import com.example.util.Validator;
+import com.example.util.XirrCalculator;
+
+import ch.qos.logback.classic.Logger;
+
+/**
+ * {@link XirrCalculator#calculateXirr} and its input validation over synthetic cash-flow
+ * histories spread across twenty years. The sign patterns cover the usual investor
+ * history as well as the inputs that make Newton's method or the validator work hardest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XirrBenchmark {
+    private static final long START_SECOND = Instant.parse("2004-01-01T00:00:00Z").getEpochSecond();
+    private static final long SPAN_SECONDS = 20 * 365 * 86_400L;
+
+    public enum SignPattern {
+        // Deposits followed by the current value, the shape every real portfolio has
+        DEPOSITS_THEN_VALUE,
+        // Buys and sells alternate, so the NPV polynomial has many sign changes
+        ALTERNATING,
+        // A small final value against large deposits, pushing the rate towards -100%
+        NEAR_TOTAL_LOSS,
+        // No positive flow at all; rejected, but only after the validator scans everything
+        ALL_NEGATIVE
+    }
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int flows;
+
+    @Param({"DEPOSITS_THEN_VALUE", "ALTERNATING", "NEAR_TOTAL_LOSS", "ALL_NEGATIVE"})
+    public SignPattern pattern;
+
+    private final XirrCalculator xirrCalculator = new XirrCalculator();
+
+    private List<Instant> dates;
+    private List<BigDecimal> cashFlows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Keep per-iteration and rejection logging out of the measurement and the console
+        ((Logger) LoggerFactory.getLogger(XirrCalculator.class)).setLevel(ch.qos.logback.classic.Level.ERROR);
+        ((Logger) LoggerFactory.getLogger(Validator.class)).setLevel(ch.qos.logback.classic.Level.OFF);
+
+        SplittableRandom random = new SplittableRandom(42);
+        dates = new ArrayList<>(flows);
+        cashFlows = new ArrayList<>(flows);
+        long step = SPAN_SECONDS / flows;
+        double invested = 0;
+        for (int i = 0; i < flows - 1; i++) {
+            dates.add(Instant.ofEpochSecond(START_SECOND + i * step + random.nextLong(Math.max(1, step / 2))));
+            double amount = 100 + random.nextInt(1_000);
+            boolean sell = pattern == SignPattern.ALTERNATING && i % 2 == 1;
+            cashFlows.add(BigDecimal.valueOf(sell ? amount * 0.9 : -amount));
+            invested += sell ? 0 : amount;
+        }
+        dates.add(Instant.ofEpochSecond(START_SECOND + SPAN_SECONDS));
+        cashFlows.add(BigDecimal.valueOf(finalValue(invested)));
+    }
+
+    private double finalValue(double invested) {
+        switch (pattern) {
+            case NEAR_TOTAL_LOSS:
+                return invested * 0.001;
+            case ALL_NEGATIVE:
+                return -100;
+            default:
+                return invested * 1.5;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateXirr() {
+        try {
+            return xirrCalculator.calculateXirr(dates, cashFlows);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public boolean isXirrInputValid() {
+        return Validator.isXirrInputValid(dates, cashFlows);
+    }
+}
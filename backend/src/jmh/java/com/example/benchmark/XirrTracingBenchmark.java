@@ -0,0 +1,114 @@
+package com.example.benchmark;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+
+import com.example.util.XirrCalculator;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+/**
+ * Overhead of sampled XIRR traces. Logging goes through the same async appender setup
+ * as the application, into a sink that discards the bytes, so formatting and the hand-off
+ * to the logging thread are measured but terminal I/O is not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XirrTracingBenchmark {
+
+    @Param({"0", "0.01", "1"})
+    public double sampleRate;
+
+    @Param({"100"})
+    public int flows;
+
+    private final XirrCalculator xirrCalculator = new XirrCalculator();
+
+    private LoggerContext loggerContext;
+    private List<Instant> dates;
+    private List<BigDecimal> cashFlows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %m%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(loggerContext);
+        sink.setEncoder(encoder);
+        sink.setOutputStream(OutputStream.nullOutputStream());
+        sink.start();
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(loggerContext);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(sink);
+        async.start();
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(async);
+
+        Field rate = ReflectionUtils.findField(XirrCalculator.class, "traceSampleRate");
+        ReflectionUtils.makeAccessible(rate);
+        ReflectionUtils.setField(rate, xirrCalculator, sampleRate);
+
+        SplittableRandom random = new SplittableRandom(42);
+        dates = new ArrayList<>(flows + 1);
+        cashFlows = new ArrayList<>(flows + 1);
+        Instant date = Instant.parse("2015-01-01T00:00:00Z");
+        double invested = 0;
+        for (int i = 0; i < flows; i++) {
+            date = date.plusSeconds(86_400 + random.nextInt(86_400 * 20));
+            double deposit = 100 + random.nextInt(1_000);
+            invested += deposit;
+            dates.add(date);
+            cashFlows.add(BigDecimal.valueOf(-deposit));
+        }
+        dates.add(date.plusSeconds(86_400));
+        cashFlows.add(BigDecimal.valueOf(invested * 1.3));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    @Benchmark
+    public BigDecimal calculateXirr() {
+        return xirrCalculator.calculateXirr(dates, cashFlows);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.cli;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.dto.CsvImportReport;
+import com.example.service.CsvTransactionImporter;
+
+/**
+ * Imports a transaction CSV on startup, e.g.
+ * {@code java -jar app.jar --import.csv.path=trades.csv --import.csv.resume-from=2000000}.
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "import.csv.path")
+public class CsvImportRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CsvImportRunner.class);
+
+    @Autowired
+    private CsvTransactionImporter csvTransactionImporter;
+
+    @Value("${import.csv.path}")
+    private String path;
+
+    @Value("${import.csv.resume-from:0}")
+    private long resumeFrom;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        logger.info("Importing transactions from {} starting at row {}", path, resumeFrom);
+
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            CsvImportReport report = csvTransactionImporter.importCsv(reader, resumeFrom);
+            if (!report.isCompleted()) {
+                logger.error("Import stopped: {}. Resume with --import.csv.resume-from={}", report.getFailure(),
+                        report.getResumeOffset());
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.controller;
+
+import com.example.dto.FlightRecordingStatus;
+import com.example.service.FlightRecordingService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Flight recording endpoints. Dumps include system properties, environment variables and
+ * thread stacks, so the controller only exists with {@code diagnostics.recording.enabled=true}.
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+@ConditionalOnProperty(name = "diagnostics.recording.enabled", havingValue = "true")
+public class DiagnosticsController {
+    private static final Logger logger = LoggerFactory.getLogger(DiagnosticsController.class);
+    static final int MAX_RECORDING_AGE_MINUTES = 24 * 60;
+
+    @Autowired FlightRecordingService flightRecordingService;
+
+    /**
+     * Starts a flight recording.
+     *
+     * @param settings the JFR settings to record with, "default" or "profile"
+     * @param maxAgeMinutes how much history the recording keeps on disk
+     * @return ResponseEntity containing the recording status, 400 Bad Request for unknown
+     *         settings or an age outside 1 to 1440 minutes, 409 Conflict if a recording is running
+     */
+    @PostMapping("/recording/start")
+    public ResponseEntity<FlightRecordingStatus> startRecording(@RequestParam(defaultValue = "default") String settings,
+            @RequestParam(defaultValue = "60") int maxAgeMinutes) {
+        if (maxAgeMinutes < 1 || maxAgeMinutes > MAX_RECORDING_AGE_MINUTES) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(flightRecordingService.start(settings, Duration.ofMinutes(maxAgeMinutes)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected recording request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Stops the running flight recording; it can still be dumped afterwards.
+     *
+     * @return ResponseEntity containing the recording status, 409 Conflict if none is running
+     */
+    @PostMapping("/recording/stop")
+    public ResponseEntity<FlightRecordingStatus> stopRecording() {
+        try {
+            return ResponseEntity.ok(flightRecordingService.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Dumps the current or last flight recording as a .jfr file for JDK Mission Control.
+     *
+     * @return ResponseEntity containing the recording file, 404 Not Found if nothing was recorded
+     */
+    @GetMapping("/recording/dump")
+    public ResponseEntity<StreamingResponseBody> dumpRecording() {
+        Optional<Path> dump = flightRecordingService.dump();
+        if (dump.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Path file = dump.get();
+        // Each dump is its own file, deleted once it has been streamed
+        StreamingResponseBody body = output -> {
+            try {
+                Files.copy(file, output);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recording.jfr\"")
+                .body(body);
+    }
+
+    /**
+     * @return ResponseEntity containing the recording status, 404 Not Found if none was started
+     */
+    @GetMapping("/recording")
+    public ResponseEntity<FlightRecordingStatus> getRecording() {
+        return ResponseEntity.of(flightRecordingService.getStatus());
+    }
+}
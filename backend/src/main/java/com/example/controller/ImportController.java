@@ -0,0 +1,45 @@
+package com.example.controller;
+
+import com.example.dto.CsvImportReport;
+import com.example.service.CsvTransactionImporter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/imports")
+public class ImportController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    @Autowired CsvTransactionImporter csvTransactionImporter;
+
+    /**
+     * Streams a transaction CSV (investment_id,type,quantity,price,fee,timestamp) into the database.
+     *
+     * @param resumeFrom the number of data rows to skip, taken from a previous report's resume offset
+     * @param request the HTTP request whose body holds the CSV
+     * @return ResponseEntity containing the import report with throughput, rejected rows and
+     *         resume offset; 500 Internal Server Error if the import stopped before the end of the file
+     */
+    @PostMapping(path = "/transactions", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<CsvImportReport> importTransactions(
+            @RequestParam(defaultValue = "0") long resumeFrom, HttpServletRequest request) throws IOException {
+        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            CsvImportReport report = csvTransactionImporter.importCsv(reader, resumeFrom);
+
+            if (!report.isCompleted()) {
+                return ResponseEntity.internalServerError().body(report);
+            }
+
+            return ResponseEntity.ok(report);
+        }
+    }
+}
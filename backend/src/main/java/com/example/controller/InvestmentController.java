@@ -1,13 +1,29 @@
 package com.example.controller;
 
+import com.example.diagnostics.RateLimitedLogger;
+import com.example.dto.InvestmentGainsResponse;
 import com.example.dto.InvestmentResponse;
 import com.example.dto.InvestmentSummaryResponse;
+import com.example.dto.PeriodReturnResponse;
+import com.example.dto.PortfolioValuePoint;
+import com.example.enums.CostBasisMethod;
+import com.example.enums.HistoryResolution;
+import com.example.metric.ReturnMetric;
+import com.example.metric.ReturnMetricRegistry;
 import com.example.service.InvestmentService;
+import com.example.service.PortfolioHistoryService;
+import com.example.service.PortfolioStreamService;
+import com.example.service.TaxLotService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -17,29 +33,46 @@ import org.slf4j.LoggerFactory;
 @RequestMapping("/api/investments")
 public class InvestmentController {
     private static final Logger logger = LoggerFactory.getLogger(InvestmentController.class);
+    private static final RateLimitedLogger warnings = new RateLimitedLogger(logger, 10, Duration.ofMinutes(1));
+    private static final int MAX_HISTORY_YEARS = 30;
 
     @Autowired InvestmentService investmentService;
 
+    @Autowired PortfolioStreamService portfolioStreamService;
+
+    @Autowired TaxLotService taxLotService;
+
+    @Autowired PortfolioHistoryService portfolioHistoryService;
+
+    @Autowired ReturnMetricRegistry returnMetricRegistry;
+
     /**
      * Fetches a list of investments for a specific user identified by userId.
      *
      * @param userId the ID of the user for whom to fetch investments
+     * @param metrics the return metrics to compute (XIRR by default, NONE for none); the first one
+     *        is also reported as profitability, MODIFIED_DIETZ being the cheapest
      * @return ResponseEntity containing a list of InvestmentResponse objects if found,
-     *         404 Not Found if the user does not exist, or 204 No Content if no investments are found
+     *         400 Bad Request for an unknown metric, 404 Not Found if the user does not exist, or 204 No Content if no investments are found
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<InvestmentResponse>> getInvestmentsByUserId(@PathVariable Long userId) {
-        logger.info("Fetching investments for user ID: {}", userId);
+    public ResponseEntity<List<InvestmentResponse>> getInvestmentsByUserId(@PathVariable Long userId,
+            @RequestParam(required = false) List<String> metrics) {
+        logger.debug("Fetching investments with metrics {} for user ID: {}", metrics, userId);
 
+        List<ReturnMetric> returnMetrics = resolveMetrics(metrics);
+        if (returnMetrics == null) {
+            return ResponseEntity.badRequest().build();
+        }
         if (!userExists(userId)) {
-            logger.warn("User ID: {} does not exist", userId);
+            warnings.warn("User ID: {} does not exist", userId);
             return ResponseEntity.notFound().build(); 
         }
 
-        List<InvestmentResponse> investments = investmentService.getUserInvestments(userId);
+        List<InvestmentResponse> investments = investmentService.getUserInvestments(userId, returnMetrics);
 
         if (investments.isEmpty()) {
-            logger.warn("No investments found for user ID: {}", userId);
+            warnings.warn("No investments found for user ID: {}", userId);
             return ResponseEntity.noContent().build();
         }
 
@@ -50,28 +83,161 @@ public class InvestmentController {
      * Fetches the investment summary for a specific user identified by userId.
      *
      * @param userId the ID of the user for whom to fetch the investment summary
+     * @param metrics the return metrics to compute (XIRR by default, NONE for none); the first one
+     *        is also reported as profitability
      * @return ResponseEntity containing an InvestmentSummaryResponse if found,
-     *         404 Not Found if the user does not exist, or 204 No Content if no summary is available
+     *         400 Bad Request for an unknown metric, 404 Not Found if the user does not exist, or 204 No Content if no summary is available
      */
     @GetMapping("/user/{userId}/summary")
-    public ResponseEntity<InvestmentSummaryResponse> getUserInvestmentSummary(@PathVariable Long userId) {
-        logger.info("Fetching investment summary for user ID: {}", userId);
+    public ResponseEntity<InvestmentSummaryResponse> getUserInvestmentSummary(@PathVariable Long userId,
+            @RequestParam(required = false) List<String> metrics) {
+        logger.debug("Fetching investment summary with metrics {} for user ID: {}", metrics, userId);
 
+        List<ReturnMetric> returnMetrics = resolveMetrics(metrics);
+        if (returnMetrics == null) {
+            return ResponseEntity.badRequest().build();
+        }
         if (!userExists(userId)) {
-            logger.warn("User ID: {} does not exist", userId);
+            warnings.warn("User ID: {} does not exist", userId);
             return ResponseEntity.notFound().build(); 
         }
 
-        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(userId);
+        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(userId, returnMetrics);
 
         if (summary == null) {
-            logger.warn("No investment summary available for user ID: {}", userId);
+            warnings.warn("No investment summary available for user ID: {}", userId);
             return ResponseEntity.noContent().build(); 
         }
 
         return ResponseEntity.ok(summary);
     }
 
+    /**
+     * Opens a Server-Sent Events stream that pushes a recomputed investment summary
+     * for the user whenever a price or transaction affecting their portfolio changes.
+     *
+     * @param userId the ID of the user whose summary to stream
+     * @return ResponseEntity containing the SseEmitter for the stream,
+     *         or 404 Not Found if the user does not exist
+     */
+    @GetMapping(path = "/user/{userId}/summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserInvestmentSummary(@PathVariable Long userId) {
+        if (!userExists(userId)) {
+            warnings.warn("User ID: {} does not exist", userId);
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(portfolioStreamService.subscribe(userId));
+    }
+
+    /**
+     * Fetches realized and unrealized gains per investment for a specific user.
+     *
+     * @param userId the ID of the user for whom to fetch gains
+     * @param method the cost basis method used to match sells against buys (FIFO by default)
+     * @return ResponseEntity containing a list of InvestmentGainsResponse objects if found,
+     *         404 Not Found if the user does not exist, or 204 No Content if no investments are found
+     */
+    @GetMapping("/user/{userId}/gains")
+    public ResponseEntity<List<InvestmentGainsResponse>> getUserGains(@PathVariable Long userId,
+            @RequestParam(defaultValue = "FIFO") CostBasisMethod method) {
+        logger.debug("Fetching {} gains for user ID: {}", method, userId);
+
+        if (!userExists(userId)) {
+            warnings.warn("User ID: {} does not exist", userId);
+            return ResponseEntity.notFound().build();
+        }
+
+        List<InvestmentGainsResponse> gains = taxLotService.getUserGains(userId, method);
+
+        if (gains.isEmpty()) {
+            warnings.warn("No investments found for user ID: {}", userId);
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(gains);
+    }
+
+    /**
+     * Fetches the annualized returns of a user's portfolio for the year to date, the last
+     * one, three and five years, and since inception.
+     *
+     * @param userId the ID of the user for whom to fetch period returns
+     * @return ResponseEntity containing a list of PeriodReturnResponse objects if found,
+     *         404 Not Found if the user does not exist, or 204 No Content if no investments are found
+     */
+    @GetMapping("/user/{userId}/returns")
+    public ResponseEntity<List<PeriodReturnResponse>> getPeriodReturns(@PathVariable Long userId) {
+        logger.debug("Fetching period returns for user ID: {}", userId);
+
+        if (!userExists(userId)) {
+            warnings.warn("User ID: {} does not exist", userId);
+            return ResponseEntity.notFound().build();
+        }
+
+        List<PeriodReturnResponse> returns = investmentService.getPeriodReturns(userId);
+
+        if (returns.isEmpty()) {
+            warnings.warn("No investments found for user ID: {}", userId);
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(returns);
+    }
+
+    /**
+     * Fetches the value of a user's portfolio over the last years, one point per day,
+     * week or month (the last day of each period).
+     *
+     * @param userId the ID of the user for whom to fetch the value history
+     * @param years how many years back from today to cover (1 to 30)
+     * @param resolution the spacing of the returned points (DAILY by default)
+     * @return ResponseEntity containing a list of PortfolioValuePoint objects if found,
+     *         400 Bad Request if years is out of range, 404 Not Found if the user does not exist,
+     *         or 204 No Content if no investments are found
+     */
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<List<PortfolioValuePoint>> getValueHistory(@PathVariable Long userId,
+            @RequestParam(defaultValue = "1") int years,
+            @RequestParam(defaultValue = "DAILY") HistoryResolution resolution) {
+        logger.debug("Fetching {} value history over {} years for user ID: {}", resolution, years, userId);
+
+        if (years < 1 || years > MAX_HISTORY_YEARS) {
+            warnings.warn("Rejected value history request with {} years", years);
+            return ResponseEntity.badRequest().build();
+        }
+        if (!userExists(userId)) {
+            warnings.warn("User ID: {} does not exist", userId);
+            return ResponseEntity.notFound().build();
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<PortfolioValuePoint> history = portfolioHistoryService.getValueHistory(userId, today.minusYears(years),
+                today, resolution);
+
+        if (history.isEmpty()) {
+            warnings.warn("No investments found for user ID: {}", userId);
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.ok(history);
+    }
+
+    /**
+     * Resolves the requested return metric names.
+     *
+     * @param metrics the names from the query string, or null when the parameter is absent
+     * @return the metrics to compute, or null if a name is unknown
+     */
+    private List<ReturnMetric> resolveMetrics(List<String> metrics) {
+        try {
+            return returnMetricRegistry.resolve(metrics);
+        } catch (IllegalArgumentException e) {
+            warnings.warn("Rejected request: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Simulates the existence check for a user based on the userId.
      *
@@ -0,0 +1,38 @@
+package com.example.controller;
+
+import com.example.dto.PriceIngestionResponse;
+import com.example.dto.PriceTick;
+import com.example.service.PriceIngestionService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/prices")
+public class PriceController {
+
+    @Autowired PriceIngestionService priceIngestionService;
+
+    /**
+     * Accepts a batch of price ticks keyed by instrument name. Ticks are buffered and
+     * applied in the next ingestion window, so only the latest tick per instrument is written.
+     * Ticks for unknown instruments are rejected, and ticks older than the stored price are skipped.
+     *
+     * @param ticks the price ticks to ingest
+     * @return ResponseEntity with 202 Accepted and the number of accepted and rejected ticks,
+     *         or 400 Bad Request if no tick was valid
+     */
+    @PostMapping
+    public ResponseEntity<PriceIngestionResponse> ingestPrices(@RequestBody List<PriceTick> ticks) {
+        PriceIngestionResponse response = priceIngestionService.submit(ticks);
+
+        if (response.getAccepted() == 0) {
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        return ResponseEntity.accepted().body(response);
+    }
+}
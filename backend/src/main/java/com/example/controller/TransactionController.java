@@ -0,0 +1,56 @@
+package com.example.controller;
+
+import com.example.dto.TransactionIngestionResponse;
+import com.example.dto.TransactionRequest;
+import com.example.service.TransactionIngestionService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/investments/{investmentId}/transactions")
+public class TransactionController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    @Autowired TransactionIngestionService transactionIngestionService;
+
+    /**
+     * Ingests a batch of transactions for an investment sent as a JSON array.
+     *
+     * @param investmentId the ID of the investment the transactions belong to
+     * @param transactions the transactions to ingest
+     * @return ResponseEntity containing per-row results,
+     *         or 404 Not Found if the investment does not exist
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TransactionIngestionResponse> ingestTransactions(@PathVariable Long investmentId,
+            @RequestBody List<TransactionRequest> transactions) {
+        return transactionIngestionService.ingest(investmentId, transactions)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Ingests transactions for an investment streamed as newline-delimited JSON, one
+     * transaction per line. Rows are validated and persisted in chunks while the body is read.
+     *
+     * @param investmentId the ID of the investment the transactions belong to
+     * @param request the HTTP request whose body holds the NDJSON stream
+     * @return ResponseEntity containing per-row results,
+     *         or 404 Not Found if the investment does not exist
+     */
+    @PostMapping(consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<TransactionIngestionResponse> ingestTransactionStream(@PathVariable Long investmentId,
+            HttpServletRequest request) throws IOException {
+        return transactionIngestionService.ingestNdjson(investmentId, request.getInputStream())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.HttpRequest")
+@Label("HTTP Request")
+@Category({"Investment", "Web"})
+public class HttpRequestEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Queries")
+    public long queries;
+}
@@ -0,0 +1,40 @@
+package com.example.diagnostics;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Emits an HttpRequestEvent per request; costs next to nothing while no recording is running
+@Component
+public class HttpRequestEventFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (!event.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long queries = QueryCounter.current();
+        event.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.path = request.getRequestURI();
+                event.status = response.getStatus();
+                event.queries = QueryCounter.current() - queries;
+                event.commit();
+            }
+        }
+    }
+}
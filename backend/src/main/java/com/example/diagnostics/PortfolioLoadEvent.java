@@ -0,0 +1,27 @@
+package com.example.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.PortfolioLoad")
+@Label("Portfolio Load")
+@Category({"Investment", "Valuation"})
+@Description("Loading a user's investments and positions for valuation")
+public class PortfolioLoadEvent extends jdk.jfr.Event {
+
+    @Label("User ID")
+    public long userId;
+
+    @Label("Investments")
+    public int investments;
+
+    @Label("Rows")
+    @Description("Investment and position rows read")
+    public int rows;
+
+    @Label("Queries")
+    @Description("SQL statements issued through Hibernate")
+    public long queries;
+}
@@ -0,0 +1,110 @@
+package com.example.diagnostics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements and entity rows behind each investment API request. The
+ * counts are recorded as metrics and returned in a Server-Timing header, which is why
+ * the response body is buffered until the handler is done. A request over the statement
+ * budget, typically a lazy collection loaded per investment, is logged and counted; with
+ * {@code diagnostics.query-budget.enforce=true}, as in tests, it fails instead.
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+    private static final RateLimitedLogger warnings = new RateLimitedLogger(logger, 10, Duration.ofMinutes(1));
+    public static final String SERVER_TIMING = "Server-Timing";
+    static final String PATH_PREFIX = "/api/investments";
+    static final String STREAM_SUFFIX = "/stream";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${diagnostics.query-budget.statements:50}")
+    private long statementBudget = 50;
+
+    @Value("${diagnostics.query-budget.enforce:false}")
+    private boolean enforce = false;
+
+    // Keyed by URI pattern, of which the investment API has a handful
+    private final Map<String, DistributionSummary> statementSummaries = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    // The server-sent event stream must not be buffered
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith(PATH_PREFIX) || path.endsWith(STREAM_SUFFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long statementsBefore = QueryCounter.current();
+        long rowsBefore = QueryCounter.currentRows();
+        long started = System.nanoTime();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+
+        chain.doFilter(request, wrapper);
+
+        long statements = QueryCounter.current() - statementsBefore;
+        long rows = QueryCounter.currentRows() - rowsBefore;
+        String uri = getUriPattern(request);
+        statementSummaries.computeIfAbsent(uri,
+                key -> summary("http.server.requests.statements", "SQL statements per request", key)).record(statements);
+        rowSummaries.computeIfAbsent(uri,
+                key -> summary("http.server.requests.rows", "Entity rows loaded per request", key)).record(rows);
+        if (statements > statementBudget) {
+            meterRegistry.counter("http.server.requests.over_budget", "uri", uri).increment();
+            String message = String.format("%s %s issued %d SQL statements, over the budget of %d",
+                    request.getMethod(), request.getRequestURI(), statements, statementBudget);
+            if (enforce) {
+                throw new QueryBudgetExceededException(message);
+            }
+            warnings.warn(message);
+        }
+
+        wrapper.setHeader(SERVER_TIMING, String.format(Locale.ROOT, "db;desc=\"%d statements, %d rows\", total;dur=%.1f",
+                statements, rows, (System.nanoTime() - started) / 1e6));
+        wrapper.copyBodyToResponse();
+    }
+
+    private String getUriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private DistributionSummary summary(String name, String description, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public static class QueryBudgetExceededException extends IllegalStateException {
+        public QueryBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
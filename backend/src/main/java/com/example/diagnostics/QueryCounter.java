@@ -0,0 +1,33 @@
+package com.example.diagnostics;
+
+/**
+ * Counts the SQL statements issued, and the entities Hibernate loads, on each thread.
+ * Statements are reported by {@link QueryCountingDataSource}, so Hibernate and
+ * JdbcTemplate are counted alike; entity loads are reported by the post-load listener in
+ * QueryCountingConfig. Callers take the counts before and after a unit of work and
+ * report the difference.
+ */
+public final class QueryCounter {
+    private static final int STATEMENTS = 0;
+    private static final int ROWS = 1;
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[2]);
+
+    private QueryCounter() {
+    }
+
+    public static void recordStatement() {
+        COUNT.get()[STATEMENTS]++;
+    }
+
+    public static long current() {
+        return COUNT.get()[STATEMENTS];
+    }
+
+    public static void recordRowLoaded() {
+        COUNT.get()[ROWS]++;
+    }
+
+    public static long currentRows() {
+        return COUNT.get()[ROWS];
+    }
+}
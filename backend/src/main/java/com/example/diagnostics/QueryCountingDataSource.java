@@ -0,0 +1,84 @@
+package com.example.diagnostics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Reports every SQL statement to {@link QueryCounter}, whichever API issued it. A
+ * prepared statement or call counts once when prepared, however often it is executed or
+ * batched, as Hibernate prepares one per query; a plain statement counts per SQL string
+ * it executes or batches.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "addBatch");
+
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private static Connection countingConnection(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            if (PREPARE_METHODS.contains(method.getName())) {
+                QueryCounter.recordStatement();
+            }
+            Object result = invoke(proxy, target, method, args);
+            if ("createStatement".equals(method.getName())) {
+                return countingStatement((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private static Statement countingStatement(Statement target) {
+        return proxy(Statement.class, target, (proxy, method, args) -> {
+            if (args != null && args.length > 0 && EXECUTE_METHODS.contains(method.getName())) {
+                QueryCounter.recordStatement();
+            }
+            return invoke(proxy, target, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[] { type },
+                handler);
+    }
+
+    // Proxies compare by identity, as pools and transaction managers expect of connections
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.diagnostics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+/**
+ * Passes at most {@code permits} warnings or errors per interval to the wrapped logger and
+ * drops the rest. The next message that gets through reports how many were dropped, so
+ * a burst of identical rejections costs one line per interval instead of one per request.
+ */
+public class RateLimitedLogger {
+    private final Logger logger;
+    private final int permits;
+    private final long intervalNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLogger(Logger logger, int permits, Duration interval) {
+        if (permits <= 0 || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Permits and interval must be positive");
+        }
+        this.logger = logger;
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void warn(String format, Object... args) {
+        if (logger.isWarnEnabled() && tryAcquire()) {
+            reportSuppressed();
+            logger.warn(format, args);
+        }
+    }
+
+    public void error(String format, Object... args) {
+        if (logger.isErrorEnabled() && tryAcquire()) {
+            reportSuppressed();
+            logger.error(format, args);
+        }
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        // Whoever rolls the window over resets it; racing callers may briefly overshoot by a message or two
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        if (used.incrementAndGet() <= permits) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    private void reportSuppressed() {
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            logger.warn("Suppressed {} log messages in the last {} ms", dropped, intervalNanos / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.diagnostics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which work gets a detailed diagnostic trace. Inside an HTTP request the
+ * decision is taken once by {@link TraceSamplingFilter}, so a sampled request is traced
+ * end to end; elsewhere, e.g. in scheduled jobs, each caller samples on its own.
+ */
+public final class TraceSampler {
+    private static final ThreadLocal<Boolean> REQUEST_SAMPLED = new ThreadLocal<>();
+
+    private TraceSampler() {
+    }
+
+    public static boolean shouldTrace(double sampleRate) {
+        Boolean sampled = REQUEST_SAMPLED.get();
+        if (sampled != null) {
+            return sampled;
+        }
+        return sample(sampleRate);
+    }
+
+    static boolean sample(double sampleRate) {
+        return sampleRate > 0 && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    static void beginRequest(boolean sampled) {
+        REQUEST_SAMPLED.set(sampled);
+    }
+
+    static void endRequest() {
+        REQUEST_SAMPLED.remove();
+    }
+}
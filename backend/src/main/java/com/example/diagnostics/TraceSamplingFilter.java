@@ -0,0 +1,33 @@
+package com.example.diagnostics;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Samples requests for tracing at diagnostics.trace.sample-rate; "X-Trace: true" forces a trace
+@Component
+public class TraceSamplingFilter extends OncePerRequestFilter {
+    public static final String TRACE_HEADER = "X-Trace";
+
+    @Value("${diagnostics.trace.sample-rate:0}")
+    private double sampleRate = 0;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TraceSampler.beginRequest(Boolean.parseBoolean(request.getHeader(TRACE_HEADER))
+                || TraceSampler.sample(sampleRate));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TraceSampler.endRequest();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.XirrSolve")
+@Label("XIRR Solve")
+@Category({"Investment", "Valuation"})
+@Description("One XirrCalculator.calculateXirr call, validation included")
+public class XirrSolveEvent extends jdk.jfr.Event {
+
+    @Label("Flows")
+    public int flows;
+
+    @Label("Iterations")
+    public int iterations;
+
+    @Label("Converged")
+    public boolean converged;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,25 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.example.enums.TransactionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One streamed transaction or dividend; dividends carry no type, quantity or fee and keep their amount as price
+@Data
+@AllArgsConstructor
+public class CashFlowRow {
+    private final Long investmentId;
+    private final Instant timestamp;
+    private final TransactionType type;
+    private final int quantity;
+    private final BigDecimal price;
+    private final BigDecimal fee;
+
+    public CashFlowRow(Long investmentId, Instant timestamp, BigDecimal amount) {
+        this(investmentId, timestamp, null, 0, amount, null);
+    }
+}
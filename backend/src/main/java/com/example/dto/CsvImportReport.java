@@ -0,0 +1,23 @@
+package com.example.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CsvImportReport {
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long rowsDuplicate;
+    // Data row to pass as resumeFrom to continue after the last committed chunk
+    private long resumeOffset;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private boolean completed;
+    private String failure;
+    private List<IngestionRowResult> errors = new ArrayList<>();
+}
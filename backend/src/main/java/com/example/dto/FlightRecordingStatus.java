@@ -0,0 +1,19 @@
+package com.example.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecordingStatus {
+    private String name;
+    // NEW, RUNNING, STOPPED or CLOSED, as reported by jdk.jfr.RecordingState
+    private String state;
+    private String settings;
+    private Instant startTime;
+    private Instant stopTime;
+}
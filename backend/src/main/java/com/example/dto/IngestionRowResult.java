@@ -0,0 +1,16 @@
+package com.example.dto;
+
+import com.example.enums.IngestionStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionRowResult {
+    private long row;
+    private IngestionStatus status;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+import com.example.enums.CostBasisMethod;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvestmentGainsResponse {
+    private Long id;
+    private String name;
+    private CostBasisMethod method;
+    private long openQuantity;
+    private int openLots;
+    private BigDecimal costBasis;
+    private BigDecimal marketValue;
+    private BigDecimal unrealizedGain;
+    private BigDecimal realizedGain;
+}
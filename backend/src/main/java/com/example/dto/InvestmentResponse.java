@@ -1,6 +1,7 @@
 package com.example.dto;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,4 +17,6 @@ public class InvestmentResponse {
     private BigDecimal profitability;
     private BigDecimal currentPrice;
     private int quantity;
+    // Requested return metrics by name, in percent
+    private Map<String, BigDecimal> returns;
 }
@@ -1,6 +1,7 @@
 package com.example.dto;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,4 +15,6 @@ public class InvestmentSummaryResponse {
     private BigDecimal totalValue;
     private BigDecimal profitability;
     private int numberOfInvestments;
+    // Requested return metrics by name, in percent
+    private Map<String, BigDecimal> returns;
 }
@@ -0,0 +1,21 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.example.enums.ReturnPeriod;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodReturnResponse {
+
+    private ReturnPeriod period;
+    private LocalDate startDate;
+    // Annualized XIRR in percent; null when the portfolio did not exist for the whole period
+    private BigDecimal profitability;
+}
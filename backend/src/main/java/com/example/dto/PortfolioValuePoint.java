@@ -0,0 +1,17 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioValuePoint {
+
+    private LocalDate date;
+    private BigDecimal value;
+}
@@ -0,0 +1,13 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceIngestionResponse {
+    private int accepted;
+    private int rejected;
+}
@@ -0,0 +1,17 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceTick {
+    private String name;
+    private BigDecimal price;
+    private Instant timestamp;
+}
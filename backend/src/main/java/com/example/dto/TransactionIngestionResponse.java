@@ -0,0 +1,32 @@
+package com.example.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.enums.IngestionStatus;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TransactionIngestionResponse {
+    private int accepted;
+    private int rejected;
+    private int duplicates;
+    private int failed;
+    private List<IngestionRowResult> rows = new ArrayList<>();
+
+    public void addRow(IngestionRowResult row) {
+        rows.add(row);
+        if (row.getStatus() == IngestionStatus.REJECTED) {
+            rejected++;
+        } else if (row.getStatus() == IngestionStatus.DUPLICATE) {
+            duplicates++;
+        } else if (row.getStatus() == IngestionStatus.FAILED) {
+            failed++;
+        } else {
+            accepted++;
+        }
+    }
+}
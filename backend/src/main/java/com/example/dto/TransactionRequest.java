@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.example.enums.TransactionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRequest {
+    private TransactionType type;
+    private int quantity;
+    private BigDecimal price;
+    private BigDecimal fee;
+    private Instant timestamp;
+    private String externalId;
+}
@@ -0,0 +1,8 @@
+package com.example.enums;
+
+public enum CostBasisMethod {
+    // Sells consume the oldest open lots first
+    FIFO,
+    // Sells are costed at the average cost of all open quantity
+    AVERAGE_COST
+}
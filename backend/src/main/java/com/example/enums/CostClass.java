@@ -0,0 +1,11 @@
+package com.example.enums;
+
+// Relative cost of evaluating a return metric, cheapest first
+public enum CostClass {
+    // One pass over the cash flows
+    LINEAR,
+    // Repeated passes over the cash flows until a solver converges
+    ITERATIVE,
+    // Needs historical portfolio valuations in addition to the cash flows
+    VALUATION
+}
@@ -0,0 +1,7 @@
+package com.example.enums;
+
+public enum HistoryResolution {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
@@ -0,0 +1,9 @@
+package com.example.enums;
+
+public enum IngestionStatus {
+    ACCEPTED,
+    QUEUED,
+    REJECTED,
+    DUPLICATE,
+    FAILED
+}
@@ -0,0 +1,10 @@
+package com.example.enums;
+
+public enum JournalDurability {
+    // No journal: queued rows are lost if the process dies before they are flushed
+    NONE,
+    // Written to the journal file before acknowledging; survives a process crash
+    WRITE,
+    // Written and fsync'd before acknowledging; survives a power loss
+    FSYNC
+}
@@ -0,0 +1,27 @@
+package com.example.enums;
+
+import java.time.LocalDate;
+
+public enum ReturnPeriod {
+    YTD,
+    ONE_YEAR,
+    THREE_YEARS,
+    FIVE_YEARS,
+    SINCE_INCEPTION;
+
+    // First day of the window ending today; null for since inception, which starts at the first cash flow
+    public LocalDate startDate(LocalDate today) {
+        switch (this) {
+            case YTD:
+                return today.withDayOfYear(1);
+            case ONE_YEAR:
+                return today.minusYears(1);
+            case THREE_YEARS:
+                return today.minusYears(3);
+            case FIVE_YEARS:
+                return today.minusYears(5);
+            default:
+                return null;
+        }
+    }
+}
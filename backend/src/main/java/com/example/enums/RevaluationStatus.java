@@ -0,0 +1,7 @@
+package com.example.enums;
+
+public enum RevaluationStatus {
+    // Started and not yet through every user; the next run resumes or, after a restart, starts it over
+    RUNNING,
+    COMPLETED
+}
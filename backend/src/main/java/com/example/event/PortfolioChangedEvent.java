@@ -0,0 +1,23 @@
+package com.example.event;
+
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published whenever something that feeds a user's valuation changes: a price
+ * tick for one of their instruments or new transactions/dividends. Listeners use
+ * it to invalidate derived state and push fresh summaries.
+ */
+@Data
+@AllArgsConstructor
+public class PortfolioChangedEvent {
+    private final Long userId;
+    // Investments whose transactions changed; empty for price-only changes
+    private final Set<Long> investmentIds;
+
+    public static PortfolioChangedEvent priceChanged(Long userId) {
+        return new PortfolioChangedEvent(userId, Set.of());
+    }
+}
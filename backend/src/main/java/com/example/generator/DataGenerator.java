@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import com.example.service.PositionService;
+
 @Component
 public class DataGenerator implements CommandLineRunner {
     private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
@@ -13,11 +15,15 @@ public class DataGenerator implements CommandLineRunner {
     @Autowired
     private InvestmentGenerator investmentGenerator;
 
+    @Autowired
+    private PositionService positionService;
+
     @Override
     public void run(String... args) {
         logger.info("Started generating data...");
 
         investmentGenerator.generateInvestmentData();
+        positionService.verify();
 
         logger.info("Finished generating data.");
     }
@@ -4,14 +4,18 @@ import com.example.model.Dividend;
 import com.example.model.Investment;
 import com.example.model.Transaction;
 import com.example.repository.DividendRepository;
-import com.example.service.TransactionService;
+import com.example.service.HoldingsIndexService;
+import com.example.service.PositionService;
+import com.example.util.HoldingsIndex;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
@@ -26,8 +30,12 @@ public class DividendGenerator {
     private DividendRepository dividendRepository;
 
     @Autowired
-    private TransactionService transactionService;
+    private HoldingsIndexService holdingsIndexService;
 
+    @Autowired
+    private PositionService positionService;
+
+    @Transactional
     public void generateDividends(Investment investment) {
         if (isEligibleForDividends(investment)) {
             createAndSaveDividends(investment);
@@ -50,11 +58,15 @@ public class DividendGenerator {
     private void createAndSaveDividends(Investment investment) {
         Instant dividendStart = getDividendStart(investment);
         int dividendCount = determineDividendCount(investment);
-        
+        HoldingsIndex holdings = holdingsIndexService.getIndex(investment);
+
+        List<Dividend> dividends = new ArrayList<>();
         for (int i = 0; i < dividendCount; i++) {
-            Dividend dividend = createDividend(investment, dividendStart, i);
+            Dividend dividend = createDividend(investment, holdings, dividendStart, i);
             dividendRepository.save(dividend);
+            dividends.add(dividend);
         }
+        positionService.applyDividends(dividends);
     }
 
     private Instant getDividendStart(Investment investment) {
@@ -65,17 +77,18 @@ public class DividendGenerator {
         return investment.getName().startsWith("Fund") ? FUND_DIVIDEND_COUNT : COMPANY_DIVIDEND_COUNT;
     }
 
-    private Dividend createDividend(Investment investment, Instant start, int index) {
+    private Dividend createDividend(Investment investment, HoldingsIndex holdings, Instant start, int index) {
         Dividend dividend = new Dividend();
         dividend.setInvestment(investment);
         dividend.setTimestamp(start.plus(index * DIVIDEND_INTERVAL_DAYS, ChronoUnit.DAYS)); // Every 90 days
-        dividend.setAmount(calculateDividendAmount(investment));
+        dividend.setAmount(calculateDividendAmount(investment, holdings, dividend.getTimestamp()));
         return dividend;
     }
 
-    private BigDecimal calculateDividendAmount(Investment investment) {
+    // Entitlement follows the units held on the payment date, not the final position
+    private BigDecimal calculateDividendAmount(Investment investment, HoldingsIndex holdings, Instant paidAt) {
         BigDecimal totalValue = investment.getCurrentPrice()
-            .multiply(BigDecimal.valueOf(transactionService.calculateTotalQuantity(investment.getTransactions())));
+            .multiply(BigDecimal.valueOf(holdings.quantityAt(paidAt)));
         return totalValue.multiply(DIVIDEND_RATE);
     }
 }
@@ -1,11 +1,13 @@
 package com.example.generator;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.example.model.Investment;
 import com.example.model.Transaction;
 import com.example.repository.InvestmentRepository;
+import com.example.service.InstrumentService;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -17,12 +19,27 @@ public class InvestmentGenerator {
     @Autowired
     private InvestmentRepository investmentRepository;
 
+    @Autowired
+    private InstrumentService instrumentService;
+
     @Autowired
     private TransactionGenerator transactionGenerator;
 
     @Autowired
     private DividendGenerator dividendGenerator;
 
+    @Value("${generator.investments:10}")
+    private int investmentCount = 10;
+
+    private Random random = new Random();
+
+    @Value("${generator.seed:0}")
+    void setSeed(long seed) {
+        if (seed != 0) {
+            random = new Random(seed);
+        }
+    }
+
     public void generateInvestmentData() {
         String[] investmentNames = {
             "Fund A", "Fund B", "Fund C", 
@@ -31,7 +48,10 @@ public class InvestmentGenerator {
             "Company D", "Company E"
         };
         
-        for (String investmentName : investmentNames) {
+        for (int i = 0; i < investmentCount; i++) {
+            // Beyond the base names each round gets a suffix; the Fund/Company prefix keeps its dividend schedule
+            String investmentName = investmentNames[i % investmentNames.length]
+                    + (i < investmentNames.length ? "" : " " + (i / investmentNames.length + 1));
             Investment investment = createInvestment(investmentName);
             investmentRepository.save(investment);
 
@@ -46,10 +66,9 @@ public class InvestmentGenerator {
 
     public Investment createInvestment(String name) {
         Investment investment = new Investment();
-        investment.setName(name);
         
-        BigDecimal randomPrice = BigDecimal.valueOf(60 + new Random().nextInt(100));
-        investment.setCurrentPrice(randomPrice);
+        BigDecimal randomPrice = BigDecimal.valueOf(60 + random.nextInt(100));
+        investment.setInstrument(instrumentService.findOrCreate(name, randomPrice));
         investment.setUserId(1L);
         return investment;
     }
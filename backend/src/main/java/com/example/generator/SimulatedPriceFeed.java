@@ -0,0 +1,66 @@
+package com.example.generator;
+
+import com.example.dto.PriceTick;
+import com.example.repository.InstrumentRepository;
+import com.example.service.PriceIngestionService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in for a market data feed. Enable with
+ * {@code prices.feed.simulated.enabled=true} to random-walk every known instrument.
+ */
+@Component
+@ConditionalOnProperty(name = "prices.feed.simulated.enabled", havingValue = "true")
+public class SimulatedPriceFeed {
+
+    private static final double MAXIMUM_MOVE = 0.02; // Price can move +-2% per tick
+    private static final BigDecimal MINIMUM_PRICE = new BigDecimal("1");
+    private static final int TICKS_PER_INSTRUMENT = 3; // Duplicates exercise the collapsing window
+
+    @Autowired
+    private InstrumentRepository instrumentRepository;
+
+    @Autowired
+    private PriceIngestionService priceIngestionService;
+
+    private final Map<String, BigDecimal> lastPrices = new ConcurrentHashMap<>();
+    private final Random random = new Random();
+
+    @Scheduled(fixedRateString = "${prices.feed.simulated.interval-ms:5000}")
+    public void publishTicks() {
+        if (lastPrices.isEmpty()) {
+            instrumentRepository.findAll()
+                    .forEach(instrument -> lastPrices.put(instrument.getName(), instrument.getCurrentPrice()));
+        }
+        priceIngestionService.submit(generateTicks());
+    }
+
+    public List<PriceTick> generateTicks() {
+        List<PriceTick> ticks = new ArrayList<>();
+        for (int i = 0; i < TICKS_PER_INSTRUMENT; i++) {
+            Instant timestamp = Instant.now();
+            lastPrices.replaceAll((name, price) -> nextPrice(price));
+            lastPrices.forEach((name, price) -> ticks.add(new PriceTick(name, price, timestamp)));
+        }
+        return ticks;
+    }
+
+    private BigDecimal nextPrice(BigDecimal price) {
+        double move = (random.nextDouble() * 2 - 1) * MAXIMUM_MOVE;
+        BigDecimal next = price.multiply(BigDecimal.valueOf(1 + move)).setScale(2, RoundingMode.HALF_UP);
+        return next.compareTo(MINIMUM_PRICE) < 0 ? MINIMUM_PRICE : next;
+    }
+}
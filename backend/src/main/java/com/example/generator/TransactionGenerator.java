@@ -4,9 +4,12 @@ import com.example.enums.TransactionType;
 import com.example.model.Transaction;
 import com.example.model.Investment;
 import com.example.repository.TransactionRepository;
+import com.example.service.PositionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -18,7 +21,7 @@ import java.util.Random;
 @Component
 public class TransactionGenerator {
 
-    private static final int TOTAL_TRANSACTIONS = 100;
+    private static final int DEFAULT_TRANSACTIONS = 100;
     private static final int MINIMUM_DAYS_INTERVAL = 7;
     private static final int MAXIMUM_DAYS_INTERVAL = 21;
     private static final int PRICE_FLUCTUATION_BOUND = 10; // Price can vary +-10
@@ -27,12 +30,28 @@ public class TransactionGenerator {
     private static final double MAXIMUM_FEE = 10.0; // Transaction fee can vary between 0 and 10
     private static long INVESTMENT_HORIZON_DAYS = 365 * 6; // Default to 6 years in days
     private static BigDecimal MINIMUM_PRICE = new BigDecimal("1");
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    @Value("${generator.transactions-per-investment:100}")
+    private int transactionsPerInvestment = DEFAULT_TRANSACTIONS;
 
     @Autowired
     private TransactionRepository transactionRepository;
 
-    private final Random random = new Random();
+    @Autowired
+    private PositionService positionService;
+
+    private Random random = new Random();
 
+    // A fixed seed makes the generated history repeatable, e.g. for performance tests
+    @Value("${generator.seed:0}")
+    void setSeed(long seed) {
+        if (seed != 0) {
+            random = new Random(seed);
+        }
+    }
+
+    @Transactional
     public List<Transaction> generateTransactions(Investment investment) {
         BigDecimal initialPrice = investment.getCurrentPrice();
         
@@ -45,20 +64,26 @@ public class TransactionGenerator {
         BigDecimal price = initialPrice;
         int totalQuantity = 0;
 
-        for (int i = 0; i < TOTAL_TRANSACTIONS; i++) {
+        for (int i = 0; i < transactionsPerInvestment; i++) {
             Instant transactionTimestamp = getNextTimestamp(initialTimestamp);
             Transaction transaction = createTransaction(investment, transactionTimestamp, price, totalQuantity);
             transactions.add(transaction);
-            transactionRepository.save(transaction);
             totalQuantity = updateQuantity(transaction, totalQuantity);
             initialTimestamp = transactionTimestamp;
         }
+        transactionRepository.saveAll(transactions);
+        positionService.applyTransactions(transactions);
         return transactions;
     }
 
+    // Larger histories shrink the interval so every transaction still falls inside the horizon
     private Instant getNextTimestamp(Instant currentTimestamp) {
         long randomDays = MINIMUM_DAYS_INTERVAL + random.nextInt(MAXIMUM_DAYS_INTERVAL - MINIMUM_DAYS_INTERVAL + 1);
-        return currentTimestamp.plus(randomDays, ChronoUnit.DAYS);
+        if (transactionsPerInvestment <= DEFAULT_TRANSACTIONS) {
+            return currentTimestamp.plus(randomDays, ChronoUnit.DAYS);
+        }
+        long seconds = randomDays * SECONDS_PER_DAY * DEFAULT_TRANSACTIONS / transactionsPerInvestment;
+        return currentTimestamp.plusSeconds(Math.max(1, seconds));
     }
 
     private Transaction createTransaction(Investment investment, Instant timestamp, BigDecimal price, int totalQuantity) {
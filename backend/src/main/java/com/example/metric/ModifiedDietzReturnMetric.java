@@ -0,0 +1,32 @@
+package com.example.metric;
+
+import java.math.BigDecimal;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.enums.CostClass;
+import com.example.util.ModifiedDietzCalculator;
+
+@Component
+public class ModifiedDietzReturnMetric implements ReturnMetric {
+    public static final String NAME = "MODIFIED_DIETZ";
+
+    @Autowired
+    ModifiedDietzCalculator modifiedDietzCalculator;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.LINEAR;
+    }
+
+    @Override
+    public BigDecimal calculate(ReturnContext context) {
+        return modifiedDietzCalculator.calculateModifiedDietz(context.getDates(), context.getAmounts());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.metric;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.example.dto.CashFlowData;
+import com.example.util.CashFlowBuffer;
+
+/**
+ * Cash flows of one evaluation, shared by every metric requested for it. The flows are
+ * chronological, from the investor's side, and end with the current value. Derived
+ * representations are built on first use, so metrics that need the same one share it.
+ */
+public class ReturnContext {
+    private final List<CashFlowData> cashFlows;
+    private final Function<Instant, BigDecimal> valuation;
+    private List<Instant> dates;
+    private List<BigDecimal> amounts;
+    private CashFlowBuffer buffer;
+
+    public ReturnContext(List<CashFlowData> cashFlows, Function<Instant, BigDecimal> valuation) {
+        this.cashFlows = cashFlows;
+        this.valuation = valuation;
+    }
+
+    public List<CashFlowData> getCashFlows() {
+        return cashFlows;
+    }
+
+    public List<Instant> getDates() {
+        if (dates == null) {
+            dates = cashFlows.stream().map(CashFlowData::getDate).collect(Collectors.toList());
+        }
+        return dates;
+    }
+
+    public List<BigDecimal> getAmounts() {
+        if (amounts == null) {
+            amounts = cashFlows.stream().map(CashFlowData::getAmount).collect(Collectors.toList());
+        }
+        return amounts;
+    }
+
+    public CashFlowBuffer getBuffer() {
+        if (buffer == null) {
+            buffer = CashFlowBuffer.of(cashFlows);
+        }
+        return buffer;
+    }
+
+    // Market value of the evaluated investments at the given time
+    public BigDecimal valueAsOf(Instant asOf) {
+        return valuation.apply(asOf);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.metric;
+
+import java.math.BigDecimal;
+
+import com.example.enums.CostClass;
+
+/**
+ * A return metric that investment views can be asked for by name. Implementations are
+ * Spring beans collected by {@link ReturnMetricRegistry}, so adding a custom metric only
+ * takes another component implementing this interface.
+ */
+public interface ReturnMetric {
+
+    // Upper-case name used in the metrics query parameter and as key in responses
+    String getName();
+
+    CostClass getCostClass();
+
+    /**
+     * @return the annualized return as a fraction
+     * @throws IllegalArgumentException when the cash flows do not admit a return
+     */
+    BigDecimal calculate(ReturnContext context);
+}
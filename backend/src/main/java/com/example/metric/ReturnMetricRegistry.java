@@ -0,0 +1,73 @@
+package com.example.metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Looks up {@link ReturnMetric} beans by name for the metrics query parameter.
+ */
+@Service
+public class ReturnMetricRegistry {
+    // Requests the investment values without any return metric
+    public static final String NONE = "NONE";
+
+    @Autowired
+    List<ReturnMetric> metrics;
+
+    private final Map<String, ReturnMetric> metricsByName = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        metricsByName.clear();
+        for (ReturnMetric metric : metrics) {
+            if (metricsByName.putIfAbsent(metric.getName().toUpperCase(Locale.ROOT), metric) != null) {
+                throw new IllegalStateException("Duplicate return metric name: " + metric.getName());
+            }
+        }
+    }
+
+    /**
+     * Resolves requested names, in order and without duplicates. No names means the
+     * default, XIRR; {@value #NONE} alone means no metric at all.
+     *
+     * @throws IllegalArgumentException for an unknown name
+     */
+    public List<ReturnMetric> resolve(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return getDefaults();
+        }
+        List<ReturnMetric> resolved = new ArrayList<>();
+        for (String name : names) {
+            String key = name.trim().toUpperCase(Locale.ROOT);
+            if (key.isEmpty() || key.equals(NONE)) {
+                continue;
+            }
+            ReturnMetric metric = metricsByName.get(key);
+            if (metric == null) {
+                throw new IllegalArgumentException("Unknown return metric: " + name);
+            }
+            if (!resolved.contains(metric)) {
+                resolved.add(metric);
+            }
+        }
+        return resolved;
+    }
+
+    public List<ReturnMetric> getDefaults() {
+        ReturnMetric xirr = metricsByName.get(XirrReturnMetric.NAME);
+        return xirr == null ? List.of() : List.of(xirr);
+    }
+
+    public Collection<String> getNames() {
+        return metricsByName.keySet();
+    }
+}
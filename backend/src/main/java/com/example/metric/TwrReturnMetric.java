@@ -0,0 +1,60 @@
+package com.example.metric;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.dto.CashFlowData;
+import com.example.enums.CostClass;
+import com.example.util.HoldingsIndex;
+import com.example.util.TwrCalculator;
+
+@Component
+public class TwrReturnMetric implements ReturnMetric {
+    public static final String NAME = "TWR";
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    @Autowired
+    TwrCalculator twrCalculator;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.VALUATION;
+    }
+
+    // One sub-period boundary per day with flows: the day's flows are netted and the portfolio valued at its close
+    @Override
+    public BigDecimal calculate(ReturnContext context) {
+        List<CashFlowData> cashFlowData = context.getCashFlows();
+        List<Instant> dates = new ArrayList<>();
+        List<BigDecimal> cashFlows = new ArrayList<>();
+        List<BigDecimal> valuesAfterFlows = new ArrayList<>();
+        int index = 0;
+        while (index < cashFlowData.size()) {
+            long day = HoldingsIndex.toEpochDay(cashFlowData.get(index).getDate());
+            BigDecimal netFlow = BigDecimal.ZERO;
+            Instant date = null;
+            for (; index < cashFlowData.size()
+                    && HoldingsIndex.toEpochDay(cashFlowData.get(index).getDate()) == day; index++) {
+                netFlow = netFlow.add(cashFlowData.get(index).getAmount());
+                date = cashFlowData.get(index).getDate();
+            }
+            // The last group holds the current value, after which nothing is left invested
+            boolean terminal = index == cashFlowData.size();
+            dates.add(date);
+            cashFlows.add(netFlow);
+            valuesAfterFlows.add(terminal ? BigDecimal.ZERO
+                    : context.valueAsOf(Instant.ofEpochSecond((day + 1) * SECONDS_PER_DAY - 1)));
+        }
+        return twrCalculator.calculateTwr(dates, cashFlows, valuesAfterFlows);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.metric;
+
+import java.math.BigDecimal;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.enums.CostClass;
+import com.example.util.XirrCalculator;
+
+@Component
+public class XirrReturnMetric implements ReturnMetric {
+    public static final String NAME = "XIRR";
+
+    @Autowired
+    XirrCalculator xirrCalculator;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.ITERATIVE;
+    }
+
+    @Override
+    public BigDecimal calculate(ReturnContext context) {
+        return xirrCalculator.calculateXirr(context.getDates(), context.getAmounts());
+    }
+}
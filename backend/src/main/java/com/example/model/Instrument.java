@@ -0,0 +1,62 @@
+package com.example.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "instruments")
+public class Instrument {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 200, nullable = false, unique = true)
+    private String name;
+
+    @Column(nullable = false)
+    private BigDecimal currentPrice = BigDecimal.ZERO;
+
+    // Timestamp of the tick that set currentPrice; null until the first ingested tick
+    private Instant lastPriceAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Instrument name cannot be null or empty.");
+        }
+        this.name = name;
+    }
+
+    public BigDecimal getCurrentPrice() {
+        return currentPrice;
+    }
+
+    public void setCurrentPrice(BigDecimal currentPrice) {
+        if (currentPrice == null || currentPrice.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Price cannot be negative or null");
+        }
+        this.currentPrice = currentPrice;
+    }
+
+    public Instant getLastPriceAt() {
+        return lastPriceAt;
+    }
+
+    public void setLastPriceAt(Instant lastPriceAt) {
+        this.lastPriceAt = lastPriceAt;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable snapshot of an instrument's name and current price, shared by every
+ * portfolio that holds it. A new price replaces the whole object, so readers never
+ * see a half-applied update.
+ */
+public final class InstrumentPrice {
+    private final Long id;
+    private final String name;
+    private final BigDecimal price;
+
+    public InstrumentPrice(Long id, String name, BigDecimal price) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+    }
+
+    public static InstrumentPrice of(Instrument instrument) {
+        return new InstrumentPrice(instrument.getId(), instrument.getName(), instrument.getCurrentPrice());
+    }
+
+    public InstrumentPrice withPrice(BigDecimal newPrice) {
+        return new InstrumentPrice(id, name, newPrice);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
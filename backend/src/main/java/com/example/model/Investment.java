@@ -17,11 +17,17 @@ public class Investment {
     @Column(nullable = false)
     private Long userId;
 
-    @Column(length = 200, nullable = false)
-    private String name;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instrument_id", referencedColumnName = "id", nullable = false)
+    private Instrument instrument;
 
-    @Column(nullable = false)
-    private BigDecimal currentPrice = BigDecimal.ZERO;
+    // Read-only copy of the foreign key, so the instrument can be identified without loading it
+    @Column(name = "instrument_id", insertable = false, updatable = false)
+    private Long instrumentId;
+
+    // Shared price view attached after loading, see InstrumentService.attachPrices
+    @Transient
+    private InstrumentPrice instrumentPrice;
 
     @OneToMany(mappedBy = "investment", cascade = CascadeType.PERSIST)
     private List<Transaction> transactions = new ArrayList<>();
@@ -45,26 +51,38 @@ public class Investment {
         this.userId = userId;
     }
 
-    public String getName() {
-        return name;
+    public Instrument getInstrument() {
+        return instrument;
     }
 
-    public void setName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Investment name cannot be null or empty.");
+    public void setInstrument(Instrument instrument) {
+        this.instrument = instrument;
+    }
+
+    public Long getInstrumentId() {
+        if (instrumentId != null) {
+            return instrumentId;
         }
-        this.name = name;
+        return instrument == null ? null : instrument.getId();
     }
 
-    public BigDecimal getCurrentPrice() {
-        return currentPrice;
+    public void setInstrumentPrice(InstrumentPrice instrumentPrice) {
+        this.instrumentPrice = instrumentPrice;
     }
 
-    public void setCurrentPrice(BigDecimal currentPrice) {
-        if (currentPrice == null || currentPrice.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Price cannot be negative or null");
+    // Name and price live on the shared instrument; these keep valuation code unaware of that
+    public String getName() {
+        if (instrumentPrice != null) {
+            return instrumentPrice.getName();
+        }
+        return instrument == null ? null : instrument.getName();
+    }
+
+    public BigDecimal getCurrentPrice() {
+        if (instrumentPrice != null) {
+            return instrumentPrice.getPrice();
         }
-        this.currentPrice = currentPrice;
+        return instrument == null ? BigDecimal.ZERO : instrument.getCurrentPrice();
     }
 
     public List<Transaction> getTransactions() {
@@ -0,0 +1,95 @@
+package com.example.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A user's precomputed summary with the default return metrics, written by the
+ * revaluation job. {@code valuedAt} is when the data behind it was read, so any change
+ * after that makes the snapshot stale.
+ */
+@Entity
+@Table(name = "portfolio_snapshot")
+public class PortfolioSnapshot {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private BigDecimal totalValue;
+
+    private BigDecimal profitability;
+
+    @Column(nullable = false)
+    private int numberOfInvestments;
+
+    // Metric name to return as JSON, as in InvestmentSummaryResponse
+    @Column(name = "returns_json", length = 1000)
+    private String returns;
+
+    @Column(nullable = false)
+    private Instant valuedAt;
+
+    // Revaluation run that wrote it; null when written after a change to the portfolio
+    private Long runId;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(BigDecimal totalValue) {
+        this.totalValue = totalValue;
+    }
+
+    public BigDecimal getProfitability() {
+        return profitability;
+    }
+
+    public void setProfitability(BigDecimal profitability) {
+        this.profitability = profitability;
+    }
+
+    public int getNumberOfInvestments() {
+        return numberOfInvestments;
+    }
+
+    public void setNumberOfInvestments(int numberOfInvestments) {
+        this.numberOfInvestments = numberOfInvestments;
+    }
+
+    public String getReturns() {
+        return returns;
+    }
+
+    public void setReturns(String returns) {
+        this.returns = returns;
+    }
+
+    public Instant getValuedAt() {
+        return valuedAt;
+    }
+
+    public void setValuedAt(Instant valuedAt) {
+        this.valuedAt = valuedAt;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Running totals of one investment, kept in step with every transaction and dividend
+ * insert so reads do not have to scan the history.
+ */
+@Entity
+@Table(name = "positions")
+public class Position {
+    @Id
+    @Column(name = "investment_id")
+    private Long investmentId;
+
+    @Column(nullable = false)
+    private int netQuantity;
+
+    // Number of transactions; decides whether a valuation streams the history
+    @Column(nullable = false)
+    private long tradeCount;
+
+    @Column(nullable = false)
+    private BigDecimal totalInvested = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private BigDecimal totalProceeds = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private BigDecimal totalFees = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private BigDecimal dividendTotal = BigDecimal.ZERO;
+
+    private Instant lastTradeTime;
+
+    public Long getInvestmentId() {
+        return investmentId;
+    }
+
+    public void setInvestmentId(Long investmentId) {
+        this.investmentId = investmentId;
+    }
+
+    public int getNetQuantity() {
+        return netQuantity;
+    }
+
+    public void setNetQuantity(int netQuantity) {
+        this.netQuantity = netQuantity;
+    }
+
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    public void setTradeCount(long tradeCount) {
+        this.tradeCount = tradeCount;
+    }
+
+    public BigDecimal getTotalInvested() {
+        return totalInvested;
+    }
+
+    public void setTotalInvested(BigDecimal totalInvested) {
+        this.totalInvested = totalInvested;
+    }
+
+    public BigDecimal getTotalProceeds() {
+        return totalProceeds;
+    }
+
+    public void setTotalProceeds(BigDecimal totalProceeds) {
+        this.totalProceeds = totalProceeds;
+    }
+
+    public BigDecimal getTotalFees() {
+        return totalFees;
+    }
+
+    public void setTotalFees(BigDecimal totalFees) {
+        this.totalFees = totalFees;
+    }
+
+    public BigDecimal getDividendTotal() {
+        return dividendTotal;
+    }
+
+    public void setDividendTotal(BigDecimal dividendTotal) {
+        this.dividendTotal = dividendTotal;
+    }
+
+    public Instant getLastTradeTime() {
+        return lastTradeTime;
+    }
+
+    public void setLastTradeTime(Instant lastTradeTime) {
+        this.lastTradeTime = lastTradeTime;
+    }
+
+    public boolean matches(Position other) {
+        return other != null
+                && netQuantity == other.netQuantity
+                && tradeCount == other.tradeCount
+                && totalInvested.compareTo(other.totalInvested) == 0
+                && totalProceeds.compareTo(other.totalProceeds) == 0
+                && totalFees.compareTo(other.totalFees) == 0
+                && dividendTotal.compareTo(other.dividendTotal) == 0
+                && Objects.equals(lastTradeTime, other.lastTradeTime);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.model;
+
+import java.time.Instant;
+
+import com.example.enums.RevaluationStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Progress of one pass of the revaluation job over every user. Users are visited in
+ * ascending ID order and {@code checkpointUserId} only moves past a user once every
+ * user up to it has a snapshot, so an interrupted run resumes without gaps.
+ */
+@Entity
+@Table(name = "revaluation_run")
+public class RevaluationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 20, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private RevaluationStatus status = RevaluationStatus.RUNNING;
+
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    @Column(nullable = false)
+    private long checkpointUserId;
+
+    @Column(nullable = false)
+    private long usersValued;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public RevaluationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RevaluationStatus status) {
+        this.status = status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getCheckpointUserId() {
+        return checkpointUserId;
+    }
+
+    public void setCheckpointUserId(long checkpointUserId) {
+        this.checkpointUserId = checkpointUserId;
+    }
+
+    public long getUsersValued() {
+        return usersValued;
+    }
+
+    public void setUsersValued(long usersValued) {
+        this.usersValued = usersValued;
+    }
+}
@@ -29,6 +29,9 @@ public class Transaction {
     @Column(nullable = false)
     private Instant timestamp;
 
+    @Column(name = "external_id", length = 64, unique = true)
+    private String externalId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "investment_id", referencedColumnName = "id", nullable = false)
     private Investment investment;
@@ -87,6 +90,17 @@ public class Transaction {
         this.timestamp = timestamp;
     }
 
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public void setExternalId(String externalId) {
+        if (externalId != null && (externalId.isBlank() || externalId.length() > 64)) {
+            throw new IllegalArgumentException("External ID must be 1 to 64 characters");
+        }
+        this.externalId = externalId;
+    }
+
     public Investment getInvestment() {
         return investment;
     }
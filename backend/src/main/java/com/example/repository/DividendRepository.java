@@ -2,9 +2,24 @@ package com.example.repository;
 
 import com.example.model.Dividend;
 
+import com.example.dto.CashFlowRow;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface DividendRepository extends JpaRepository<Dividend, Long> {
     List<Dividend> findByInvestmentId(Long investmentId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TransactionRepository.STREAM_FETCH_SIZE))
+    @Query("SELECT new com.example.dto.CashFlowRow(d.investment.id, d.timestamp, d.amount) "
+            + "FROM Dividend d WHERE d.investment.userId = :userId")
+    Stream<CashFlowRow> streamCashFlowRowsByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,13 @@
+package com.example.repository;
+
+import com.example.model.Instrument;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InstrumentRepository extends JpaRepository<Instrument, Long> {
+    Optional<Instrument> findByName(String name);
+}
@@ -2,13 +2,28 @@ package com.example.repository;
 
 import com.example.model.Investment;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface InvestmentRepository extends JpaRepository<Investment, Long> {
     List<Investment> findAllByUserId(Long userId);
 
+    List<Investment> findAllByUserIdIn(Collection<Long> userIds);
+
+    // Next page of user IDs in ascending order, for jobs that walk every portfolio
+    @Query("select distinct i.userId from Investment i where i.userId > :after order by i.userId")
+    List<Long> findUserIdsAfter(@Param("after") Long after, Pageable page);
+
+    @Query("select count(distinct i.userId) from Investment i")
+    long countUsers();
+
+    @Query("select distinct i.userId from Investment i where i.instrument.name in :names")
+    List<Long> findUserIdsByInstrumentNameIn(@Param("names") Collection<String> names);
 }
@@ -0,0 +1,10 @@
+package com.example.repository;
+
+import com.example.model.PortfolioSnapshot;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PortfolioSnapshotRepository extends JpaRepository<PortfolioSnapshot, Long> {
+}
@@ -0,0 +1,14 @@
+package com.example.repository;
+
+import com.example.enums.RevaluationStatus;
+import com.example.model.RevaluationRun;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RevaluationRunRepository extends JpaRepository<RevaluationRun, Long> {
+    Optional<RevaluationRun> findFirstByStatusOrderByIdDesc(RevaluationStatus status);
+}
@@ -3,9 +3,32 @@ package com.example.repository;
 import com.example.model.Transaction;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.example.dto.CashFlowRow;
+
+import jakarta.persistence.QueryHint;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    String STREAM_FETCH_SIZE = "1000";
+
     List<Transaction> findByInvestmentId(Long investmentId);
+
+    long countByInvestmentId(Long investmentId);
+
+    List<Transaction> findByInvestmentIdOrderByTimestampAscIdAsc(Long investmentId);
+
+    List<Transaction> findByInvestmentIdAndIdGreaterThanOrderByTimestampAscIdAsc(Long investmentId, Long id);
+
+    // Unordered and unmanaged, so the stream can be consumed in constant memory; close it after use
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("SELECT new com.example.dto.CashFlowRow(t.investment.id, t.timestamp, t.type, t.quantity, t.price, t.fee) "
+            + "FROM Transaction t WHERE t.investment.userId = :userId")
+    Stream<CashFlowRow> streamCashFlowRowsByUserId(@Param("userId") Long userId);
 }
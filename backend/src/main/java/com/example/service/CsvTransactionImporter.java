@@ -0,0 +1,330 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.CsvImportReport;
+import com.example.dto.IngestionRowResult;
+import com.example.dto.TransactionRequest;
+import com.example.enums.IngestionStatus;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.repository.InvestmentRepository;
+import com.example.util.CsvTransactionParser;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Imports transaction CSV files through a parse -> validate -> insert pipeline. Each
+ * stage runs on its own thread and hands work on through bounded queues, so a slow
+ * database throttles parsing instead of letting parsed rows pile up on the heap.
+ */
+@Service
+public class CsvTransactionImporter {
+    private static final Logger logger = LoggerFactory.getLogger(CsvTransactionImporter.class);
+    private static final int CHUNK_SIZE = 1000;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    InvestmentRepository investmentRepository;
+
+    @Autowired
+    TransactionIngestionService transactionIngestionService;
+
+    @Autowired
+    TransactionBatchWriter transactionBatchWriter;
+
+    @Autowired
+    TransactionDeduplicator transactionDeduplicator;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ExecutorService stages = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "csv-import-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CsvImportReport importCsv(Reader reader, long resumeFrom) {
+        long started = System.nanoTime();
+        Pipeline pipeline = new Pipeline();
+        CsvImportReport report = new CsvImportReport();
+        report.setResumeOffset(resumeFrom);
+
+        Future<?> validation = stages.submit(pipeline::validate);
+        Future<?> insertion = stages.submit(() -> pipeline.insert(report));
+
+        try (CsvTransactionParser parser = new CsvTransactionParser(reader)) {
+            parser.skipRows(resumeFrom);
+            pipeline.parse(parser);
+        } catch (IOException | RuntimeException e) {
+            pipeline.fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pipeline.fail(e);
+        } finally {
+            pipeline.endOfInput();
+        }
+        awaitStage(validation, pipeline);
+        awaitStage(insertion, pipeline);
+
+        pipeline.publishEvents();
+        return complete(report, pipeline, started);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stages.shutdownNow();
+    }
+
+    private CsvImportReport complete(CsvImportReport report, Pipeline pipeline, long started) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+        report.setRowsRead(pipeline.rowsRead.get());
+        report.setRowsImported(pipeline.rowsImported.get());
+        report.setRowsRejected(pipeline.rowsRejected.get());
+        report.setRowsDuplicate(pipeline.rowsDuplicate.get());
+        pipeline.errors.sort(Comparator.comparingLong(IngestionRowResult::getRow));
+        report.setErrors(pipeline.errors);
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(pipeline.rowsRead.get() * 1_000_000_000.0 / elapsedNanos);
+        report.setCompleted(pipeline.failure == null);
+        if (pipeline.failure != null) {
+            report.setFailure(pipeline.failure.getMessage());
+        }
+
+        logger.info("CSV import read {} rows, imported {}, rejected {}, duplicates {} in {} ms ({} rows/s), "
+                + "resume offset {}", report.getRowsRead(), report.getRowsImported(), report.getRowsRejected(),
+                report.getRowsDuplicate(), report.getElapsedMillis(), Math.round(report.getRowsPerSecond()),
+                report.getResumeOffset());
+        return report;
+    }
+
+    private void awaitStage(Future<?> stage, Pipeline pipeline) {
+        try {
+            stage.get();
+        } catch (ExecutionException e) {
+            pipeline.fail(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pipeline.fail(e);
+        }
+    }
+
+    private static class ValidatedChunk {
+        final List<Transaction> transactions;
+        final List<Long> rowNumbers;
+        final long lastRowNumber;
+
+        ValidatedChunk(List<Transaction> transactions, List<Long> rowNumbers, long lastRowNumber) {
+            this.transactions = transactions;
+            this.rowNumbers = rowNumbers;
+            this.lastRowNumber = lastRowNumber;
+        }
+    }
+
+    private class Pipeline {
+        private final CsvTransactionParser.Chunk endOfChunks = new CsvTransactionParser.Chunk(0);
+        private final ValidatedChunk endOfValidated = new ValidatedChunk(List.of(), List.of(), -1);
+
+        // Parsed chunks are recycled through the free queue, so the parse stage allocates no row buffers
+        private final BlockingQueue<CsvTransactionParser.Chunk> freeChunks = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 2);
+        private final BlockingQueue<CsvTransactionParser.Chunk> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final BlockingQueue<ValidatedChunk> validated = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final AtomicLong rowsDuplicate = new AtomicLong();
+        private final List<IngestionRowResult> errors = new ArrayList<>();
+        // Written by the insert stage only, read once it has finished
+        private final Map<Long, Set<Long>> changedInvestmentsByUser = new HashMap<>();
+        private volatile Throwable failure;
+
+        Pipeline() {
+            for (int i = 0; i < QUEUE_CAPACITY + 2; i++) {
+                freeChunks.add(new CsvTransactionParser.Chunk(CHUNK_SIZE));
+            }
+        }
+
+        void parse(CsvTransactionParser parser) throws IOException, InterruptedException {
+            while (failure == null) {
+                CsvTransactionParser.Chunk chunk = freeChunks.take();
+                if (!parser.fill(chunk)) {
+                    freeChunks.put(chunk);
+                    return;
+                }
+                rowsRead.addAndGet(chunk.size());
+                parsed.put(chunk);
+            }
+        }
+
+        void endOfInput() {
+            putQuietly(parsed, endOfChunks);
+        }
+
+        void validate() {
+            Map<Long, Optional<Investment>> investments = new HashMap<>();
+            try {
+                CsvTransactionParser.Chunk chunk;
+                while ((chunk = parsed.take()) != endOfChunks) {
+                    if (failure == null) {
+                        try {
+                            validated.put(validateChunk(chunk, investments));
+                        } catch (RuntimeException e) {
+                            fail(e);
+                        }
+                    }
+                    chunk.clear();
+                    freeChunks.put(chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            } finally {
+                putQuietly(validated, endOfValidated);
+            }
+        }
+
+        void insert(CsvImportReport report) {
+            try {
+                ValidatedChunk chunk;
+                while ((chunk = validated.take()) != endOfValidated) {
+                    if (failure != null) {
+                        continue;
+                    }
+                    try {
+                        write(chunk, report);
+                        report.setResumeOffset(chunk.lastRowNumber + 1);
+                    } catch (RuntimeException e) {
+                        fail(e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+
+        // Deduplication runs here rather than in validation so rows still queued for insert are already visible.
+        // Rows go to the writer one batch at a time, so the counters and resume offset move with each commit.
+        private void write(ValidatedChunk chunk, CsvImportReport report) {
+            BitSet duplicates = transactionDeduplicator.findDuplicates(chunk.transactions);
+            int batchSize = transactionBatchWriter.getBatchSize();
+            for (int from = 0; from < chunk.transactions.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, chunk.transactions.size());
+                List<Transaction> fresh = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    if (duplicates.get(i)) {
+                        rowsDuplicate.incrementAndGet();
+                        report(chunk.rowNumbers.get(i), IngestionStatus.DUPLICATE, "Duplicate external ID");
+                    } else {
+                        fresh.add(chunk.transactions.get(i));
+                    }
+                }
+                if (!fresh.isEmpty()) {
+                    rowsImported.addAndGet(transactionBatchWriter.write(fresh));
+                    transactionDeduplicator.register(fresh);
+                    // Only rows that were stored change a portfolio
+                    fresh.forEach(transaction -> trackChange(transaction.getInvestment()));
+                }
+                report.setResumeOffset(chunk.rowNumbers.get(to - 1) + 1);
+            }
+        }
+
+        void fail(Throwable cause) {
+            if (failure == null) {
+                failure = cause;
+                logger.warn("CSV import failed: {}", cause.getMessage());
+            }
+        }
+
+        void publishEvents() {
+            changedInvestmentsByUser.forEach((userId, investmentIds) ->
+                    eventPublisher.publishEvent(new PortfolioChangedEvent(userId, investmentIds)));
+        }
+
+        private ValidatedChunk validateChunk(CsvTransactionParser.Chunk chunk, Map<Long, Optional<Investment>> investments) {
+            List<Transaction> transactions = new ArrayList<>(chunk.size());
+            List<Long> rowNumbers = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                String error = chunk.errors[i];
+                if (error == null) {
+                    Optional<Investment> investment = investments.computeIfAbsent(chunk.investmentIds[i],
+                            investmentRepository::findById);
+                    if (investment.isEmpty()) {
+                        error = "Investment not found";
+                    } else {
+                        try {
+                            transactions.add(transactionIngestionService.toTransaction(toRequest(chunk, i),
+                                    investment.get()));
+                            rowNumbers.add(chunk.rowNumbers[i]);
+                        } catch (IllegalArgumentException e) {
+                            error = e.getMessage();
+                        }
+                    }
+                }
+                if (error != null) {
+                    reject(chunk.rowNumbers[i], error);
+                }
+            }
+            return new ValidatedChunk(transactions, rowNumbers, chunk.rowNumbers[chunk.size() - 1]);
+        }
+
+        private TransactionRequest toRequest(CsvTransactionParser.Chunk chunk, int index) {
+            return new TransactionRequest(chunk.types[index], chunk.quantities[index], chunk.prices[index],
+                    chunk.fees[index], chunk.timestamps[index], chunk.externalIds[index]);
+        }
+
+        private void trackChange(Investment investment) {
+            changedInvestmentsByUser.computeIfAbsent(investment.getUserId(), id -> new HashSet<>())
+                    .add(investment.getId());
+        }
+
+        private void reject(long rowNumber, String message) {
+            rowsRejected.incrementAndGet();
+            report(rowNumber, IngestionStatus.REJECTED, message);
+        }
+
+        // Written by both the validate and insert stages
+        private synchronized void report(long rowNumber, IngestionStatus status, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new IngestionRowResult(rowNumber, status, message));
+            }
+        }
+
+        private <T> void putQuietly(BlockingQueue<T> queue, T marker) {
+            try {
+                queue.put(marker);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
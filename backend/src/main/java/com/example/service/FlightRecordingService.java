@@ -0,0 +1,113 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.FlightRecordingStatus;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Runs one on-demand Java Flight Recorder recording at a time. The application's own
+ * events (XIRR solves, portfolio loads, HTTP requests) are enabled under either built-in
+ * settings file; "default" is cheap enough to leave running, "profile" samples more.
+ */
+@Service
+public class FlightRecordingService {
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingService.class);
+    private static final String RECORDING_NAME = "investment-application";
+
+    @Value("${diagnostics.recording.dump-dir:${java.io.tmpdir}}")
+    private String dumpDirectory;
+
+    private Recording recording;
+    private String settings;
+
+    /**
+     * @throws IllegalArgumentException for an unknown settings name
+     * @throws IllegalStateException if a recording is already running
+     */
+    public synchronized FlightRecordingStatus start(String settingsName, Duration maxAge) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown recording settings: " + settingsName);
+        }
+        closeRecording();
+        recording = new Recording(configuration);
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.start();
+        settings = settingsName;
+        logger.info("Started flight recording with {} settings, keeping {}", settingsName, maxAge);
+        return toStatus();
+    }
+
+    /**
+     * @throws IllegalStateException if no recording is running
+     */
+    public synchronized FlightRecordingStatus stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No recording is running");
+        }
+        recording.stop();
+        logger.info("Stopped flight recording");
+        return toStatus();
+    }
+
+    /**
+     * Writes the recording so far to a new file in the dump directory, so concurrent dumps
+     * never share one. A running recording keeps running.
+     *
+     * @return the dump file, which the caller deletes, or empty if nothing has been recorded
+     */
+    public synchronized Optional<Path> dump() {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            return Optional.empty();
+        }
+        Path path;
+        try {
+            path = Files.createTempFile(Files.createDirectories(Paths.get(dumpDirectory)), RECORDING_NAME + "-", ".jfr");
+            recording.dump(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Optional.of(path);
+    }
+
+    public synchronized Optional<FlightRecordingStatus> getStatus() {
+        return recording == null ? Optional.empty() : Optional.of(toStatus());
+    }
+
+    @PreDestroy
+    public synchronized void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private FlightRecordingStatus toStatus() {
+        return new FlightRecordingStatus(recording.getName(), recording.getState().name(), settings,
+                recording.getStartTime(), recording.getStopTime());
+    }
+}
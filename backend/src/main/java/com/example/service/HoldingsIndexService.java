@@ -0,0 +1,83 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.util.HoldingsIndex;
+
+/**
+ * Caches a {@link HoldingsIndex} per investment. An index is built from the investment's
+ * loaded transactions on first use and dropped when a {@link PortfolioChangedEvent}
+ * reports new transactions for it. The least recently used indexes are dropped beyond
+ * {@code holdings.index-cache.max-entries}.
+ *
+ * <p>Indexes are built outside the lock, since touching the transactions may load them
+ * from the database. An index whose build overlaps an invalidation is returned but not
+ * kept, since it may predate the change.
+ */
+@Service
+public class HoldingsIndexService {
+
+    @Value("${holdings.index-cache.max-entries:10000}")
+    private int maxIndexes = 10_000;
+
+    // Guarded by this
+    private final Map<Long, HoldingsIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, HoldingsIndex> eldest) {
+            return size() > maxIndexes;
+        }
+    };
+    private long invalidations;
+
+    public HoldingsIndex getIndex(Investment investment) {
+        if (investment == null) {
+            return HoldingsIndex.EMPTY;
+        }
+        // Unsaved investments have no stable key and are indexed on every call
+        if (investment.getId() == null) {
+            return HoldingsIndex.build(investment.getTransactions());
+        }
+        long invalidationsAtMiss;
+        synchronized (this) {
+            HoldingsIndex cached = indexes.get(investment.getId());
+            if (cached != null) {
+                return cached;
+            }
+            invalidationsAtMiss = invalidations;
+        }
+        HoldingsIndex index = HoldingsIndex.build(investment.getTransactions());
+        synchronized (this) {
+            if (invalidations != invalidationsAtMiss) {
+                return index;
+            }
+            // A concurrent miss may have stored an equal index first
+            HoldingsIndex existing = indexes.putIfAbsent(investment.getId(), index);
+            return existing != null ? existing : index;
+        }
+    }
+
+    public synchronized void evict(Long investmentId) {
+        invalidations++;
+        indexes.remove(investmentId);
+    }
+
+    @EventListener
+    public synchronized void onPortfolioChanged(PortfolioChangedEvent event) {
+        if (event.getInvestmentIds().isEmpty()) {
+            return;
+        }
+        invalidations++;
+        event.getInvestmentIds().forEach(indexes::remove);
+    }
+
+    public synchronized int getCachedCount() {
+        return indexes.size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.PriceTick;
+import com.example.model.Instrument;
+import com.example.model.InstrumentPrice;
+import com.example.model.Investment;
+import com.example.repository.InstrumentRepository;
+
+/**
+ * Shared instrument data for all users. Entities are cached by name for the generators and
+ * price ingestion, which only need their identity. Valuations read prices from immutable
+ * {@link InstrumentPrice} views instead: loaded once per instrument, replaced as a whole on
+ * every price update, and attached to investments after loading so a summary never
+ * initializes the instrument in its own persistence context.
+ */
+@Service
+public class InstrumentService {
+
+    @Autowired
+    InstrumentRepository instrumentRepository;
+
+    private final Map<String, Instrument> instrumentsByName = new ConcurrentHashMap<>();
+    private final Map<Long, InstrumentPrice> pricesById = new ConcurrentHashMap<>();
+    private final Map<String, Long> priceIdsByName = new ConcurrentHashMap<>();
+    // Guards cache fills against price updates; readers go lock-free through pricesById
+    private final Object priceLock = new Object();
+    private long priceUpdates;
+
+    public Optional<Instrument> findByName(String name) {
+        Instrument cached = instrumentsByName.get(name);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Instrument> loaded = instrumentRepository.findByName(name);
+        loaded.ifPresent(instrument -> instrumentsByName.putIfAbsent(name, instrument));
+        return loaded.map(instrument -> instrumentsByName.get(name));
+    }
+
+    public synchronized Instrument findOrCreate(String name, BigDecimal initialPrice) {
+        return findByName(name).orElseGet(() -> {
+            Instrument instrument = new Instrument();
+            instrument.setName(name);
+            instrument.setCurrentPrice(initialPrice);
+            Instrument saved = instrumentRepository.save(instrument);
+            instrumentsByName.put(name, saved);
+            return saved;
+        });
+    }
+
+    public List<Instrument> findAll() {
+        List<Instrument> instruments = instrumentRepository.findAll();
+        instruments.forEach(instrument -> instrumentsByName.putIfAbsent(instrument.getName(), instrument));
+        return instruments;
+    }
+
+    /**
+     * Points each investment at the shared price of its instrument. Instruments not cached
+     * yet are read with one query; a price update racing with that read keeps the result
+     * out of the cache, so an older price can never replace a newer one.
+     */
+    public void attachPrices(Collection<Investment> investments) {
+        List<Long> missing = investments.stream()
+                .map(Investment::getInstrumentId)
+                .filter(Objects::nonNull)
+                .filter(id -> !pricesById.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, InstrumentPrice> loaded = new HashMap<>();
+        if (!missing.isEmpty()) {
+            long updatesBefore;
+            synchronized (priceLock) {
+                updatesBefore = priceUpdates;
+            }
+            instrumentRepository.findAllById(missing)
+                    .forEach(instrument -> loaded.put(instrument.getId(), InstrumentPrice.of(instrument)));
+            synchronized (priceLock) {
+                if (updatesBefore == priceUpdates) {
+                    loaded.values().forEach(price -> {
+                        pricesById.putIfAbsent(price.getId(), price);
+                        priceIdsByName.putIfAbsent(price.getName(), price.getId());
+                    });
+                }
+            }
+        }
+        for (Investment investment : investments) {
+            Long instrumentId = investment.getInstrumentId();
+            InstrumentPrice price = instrumentId == null ? null : pricesById.getOrDefault(instrumentId,
+                    loaded.get(instrumentId));
+            if (price != null) {
+                investment.setInstrumentPrice(price);
+            }
+        }
+    }
+
+    // Called after the new prices are committed
+    public void applyPrices(Collection<PriceTick> ticks) {
+        synchronized (priceLock) {
+            for (PriceTick tick : ticks) {
+                Long id = priceIdsByName.get(tick.getName());
+                if (id != null) {
+                    pricesById.computeIfPresent(id, (key, price) -> price.withPrice(tick.getPrice()));
+                }
+            }
+            priceUpdates++;
+        }
+    }
+
+    public void evictAll() {
+        instrumentsByName.clear();
+        synchronized (priceLock) {
+            pricesById.clear();
+            priceIdsByName.clear();
+            priceUpdates++;
+        }
+    }
+}
@@ -2,24 +2,60 @@ package com.example.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.diagnostics.PortfolioLoadEvent;
+import com.example.diagnostics.QueryCounter;
+import com.example.diagnostics.RateLimitedLogger;
 import com.example.dto.CashFlowData;
 import com.example.dto.InvestmentResponse;
 import com.example.dto.InvestmentSummaryResponse;
+import com.example.dto.PeriodReturnResponse;
+import com.example.enums.ReturnPeriod;
+import com.example.metric.ReturnContext;
+import com.example.metric.ReturnMetric;
+import com.example.metric.ReturnMetricRegistry;
 import com.example.model.Investment;
+import com.example.model.Position;
 import com.example.repository.InvestmentRepository;
+import com.example.repository.PositionRepository;
+import com.example.util.CashFlowBuffer;
+import com.example.util.FixedPoint;
+import com.example.util.HoldingsIndex;
 import com.example.util.XirrCalculator;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class InvestmentService {
     private static final Logger logger = LoggerFactory.getLogger(InvestmentService.class);
+    private static final RateLimitedLogger warnings = new RateLimitedLogger(logger, 10, Duration.ofMinutes(1));
+    private static final String[] SIZE_BUCKETS = { "0-10", "11-100", "101-1000", "1000+" };
 
     @Autowired
     InvestmentRepository investmentRepository;
@@ -27,34 +63,141 @@ public class InvestmentService {
     @Autowired
     CashFlowService cashFlowService;
 
+    @Autowired
+    PackedCashFlowService packedCashFlowService;
+
+    @Autowired
+    StreamingCashFlowService streamingCashFlowService;
+
     @Autowired
     TransactionService transactionService;
 
     @Autowired
     XirrCalculator xirrCalculator;
 
+    @Autowired
+    PriceHistoryService priceHistoryService;
+
+    @Autowired
+    PositionRepository positionRepository;
+
+    @Autowired
+    HoldingsIndexService holdingsIndexService;
+
+    @Autowired
+    ReturnMetricRegistry returnMetricRegistry;
+
+    @Autowired
+    PortfolioSnapshotService portfolioSnapshotService;
+
+    @Autowired
+    InstrumentService instrumentService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // Portfolios with at least this many trades are valued from a stream of daily flows
+    @Value("${valuation.streaming.min-transactions:1000000}")
+    private long streamingMinTransactions = 1_000_000;
+
+    private Timer loadTimer;
+    private Timer positionsTimer;
+    private Timer cashFlowsTimer;
+    // Built on first use, since metrics are looked up per request and only some request and size pairs occur
+    private final Map<String, Timer> metricTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer[]> requestTimers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMeters() {
+        loadTimer = stageTimer("load");
+        positionsTimer = stageTimer("positions");
+        cashFlowsTimer = stageTimer("cash_flows");
+    }
+
+    @Transactional(readOnly = true)
     public List<InvestmentResponse> getUserInvestments(Long userId) {
-        List<Investment> investments = investmentRepository.findAllByUserId(userId);
+        return getUserInvestments(userId, returnMetricRegistry.getDefaults());
+    }
+
+    @Transactional(readOnly = true)
+    public List<InvestmentResponse> getUserInvestments(Long userId, List<ReturnMetric> metrics) {
+        Timer.Sample request = Timer.start(meterRegistry);
+        PortfolioLoadEvent load = beginLoad(userId);
+        List<Investment> investments = timeStage(loadTimer, () -> findInvestments(userId));
 
         if (investments.isEmpty()) {
-            logger.warn("No investments found for user ID: {}", userId);
+            warnings.warn("No investments found for user ID: {}", userId);
         }
 
-        return investments.stream()
-                .map(this::createInvestmentResponse)
+        Map<Long, Position> positions = timeStage(positionsTimer, () -> loadPositions(investments));
+        commitLoad(load, investments, positions);
+        List<InvestmentResponse> responses = investments.stream()
+                .map(investment -> createInvestmentResponse(investment, positions, metrics))
                 .collect(Collectors.toList());
+        request.stop(requestTimer("list", investments.size()));
+        return responses;
     }
 
+    @Transactional(readOnly = true)
     public InvestmentSummaryResponse getUserInvestmentSummary(Long userId) {
-        List<Investment> investments = investmentRepository.findAllByUserId(userId);
-        logger.info("Found {} investments for user ID: {}", investments.size(), userId);
+        return getUserInvestmentSummary(userId, returnMetricRegistry.getDefaults());
+    }
+
+    @Transactional(readOnly = true)
+    public InvestmentSummaryResponse getUserInvestmentSummary(Long userId, List<ReturnMetric> metrics) {
+        Timer.Sample request = Timer.start(meterRegistry);
+        // Snapshots hold the default metrics only
+        if (metrics.equals(returnMetricRegistry.getDefaults())) {
+            Optional<InvestmentSummaryResponse> snapshot = portfolioSnapshotService.findFresh(userId);
+            if (snapshot.isPresent()) {
+                request.stop(requestTimer("summary_snapshot", snapshot.get().getNumberOfInvestments()));
+                return snapshot.get();
+            }
+        }
+        PortfolioLoadEvent load = beginLoad(userId);
+        List<Investment> investments = timeStage(loadTimer, () -> findInvestments(userId));
+        logger.debug("Found {} investments for user ID: {}", investments.size(), userId);
 
         if (investments.isEmpty()) {
-            logger.warn("No investments available for user ID: {}", userId);
-            return new InvestmentSummaryResponse(null, null, 0);
+            warnings.warn("No investments available for user ID: {}", userId);
+            return new InvestmentSummaryResponse(null, null, 0, null);
         }
 
-        return createInvestmentSummary(investments);
+        Map<Long, Position> positions = timeStage(positionsTimer, () -> loadPositions(investments));
+        commitLoad(load, investments, positions);
+        boolean streamed = isStreamed(investments, positions);
+        InvestmentSummaryResponse summary = streamed
+                ? createStreamedSummary(userId, investments, positions, metrics)
+                : createInvestmentSummary(investments, positions, metrics);
+        request.stop(requestTimer(streamed ? "summary_streamed" : "summary", investments.size()));
+        return summary;
+    }
+
+    /**
+     * Summaries with the default metrics for a group of users, as {@link #getUserInvestmentSummary(Long)}
+     * would return them. Investments, positions and packed cash flows are each read once for the
+     * whole group rather than once per user. Users without investments are left out. With the
+     * packed store disabled, transactions and dividends are fetched lazily in batches of
+     * {@code hibernate.default_batch_fetch_size} investments, so they are shared by the group too.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, InvestmentSummaryResponse> getInvestmentSummaries(List<Long> userIds) {
+        List<Investment> investments = investmentRepository.findAllByUserIdIn(userIds);
+        instrumentService.attachPrices(investments);
+        Map<Long, Position> positions = loadPositions(investments);
+        if (packedCashFlowService.isEnabled()) {
+            packedCashFlowService.preload(investments);
+        }
+        List<ReturnMetric> metrics = returnMetricRegistry.getDefaults();
+        Map<Long, List<Investment>> investmentsByUser = investments.stream()
+                .collect(Collectors.groupingBy(Investment::getUserId, LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, InvestmentSummaryResponse> summaries = new LinkedHashMap<>();
+        investmentsByUser.forEach((userId, userInvestments) -> summaries.put(userId,
+                isStreamed(userInvestments, positions)
+                        ? createStreamedSummary(userId, userInvestments, positions, metrics)
+                        : createInvestmentSummary(userInvestments, positions, metrics)));
+        return summaries;
     }
 
     public BigDecimal calculateTotalValue(Investment investment) {
@@ -62,10 +205,78 @@ public class InvestmentService {
             return BigDecimal.valueOf(0);
         }
 
-        BigDecimal currentPrice = investment.getCurrentPrice();
-        int totalQuantity = transactionService.calculateTotalQuantity(investment.getTransactions());
+        return calculateTotalValue(investment, loadPositions(List.of(investment)));
+    }
 
-        return currentPrice.multiply(BigDecimal.valueOf(totalQuantity));
+    public BigDecimal calculateTotalValueAsOf(Investment investment, Instant asOf) {
+        if (investment == null || investment.getInstrument() == null) {
+            return BigDecimal.ZERO;
+        }
+
+        HoldingsIndex holdings = holdingsIndexService.getIndex(investment);
+        long asOfDay = HoldingsIndex.toEpochDay(asOf);
+        long quantity = holdings.quantityAt(asOfDay);
+        if (quantity == 0) {
+            return BigDecimal.ZERO;
+        }
+
+        // Fall back to the last traded price when no tick was recorded before the date
+        BigDecimal price = priceHistoryService.getPriceAsOf(investment.getInstrument().getId(), asOf)
+                .orElseGet(() -> FixedPoint.fromMicros(holdings.lastTradePriceMicrosAt(asOfDay).orElse(0L)));
+
+        return price.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    /**
+     * Annualized returns over the standard windows ending today. All windows are solved
+     * together over one buffer of the user's cash flows; every window except since
+     * inception starts with the portfolio value at its start date as a synthetic outflow.
+     */
+    @Transactional(readOnly = true)
+    public List<PeriodReturnResponse> getPeriodReturns(Long userId) {
+        List<Investment> investments = findInvestments(userId);
+        if (investments.isEmpty()) {
+            warnings.warn("No investments available for user ID: {}", userId);
+            return new ArrayList<>();
+        }
+
+        CashFlowBuffer flows = CashFlowBuffer.of(collectCashFlows(investments));
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        ReturnPeriod[] periods = ReturnPeriod.values();
+        int[] startIndexes = new int[periods.length];
+        long[] anchorSeconds = new long[periods.length];
+        double[] openingFlows = new double[periods.length];
+        boolean[] covered = new boolean[periods.length];
+        for (int p = 0; p < periods.length; p++) {
+            LocalDate start = periods[p].startDate(today);
+            if (flows.size() == 0) {
+                continue;
+            }
+            if (start == null) {
+                anchorSeconds[p] = flows.getEpochSecond(0);
+                covered[p] = true;
+                continue;
+            }
+            // A window opening before the first flow would only repeat since inception
+            long anchor = start.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+            if (anchor <= flows.getEpochSecond(0)) {
+                continue;
+            }
+            anchorSeconds[p] = anchor;
+            startIndexes[p] = flows.firstIndexAtOrAfter(anchor);
+            openingFlows[p] = -calculatePortfolioValueAsOf(investments, Instant.ofEpochSecond(anchor - 1)).doubleValue();
+            covered[p] = true;
+        }
+
+        double[] rates = xirrCalculator.calculateXirrs(flows, startIndexes, anchorSeconds, openingFlows);
+        List<PeriodReturnResponse> returns = new ArrayList<>(periods.length);
+        for (int p = 0; p < periods.length; p++) {
+            BigDecimal profitability = covered[p] && Double.isFinite(rates[p])
+                    ? BigDecimal.valueOf(rates[p]).multiply(BigDecimal.valueOf(100)).setScale(2, RoundingMode.HALF_UP)
+                    : null;
+            returns.add(new PeriodReturnResponse(periods[p], periods[p].startDate(today), profitability));
+        }
+        return returns;
     }
 
     public BigDecimal calculateProfitability(List<CashFlowData> cashFlowData) {
@@ -80,27 +291,197 @@ public class InvestmentService {
             return totalXirr.multiply(BigDecimal.valueOf(100)).setScale(2, RoundingMode.HALF_UP);
 
         } catch (IllegalArgumentException e) {
-            logger.warn("XIRR calculation failed: {}", e.getMessage());
+            warnings.warn("XIRR calculation failed: {}", e.getMessage());
             return null;
         }
     }
 
-    private InvestmentResponse createInvestmentResponse(Investment investment) {
-        InvestmentSummaryResponse summary = createInvestmentSummary(List.of(investment));
-        int quantity = transactionService.calculateTotalQuantity(investment.getTransactions());
+    // Investments without a valid price contribute no cash flows, so they are left out here as well
+    private BigDecimal calculatePortfolioValueAsOf(List<Investment> investments, Instant asOf) {
+        return investments.stream()
+                .filter(investment -> investment.getCurrentPrice() != null
+                        && investment.getCurrentPrice().compareTo(BigDecimal.ZERO) > 0)
+                .map(investment -> calculateTotalValueAsOf(investment, asOf))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private BigDecimal calculateTotalValue(Investment investment, Map<Long, Position> positions) {
+        BigDecimal currentPrice = investment.getCurrentPrice();
+        int totalQuantity = getQuantity(investment, positions);
+
+        return currentPrice.multiply(BigDecimal.valueOf(totalQuantity));
+    }
+
+    // Reads the materialized position; investments without one fall back to summing their history
+    private int getQuantity(Investment investment, Map<Long, Position> positions) {
+        Position position = positions.get(investment.getId());
+        return position != null ? position.getNetQuantity()
+                : transactionService.calculateTotalQuantity(investment.getTransactions());
+    }
+
+    private List<Investment> findInvestments(Long userId) {
+        List<Investment> investments = investmentRepository.findAllByUserId(userId);
+        instrumentService.attachPrices(investments);
+        return investments;
+    }
+
+    private Map<Long, Position> loadPositions(List<Investment> investments) {
+        List<Long> ids = investments.stream()
+                .map(Investment::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return positionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Position::getInvestmentId, Function.identity()));
+    }
+
+    private InvestmentResponse createInvestmentResponse(Investment investment, Map<Long, Position> positions,
+            List<ReturnMetric> metrics) {
+        InvestmentSummaryResponse summary = createInvestmentSummary(List.of(investment), positions, metrics);
+        int quantity = getQuantity(investment, positions);
 
         return new InvestmentResponse(investment.getId(), investment.getName(), summary.getTotalValue(),
-                summary.getProfitability(), investment.getCurrentPrice(), quantity);
+                summary.getProfitability(), investment.getCurrentPrice(), quantity, summary.getReturns());
+    }
+
+    private InvestmentSummaryResponse createInvestmentSummary(List<Investment> investments,
+            Map<Long, Position> positions, List<ReturnMetric> metrics) {
+        return createInvestmentSummary(investments, positions, metrics, () -> collectCashFlows(investments),
+                asOf -> calculatePortfolioValueAsOf(investments, asOf));
     }
 
-    private InvestmentSummaryResponse createInvestmentSummary(List<Investment> investments) {
-        BigDecimal totalValue = investments.stream().map(this::calculateTotalValue).reduce(BigDecimal.ZERO,
-                BigDecimal::add);
-        List<CashFlowData> cashFlowData = cashFlowService.collectAndFilterCashFlows(investments);
+    // Past valuations would rebuild every holding from its trades, so metrics needing them are left empty
+    private InvestmentSummaryResponse createStreamedSummary(Long userId, List<Investment> investments,
+            Map<Long, Position> positions, List<ReturnMetric> metrics) {
+        return createInvestmentSummary(investments, positions, metrics,
+                () -> streamingCashFlowService.collectDailyCashFlows(userId, investments),
+                asOf -> {
+                    throw new IllegalArgumentException("Past valuations are not available for streamed portfolios");
+                });
+    }
 
-        BigDecimal profitability = calculateProfitability(cashFlowData);
+    private InvestmentSummaryResponse createInvestmentSummary(List<Investment> investments,
+            Map<Long, Position> positions, List<ReturnMetric> metrics, Supplier<List<CashFlowData>> cashFlows,
+            Function<Instant, BigDecimal> valuation) {
+        BigDecimal totalValue = investments.stream()
+                .map(investment -> calculateTotalValue(investment, positions))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Map<String, BigDecimal> returns = evaluateReturns(metrics, cashFlows, valuation);
+        // The first requested metric doubles as the profitability figure
+        BigDecimal profitability = metrics.isEmpty() ? null : returns.get(metrics.get(0).getName());
 
-        return new InvestmentSummaryResponse(totalValue, profitability, investments.size());
+        return new InvestmentSummaryResponse(totalValue, profitability, investments.size(), returns);
+    }
+
+    // Cash flows are only collected when a metric was asked for; metrics then run cheapest first on one context
+    private Map<String, BigDecimal> evaluateReturns(List<ReturnMetric> metrics,
+            Supplier<List<CashFlowData>> cashFlows, Function<Instant, BigDecimal> valuation) {
+        Map<String, BigDecimal> returns = new LinkedHashMap<>();
+        if (metrics.isEmpty()) {
+            return returns;
+        }
+        metrics.forEach(metric -> returns.put(metric.getName(), null));
+        List<CashFlowData> cashFlowData = timeStage(cashFlowsTimer, cashFlows);
+        if (cashFlowData.isEmpty()) {
+            return returns;
+        }
+
+        ReturnContext context = new ReturnContext(cashFlowData, valuation);
+        metrics.stream()
+                .sorted(Comparator.comparing(ReturnMetric::getCostClass))
+                .forEach(metric -> returns.put(metric.getName(), timeStage(metricTimer(metric),
+                        () -> evaluate(metric, context))));
+        return returns;
+    }
+
+    private boolean isStreamed(List<Investment> investments, Map<Long, Position> positions) {
+        long trades = 0;
+        for (Investment investment : investments) {
+            Position position = positions.get(investment.getId());
+            trades += position == null ? 0 : position.getTradeCount();
+        }
+        return trades >= streamingMinTransactions;
+    }
+
+    private List<CashFlowData> collectCashFlows(List<Investment> investments) {
+        return packedCashFlowService.isEnabled() ? packedCashFlowService.collectAndFilterCashFlows(investments)
+                : cashFlowService.collectAndFilterCashFlows(investments);
+    }
+
+    // The query count is taken up front as a baseline and replaced by the difference on commit
+    private PortfolioLoadEvent beginLoad(Long userId) {
+        PortfolioLoadEvent event = new PortfolioLoadEvent();
+        event.begin();
+        event.userId = userId;
+        event.queries = QueryCounter.current();
+        return event;
+    }
+
+    private void commitLoad(PortfolioLoadEvent event, List<Investment> investments, Map<Long, Position> positions) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.investments = investments.size();
+            event.rows = investments.size() + positions.size();
+            event.queries = QueryCounter.current() - event.queries;
+            event.commit();
+        }
+    }
+
+    private static <T> T timeStage(Timer timer, Supplier<T> body) {
+        return timer.record(body);
+    }
+
+    private Timer metricTimer(ReturnMetric metric) {
+        return metricTimers.computeIfAbsent(metric.getName(),
+                name -> stageTimer("metric." + name.toLowerCase(Locale.ROOT)));
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("valuation.stage")
+                .description("Time spent in one stage of a valuation request")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Bucketed by portfolio size so large users do not hide behind the percentiles of small ones
+    private Timer requestTimer(String request, int investmentCount) {
+        Timer[] timers = requestTimers.computeIfAbsent(request, key -> new Timer[SIZE_BUCKETS.length]);
+        int bucket = sizeBucket(investmentCount);
+        Timer timer = timers[bucket];
+        if (timer == null) {
+            // A racing first use registers the same timer twice, which the registry returns as one
+            timer = Timer.builder("valuation.request")
+                    .description("Time to value a user's portfolio")
+                    .tag("request", request)
+                    .tag("investments", SIZE_BUCKETS[bucket])
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            timers[bucket] = timer;
+        }
+        return timer;
+    }
+
+    private static int sizeBucket(int investmentCount) {
+        if (investmentCount <= 10) {
+            return 0;
+        }
+        if (investmentCount <= 100) {
+            return 1;
+        }
+        return investmentCount <= 1000 ? 2 : 3;
+    }
+
+    private BigDecimal evaluate(ReturnMetric metric, ReturnContext context) {
+        try {
+            return metric.calculate(context).multiply(BigDecimal.valueOf(100)).setScale(2, RoundingMode.HALF_UP);
+        } catch (IllegalArgumentException e) {
+            warnings.warn("{} calculation failed: {}", metric.getName(), e.getMessage());
+            return null;
+        }
     }
 
 }
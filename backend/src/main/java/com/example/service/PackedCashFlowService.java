@@ -0,0 +1,178 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.CashFlowData;
+import com.example.enums.TransactionType;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.store.CashFlowStore;
+import com.example.store.PackedCashFlows;
+import com.example.util.FixedPoint;
+import com.example.util.UtcTimestamps;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Serves the valuation pipeline's cash flows from a {@link CashFlowStore} instead of the
+ * investments' transaction and dividend collections. Missing investments are read with
+ * plain JDBC straight into packed records, so the entity graph of a large account is
+ * never built for a valuation. Entries are dropped when a {@link PortfolioChangedEvent}
+ * reports new transactions for them.
+ */
+@Service
+public class PackedCashFlowService {
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CashFlowService cashFlowService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${cashflows.store.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cashflows.store.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    private CashFlowStore store;
+
+    @PostConstruct
+    public void init() {
+        store = new CashFlowStore(maxBytes);
+        Gauge.builder("cashflows.store.bytes", store, CashFlowStore::getUsedBytes)
+                .description("Off-heap bytes held by packed cash flows")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("cashflows.store.investments", store, CashFlowStore::size).register(meterRegistry);
+        FunctionCounter.builder("cashflows.store.requests", store, CashFlowStore::getHits)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cashflows.store.requests", store, CashFlowStore::getMisses)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cashflows.store.evictions", store, CashFlowStore::getEvictions)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Same flows, filter and order as CashFlowService.collectAndFilterCashFlows
+    public List<CashFlowData> collectAndFilterCashFlows(List<Investment> investments) {
+        List<Investment> priced = investments.stream()
+                .filter(investment -> investment.getCurrentPrice() != null
+                        && investment.getCurrentPrice().compareTo(BigDecimal.ZERO) > 0)
+                .collect(Collectors.toList());
+        List<Long> ids = priced.stream()
+                .map(Investment::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, PackedCashFlows> packed = store.getAll(ids, this::load);
+
+        List<CashFlowData> cashFlowData = new ArrayList<>();
+        for (Investment investment : priced) {
+            // Unsaved investments have no rows to load
+            if (investment.getId() == null) {
+                cashFlowData.addAll(cashFlowService.collectCashFlowData(investment));
+            } else {
+                addCashFlows(investment, packed.get(investment.getId()), cashFlowData);
+            }
+        }
+
+        Instant now = Instant.now();
+        return cashFlowData.stream()
+                .filter(cashFlow -> !cashFlow.getDate().isAfter(now) && cashFlow.getAmount().signum() != 0)
+                .sorted(Comparator.comparing(CashFlowData::getDate))
+                .collect(Collectors.toList());
+    }
+
+    // Loads the flows of many portfolios in one batch ahead of valuing them one by one
+    public void preload(List<Investment> investments) {
+        List<Long> ids = investments.stream()
+                .map(Investment::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        store.getAll(ids, this::load);
+    }
+
+    @EventListener
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        event.getInvestmentIds().forEach(store::invalidate);
+    }
+
+    public CashFlowStore getStore() {
+        return store;
+    }
+
+    private void addCashFlows(Investment investment, PackedCashFlows flows, List<CashFlowData> cashFlowData) {
+        for (int i = 0; i < flows.size(); i++) {
+            cashFlowData.add(new CashFlowData(FixedPoint.fromMicros(flows.getAmountMicros(i)),
+                    Instant.EPOCH.plus(flows.getEpochMicros(i), ChronoUnit.MICROS)));
+        }
+        BigDecimal currentValue = investment.getCurrentPrice().multiply(BigDecimal.valueOf(flows.getNetQuantity()));
+        cashFlowData.add(new CashFlowData(currentValue, Instant.now()));
+    }
+
+    // Transactions before dividends, each in insertion order, as the entity collections list them
+    Map<Long, PackedCashFlows> load(List<Long> investmentIds) {
+        Map<Long, PackedCashFlows.Builder> builders = new HashMap<>();
+        for (int from = 0; from < investmentIds.size(); from += LOAD_BATCH_SIZE) {
+            List<Long> batch = investmentIds.subList(from, Math.min(from + LOAD_BATCH_SIZE, investmentIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query("SELECT investment_id, timestamp, type, quantity, price, fee FROM transactions "
+                    + "WHERE investment_id IN (" + placeholders + ") ORDER BY investment_id, id",
+                    resultSet -> {
+                        byte type = TransactionType.BUY.name().equals(resultSet.getString(3))
+                                ? PackedCashFlows.BUY : PackedCashFlows.SELL;
+                        builder(builders, resultSet).add(toEpochMicros(UtcTimestamps.get(resultSet, 2)), type,
+                                resultSet.getInt(4), FixedPoint.toMicros(resultSet.getBigDecimal(5)),
+                                FixedPoint.toMicros(resultSet.getBigDecimal(6)));
+                    }, batch.toArray());
+            jdbcTemplate.query("SELECT investment_id, timestamp, amount FROM dividends "
+                    + "WHERE investment_id IN (" + placeholders + ") ORDER BY investment_id, id",
+                    resultSet -> {
+                        builder(builders, resultSet).add(toEpochMicros(UtcTimestamps.get(resultSet, 2)),
+                                PackedCashFlows.DIVIDEND, 0, FixedPoint.toMicros(resultSet.getBigDecimal(3)), 0L);
+                    }, batch.toArray());
+        }
+
+        Map<Long, PackedCashFlows> loaded = new HashMap<>();
+        builders.forEach((investmentId, builder) -> loaded.put(investmentId, builder.build()));
+        return loaded;
+    }
+
+    private static PackedCashFlows.Builder builder(Map<Long, PackedCashFlows.Builder> builders, ResultSet resultSet)
+            throws SQLException {
+        return builders.computeIfAbsent(resultSet.getLong(1), id -> PackedCashFlows.builder(64));
+    }
+
+    // Hibernate writes the timestamps as UTC, so they are read back the same way
+    private static long toEpochMicros(Instant timestamp) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, timestamp);
+    }
+}
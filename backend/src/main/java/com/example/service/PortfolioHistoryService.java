@@ -0,0 +1,174 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.PortfolioValuePoint;
+import com.example.enums.HistoryResolution;
+import com.example.model.Investment;
+import com.example.repository.InvestmentRepository;
+import com.example.util.FixedPoint;
+import com.example.util.HoldingsIndex;
+
+/**
+ * Daily portfolio value series. Each investment is swept once over the requested days,
+ * advancing a cursor through its {@link HoldingsIndex} and another through its price
+ * ticks (collapsed to the last tick per day), so the cost is linear in days plus events
+ * instead of one valuation per day. A day is valued at its last tick, or at the last
+ * traded price while no tick has been recorded yet, matching
+ * {@link InvestmentService#calculateTotalValueAsOf}. Investments without a current
+ * price are left out, as in the investment service's valuations.
+ */
+@Service
+public class PortfolioHistoryService {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioHistoryService.class);
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    @Autowired
+    InvestmentRepository investmentRepository;
+
+    @Autowired
+    HoldingsIndexService holdingsIndexService;
+
+    @Autowired
+    PriceHistoryService priceHistoryService;
+
+    @Autowired
+    InstrumentService instrumentService;
+
+    @Transactional(readOnly = true)
+    public List<PortfolioValuePoint> getValueHistory(Long userId, LocalDate from, LocalDate to,
+            HistoryResolution resolution) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("History range must start on or before its end");
+        }
+        List<Investment> investments = investmentRepository.findAllByUserId(userId);
+        if (investments.isEmpty()) {
+            // The controller reports empty portfolios, rate limited
+            logger.debug("No investments available for user ID: {}", userId);
+            return new ArrayList<>();
+        }
+        instrumentService.attachPrices(investments);
+
+        long firstDay = from.toEpochDay();
+        long[] values = new long[Math.toIntExact(to.toEpochDay() - firstDay + 1)];
+        for (Investment investment : investments) {
+            if (hasPrice(investment)) {
+                accumulate(investment, firstDay, values);
+            }
+        }
+        return sample(firstDay, values, resolution == null ? HistoryResolution.DAILY : resolution);
+    }
+
+    private static boolean hasPrice(Investment investment) {
+        BigDecimal price = investment.getCurrentPrice();
+        return price != null && price.compareTo(BigDecimal.ZERO) > 0;
+    }
+
+    private void accumulate(Investment investment, long firstDay, long[] values) {
+        HoldingsIndex holdings = holdingsIndexService.getIndex(investment);
+        long lastDay = firstDay + values.length - 1;
+        if (holdings.isEmpty() || holdings.getFirstDay() > lastDay) {
+            return;
+        }
+        DailyPrices prices = loadPrices(investment, firstDay, lastDay);
+
+        int trade = holdings.floorIndex(firstDay);
+        int tick = 0;
+        long tickPrice = prices.openingPrice;
+        boolean hasTick = prices.hasOpeningPrice;
+        for (int offset = 0; offset < values.length; offset++) {
+            long day = firstDay + offset;
+            while (trade + 1 < holdings.getDayCount() && holdings.getDay(trade + 1) <= day) {
+                trade++;
+            }
+            if (tick < prices.size && prices.days[tick] == day) {
+                tickPrice = prices.prices[tick++];
+                hasTick = true;
+            }
+            if (trade < 0) {
+                continue;
+            }
+            long price = hasTick ? tickPrice : holdings.getLastTradePriceMicros(trade);
+            values[offset] += holdings.getQuantity(trade) * price;
+        }
+    }
+
+    private DailyPrices loadPrices(Investment investment, long firstDay, long lastDay) {
+        DailyPrices prices = new DailyPrices();
+        Long instrumentId = investment.getInstrument() == null ? null : investment.getInstrument().getId();
+        if (instrumentId == null) {
+            return prices;
+        }
+        OptionalLong opening = priceHistoryService.getPriceAsOf(instrumentId,
+                Instant.ofEpochSecond(firstDay * SECONDS_PER_DAY - 1))
+                .map(price -> OptionalLong.of(FixedPoint.toMicros(price)))
+                .orElse(OptionalLong.empty());
+        if (opening.isPresent()) {
+            prices.hasOpeningPrice = true;
+            prices.openingPrice = opening.getAsLong();
+        }
+        priceHistoryService.scan(instrumentId, Instant.ofEpochSecond(firstDay * SECONDS_PER_DAY),
+                Instant.ofEpochSecond((lastDay + 1) * SECONDS_PER_DAY - 1), prices::add);
+        return prices;
+    }
+
+    // Keeps the last value of each week (ending Sunday) or month, plus the final, possibly partial, one
+    private List<PortfolioValuePoint> sample(long firstDay, long[] values, HistoryResolution resolution) {
+        List<PortfolioValuePoint> points = new ArrayList<>();
+        for (int offset = 0; offset < values.length; offset++) {
+            LocalDate date = LocalDate.ofEpochDay(firstDay + offset);
+            if (offset == values.length - 1 || closesPeriod(date, resolution)) {
+                points.add(new PortfolioValuePoint(date,
+                        FixedPoint.fromMicros(values[offset]).setScale(2, RoundingMode.HALF_UP)));
+            }
+        }
+        return points;
+    }
+
+    private boolean closesPeriod(LocalDate date, HistoryResolution resolution) {
+        if (resolution == HistoryResolution.WEEKLY) {
+            return date.getDayOfWeek() == DayOfWeek.SUNDAY;
+        }
+        if (resolution == HistoryResolution.MONTHLY) {
+            return date.getDayOfMonth() == date.lengthOfMonth();
+        }
+        return true;
+    }
+
+    // Last tick price per day, in day order
+    private static class DailyPrices {
+        long[] days = new long[64];
+        long[] prices = new long[64];
+        int size;
+        boolean hasOpeningPrice;
+        long openingPrice;
+
+        void add(long epochSecond, long priceMicros) {
+            long day = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+            if (size > 0 && days[size - 1] == day) {
+                prices[size - 1] = priceMicros;
+                return;
+            }
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            days[size] = day;
+            prices[size++] = priceMicros;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.diagnostics.RateLimitedLogger;
+import com.example.dto.InvestmentSummaryResponse;
+import com.example.enums.RevaluationStatus;
+import com.example.model.RevaluationRun;
+import com.example.repository.InvestmentRepository;
+import com.example.repository.RevaluationRunRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Precomputes every user's summary into {@code portfolio_snapshot} so summary reads are
+ * served without valuing the portfolio. Two triggers share one worker pool:
+ * <ul>
+ * <li>a nightly pass over all users, walked in ascending ID order in chunks and
+ * checkpointed in {@code revaluation_run}. A pass that failed resumes where it stopped;
+ * one interrupted by a restart starts over from the first user, because snapshots
+ * valued before the restart are no longer served;</li>
+ * <li>a short-interval pass over the users whose portfolios changed since, e.g. after
+ * each price batch.</li>
+ * </ul>
+ * Each chunk is valued with set-based loads. Online traffic keeps priority through the
+ * small pool of low-priority threads and a users-per-second limit across both triggers.
+ */
+@Service
+public class PortfolioRevaluationService {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioRevaluationService.class);
+    private static final RateLimitedLogger warnings = new RateLimitedLogger(logger, 10, Duration.ofMinutes(1));
+
+    @Autowired
+    InvestmentRepository investmentRepository;
+
+    @Autowired
+    InvestmentService investmentService;
+
+    @Autowired
+    PortfolioSnapshotService portfolioSnapshotService;
+
+    @Autowired
+    RevaluationRunRepository revaluationRunRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${revaluation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${revaluation.on-startup:true}")
+    private boolean onStartup = true;
+
+    @Value("${revaluation.chunk-size:200}")
+    private int chunkSize = 200;
+
+    @Value("${revaluation.workers:2}")
+    private int workers = 2;
+
+    @Value("${revaluation.max-users-per-second:500}")
+    private double maxUsersPerSecond = 500;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            runnable -> backgroundThread(runnable, "portfolio-revaluation"));
+    private ExecutorService workerPool;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger changedChunksInFlight = new AtomicInteger();
+    private final AtomicLong runUsersValued = new AtomicLong();
+    private final AtomicLong runUsersTotal = new AtomicLong();
+    private long nextSlotNanos = System.nanoTime();
+    private Timer chunkTimer;
+
+    @PostConstruct
+    public void init() {
+        workerPool = Executors.newFixedThreadPool(workers,
+                runnable -> backgroundThread(runnable, "portfolio-revaluation-worker"));
+        chunkTimer = Timer.builder("revaluation.chunk")
+                .description("Time to value and store one chunk of portfolios")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("revaluation.progress", this,
+                service -> service.runUsersTotal.get() == 0 ? 0
+                        : (double) service.runUsersValued.get() / service.runUsersTotal.get())
+                .description("Share of users valued by the current or last pass over all users")
+                .register(meterRegistry);
+        Gauge.builder("revaluation.running", running, flag -> flag.get() ? 1 : 0)
+                .description("Whether a pass over all users is in progress")
+                .register(meterRegistry);
+        Gauge.builder("revaluation.changed.pending", portfolioSnapshotService,
+                PortfolioSnapshotService::getPendingCount)
+                .description("Users whose portfolio changed and awaits revaluation")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${revaluation.cron:0 30 2 * * *}")
+    public void revalueAll() {
+        if (!enabled) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Revaluation of all portfolios already in progress");
+            return;
+        }
+        // Runs off the scheduler thread, which the other scheduled jobs share
+        coordinator.execute(() -> {
+            try {
+                revalue(startOrResume());
+            } catch (RuntimeException e) {
+                logger.error("Revaluation of all portfolios failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    // Restarts a pass interrupted by a shutdown
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (onStartup) {
+            revalueAll();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${revaluation.changed-interval-ms:2000}")
+    public void revalueChanged() {
+        // Users changing while a pass is still busy stay queued for the next one
+        if (!enabled || changedChunksInFlight.get() > 0) {
+            return;
+        }
+        List<Long> userIds = portfolioSnapshotService.drainPending(chunkSize * workers);
+        for (int from = 0; from < userIds.size(); from += chunkSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+            changedChunksInFlight.incrementAndGet();
+            workerPool.execute(() -> {
+                try {
+                    valueChunk(chunk, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    fail(chunk, e);
+                } finally {
+                    changedChunksInFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    RevaluationRun startOrResume() {
+        return revaluationRunRepository.findFirstByStatusOrderByIdDesc(RevaluationStatus.RUNNING)
+                .map(run -> {
+                    if (run.getStartedAt().isBefore(portfolioSnapshotService.getTrustedSince())) {
+                        logger.info("Restarting revaluation run {} from the first user after a restart", run.getId());
+                        run.setStartedAt(Instant.now());
+                        run.setCheckpointUserId(0L);
+                        run.setUsersValued(0L);
+                        return revaluationRunRepository.save(run);
+                    }
+                    logger.info("Resuming revaluation run {} after user ID: {}", run.getId(),
+                            run.getCheckpointUserId());
+                    return run;
+                })
+                .orElseGet(() -> {
+                    RevaluationRun run = new RevaluationRun();
+                    run.setStartedAt(Instant.now());
+                    return revaluationRunRepository.save(run);
+                });
+    }
+
+    // Chunks run concurrently but are checkpointed in order, so the checkpoint never passes an unvalued user
+    void revalue(RevaluationRun run) {
+        runUsersTotal.set(investmentRepository.countUsers());
+        runUsersValued.set(run.getUsersValued());
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        long after = run.getCheckpointUserId();
+        try {
+            while (true) {
+                List<Long> userIds = investmentRepository.findUserIdsAfter(after, PageRequest.of(0, chunkSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                after = userIds.get(userIds.size() - 1);
+                inFlight.add(new Chunk(userIds, workerPool.submit(() -> {
+                    valueChunk(userIds, run.getId());
+                    return null;
+                })));
+                if (inFlight.size() >= workers) {
+                    checkpoint(run, inFlight.poll());
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                checkpoint(run, inFlight.poll());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight.forEach(chunk -> chunk.result.cancel(true));
+            logger.info("Revaluation run {} interrupted after user ID: {}", run.getId(), run.getCheckpointUserId());
+            return;
+        }
+        run.setStatus(RevaluationStatus.COMPLETED);
+        run.setFinishedAt(Instant.now());
+        revaluationRunRepository.save(run);
+        logger.info("Revaluation run {} completed: {} users valued", run.getId(), run.getUsersValued());
+    }
+
+    void valueChunk(List<Long> userIds, Long runId) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(reserve(userIds.size()));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Taken before reading so a change made while the chunk is valued leaves its snapshot stale
+        Instant valuedAt = Instant.now();
+        Map<Long, InvestmentSummaryResponse> summaries = investmentService.getInvestmentSummaries(userIds);
+        portfolioSnapshotService.saveAll(summaries, valuedAt, runId);
+        sample.stop(chunkTimer);
+        meterRegistry.counter("revaluation.users", "trigger", runId == null ? "changed" : "scheduled")
+                .increment(summaries.size());
+    }
+
+    // Reserves the next slot for the given number of users and returns how long to wait for it
+    synchronized long reserve(int users) {
+        long now = System.nanoTime();
+        long start = Math.max(now, nextSlotNanos);
+        nextSlotNanos = start + (long) (users * 1e9 / maxUsersPerSecond);
+        return start - now;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workerPool.shutdownNow();
+    }
+
+    private void checkpoint(RevaluationRun run, Chunk chunk) throws InterruptedException {
+        try {
+            chunk.result.get();
+        } catch (ExecutionException e) {
+            // Retried with the changed portfolios rather than holding the pass back
+            fail(chunk.userIds, e.getCause());
+        }
+        run.setCheckpointUserId(chunk.userIds.get(chunk.userIds.size() - 1));
+        run.setUsersValued(run.getUsersValued() + chunk.userIds.size());
+        revaluationRunRepository.save(run);
+        runUsersValued.set(run.getUsersValued());
+    }
+
+    private void fail(List<Long> userIds, Throwable cause) {
+        meterRegistry.counter("revaluation.failures").increment();
+        warnings.warn("Revaluation of {} users failed: {}", userIds.size(), cause.getMessage());
+        portfolioSnapshotService.markPending(userIds);
+    }
+
+    private static Thread backgroundThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }
+
+    private static class Chunk {
+        final List<Long> userIds;
+        final Future<?> result;
+
+        Chunk(List<Long> userIds, Future<?> result) {
+            this.userIds = userIds;
+            this.result = result;
+        }
+    }
+}
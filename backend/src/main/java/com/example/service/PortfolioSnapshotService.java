@@ -0,0 +1,181 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.InvestmentSummaryResponse;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.PortfolioSnapshot;
+import com.example.repository.PortfolioSnapshotRepository;
+import com.example.util.UtcTimestamps;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Reads and writes the precomputed summaries in {@code portfolio_snapshot} and decides
+ * when one may be served. A {@link PortfolioChangedEvent} records the time of the user's
+ * change and queues the user for revaluation; a snapshot is served only if it was valued
+ * after that change, after this instance started (changes seen by an earlier instance
+ * are unknown) and within the maximum age.
+ */
+@Service
+public class PortfolioSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioSnapshotService.class);
+    private static final TypeReference<LinkedHashMap<String, BigDecimal>> RETURNS_TYPE = new TypeReference<>() {
+    };
+    private static final String UPSERT_SQL = "INSERT INTO portfolio_snapshot (user_id, total_value, profitability, "
+            + "number_of_investments, returns_json, valued_at, run_id) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE total_value = VALUES(total_value), profitability = VALUES(profitability), "
+            + "number_of_investments = VALUES(number_of_investments), returns_json = VALUES(returns_json), "
+            + "valued_at = VALUES(valued_at), run_id = VALUES(run_id)";
+
+    @Autowired
+    PortfolioSnapshotRepository snapshotRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${revaluation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${revaluation.max-age-hours:26}")
+    private long maxAgeHours = 26;
+
+    private final Instant trustedSince = Instant.now();
+    private final Map<Long, Instant> changedAt = new ConcurrentHashMap<>();
+    private final Set<Long> pendingUsers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return the user's summary with the default metrics, if a fresh snapshot exists
+     */
+    public Optional<InvestmentSummaryResponse> findFresh(Long userId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<PortfolioSnapshot> snapshot = snapshotRepository.findById(userId);
+        String result = snapshot.isEmpty() ? "miss" : isFresh(snapshot.get()) ? "hit" : "stale";
+        meterRegistry.counter("portfolio.snapshot.reads", "result", result).increment();
+        if (!"hit".equals(result)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(toSummary(snapshot.get()));
+    }
+
+    // One batched upsert for a chunk of users, all valued from data read at or after valuedAt
+    public void saveAll(Map<Long, InvestmentSummaryResponse> summaries, Instant valuedAt, Long runId) {
+        List<Object[]> rows = new ArrayList<>(summaries.size());
+        summaries.forEach((userId, summary) -> rows.add(new Object[] { userId, summary.getTotalValue(),
+                summary.getProfitability(), summary.getNumberOfInvestments(), serialize(summary.getReturns()),
+                valuedAt, runId }));
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), this::bind);
+        // Changes older than the new snapshots need no tracking any more
+        summaries.keySet().forEach(userId -> changedAt.computeIfPresent(userId,
+                (id, changed) -> changed.isBefore(valuedAt) ? null : changed));
+    }
+
+    @EventListener
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        changedAt.put(event.getUserId(), Instant.now());
+        pendingUsers.add(event.getUserId());
+    }
+
+    // Queues users for the next revaluation of changed portfolios, e.g. after a failed chunk
+    public void markPending(Collection<Long> userIds) {
+        pendingUsers.addAll(userIds);
+    }
+
+    // Takes up to the given number of queued users; the rest stay queued
+    public List<Long> drainPending(int max) {
+        List<Long> drained = new ArrayList<>(Math.min(max, pendingUsers.size()));
+        for (Long userId : pendingUsers) {
+            if (drained.size() == max) {
+                break;
+            }
+            if (pendingUsers.remove(userId)) {
+                drained.add(userId);
+            }
+        }
+        return drained;
+    }
+
+    // Snapshots valued before this instance started are never served
+    public Instant getTrustedSince() {
+        return trustedSince;
+    }
+
+    public int getPendingCount() {
+        return pendingUsers.size();
+    }
+
+    boolean isFresh(PortfolioSnapshot snapshot) {
+        Instant valuedAt = snapshot.getValuedAt();
+        Instant changed = changedAt.get(snapshot.getUserId());
+        return !valuedAt.isBefore(trustedSince)
+                && (changed == null || valuedAt.isAfter(changed))
+                && Duration.between(valuedAt, Instant.now()).toHours() < maxAgeHours;
+    }
+
+    // valued_at is read back through JPA, which maps Instant columns as UTC
+    private void bind(PreparedStatement statement, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] instanceof Instant) {
+                UtcTimestamps.set(statement, i + 1, (Instant) row[i]);
+            } else {
+                StatementCreatorUtils.setParameterValue(statement, i + 1, SqlTypeValue.TYPE_UNKNOWN, row[i]);
+            }
+        }
+    }
+
+    private InvestmentSummaryResponse toSummary(PortfolioSnapshot snapshot) {
+        try {
+            Map<String, BigDecimal> returns = snapshot.getReturns() == null ? null
+                    : objectMapper.readValue(snapshot.getReturns(), RETURNS_TYPE);
+            return new InvestmentSummaryResponse(snapshot.getTotalValue(), snapshot.getProfitability(),
+                    snapshot.getNumberOfInvestments(), returns);
+        } catch (JsonProcessingException e) {
+            logger.warn("Unreadable snapshot for user ID: {}: {}", snapshot.getUserId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String serialize(Map<String, BigDecimal> returns) {
+        try {
+            return returns == null ? null : objectMapper.writeValueAsString(returns);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize returns", e);
+        }
+    }
+}
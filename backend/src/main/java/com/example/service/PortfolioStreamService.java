@@ -0,0 +1,196 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.dto.InvestmentSummaryResponse;
+import com.example.event.PortfolioChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class PortfolioStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioStreamService.class);
+    private static final String SUMMARY_EVENT = "summary";
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+
+    @Autowired
+    InvestmentService investmentService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${portfolio.stream.debounce-ms:250}")
+    private long debounceMs = 250;
+
+    @Value("${portfolio.stream.recompute-threads:4}")
+    private int recomputeThreads = 4;
+
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Long> pendingUsers = ConcurrentHashMap.newKeySet();
+    // Orders the summaries of one user by when their valuation started
+    private final AtomicLong versions = new AtomicLong();
+
+    private final ScheduledExecutorService debouncer = Executors.newSingleThreadScheduledExecutor(
+            runnable -> daemonThread(runnable, "portfolio-stream-debounce"));
+    private final ExecutorService broadcaster = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            runnable -> daemonThread(runnable, "portfolio-stream-broadcast"));
+    private ExecutorService recomputer;
+
+    @PostConstruct
+    public void init() {
+        recomputer = Executors.newFixedThreadPool(recomputeThreads,
+                runnable -> daemonThread(runnable, "portfolio-stream-recompute"));
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscription subscription = new Subscription(emitter);
+        // Atomic with unsubscribe, which drops the set once it is empty
+        subscribers.compute(userId, (id, subscriptions) -> {
+            Set<Subscription> current = subscriptions == null ? new CopyOnWriteArraySet<>() : subscriptions;
+            current.add(subscription);
+            return current;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(userId, subscription));
+        emitter.onTimeout(() -> unsubscribe(userId, subscription));
+        emitter.onError(error -> unsubscribe(userId, subscription));
+
+        long version = versions.incrementAndGet();
+        String payload = serialize(investmentService.getUserInvestmentSummary(userId));
+        if (payload != null) {
+            send(userId, subscription, payload, version);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        Long userId = event.getUserId();
+        if (!subscribers.containsKey(userId)) {
+            return;
+        }
+        // Only the first change in a window schedules a recompute; the rest are absorbed by it
+        if (pendingUsers.add(userId)) {
+            // The debouncer only hands off, so one slow valuation does not hold back other users
+            debouncer.schedule(() -> recomputer.execute(() -> recomputeAndBroadcast(userId)), debounceMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public int getSubscriberCount(Long userId) {
+        Set<Subscription> subscriptions = subscribers.get(userId);
+        return subscriptions == null ? 0 : subscriptions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        debouncer.shutdownNow();
+        if (recomputer != null) {
+            recomputer.shutdownNow();
+        }
+        broadcaster.shutdownNow();
+        subscribers.values().forEach(subscriptions -> subscriptions.forEach(
+                subscription -> subscription.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void recomputeAndBroadcast(Long userId) {
+        // Cleared before recomputing so changes arriving meanwhile trigger a fresh pass
+        pendingUsers.remove(userId);
+        Set<Subscription> subscriptions = subscribers.get(userId);
+        if (subscriptions == null || subscriptions.isEmpty()) {
+            return;
+        }
+        long version = versions.incrementAndGet();
+
+        String payload;
+        try {
+            payload = serialize(investmentService.getUserInvestmentSummary(userId));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to recompute summary for user ID: {}: {}", userId, e.getMessage());
+            return;
+        }
+        if (payload == null) {
+            return;
+        }
+
+        // Serialized once, then fanned out so each subscriber only costs a socket write
+        for (Subscription subscription : subscriptions) {
+            broadcaster.execute(() -> send(userId, subscription, payload, version));
+        }
+    }
+
+    // Sends to one emitter are serialized, and a summary older than the last one sent is dropped
+    void send(Long userId, Subscription subscription, String payload, long version) {
+        synchronized (subscription) {
+            if (version <= subscription.lastVersion) {
+                return;
+            }
+            try {
+                subscription.emitter.send(SseEmitter.event().name(SUMMARY_EVENT)
+                        .data(payload, MediaType.APPLICATION_JSON));
+                subscription.lastVersion = version;
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(userId, subscription);
+                subscription.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void unsubscribe(Long userId, Subscription subscription) {
+        subscribers.computeIfPresent(userId, (id, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private String serialize(InvestmentSummaryResponse summary) {
+        if (summary == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to serialize summary: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Thread daemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    static class Subscription {
+        final SseEmitter emitter;
+        long lastVersion;
+
+        Subscription(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.enums.TransactionType;
+import com.example.model.Dividend;
+import com.example.model.Position;
+import com.example.model.Transaction;
+import com.example.util.UtcTimestamps;
+
+/**
+ * Maintains the positions table. Inserts of transactions and dividends apply their deltas
+ * with an upsert inside the caller's database transaction; {@link #verify()} recomputes
+ * every position from the history and rebuilds the table if any row has drifted.
+ */
+@Service
+public class PositionService {
+    private static final Logger logger = LoggerFactory.getLogger(PositionService.class);
+    // Scale of the decimal columns; amounts are rounded per row the way the database stores them
+    private static final int AMOUNT_SCALE = 2;
+
+    private static final String UPSERT_SQL = "INSERT INTO positions (investment_id, net_quantity, trade_count, "
+            + "total_invested, total_proceeds, total_fees, dividend_total, last_trade_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE net_quantity = net_quantity + VALUES(net_quantity), "
+            + "trade_count = trade_count + VALUES(trade_count), "
+            + "total_invested = total_invested + VALUES(total_invested), "
+            + "total_proceeds = total_proceeds + VALUES(total_proceeds), "
+            + "total_fees = total_fees + VALUES(total_fees), "
+            + "dividend_total = dividend_total + VALUES(dividend_total), "
+            // GREATEST over the pair rather than a CASE comparison, which H2's MySQL mode cannot parse
+            + "last_trade_time = COALESCE(GREATEST(last_trade_time, VALUES(last_trade_time)), "
+            + "VALUES(last_trade_time), last_trade_time)";
+
+    private static final String COMPUTE_SQL = "SELECT i.id AS investment_id, "
+            + "COALESCE(t.net_quantity, 0) AS net_quantity, COALESCE(t.trade_count, 0) AS trade_count, "
+            + "COALESCE(t.total_invested, 0) AS total_invested, "
+            + "COALESCE(t.total_proceeds, 0) AS total_proceeds, COALESCE(t.total_fees, 0) AS total_fees, "
+            + "COALESCE(d.dividend_total, 0) AS dividend_total, t.last_trade_time "
+            + "FROM investments i "
+            + "LEFT JOIN (SELECT investment_id, "
+            + "SUM(CASE WHEN type = 'BUY' THEN quantity ELSE -quantity END) AS net_quantity, "
+            + "COUNT(*) AS trade_count, "
+            + "SUM(CASE WHEN type = 'BUY' THEN price * quantity ELSE 0 END) AS total_invested, "
+            + "SUM(CASE WHEN type = 'SELL' THEN price * quantity ELSE 0 END) AS total_proceeds, "
+            + "SUM(COALESCE(fee, 0)) AS total_fees, MAX(timestamp) AS last_trade_time "
+            + "FROM transactions GROUP BY investment_id) t ON t.investment_id = i.id "
+            + "LEFT JOIN (SELECT investment_id, SUM(amount) AS dividend_total "
+            + "FROM dividends GROUP BY investment_id) d ON d.investment_id = i.id";
+
+    private static final String SELECT_SQL = "SELECT investment_id, net_quantity, trade_count, total_invested, "
+            + "total_proceeds, total_fees, dividend_total, last_trade_time FROM positions";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    /**
+     * Adds the transactions to their positions. Must run in the transaction that inserts them.
+     */
+    public void applyTransactions(List<Transaction> transactions) {
+        Map<Long, Position> deltas = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            Position delta = deltas.computeIfAbsent(transaction.getInvestment().getId(), this::emptyPosition);
+            delta.setTradeCount(delta.getTradeCount() + 1);
+            BigDecimal amount = stored(transaction.getPrice()).multiply(BigDecimal.valueOf(transaction.getQuantity()));
+            if (transaction.getType() == TransactionType.BUY) {
+                delta.setNetQuantity(delta.getNetQuantity() + transaction.getQuantity());
+                delta.setTotalInvested(delta.getTotalInvested().add(amount));
+            } else {
+                delta.setNetQuantity(delta.getNetQuantity() - transaction.getQuantity());
+                delta.setTotalProceeds(delta.getTotalProceeds().add(amount));
+            }
+            if (transaction.getFee() != null) {
+                delta.setTotalFees(delta.getTotalFees().add(stored(transaction.getFee())));
+            }
+            if (delta.getLastTradeTime() == null || transaction.getTimestamp().isAfter(delta.getLastTradeTime())) {
+                delta.setLastTradeTime(transaction.getTimestamp());
+            }
+        }
+        upsert(deltas.values());
+    }
+
+    /**
+     * Adds the dividends to their positions. Must run in the transaction that inserts them.
+     */
+    public void applyDividends(List<Dividend> dividends) {
+        Map<Long, Position> deltas = new LinkedHashMap<>();
+        for (Dividend dividend : dividends) {
+            Position delta = deltas.computeIfAbsent(dividend.getInvestment().getId(), this::emptyPosition);
+            delta.setDividendTotal(delta.getDividendTotal().add(stored(dividend.getAmount())));
+        }
+        upsert(deltas.values());
+    }
+
+    /**
+     * Compares every position with totals recomputed from the history and rebuilds the
+     * table when they differ.
+     *
+     * @return the number of positions that were out of date
+     */
+    @Scheduled(cron = "${positions.verify-cron:0 0 3 * * *}")
+    public int verify() {
+        Map<Long, Position> stored = new LinkedHashMap<>();
+        List<Position> expected = new ArrayList<>();
+        // Both reads share one snapshot so concurrent inserts do not show up as drift
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query(SELECT_SQL, resultSet -> {
+                Position position = mapPosition(resultSet);
+                stored.put(position.getInvestmentId(), position);
+            });
+            expected.addAll(jdbcTemplate.query(COMPUTE_SQL, (resultSet, rowNum) -> mapPosition(resultSet)));
+        });
+
+        int drifted = 0;
+        for (Position position : expected) {
+            if (!position.matches(stored.remove(position.getInvestmentId()))) {
+                drifted++;
+            }
+        }
+        drifted += stored.size();
+
+        if (drifted > 0) {
+            logger.warn("{} positions drifted from the transaction history, rebuilding", drifted);
+            rebuild();
+        }
+        return drifted;
+    }
+
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM positions");
+            jdbcTemplate.update("INSERT INTO positions (investment_id, net_quantity, trade_count, total_invested, "
+                    + "total_proceeds, total_fees, dividend_total, last_trade_time) " + COMPUTE_SQL);
+        });
+    }
+
+    private void upsert(Iterable<Position> deltas) {
+        List<Position> rows = new ArrayList<>();
+        deltas.forEach(rows::add);
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), this::bind);
+    }
+
+    private void bind(PreparedStatement statement, Position delta) throws SQLException {
+        statement.setLong(1, delta.getInvestmentId());
+        statement.setInt(2, delta.getNetQuantity());
+        statement.setLong(3, delta.getTradeCount());
+        statement.setBigDecimal(4, delta.getTotalInvested());
+        statement.setBigDecimal(5, delta.getTotalProceeds());
+        statement.setBigDecimal(6, delta.getTotalFees());
+        statement.setBigDecimal(7, delta.getDividendTotal());
+        UtcTimestamps.set(statement, 8, delta.getLastTradeTime());
+    }
+
+    private BigDecimal stored(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private Position emptyPosition(Long investmentId) {
+        Position position = new Position();
+        position.setInvestmentId(investmentId);
+        return position;
+    }
+
+    private Position mapPosition(ResultSet resultSet) throws SQLException {
+        Position position = new Position();
+        position.setInvestmentId(resultSet.getLong("investment_id"));
+        position.setNetQuantity(resultSet.getInt("net_quantity"));
+        position.setTradeCount(resultSet.getLong("trade_count"));
+        position.setTotalInvested(resultSet.getBigDecimal("total_invested"));
+        position.setTotalProceeds(resultSet.getBigDecimal("total_proceeds"));
+        position.setTotalFees(resultSet.getBigDecimal("total_fees"));
+        position.setDividendTotal(resultSet.getBigDecimal("dividend_total"));
+        position.setLastTradeTime(UtcTimestamps.get(resultSet, "last_trade_time"));
+        return position;
+    }
+}
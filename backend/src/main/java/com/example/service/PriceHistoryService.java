@@ -0,0 +1,126 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.store.PriceSeries;
+import com.example.util.FixedPoint;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class PriceHistoryService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+    private static final String SERIES_SUFFIX = ".prices";
+
+    @Value("${price-history.dir:${java.io.tmpdir}/investment-price-history}")
+    private String directory;
+
+    // Files are keyed by instrument ID, which only stays stable while the schema does
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String schemaAction = "none";
+
+    private final Map<Long, PriceSeries> seriesByInstrument = new ConcurrentHashMap<>();
+
+    // A recreated schema restarts instrument IDs, so history left by the previous one would attach to new instruments
+    @PostConstruct
+    public void init() {
+        if (!"create".equals(schemaAction) && !"create-drop".equals(schemaAction)) {
+            return;
+        }
+        Path root = Paths.get(directory);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(root)) {
+            List<Path> series = files.filter(path -> path.toString().endsWith(SERIES_SUFFIX))
+                    .collect(Collectors.toList());
+            for (Path file : series) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear price history in " + directory, e);
+        }
+        logger.info("Cleared price history in {} for the recreated schema", directory);
+    }
+
+    public void record(Long instrumentId, Instant timestamp, BigDecimal price) {
+        PriceSeries series = getSeries(instrumentId);
+        try {
+            series.append(timestamp.getEpochSecond(), FixedPoint.toMicros(price));
+        } catch (IllegalArgumentException e) {
+            logger.debug("Skipping out-of-order tick for instrument ID: {} at {}", instrumentId, timestamp);
+        }
+    }
+
+    public void flush() {
+        seriesByInstrument.values().forEach(PriceSeries::flush);
+    }
+
+    public Optional<BigDecimal> getPriceAsOf(Long instrumentId, Instant asOf) {
+        if (instrumentId == null) {
+            return Optional.empty();
+        }
+        PriceSeries series = findSeries(instrumentId);
+        if (series == null) {
+            return Optional.empty();
+        }
+        OptionalLong price = series.priceAsOf(asOf.getEpochSecond());
+        return price.isPresent() ? Optional.of(FixedPoint.fromMicros(price.getAsLong())) : Optional.empty();
+    }
+
+    public void scan(Long instrumentId, Instant from, Instant to, PriceSeries.TickConsumer consumer) {
+        PriceSeries series = findSeries(instrumentId);
+        if (series != null) {
+            series.scan(from.getEpochSecond(), to.getEpochSecond(), consumer);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        seriesByInstrument.values().forEach(PriceSeries::close);
+        seriesByInstrument.clear();
+    }
+
+    // Reads never create a file; an instrument without one simply has no history yet
+    private PriceSeries findSeries(Long instrumentId) {
+        PriceSeries series = seriesByInstrument.get(instrumentId);
+        if (series != null || !Files.exists(seriesFile(instrumentId))) {
+            return series;
+        }
+        return getSeries(instrumentId);
+    }
+
+    private Path seriesFile(Long instrumentId) {
+        return Paths.get(directory).resolve(instrumentId + SERIES_SUFFIX);
+    }
+
+    private PriceSeries getSeries(Long instrumentId) {
+        return seriesByInstrument.computeIfAbsent(instrumentId, id -> {
+            try {
+                Path root = Files.createDirectories(Paths.get(directory));
+                return new PriceSeries(root.resolve(id + SERIES_SUFFIX));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create price history directory " + directory, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.PriceIngestionResponse;
+import com.example.dto.PriceTick;
+import com.example.event.PortfolioChangedEvent;
+import com.example.repository.InvestmentRepository;
+import com.example.util.UtcTimestamps;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class PriceIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceIngestionService.class);
+    // A tick older than the price already stored, e.g. one retried from a failed window, leaves it alone
+    private static final String UPDATE_PRICE_SQL = "UPDATE instruments SET current_price = ?, last_price_at = ? "
+            + "WHERE name = ? AND (last_price_at IS NULL OR last_price_at < ?)";
+
+    @Autowired
+    InvestmentRepository investmentRepository;
+
+    @Autowired
+    InstrumentService instrumentService;
+
+    @Autowired
+    PriceHistoryService priceHistoryService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // Latest tick per instrument name; duplicates within a window collapse here
+    private final Map<String, PriceTick> pendingTicks = new ConcurrentHashMap<>();
+
+    public PriceIngestionResponse submit(List<PriceTick> ticks) {
+        int accepted = 0;
+        int rejected = 0;
+
+        for (PriceTick tick : ticks) {
+            if (!isValidTick(tick) || instrumentService.findByName(tick.getName()).isEmpty()) {
+                rejected++;
+                continue;
+            }
+            if (tick.getTimestamp() == null) {
+                tick.setTimestamp(Instant.now());
+            }
+            pendingTicks.merge(tick.getName(), tick, PriceIngestionService::latest);
+            accepted++;
+        }
+
+        if (rejected > 0) {
+            logger.warn("Rejected {} invalid or unknown price ticks", rejected);
+        }
+        return new PriceIngestionResponse(accepted, rejected);
+    }
+
+    public int getPendingCount() {
+        return pendingTicks.size();
+    }
+
+    @Scheduled(fixedDelayString = "${prices.ingestion.window-ms:1000}")
+    public void flush() {
+        applyPending();
+    }
+
+    // Applies the ticks collected since the last window and returns how many were written
+    int applyPending() {
+        List<PriceTick> batch = drainPending();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<PriceTick> applied;
+        try {
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, batch, batch.size(), this::bind);
+            applied = appliedTicks(batch, counts);
+        } catch (DataAccessException e) {
+            // Back into the next window, where ticks that arrived meanwhile still win if newer
+            batch.forEach(tick -> pendingTicks.merge(tick.getName(), tick, PriceIngestionService::latest));
+            meterRegistry.counter("prices.ingestion.failures").increment();
+            logger.warn("Failed to apply {} price updates, retrying next window: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+        if (applied.size() < batch.size()) {
+            logger.debug("Skipped {} price ticks older than the stored price", batch.size() - applied.size());
+        }
+        if (applied.isEmpty()) {
+            return 0;
+        }
+        instrumentService.applyPrices(applied);
+        recordHistory(applied);
+
+        List<String> names = applied.stream().map(PriceTick::getName).collect(Collectors.toList());
+        List<Long> affectedUsers = investmentRepository.findUserIdsByInstrumentNameIn(names);
+        affectedUsers.forEach(userId -> eventPublisher.publishEvent(PortfolioChangedEvent.priceChanged(userId)));
+
+        logger.debug("Applied {} price updates affecting {} users", applied.size(), affectedUsers.size());
+        return applied.size();
+    }
+
+    private void bind(PreparedStatement statement, PriceTick tick) throws SQLException {
+        statement.setBigDecimal(1, tick.getPrice());
+        UtcTimestamps.set(statement, 2, tick.getTimestamp());
+        statement.setString(3, tick.getName());
+        UtcTimestamps.set(statement, 4, tick.getTimestamp());
+    }
+
+    // Drivers that rewrite batches report SUCCESS_NO_INFO, which is taken as applied
+    private static List<PriceTick> appliedTicks(List<PriceTick> batch, int[][] counts) {
+        List<PriceTick> applied = new ArrayList<>(batch.size());
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    applied.add(batch.get(index));
+                }
+                index++;
+            }
+        }
+        return applied;
+    }
+
+    private void recordHistory(List<PriceTick> batch) {
+        batch.sort(Comparator.comparing(PriceTick::getTimestamp));
+        for (PriceTick tick : batch) {
+            instrumentService.findByName(tick.getName()).ifPresent(instrument ->
+                    priceHistoryService.record(instrument.getId(), tick.getTimestamp(), tick.getPrice()));
+        }
+        priceHistoryService.flush();
+    }
+
+    private List<PriceTick> drainPending() {
+        List<PriceTick> batch = new ArrayList<>(pendingTicks.size());
+        // Removing key by key keeps ticks that arrive mid-drain for the next window
+        for (String name : pendingTicks.keySet()) {
+            PriceTick tick = pendingTicks.remove(name);
+            if (tick != null) {
+                batch.add(tick);
+            }
+        }
+        return batch;
+    }
+
+    private boolean isValidTick(PriceTick tick) {
+        return tick != null
+                && tick.getName() != null && !tick.getName().trim().isEmpty()
+                && tick.getPrice() != null && tick.getPrice().compareTo(BigDecimal.ZERO) >= 0;
+    }
+
+    private static PriceTick latest(PriceTick current, PriceTick candidate) {
+        return candidate.getTimestamp().isBefore(current.getTimestamp()) ? current : candidate;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.CashFlowData;
+import com.example.dto.CashFlowRow;
+import com.example.enums.TransactionType;
+import com.example.model.Investment;
+import com.example.repository.DividendRepository;
+import com.example.repository.TransactionRepository;
+import com.example.util.DailyCashFlowAggregator;
+import com.example.util.FixedPoint;
+
+/**
+ * Cash flows of a user's whole portfolio for accounts too large to materialize. Trades and
+ * dividends are streamed as unmanaged rows with a JDBC fetch size and folded into one flow
+ * per day as they arrive, so memory is bounded by the number of trading days and
+ * investments, not by the number of trades.
+ */
+@Service
+public class StreamingCashFlowService {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingCashFlowService.class);
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    DividendRepository dividendRepository;
+
+    /**
+     * Daily net cash flows of the user's priced investments, ending with their current value.
+     * Must run inside a transaction, which keeps the result streams open.
+     */
+    @Transactional(readOnly = true)
+    public List<CashFlowData> collectDailyCashFlows(Long userId, List<Investment> investments) {
+        Map<Long, Investment> priced = investments.stream()
+                .filter(investment -> investment.getId() != null && investment.getCurrentPrice() != null
+                        && investment.getCurrentPrice().compareTo(BigDecimal.ZERO) > 0)
+                .collect(Collectors.toMap(Investment::getId, Function.identity()));
+        Instant now = Instant.now();
+        DailyCashFlowAggregator aggregator = new DailyCashFlowAggregator(now);
+
+        try (Stream<CashFlowRow> rows = transactionRepository.streamCashFlowRowsByUserId(userId)) {
+            rows.filter(row -> priced.containsKey(row.getInvestmentId()))
+                    .forEach(row -> aggregator.addTrade(row.getInvestmentId(), row.getTimestamp(),
+                            row.getType() == TransactionType.BUY, row.getQuantity(),
+                            FixedPoint.toMicros(row.getPrice()), FixedPoint.toMicros(row.getFee())));
+        }
+        try (Stream<CashFlowRow> rows = dividendRepository.streamCashFlowRowsByUserId(userId)) {
+            rows.filter(row -> priced.containsKey(row.getInvestmentId()))
+                    .forEach(row -> aggregator.addDividend(row.getTimestamp(), FixedPoint.toMicros(row.getPrice())));
+        }
+
+        List<CashFlowData> cashFlows = aggregator.toCashFlows();
+        BigDecimal currentValue = priced.values().stream()
+                .map(investment -> investment.getCurrentPrice()
+                        .multiply(BigDecimal.valueOf(aggregator.getNetQuantity(investment.getId()))))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (currentValue.signum() != 0) {
+            cashFlows.add(new CashFlowData(currentValue, now));
+        }
+        logger.debug("Folded {} cash flows of user ID: {} into {} days", aggregator.getFlowCount(), userId,
+                aggregator.getDayCount());
+        return cashFlows;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.InvestmentGainsResponse;
+import com.example.enums.CostBasisMethod;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.repository.InvestmentRepository;
+import com.example.repository.TransactionRepository;
+import com.example.util.FixedPoint;
+import com.example.util.LotLedger;
+
+/**
+ * Realized and unrealized gains per investment. Each investment and method keeps a
+ * {@link LotLedger} in memory; a request only loads and applies the transactions stored
+ * since the previous one. A new transaction dated before ones already applied (a
+ * backfill) makes that ledger replay the full history.
+ *
+ * <p>Transaction IDs are assigned before commit, so a row can become visible after one
+ * with a higher ID was already applied. When a {@link PortfolioChangedEvent} reports new
+ * transactions for an investment, its next catch-up compares the stored row count with
+ * the rows applied and replays the history if any were skipped. The least recently used
+ * ledgers are dropped beyond {@code gains.ledger-cache.max-entries}.
+ */
+@Service
+public class TaxLotService {
+    private static final Logger logger = LoggerFactory.getLogger(TaxLotService.class);
+
+    @Autowired
+    InvestmentRepository investmentRepository;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    InstrumentService instrumentService;
+
+    @Value("${gains.ledger-cache.max-entries:10000}")
+    private int maxLedgers = 10_000;
+
+    private final Map<LedgerKey, LedgerState> ledgers = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<LedgerKey, LedgerState> eldest) {
+                    return size() > maxLedgers;
+                }
+            });
+
+    @Transactional(readOnly = true)
+    public List<InvestmentGainsResponse> getUserGains(Long userId, CostBasisMethod method) {
+        List<Investment> investments = investmentRepository.findAllByUserId(userId);
+        instrumentService.attachPrices(investments);
+        return investments.stream()
+                .map(investment -> calculateGains(investment, method))
+                .collect(Collectors.toList());
+    }
+
+    public InvestmentGainsResponse calculateGains(Investment investment, CostBasisMethod method) {
+        LedgerState state = ledgers.computeIfAbsent(new LedgerKey(investment.getId(), method),
+                key -> new LedgerState(method));
+        synchronized (state) {
+            catchUp(investment.getId(), state);
+            return createResponse(investment, state.ledger);
+        }
+    }
+
+    public void evictAll() {
+        ledgers.clear();
+    }
+
+    @EventListener
+    public void onPortfolioChanged(PortfolioChangedEvent event) {
+        for (Long investmentId : event.getInvestmentIds()) {
+            for (CostBasisMethod method : CostBasisMethod.values()) {
+                LedgerState state = ledgers.get(new LedgerKey(investmentId, method));
+                if (state != null) {
+                    state.changed = true;
+                }
+            }
+        }
+    }
+
+    int getCachedCount() {
+        return ledgers.size();
+    }
+
+    private void catchUp(Long investmentId, LedgerState state) {
+        // Cleared before reading, so an event arriving meanwhile triggers another check
+        boolean changed = state.changed;
+        state.changed = false;
+        List<Transaction> added = transactionRepository
+                .findByInvestmentIdAndIdGreaterThanOrderByTimestampAscIdAsc(investmentId, state.lastTransactionId);
+        boolean replay = !added.isEmpty()
+                && added.get(0).getTimestamp().getEpochSecond() < state.ledger.getLastEpochSecond();
+        if (!replay && changed) {
+            replay = transactionRepository.countByInvestmentId(investmentId) != state.appliedCount + added.size();
+        }
+        if (replay) {
+            logger.debug("Backfilled or late-committed transaction for investment ID: {}, replaying its history",
+                    investmentId);
+            state.reset();
+            added = transactionRepository.findByInvestmentIdOrderByTimestampAscIdAsc(investmentId);
+        }
+        for (Transaction transaction : added) {
+            state.ledger.apply(transaction);
+            state.lastTransactionId = Math.max(state.lastTransactionId, transaction.getId());
+        }
+        state.appliedCount += added.size();
+    }
+
+    private InvestmentGainsResponse createResponse(Investment investment, LotLedger ledger) {
+        long priceMicros = FixedPoint.toMicros(investment.getCurrentPrice());
+        BigDecimal marketValue = FixedPoint.fromMicros(priceMicros * ledger.getOpenQuantity());
+
+        return new InvestmentGainsResponse(investment.getId(), investment.getName(), ledger.getMethod(),
+                ledger.getOpenQuantity(), ledger.getLotCount(),
+                FixedPoint.fromMicros(ledger.getCostBasisMicros()), marketValue,
+                FixedPoint.fromMicros(ledger.getUnrealizedGainMicros(priceMicros)),
+                FixedPoint.fromMicros(ledger.getRealizedGainMicros()));
+    }
+
+    private static final class LedgerKey {
+        private final Long investmentId;
+        private final CostBasisMethod method;
+
+        LedgerKey(Long investmentId, CostBasisMethod method) {
+            this.investmentId = investmentId;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof LedgerKey)) {
+                return false;
+            }
+            LedgerKey key = (LedgerKey) other;
+            return Objects.equals(investmentId, key.investmentId) && method == key.method;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(investmentId, method);
+        }
+    }
+
+    private static final class LedgerState {
+        private final CostBasisMethod method;
+        private LotLedger ledger;
+        private long lastTransactionId;
+        private long appliedCount;
+        private volatile boolean changed;
+
+        LedgerState(CostBasisMethod method) {
+            this.method = method;
+            reset();
+        }
+
+        void reset() {
+            ledger = new LotLedger(method);
+            lastTransactionId = 0L;
+            appliedCount = 0L;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.model.Transaction;
+import com.example.util.UtcTimestamps;
+
+/**
+ * Persists transactions with JDBC batch inserts, one database transaction per chunk,
+ * bypassing per-entity JPA persists (IDENTITY ids rule out Hibernate batching). The
+ * affected positions are updated in the same transaction.
+ */
+@Service
+public class TransactionBatchWriter {
+    private static final String INSERT_SQL = "INSERT INTO transactions "
+            + "(type, quantity, price, fee, timestamp, investment_id, external_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    PositionService positionService;
+
+    @Value("${ingestion.batch-size:500}")
+    private int batchSize = 500;
+
+    public int write(List<Transaction> transactions) {
+        int written = 0;
+        for (int from = 0; from < transactions.size(); from += batchSize) {
+            List<Transaction> chunk = transactions.subList(from, Math.min(from + batchSize, transactions.size()));
+            transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+            written += chunk.size();
+        }
+        return written;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    private void insertChunk(List<Transaction> chunk) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), this::bind);
+        positionService.applyTransactions(chunk);
+    }
+
+    private void bind(PreparedStatement statement, Transaction transaction) throws SQLException {
+        statement.setString(1, transaction.getType().name());
+        statement.setInt(2, transaction.getQuantity());
+        statement.setBigDecimal(3, transaction.getPrice());
+        statement.setBigDecimal(4, transaction.getFee());
+        UtcTimestamps.set(statement, 5, transaction.getTimestamp());
+        statement.setLong(6, transaction.getInvestment().getId());
+        statement.setString(7, transaction.getExternalId());
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.model.Transaction;
+import com.example.util.BloomFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Detects transactions whose external trade ID is already stored, so replayed feeds are
+ * idempotent. A Bloom filter of every known ID answers the common "never seen" case in
+ * memory; only IDs the filter might contain are confirmed with a batched IN query. The
+ * unique index on transactions.external_id remains the final guarantee.
+ *
+ * <p>The filter is built in the background at startup, sized for at least twice the
+ * stored IDs, and rebuilt the same way once more IDs are registered than it was sized
+ * for. Until the first build finishes every ID is confirmed against the database.
+ */
+@Service
+public class TransactionDeduplicator {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDeduplicator.class);
+    private static final int LOOKUP_BATCH_SIZE = 500;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${ingestion.dedup.expected-ids:1000000}")
+    private long expectedIds = 1_000_000;
+
+    @Value("${ingestion.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dedup-filter-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile BloomFilter filter;
+    // IDs registered while a build streams the table, replayed into the new filter; guarded by this
+    private List<String> registeredDuringLoad;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("ingestion.dedup.filter.insertions", this, service -> service.stat(BloomFilter::getInsertions))
+                .description("External IDs in the duplicate filter")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.dedup.filter.capacity", this,
+                service -> service.stat(BloomFilter::getExpectedInsertions))
+                .description("External IDs the duplicate filter was sized for")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.dedup.filter.fpp", this, service -> service.stat(BloomFilter::getFalsePositiveRate))
+                .description("Estimated false-positive rate of the duplicate filter")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleLoad();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Flags transactions that repeat a stored external ID or one earlier in the same list.
+     * Transactions without an external ID are never duplicates.
+     */
+    public BitSet findDuplicates(List<Transaction> transactions) {
+        BitSet duplicates = new BitSet(transactions.size());
+        Map<String, Integer> candidates = new HashMap<>();
+        List<String> suspects = new ArrayList<>();
+
+        synchronized (this) {
+            BloomFilter loaded = filter;
+            for (int i = 0; i < transactions.size(); i++) {
+                String externalId = transactions.get(i).getExternalId();
+                if (externalId == null) {
+                    continue;
+                }
+                if (candidates.putIfAbsent(externalId, i) != null) {
+                    duplicates.set(i);
+                } else if (loaded == null || loaded.mightContain(externalId)) {
+                    suspects.add(externalId);
+                }
+            }
+        }
+
+        if (filter == null) {
+            scheduleLoad();
+        }
+        for (String existing : findStored(suspects)) {
+            duplicates.set(candidates.get(existing));
+        }
+        logger.debug("Checked {} external IDs, {} needed a database lookup", candidates.size(), suspects.size());
+        return duplicates;
+    }
+
+    /**
+     * Adds the external IDs of persisted transactions to the filter.
+     */
+    public void register(List<Transaction> transactions) {
+        boolean full;
+        synchronized (this) {
+            for (Transaction transaction : transactions) {
+                String externalId = transaction.getExternalId();
+                if (externalId == null) {
+                    continue;
+                }
+                if (filter != null) {
+                    filter.put(externalId);
+                }
+                if (registeredDuringLoad != null) {
+                    registeredDuringLoad.add(externalId);
+                }
+            }
+            full = filter != null && filter.getInsertions() > filter.getExpectedInsertions();
+        }
+        if (full) {
+            scheduleLoad();
+        }
+    }
+
+    /**
+     * Builds a filter from the IDs in the table without holding the lock, then swaps it in
+     * together with the IDs registered meanwhile.
+     */
+    void load() {
+        try {
+            synchronized (this) {
+                registeredDuringLoad = new ArrayList<>();
+            }
+            Long stored = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM transactions WHERE external_id IS NOT NULL", Long.class);
+            long capacity = Math.max(expectedIds, stored == null ? 0 : stored * 2);
+            BloomFilter loaded = new BloomFilter(capacity, falsePositiveRate);
+            jdbcTemplate.query("SELECT external_id FROM transactions WHERE external_id IS NOT NULL",
+                    resultSet -> {
+                        loaded.put(resultSet.getString(1));
+                    });
+            synchronized (this) {
+                registeredDuringLoad.forEach(loaded::put);
+                filter = loaded;
+            }
+            logger.info("Loaded {} external transaction IDs into a duplicate filter sized for {}",
+                    loaded.getInsertions(), capacity);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the duplicate filter", e);
+        } finally {
+            synchronized (this) {
+                registeredDuringLoad = null;
+            }
+            loading.set(false);
+        }
+    }
+
+    private void scheduleLoad() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            loader.execute(this::load);
+        } catch (RejectedExecutionException e) {
+            loading.set(false);
+        }
+    }
+
+    private synchronized double stat(ToDoubleFunction<BloomFilter> statistic) {
+        return filter == null ? 0 : statistic.applyAsDouble(filter);
+    }
+
+    private Set<String> findStored(List<String> externalIds) {
+        if (externalIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> stored = new HashSet<>();
+        for (int from = 0; from < externalIds.size(); from += LOOKUP_BATCH_SIZE) {
+            List<String> batch = externalIds.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, externalIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            stored.addAll(jdbcTemplate.queryForList(
+                    "SELECT external_id FROM transactions WHERE external_id IN (" + placeholders + ")",
+                    String.class, batch.toArray()));
+        }
+        return stored;
+    }
+}
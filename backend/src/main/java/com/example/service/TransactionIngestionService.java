@@ -0,0 +1,213 @@
+package com.example.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.IngestionRowResult;
+import com.example.dto.TransactionIngestionResponse;
+import com.example.dto.TransactionRequest;
+import com.example.enums.IngestionStatus;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.repository.InvestmentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Service
+public class TransactionIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionIngestionService.class);
+
+    @Autowired
+    InvestmentRepository investmentRepository;
+
+    @Autowired
+    TransactionBatchWriter transactionBatchWriter;
+
+    @Autowired
+    TransactionDeduplicator transactionDeduplicator;
+
+    @Autowired
+    WriteBehindTransactionQueue writeBehindQueue;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    public Optional<TransactionIngestionResponse> ingest(Long investmentId, List<TransactionRequest> requests) {
+        Optional<Investment> investment = investmentRepository.findById(investmentId);
+        if (investment.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Batch batch = new Batch(investment.get());
+        for (TransactionRequest request : requests) {
+            batch.add(request);
+        }
+        return Optional.of(batch.finish());
+    }
+
+    public Optional<TransactionIngestionResponse> ingestNdjson(Long investmentId, InputStream body) throws IOException {
+        Optional<Investment> investment = investmentRepository.findById(investmentId);
+        if (investment.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Batch batch = new Batch(investment.get());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, TransactionRequest.class));
+                } catch (JsonProcessingException e) {
+                    batch.reject("Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            // Chunks stored before the body broke off are committed, so caches must still hear of them
+            batch.publishChange();
+            throw e;
+        }
+        return Optional.of(batch.finish());
+    }
+
+    public Transaction toTransaction(TransactionRequest request, Investment investment) {
+        if (request == null) {
+            throw new IllegalArgumentException("Transaction cannot be null");
+        }
+        if (request.getType() == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        if (request.getTimestamp() == null) {
+            throw new IllegalArgumentException("Timestamp cannot be null");
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setInvestment(investment);
+        transaction.setType(request.getType());
+        transaction.setQuantity(request.getQuantity());
+        transaction.setPrice(request.getPrice());
+        transaction.setFee(request.getFee() == null ? BigDecimal.ZERO : request.getFee());
+        transaction.setTimestamp(request.getTimestamp());
+        transaction.setExternalId(request.getExternalId());
+        return transaction;
+    }
+
+    // Validates rows as they arrive and flushes a chunk whenever the writer's batch size is reached
+    private class Batch {
+        private final Investment investment;
+        private final TransactionIngestionResponse response = new TransactionIngestionResponse();
+        private final List<Transaction> pending = new ArrayList<>();
+        private final List<Long> pendingRows = new ArrayList<>();
+        private long row;
+        private int written;
+
+        Batch(Investment investment) {
+            this.investment = investment;
+        }
+
+        void add(TransactionRequest request) {
+            long index = row++;
+            try {
+                pending.add(toTransaction(request, investment));
+                pendingRows.add(index);
+            } catch (IllegalArgumentException e) {
+                response.addRow(new IngestionRowResult(index, IngestionStatus.REJECTED, e.getMessage()));
+                return;
+            }
+            if (pending.size() >= transactionBatchWriter.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void reject(String message) {
+            response.addRow(new IngestionRowResult(row++, IngestionStatus.REJECTED, message));
+        }
+
+        TransactionIngestionResponse finish() {
+            flush();
+            response.getRows().sort((left, right) -> Long.compare(left.getRow(), right.getRow()));
+            publishChange();
+            logger.debug("Ingested {} transactions for investment ID: {}, rejected {}, duplicates {}, failed {}",
+                    response.getAccepted(), investment.getId(), response.getRejected(), response.getDuplicates(),
+                    response.getFailed());
+            return response;
+        }
+
+        void publishChange() {
+            if (written > 0) {
+                eventPublisher.publishEvent(new PortfolioChangedEvent(investment.getUserId(),
+                        Set.of(investment.getId())));
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            BitSet duplicates = transactionDeduplicator.findDuplicates(pending);
+            List<Transaction> fresh = new ArrayList<>(pending.size());
+            List<Long> freshRows = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                if (duplicates.get(i)) {
+                    response.addRow(new IngestionRowResult(pendingRows.get(i), IngestionStatus.DUPLICATE,
+                            "Duplicate external ID"));
+                } else {
+                    fresh.add(pending.get(i));
+                    freshRows.add(pendingRows.get(i));
+                }
+            }
+            if (!fresh.isEmpty()) {
+                IngestionStatus status;
+                String message;
+                try {
+                    status = store(fresh);
+                    message = status == IngestionStatus.REJECTED ? "Write-behind queue is full" : null;
+                } catch (DataAccessException e) {
+                    // Each chunk commits on its own; earlier chunks stay stored and later ones are still tried
+                    logger.warn("Failed to store {} transactions for investment ID: {}: {}", fresh.size(),
+                            investment.getId(), e.getMessage());
+                    status = IngestionStatus.FAILED;
+                    message = "Storage failed: " + e.getMostSpecificCause().getMessage();
+                }
+                IngestionStatus rowStatus = status;
+                String rowMessage = message;
+                freshRows.forEach(index -> response.addRow(new IngestionRowResult(index, rowStatus, rowMessage)));
+            }
+            pending.clear();
+            pendingRows.clear();
+        }
+
+        // The write-behind drainer publishes its own change events once rows are persisted
+        private IngestionStatus store(List<Transaction> transactions) {
+            if (writeBehindQueue.isEnabled()) {
+                return writeBehindQueue.enqueue(investment, transactions) ? IngestionStatus.QUEUED
+                        : IngestionStatus.REJECTED;
+            }
+            written += transactionBatchWriter.write(transactions);
+            transactionDeduplicator.register(transactions);
+            return IngestionStatus.ACCEPTED;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.example.enums.JournalDurability;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.store.SpscRingBuffer;
+import com.example.store.TransactionJournal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional write-behind path for transaction ingestion. Accepted rows are journaled
+ * (depending on the durability setting) and put on a per-partition ring buffer; a
+ * drainer thread per partition persists them in batches, retrying while the database is
+ * unavailable. Callers are acknowledged once the journal write returns, so ingestion
+ * latency no longer depends on MySQL.
+ *
+ * <p>Investments map to a fixed partition, which keeps their rows in order. Producers of
+ * one partition take turns on a lock around the journal append, which also makes them
+ * the single writer of that partition's ring.
+ *
+ * <p>Rows without an external ID get a synthetic one before they are journaled. The
+ * checkpoint is written after the database commit, so a crash in between replays the
+ * batch; the external IDs let the deduplicator skip the rows already stored. Once the
+ * journal outgrows its limit it is compacted down to the rows still queued.
+ *
+ * <p>Only failures that clear up on their own (lost connections, lock timeouts) are
+ * retried. A batch failing otherwise is written row by row, and rows that still fail
+ * are moved to a dead-letter list so they cannot hold up their partition.
+ */
+@Service
+public class WriteBehindTransactionQueue {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindTransactionQueue.class);
+    private static final long RETRY_BACKOFF_MS = 1000;
+    private static final String SYNTHETIC_ID_PREFIX = "wb-";
+    private static final int MAX_DEAD_LETTERS = 1000;
+
+    @Autowired
+    TransactionBatchWriter transactionBatchWriter;
+
+    @Autowired
+    TransactionDeduplicator transactionDeduplicator;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${ingestion.write-behind.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${ingestion.write-behind.partitions:4}")
+    private int partitionCount = 4;
+
+    @Value("${ingestion.write-behind.capacity:16384}")
+    private int capacity = 16384;
+
+    @Value("${ingestion.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs = 50;
+
+    @Value("${ingestion.write-behind.durability:FSYNC}")
+    private JournalDurability durability = JournalDurability.FSYNC;
+
+    @Value("${ingestion.write-behind.journal-dir:${java.io.tmpdir}/investment-write-behind}")
+    private String journalDirectory;
+
+    @Value("${ingestion.write-behind.journal-max-bytes:67108864}")
+    private long journalMaxBytes = 64L * 1024 * 1024;
+
+    private Partition[] partitions = new Partition[0];
+    private volatile boolean running;
+    private Timer flushTimer;
+    private Timer journalTimer;
+    private Counter writtenRows;
+    private Counter duplicateRows;
+    private Counter flushFailures;
+    private Counter deadLetterRows;
+    // Most recent rows that failed permanently, oldest first; guarded by itself
+    private final Deque<Transaction> deadLetters = new ArrayDeque<>();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flushTimer = Timer.builder("ingestion.write_behind.flush")
+                .description("Time to persist one drained batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        journalTimer = Timer.builder("ingestion.write_behind.journal.append")
+                .description("Time to journal one enqueued batch")
+                .register(meterRegistry);
+        writtenRows = meterRegistry.counter("ingestion.write_behind.rows", "outcome", "written");
+        duplicateRows = meterRegistry.counter("ingestion.write_behind.rows", "outcome", "duplicate");
+        flushFailures = meterRegistry.counter("ingestion.write_behind.flush.failures");
+        deadLetterRows = meterRegistry.counter("ingestion.write_behind.rows", "outcome", "dead_letter");
+
+        running = true;
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, openJournal(i));
+            partitions[i].recover();
+            Partition partition = partitions[i];
+            Gauge.builder("ingestion.write_behind.queue.depth", partition.ring, SpscRingBuffer::size)
+                    .description("Rows waiting to be persisted")
+                    .tag("partition", String.valueOf(i))
+                    .register(meterRegistry);
+            partition.drainer.start();
+        }
+        logger.info("Write-behind ingestion started with {} partitions of {} rows, durability {}",
+                partitionCount, capacity, durability);
+    }
+
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    /**
+     * Queues the transactions of one investment, all or nothing.
+     *
+     * @return false if the partition has no room for the whole list
+     */
+    public boolean enqueue(Investment investment, List<Transaction> transactions) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Write-behind ingestion is not enabled");
+        }
+        return partitions[(int) Math.floorMod(investment.getId(), (long) partitions.length)].enqueue(transactions);
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Partition partition : partitions) {
+            depth += partition.ring.size();
+        }
+        return depth;
+    }
+
+    public List<Transaction> getDeadLetters() {
+        synchronized (deadLetters) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.drainer);
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.drainer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (partition.journal != null) {
+                partition.journal.close();
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    private TransactionJournal openJournal(int partition) {
+        if (durability == JournalDurability.NONE) {
+            return null;
+        }
+        try {
+            Path root = Files.createDirectories(Paths.get(journalDirectory));
+            return new TransactionJournal(root.resolve("partition-" + partition + ".journal"),
+                    root.resolve("partition-" + partition + ".checkpoint"), durability == JournalDurability.FSYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal directory " + journalDirectory, e);
+        }
+    }
+
+    private class Partition {
+        private final int index;
+        private final SpscRingBuffer<Transaction> ring = new SpscRingBuffer<>(capacity);
+        private final TransactionJournal journal;
+        private final Object producerLock = new Object();
+        private final Thread drainer;
+        private long compactedBytes;
+
+        Partition(int index, TransactionJournal journal) {
+            this.index = index;
+            this.journal = journal;
+            this.drainer = new Thread(this::drain, "write-behind-" + index);
+            this.drainer.setDaemon(true);
+        }
+
+        boolean enqueue(List<Transaction> transactions) {
+            synchronized (producerLock) {
+                if (transactions.size() > ring.remainingCapacity()) {
+                    return false;
+                }
+                for (Transaction transaction : transactions) {
+                    if (transaction.getExternalId() == null) {
+                        transaction.setExternalId(SYNTHETIC_ID_PREFIX + UUID.randomUUID());
+                    }
+                }
+                if (journal != null) {
+                    long started = System.nanoTime();
+                    journal.append(ring.nextPosition(), transactions);
+                    journalTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+                for (Transaction transaction : transactions) {
+                    ring.offer(transaction);
+                }
+            }
+            if (ring.size() >= transactionBatchWriter.getBatchSize()) {
+                LockSupport.unpark(drainer);
+            }
+            return true;
+        }
+
+        // Persists rows left in the journal by a previous run before any new row is accepted
+        void recover() {
+            if (journal == null) {
+                return;
+            }
+            List<Transaction> pending = new ArrayList<>();
+            journal.replay(journal.readCheckpoint(), pending::add);
+            int batchSize = transactionBatchWriter.getBatchSize();
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                persist(pending.subList(from, Math.min(from + batchSize, pending.size())));
+            }
+            if (!pending.isEmpty()) {
+                logger.info("Recovered {} journaled transactions in write-behind partition {}", pending.size(), index);
+            }
+            journal.reset();
+        }
+
+        private void drain() {
+            int batchSize = transactionBatchWriter.getBatchSize();
+            List<Transaction> batch = new ArrayList<>(batchSize);
+            while (running || !ring.isEmpty()) {
+                batch.clear();
+                int count = ring.peek(batch, batchSize);
+                if (count == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                    continue;
+                }
+                try {
+                    persist(batch);
+                    ring.advance(count);
+                    checkpoint();
+                } catch (RuntimeException e) {
+                    flushFailures.increment();
+                    logger.warn("Write-behind flush of {} rows in partition {} failed, retrying: {}", count, index,
+                            e.getMessage());
+                    if (!running) {
+                        // Rows stay in the journal and are recovered on the next start
+                        return;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MS));
+                }
+            }
+        }
+
+        private void persist(List<Transaction> batch) {
+            long started = System.nanoTime();
+            BitSet duplicates = transactionDeduplicator.findDuplicates(batch);
+            List<Transaction> fresh = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (!duplicates.get(i)) {
+                    fresh.add(batch.get(i));
+                }
+            }
+            List<Transaction> stored = fresh;
+            List<Transaction> failed = new ArrayList<>();
+            try {
+                transactionBatchWriter.write(fresh);
+            } catch (DuplicateKeyException e) {
+                // Another partition stored the same external ID in the meantime
+                stored = writeIndividually(fresh, failed);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                stored = writeIndividually(fresh, failed);
+            }
+            transactionDeduplicator.register(stored);
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            writtenRows.increment(stored.size());
+            duplicateRows.increment(batch.size() - stored.size() - failed.size());
+            failed.forEach(this::deadLetter);
+            publishEvents(stored);
+        }
+
+        // Rethrows transient failures so the whole batch is retried; rows failing otherwise go to failed
+        private List<Transaction> writeIndividually(List<Transaction> transactions, List<Transaction> failed) {
+            List<Transaction> stored = new ArrayList<>(transactions.size());
+            for (Transaction transaction : transactions) {
+                try {
+                    transactionBatchWriter.write(List.of(transaction));
+                    stored.add(transaction);
+                } catch (DuplicateKeyException e) {
+                    logger.debug("Skipping duplicate external ID {}", transaction.getExternalId());
+                } catch (RuntimeException e) {
+                    if (isTransient(e)) {
+                        throw e;
+                    }
+                    logger.error("Write-behind row {} for investment ID: {} failed permanently: {}",
+                            transaction.getExternalId(), transaction.getInvestment().getId(), e.getMessage());
+                    failed.add(transaction);
+                }
+            }
+            return stored;
+        }
+
+        private void deadLetter(Transaction transaction) {
+            deadLetterRows.increment();
+            synchronized (deadLetters) {
+                if (deadLetters.size() == MAX_DEAD_LETTERS) {
+                    deadLetters.removeFirst();
+                }
+                deadLetters.addLast(transaction);
+            }
+        }
+
+        private void checkpoint() {
+            if (journal == null) {
+                return;
+            }
+            journal.checkpoint(ring.headPosition());
+            // Measured from the last compaction, so a tail that alone exceeds the limit is not rewritten every batch
+            if (journal.size() - compactedBytes > journalMaxBytes) {
+                synchronized (producerLock) {
+                    int kept = journal.compact(ring.headPosition());
+                    compactedBytes = journal.size();
+                    logger.debug("Compacted journal of write-behind partition {} to {} queued rows", index, kept);
+                }
+            }
+        }
+
+        private void publishEvents(List<Transaction> transactions) {
+            Map<Long, Set<Long>> investmentsByUser = new HashMap<>();
+            for (Transaction transaction : transactions) {
+                Investment investment = transaction.getInvestment();
+                investmentsByUser.computeIfAbsent(investment.getUserId(), id -> new HashSet<>()).add(investment.getId());
+            }
+            investmentsByUser.forEach((userId, investmentIds) ->
+                    eventPublisher.publishEvent(new PortfolioChangedEvent(userId, investmentIds)));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Packed cash flows per investment, loaded on first access and kept within a byte
+ * budget by evicting the least recently used investments. Loading happens outside the
+ * lock, so a slow load does not stall readers of other investments; two threads missing
+ * on the same investment may both load it, and the later result wins. A load that
+ * overlaps an invalidation is returned but not kept, since it may predate the change.
+ *
+ * <p>Direct buffers of evicted entries are released by the garbage collector once the
+ * last reader drops them.
+ */
+public class CashFlowStore {
+    private final long maxBytes;
+    private final LinkedHashMap<Long, PackedCashFlows> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public CashFlowStore(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Byte budget must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public PackedCashFlows get(long investmentId, LongFunction<PackedCashFlows> loader) {
+        return getAll(List.of(investmentId), missing -> Map.of(investmentId, loader.apply(investmentId)))
+                .get(investmentId);
+    }
+
+    /**
+     * Returns the cash flows of every given investment, loading all missing ones with a
+     * single call to the loader. Investments the loader leaves out get no cash flows.
+     */
+    public Map<Long, PackedCashFlows> getAll(Collection<Long> investmentIds,
+            Function<List<Long>, Map<Long, PackedCashFlows>> loader) {
+        Map<Long, PackedCashFlows> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long invalidationsAtMiss;
+        synchronized (this) {
+            for (Long investmentId : investmentIds) {
+                PackedCashFlows cached = entries.get(investmentId);
+                if (cached != null) {
+                    hits++;
+                    result.put(investmentId, cached);
+                } else {
+                    misses++;
+                    missing.add(investmentId);
+                }
+            }
+            invalidationsAtMiss = invalidations;
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, PackedCashFlows> loaded = loader.apply(missing);
+        synchronized (this) {
+            boolean current = invalidations == invalidationsAtMiss;
+            for (Long investmentId : missing) {
+                PackedCashFlows flows = loaded.getOrDefault(investmentId, PackedCashFlows.EMPTY);
+                result.put(investmentId, flows);
+                if (current) {
+                    put(investmentId, flows);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Entries larger than the whole budget are returned to the caller but never kept
+    public synchronized void put(long investmentId, PackedCashFlows flows) {
+        if (flows.byteSize() > maxBytes) {
+            return;
+        }
+        PackedCashFlows previous = entries.put(investmentId, flows);
+        if (previous != null) {
+            usedBytes -= previous.byteSize();
+        }
+        usedBytes += flows.byteSize();
+        Iterator<Map.Entry<Long, PackedCashFlows>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes) {
+            usedBytes -= eldest.next().getValue().byteSize();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidate(long investmentId) {
+        invalidations++;
+        PackedCashFlows removed = entries.remove(investmentId);
+        if (removed != null) {
+            usedBytes -= removed.byteSize();
+        }
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
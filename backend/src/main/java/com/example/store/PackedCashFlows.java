@@ -0,0 +1,131 @@
+package com.example.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The trades and dividends of one investment packed into a direct buffer, one
+ * fixed-width record each: epoch microsecond, price and fee in micro-units, quantity and
+ * type. A dividend keeps its amount in the price field with a quantity of zero.
+ *
+ * <p>Instances are immutable once built and read with absolute gets only, so any number
+ * of threads can read the same instance.
+ */
+public class PackedCashFlows {
+    public static final byte BUY = 0;
+    public static final byte SELL = 1;
+    public static final byte DIVIDEND = 2;
+    public static final int RECORD_SIZE = 32;
+
+    private static final int TIME_OFFSET = 0;
+    private static final int PRICE_OFFSET = 8;
+    private static final int FEE_OFFSET = 16;
+    private static final int QUANTITY_OFFSET = 24;
+    private static final int TYPE_OFFSET = 28;
+
+    public static final PackedCashFlows EMPTY = new Builder(0).build();
+
+    private final ByteBuffer records;
+    private final int size;
+
+    private PackedCashFlows(ByteBuffer records, int size) {
+        this.records = records;
+        this.size = size;
+    }
+
+    public static Builder builder(int expectedRecords) {
+        return new Builder(expectedRecords);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Off-heap bytes held by the records
+    public long byteSize() {
+        return records.capacity();
+    }
+
+    public long getEpochMicros(int index) {
+        return records.getLong(index * RECORD_SIZE + TIME_OFFSET);
+    }
+
+    public long getPriceMicros(int index) {
+        return records.getLong(index * RECORD_SIZE + PRICE_OFFSET);
+    }
+
+    public long getFeeMicros(int index) {
+        return records.getLong(index * RECORD_SIZE + FEE_OFFSET);
+    }
+
+    public int getQuantity(int index) {
+        return records.getInt(index * RECORD_SIZE + QUANTITY_OFFSET);
+    }
+
+    public byte getType(int index) {
+        return records.get(index * RECORD_SIZE + TYPE_OFFSET);
+    }
+
+    // Cash flow from the investor's side: purchases are outflows, sales and dividends inflows
+    public long getAmountMicros(int index) {
+        byte type = getType(index);
+        if (type == DIVIDEND) {
+            return getPriceMicros(index);
+        }
+        long gross = Math.multiplyExact(getPriceMicros(index), (long) getQuantity(index));
+        return (type == BUY ? -gross : gross) - getFeeMicros(index);
+    }
+
+    // Units bought minus units sold
+    public long getNetQuantity() {
+        long quantity = 0;
+        for (int i = 0; i < size; i++) {
+            byte type = getType(i);
+            if (type == BUY) {
+                quantity += getQuantity(i);
+            } else if (type == SELL) {
+                quantity -= getQuantity(i);
+            }
+        }
+        return quantity;
+    }
+
+    /**
+     * Collects records on heap and copies them into an exactly sized direct buffer on
+     * {@link #build()}.
+     */
+    public static class Builder {
+        private ByteBuffer buffer;
+        private int size;
+
+        private Builder(int expectedRecords) {
+            buffer = ByteBuffer.allocate(Math.max(1, expectedRecords) * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        }
+
+        public Builder add(long epochMicros, byte type, int quantity, long priceMicros, long feeMicros) {
+            if (type != BUY && type != SELL && type != DIVIDEND) {
+                throw new IllegalArgumentException("Unknown cash flow type: " + type);
+            }
+            if (buffer.remaining() < RECORD_SIZE) {
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2).order(ByteOrder.nativeOrder());
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+            int offset = size * RECORD_SIZE;
+            buffer.putLong(offset + TIME_OFFSET, epochMicros)
+                    .putLong(offset + PRICE_OFFSET, priceMicros)
+                    .putLong(offset + FEE_OFFSET, feeMicros)
+                    .putInt(offset + QUANTITY_OFFSET, quantity)
+                    .put(offset + TYPE_OFFSET, type);
+            buffer.position(offset + RECORD_SIZE);
+            size++;
+            return this;
+        }
+
+        public PackedCashFlows build() {
+            ByteBuffer records = ByteBuffer.allocateDirect(size * RECORD_SIZE).order(ByteOrder.nativeOrder());
+            records.put(buffer.duplicate().flip()).clear();
+            return new PackedCashFlows(records, size);
+        }
+    }
+}
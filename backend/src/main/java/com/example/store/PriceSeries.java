@@ -0,0 +1,292 @@
+package com.example.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Append-only price history of one instrument, stored as a file of fixed-size blocks.
+ *
+ * <p>Each block starts with a header (entry count, payload length, first and last
+ * timestamp, first price) followed by zigzag-varint deltas of epoch seconds and
+ * micro-unit prices against the previous entry. Sealed blocks are never rewritten and
+ * are read through a memory mapping; only the tail block lives on heap until it fills.
+ * Lookups binary-search the in-memory index of block start times and decode a single
+ * block.
+ */
+public class PriceSeries implements Closeable {
+    public static final int BLOCK_SIZE = 4096;
+
+    private static final int COUNT_OFFSET = 0;
+    private static final int LENGTH_OFFSET = 4;
+    private static final int FIRST_TIME_OFFSET = 8;
+    private static final int LAST_TIME_OFFSET = 16;
+    private static final int FIRST_PRICE_OFFSET = 24;
+    private static final int HEADER_SIZE = 32;
+    private static final int MAX_ENTRY_SIZE = 20; // Two 10-byte varints
+
+    @FunctionalInterface
+    public interface TickConsumer {
+        void accept(long epochSecond, long priceMicros);
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer tail = ByteBuffer.allocate(BLOCK_SIZE);
+    private long[] blockFirstTimes = new long[16];
+    private int blockCount;
+    private MappedByteBuffer sealed;
+    private int sealedMappedBlocks;
+    private long lastTime;
+    private long lastPrice;
+    private boolean tailDirty;
+
+    public PriceSeries(Path file) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            loadExisting();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open price series " + file, e);
+        }
+    }
+
+    public synchronized void append(long epochSecond, long priceMicros) {
+        if (blockCount > 0 && epochSecond < lastTime) {
+            throw new IllegalArgumentException("Price ticks must be appended in chronological order");
+        }
+        if (blockCount == 0 || tail.getInt(LENGTH_OFFSET) + MAX_ENTRY_SIZE > BLOCK_SIZE - HEADER_SIZE) {
+            startBlock(epochSecond, priceMicros);
+        } else {
+            int position = HEADER_SIZE + tail.getInt(LENGTH_OFFSET);
+            position = writeVarLong(tail, position, zigZag(epochSecond - lastTime));
+            position = writeVarLong(tail, position, zigZag(priceMicros - lastPrice));
+            tail.putInt(LENGTH_OFFSET, position - HEADER_SIZE);
+            tail.putInt(COUNT_OFFSET, tail.getInt(COUNT_OFFSET) + 1);
+            tail.putLong(LAST_TIME_OFFSET, epochSecond);
+        }
+        lastTime = epochSecond;
+        lastPrice = priceMicros;
+        tailDirty = true;
+    }
+
+    public synchronized void flush() {
+        if (!tailDirty) {
+            return;
+        }
+        writeBlock(blockCount - 1, tail);
+        tailDirty = false;
+    }
+
+    public synchronized OptionalLong priceAsOf(long epochSecond) {
+        if (blockCount == 0 || epochSecond < blockFirstTimes[0]) {
+            return OptionalLong.empty();
+        }
+        if (epochSecond >= lastTime) {
+            return OptionalLong.of(lastPrice);
+        }
+
+        int block = upperBound(epochSecond) - 1;
+        long[] found = { 0L };
+        decodeBlock(block, (time, price) -> {
+            if (time <= epochSecond) {
+                found[0] = price;
+                return true;
+            }
+            return false;
+        });
+        return OptionalLong.of(found[0]);
+    }
+
+    public synchronized void scan(long fromEpochSecond, long toEpochSecond, TickConsumer consumer) {
+        if (blockCount == 0 || toEpochSecond < blockFirstTimes[0]) {
+            return;
+        }
+        // The block before the first one starting at or after 'from' may still hold matching ticks
+        int block = Math.max(0, lowerBound(fromEpochSecond) - 1);
+        for (; block < blockCount && blockFirstTimes[block] <= toEpochSecond; block++) {
+            decodeBlock(block, (time, price) -> {
+                if (time > toEpochSecond) {
+                    return false;
+                }
+                if (time >= fromEpochSecond) {
+                    consumer.accept(time, price);
+                }
+                return true;
+            });
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return blockCount == 0;
+    }
+
+    public synchronized int getBlockCount() {
+        return blockCount;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void loadExisting() throws IOException {
+        int blocks = (int) (channel.size() / BLOCK_SIZE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        for (int block = 0; block < blocks; block++) {
+            header.clear();
+            channel.read(header, (long) block * BLOCK_SIZE);
+            addBlockIndex(header.getLong(FIRST_TIME_OFFSET));
+        }
+        if (blocks > 0) {
+            tail.clear();
+            channel.read(tail, (long) (blocks - 1) * BLOCK_SIZE);
+            decodeBlock(tail, (time, price) -> {
+                lastTime = time;
+                lastPrice = price;
+                return true;
+            });
+        }
+    }
+
+    private void startBlock(long epochSecond, long priceMicros) {
+        if (blockCount > 0) {
+            writeBlock(blockCount - 1, tail);
+        }
+        Arrays.fill(tail.array(), (byte) 0);
+        tail.putInt(COUNT_OFFSET, 1);
+        tail.putInt(LENGTH_OFFSET, 0);
+        tail.putLong(FIRST_TIME_OFFSET, epochSecond);
+        tail.putLong(LAST_TIME_OFFSET, epochSecond);
+        tail.putLong(FIRST_PRICE_OFFSET, priceMicros);
+        addBlockIndex(epochSecond);
+    }
+
+    private void writeBlock(int block, ByteBuffer buffer) {
+        try {
+            ByteBuffer source = buffer.duplicate();
+            source.clear();
+            long offset = (long) block * BLOCK_SIZE;
+            while (source.hasRemaining()) {
+                offset += channel.write(source, offset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write price block " + block, e);
+        }
+    }
+
+    private void addBlockIndex(long firstTime) {
+        if (blockCount == blockFirstTimes.length) {
+            blockFirstTimes = Arrays.copyOf(blockFirstTimes, blockCount * 2);
+        }
+        blockFirstTimes[blockCount++] = firstTime;
+    }
+
+    // First block whose first timestamp is after the given time
+    private int upperBound(long epochSecond) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockFirstTimes[mid] <= epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First block whose first timestamp is at or after the given time
+    private int lowerBound(long epochSecond) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockFirstTimes[mid] < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private interface EntryVisitor {
+        boolean visit(long epochSecond, long priceMicros);
+    }
+
+    private void decodeBlock(int block, EntryVisitor visitor) {
+        decodeBlock(block == blockCount - 1 ? tail : sealedBlock(block), visitor);
+    }
+
+    private ByteBuffer sealedBlock(int block) {
+        int sealedBlocks = blockCount - 1;
+        if (sealed == null || sealedMappedBlocks < sealedBlocks) {
+            try {
+                sealed = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) sealedBlocks * BLOCK_SIZE);
+                sealedMappedBlocks = sealedBlocks;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map price blocks", e);
+            }
+        }
+        return sealed.slice(block * BLOCK_SIZE, BLOCK_SIZE);
+    }
+
+    private static void decodeBlock(ByteBuffer block, EntryVisitor visitor) {
+        int count = block.getInt(COUNT_OFFSET);
+        long time = block.getLong(FIRST_TIME_OFFSET);
+        long price = block.getLong(FIRST_PRICE_OFFSET);
+        if (count == 0 || !visitor.visit(time, price)) {
+            return;
+        }
+        int[] position = { HEADER_SIZE };
+        for (int i = 1; i < count; i++) {
+            time += unZigZag(readVarLong(block, position));
+            price += unZigZag(readVarLong(block, position));
+            if (!visitor.visit(time, price)) {
+                return;
+            }
+        }
+    }
+
+    private static int writeVarLong(ByteBuffer buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put(position++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(position++, (byte) value);
+        return position;
+    }
+
+    private static long readVarLong(ByteBuffer buffer, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get(position[0]++);
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.store;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free ring buffer for exactly one producer thread and one consumer thread
+ * at a time. Positions only grow; a slot is {@code position & mask}. The producer
+ * publishes with a release store of the tail, the consumer frees slots with a release
+ * store of the head, so neither side ever blocks the other.
+ *
+ * <p>The consumer reads with {@link #peek} and releases with {@link #advance} only after
+ * the items have been handled, so a failed flush can simply be retried.
+ */
+public class SpscRingBuffer<T> {
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // Producer side
+
+    public boolean offer(T item) {
+        long position = tail.get();
+        if (position - head.get() == slots.length) {
+            return false;
+        }
+        slots[(int) (position & mask)] = item;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    public int remainingCapacity() {
+        return slots.length - size();
+    }
+
+    /**
+     * Position the next offered item will get.
+     */
+    public long nextPosition() {
+        return tail.get();
+    }
+
+    // Consumer side
+
+    @SuppressWarnings("unchecked")
+    public int peek(List<T> into, int max) {
+        long position = head.get();
+        int available = (int) Math.min(max, tail.get() - position);
+        for (int i = 0; i < available; i++) {
+            into.add((T) slots[(int) ((position + i) & mask)]);
+        }
+        return available;
+    }
+
+    public void advance(int count) {
+        long position = head.get();
+        for (int i = 0; i < count; i++) {
+            slots[(int) ((position + i) & mask)] = null;
+        }
+        head.lazySet(position + count);
+    }
+
+    /**
+     * Position of the oldest item not yet released by the consumer.
+     */
+    public long headPosition() {
+        return head.get();
+    }
+
+    public int size() {
+        long currentHead = head.get();
+        return (int) Math.max(0, Math.min(slots.length, tail.get() - currentHead));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
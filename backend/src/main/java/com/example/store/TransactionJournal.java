@@ -0,0 +1,313 @@
+package com.example.store;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.example.enums.TransactionType;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+
+/**
+ * Append-only journal of queued transactions for one write-behind partition. Each record
+ * is {@code [length][crc32][sequence, investment, user, transaction fields]}; replay
+ * stops at the first torn or corrupt record. A separate checkpoint file holds the
+ * sequence below which every record has reached the database, so recovery replays only
+ * the tail. The checkpoint is not fsync'd: a stale one replays rows again (at least once)
+ * but never loses them. {@link #compact} rewrites the journal without the persisted
+ * records, so its size stays bounded while rows keep arriving.
+ */
+public class TransactionJournal implements Closeable {
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path journalFile;
+    private final FileChannel checkpoint;
+    private FileChannel journal;
+    private final boolean fsync;
+    private final ByteBuffer checkpointBuffer = ByteBuffer.allocate(Long.BYTES);
+
+    public TransactionJournal(Path journalFile, Path checkpointFile, boolean fsync) {
+        this.journalFile = journalFile;
+        this.fsync = fsync;
+        try {
+            journal = openJournal(journalFile);
+            checkpoint = FileChannel.open(checkpointFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open transaction journal " + journalFile, e);
+        }
+    }
+
+    /**
+     * Appends the transactions with consecutive sequences starting at firstSequence and,
+     * in fsync mode, forces them to disk before returning.
+     */
+    public synchronized void append(long firstSequence, List<Transaction> transactions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(transactions.size() * 96);
+        long start = -1;
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (int i = 0; i < transactions.size(); i++) {
+                writeRecord(out, firstSequence + i, transactions.get(i));
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            start = journal.position();
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (fsync) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            if (start >= 0) {
+                discardFrom(start, e);
+            }
+            throw new UncheckedIOException("Failed to append to transaction journal", e);
+        }
+    }
+
+    /**
+     * Calls the consumer for every intact record with a sequence at or after fromSequence.
+     *
+     * @return the number of records replayed
+     */
+    public synchronized int replay(long fromSequence, Consumer<Transaction> consumer) {
+        int replayed = 0;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(journal.position(0))));
+            while (true) {
+                byte[] payload = readPayload(in);
+                if (payload == null) {
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                long sequence = record.readLong();
+                if (sequence >= fromSequence) {
+                    consumer.accept(readTransaction(record));
+                    replayed++;
+                }
+            }
+            journal.position(journal.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay transaction journal", e);
+        }
+        return replayed;
+    }
+
+    public synchronized long readCheckpoint() {
+        try {
+            checkpointBuffer.clear();
+            int read = checkpoint.read(checkpointBuffer, 0);
+            return read == Long.BYTES ? checkpointBuffer.getLong(0) : 0L;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read journal checkpoint", e);
+        }
+    }
+
+    /**
+     * Records that every record with a sequence below the given one is persisted.
+     */
+    public synchronized void checkpoint(long sequence) {
+        try {
+            checkpointBuffer.clear();
+            checkpointBuffer.putLong(0, sequence);
+            checkpoint.write(checkpointBuffer, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write journal checkpoint", e);
+        }
+    }
+
+    /**
+     * Empties the journal and resets the checkpoint, once every record is persisted.
+     */
+    public synchronized void reset() {
+        try {
+            journal.truncate(0);
+            journal.position(0);
+            journal.force(false);
+            checkpoint(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reset transaction journal", e);
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the records at or after fromSequence, keeping their
+     * sequences and the checkpoint. The new file replaces the old one atomically, so a crash
+     * midway leaves one of the two intact.
+     *
+     * @return the number of records kept
+     */
+    public synchronized int compact(long fromSequence) {
+        Path compacted = journalFile.resolveSibling(journalFile.getFileName() + ".compact");
+        int kept = 0;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(journal.position(0))));
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (true) {
+                    byte[] payload = readPayload(in);
+                    if (payload == null) {
+                        break;
+                    }
+                    if (ByteBuffer.wrap(payload).getLong() >= fromSequence) {
+                        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+                        CRC32 crc = new CRC32();
+                        crc.update(payload);
+                        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+                        while (record.hasRemaining()) {
+                            out.write(record);
+                        }
+                        kept++;
+                    }
+                }
+                out.force(false);
+            }
+            journal.close();
+            Files.move(compacted, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal = openJournal(journalFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact transaction journal", e);
+        }
+        return kept;
+    }
+
+    public synchronized long size() {
+        try {
+            return journal.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            journal.close();
+            checkpoint.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A torn record would end replay before any record appended after it
+    private void discardFrom(long position, IOException cause) {
+        try {
+            journal.truncate(position);
+            journal.position(position);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static FileChannel openJournal(Path journalFile) throws IOException {
+        FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private static void writeRecord(DataOutputStream out, long sequence, Transaction transaction) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeLong(sequence);
+        record.writeLong(transaction.getInvestment().getId());
+        record.writeLong(transaction.getInvestment().getUserId());
+        record.writeByte(transaction.getType().ordinal());
+        record.writeInt(transaction.getQuantity());
+        writeDecimal(record, transaction.getPrice());
+        writeDecimal(record, transaction.getFee());
+        record.writeLong(transaction.getTimestamp().getEpochSecond());
+        record.writeInt(transaction.getTimestamp().getNano());
+        record.writeBoolean(transaction.getExternalId() != null);
+        if (transaction.getExternalId() != null) {
+            record.writeUTF(transaction.getExternalId());
+        }
+
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+    }
+
+    // Null at the end of the journal or at a torn/corrupt record
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        byte[] header = new byte[RECORD_HEADER_SIZE];
+        try {
+            in.readFully(header);
+            ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+            int length = headerBuffer.getInt();
+            int expectedCrc = headerBuffer.getInt();
+            if (length <= 0 || length > 64 * 1024) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == expectedCrc ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static Transaction readTransaction(DataInputStream record) throws IOException {
+        Investment investment = new Investment();
+        investment.setId(record.readLong());
+        investment.setUserId(record.readLong());
+
+        Transaction transaction = new Transaction();
+        transaction.setInvestment(investment);
+        transaction.setType(TransactionType.values()[record.readByte()]);
+        transaction.setQuantity(record.readInt());
+        transaction.setPrice(readDecimal(record));
+        transaction.setFee(readDecimal(record));
+        transaction.setTimestamp(Instant.ofEpochSecond(record.readLong(), record.readInt()));
+        if (record.readBoolean()) {
+            transaction.setExternalId(record.readUTF());
+        }
+        return transaction;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+        out.writeInt(value.scale());
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.readInt());
+    }
+}
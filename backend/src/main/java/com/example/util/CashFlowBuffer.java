@@ -0,0 +1,68 @@
+package com.example.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.dto.CashFlowData;
+
+/**
+ * Chronological cash flows held in parallel primitive arrays (epoch seconds and amounts),
+ * so several XIRR windows can be solved over the same flows without boxing or copying.
+ */
+public class CashFlowBuffer {
+    private long[] epochSeconds;
+    private double[] amounts;
+    private int size;
+
+    public CashFlowBuffer(int capacity) {
+        epochSeconds = new long[Math.max(1, capacity)];
+        amounts = new double[Math.max(1, capacity)];
+    }
+
+    public static CashFlowBuffer of(List<CashFlowData> cashFlows) {
+        CashFlowBuffer buffer = new CashFlowBuffer(cashFlows.size());
+        for (CashFlowData cashFlow : cashFlows) {
+            buffer.add(cashFlow.getDate().getEpochSecond(), cashFlow.getAmount().doubleValue());
+        }
+        return buffer;
+    }
+
+    public void add(long epochSecond, double amount) {
+        if (size > 0 && epochSecond < epochSeconds[size - 1]) {
+            throw new IllegalArgumentException("Cash flows must be added in chronological order");
+        }
+        if (size == epochSeconds.length) {
+            epochSeconds = Arrays.copyOf(epochSeconds, size * 2);
+            amounts = Arrays.copyOf(amounts, size * 2);
+        }
+        epochSeconds[size] = epochSecond;
+        amounts[size++] = amount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getEpochSecond(int index) {
+        return epochSeconds[index];
+    }
+
+    public double getAmount(int index) {
+        return amounts[index];
+    }
+
+    // Index of the first flow at or after the given time, or size() if there is none
+    public int firstIndexAtOrAfter(long epochSecond) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochSeconds[mid] < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import com.example.enums.TransactionType;
+
+/**
+ * Streaming parser for transaction CSV files with the columns
+ * {@code investment_id,type,quantity,price,fee,timestamp[,external_id]}. An optional
+ * header line is skipped. Fields are unquoted; the timestamp is an ISO-8601 instant or
+ * epoch millis.
+ *
+ * <p>Lines are scanned in place inside a reusable char buffer and numbers are parsed
+ * straight from it, so no per-line strings are created; only the external ID is copied
+ * out. Rows are written column-wise into a reusable {@link Chunk}.
+ */
+public class CsvTransactionParser implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 8;
+    private static final int REQUIRED_FIELDS = 6;
+    private static final int EXTERNAL_ID_FIELD = 6;
+    private static final char SEPARATOR = ',';
+
+    public static class Chunk {
+        public final long[] rowNumbers;
+        public final long[] investmentIds;
+        public final TransactionType[] types;
+        public final int[] quantities;
+        public final BigDecimal[] prices;
+        public final BigDecimal[] fees;
+        public final Instant[] timestamps;
+        public final String[] externalIds;
+        public final String[] errors;
+        private int size;
+
+        public Chunk(int capacity) {
+            rowNumbers = new long[capacity];
+            investmentIds = new long[capacity];
+            types = new TransactionType[capacity];
+            quantities = new int[capacity];
+            prices = new BigDecimal[capacity];
+            fees = new BigDecimal[capacity];
+            timestamps = new Instant[capacity];
+            externalIds = new String[capacity];
+            errors = new String[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isFull() {
+            return size == rowNumbers.length;
+        }
+
+        public void clear() {
+            Arrays.fill(prices, 0, size, null);
+            Arrays.fill(fees, 0, size, null);
+            Arrays.fill(timestamps, 0, size, null);
+            Arrays.fill(externalIds, 0, size, null);
+            Arrays.fill(errors, 0, size, null);
+            size = 0;
+        }
+    }
+
+    private final Reader reader;
+    private char[] buffer;
+    private CharBuffer view;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private boolean firstLine = true;
+    private long rowNumber;
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+    private final ParsePosition parsePosition = new ParsePosition(0);
+
+    public CsvTransactionParser(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvTransactionParser(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        this.view = CharBuffer.wrap(buffer);
+    }
+
+    /**
+     * Skips data rows without parsing them, e.g. to resume an interrupted import.
+     *
+     * @return the number of rows actually skipped
+     */
+    public long skipRows(long rows) throws IOException {
+        long skipped = 0;
+        while (skipped < rows) {
+            int lineEnd = nextLine();
+            if (lineEnd < 0) {
+                break;
+            }
+            if (consumeHeader(lineEnd)) {
+                continue;
+            }
+            int lineStart = position;
+            position = lineEnd + 1;
+            // Blank lines are not rows, as in fill, so resume offsets count the same rows
+            if (contentEnd(lineStart, lineEnd) == lineStart) {
+                continue;
+            }
+            rowNumber++;
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Fills the chunk with up to its capacity of rows, starting from an empty chunk.
+     *
+     * @return false once the input is exhausted and no row was read
+     */
+    public boolean fill(Chunk chunk) throws IOException {
+        chunk.clear();
+        while (!chunk.isFull()) {
+            int lineEnd = nextLine();
+            if (lineEnd < 0) {
+                break;
+            }
+            if (consumeHeader(lineEnd)) {
+                continue;
+            }
+            int lineStart = position;
+            position = lineEnd + 1;
+            int contentEnd = contentEnd(lineStart, lineEnd);
+            if (contentEnd == lineStart) {
+                continue;
+            }
+            parseRow(chunk, chunk.size++, lineStart, contentEnd);
+        }
+        return chunk.size() > 0;
+    }
+
+    private int contentEnd(int lineStart, int lineEnd) {
+        return lineEnd > lineStart && buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+    }
+
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean consumeHeader(int lineEnd) {
+        if (!firstLine) {
+            return false;
+        }
+        firstLine = false;
+        if (position < lineEnd && !Character.isDigit(buffer[position])) {
+            position = lineEnd + 1;
+            return true;
+        }
+        return false;
+    }
+
+    private void parseRow(Chunk chunk, int index, int start, int end) {
+        chunk.rowNumbers[index] = rowNumber++;
+        chunk.errors[index] = null;
+
+        int fields = splitFields(start, end);
+        if (fields < REQUIRED_FIELDS) {
+            chunk.errors[index] = "Expected " + REQUIRED_FIELDS + " fields but found " + fields;
+            return;
+        }
+        try {
+            chunk.investmentIds[index] = Long.parseLong(view, fieldStarts[0], fieldEnds[0], 10);
+            chunk.types[index] = parseType(fieldStarts[1], fieldEnds[1]);
+            chunk.quantities[index] = Integer.parseInt(view, fieldStarts[2], fieldEnds[2], 10);
+            chunk.prices[index] = parseDecimal(fieldStarts[3], fieldEnds[3]);
+            chunk.fees[index] = parseDecimal(fieldStarts[4], fieldEnds[4]);
+            chunk.timestamps[index] = parseTimestamp(fieldStarts[5], fieldEnds[5]);
+            chunk.externalIds[index] = fields > EXTERNAL_ID_FIELD
+                    ? parseText(fieldStarts[EXTERNAL_ID_FIELD], fieldEnds[EXTERNAL_ID_FIELD])
+                    : null;
+        } catch (NumberFormatException | DateTimeException e) {
+            chunk.errors[index] = "Malformed row: " + e.getMessage();
+        } catch (IllegalArgumentException e) {
+            chunk.errors[index] = e.getMessage();
+        }
+    }
+
+    private int splitFields(int start, int end) {
+        int fields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end && fields < MAX_FIELDS; i++) {
+            if (i == end || buffer[i] == SEPARATOR) {
+                fieldStarts[fields] = trimStart(fieldStart, i);
+                fieldEnds[fields] = trimEnd(fieldStarts[fields], i);
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        return fields;
+    }
+
+    private TransactionType parseType(int start, int end) {
+        if (matches("BUY", start, end)) {
+            return TransactionType.BUY;
+        }
+        if (matches("SELL", start, end)) {
+            return TransactionType.SELL;
+        }
+        throw new IllegalArgumentException("Unknown transaction type");
+    }
+
+    private BigDecimal parseDecimal(int start, int end) {
+        // An empty field maps to null so the Transaction setters decide whether it is allowed
+        return start == end ? null : new BigDecimal(buffer, start, end - start);
+    }
+
+    private String parseText(int start, int end) {
+        return start == end ? null : new String(buffer, start, end - start);
+    }
+
+    private Instant parseTimestamp(int start, int end) {
+        if (isAllDigits(start, end)) {
+            return Instant.ofEpochMilli(Long.parseLong(view, start, end, 10));
+        }
+        parsePosition.setIndex(start);
+        parsePosition.setErrorIndex(-1);
+        Instant instant = Instant.from(DateTimeFormatter.ISO_INSTANT.parse(view, parsePosition));
+        if (parsePosition.getIndex() != end) {
+            throw new DateTimeException("Unexpected characters after timestamp");
+        }
+        return instant;
+    }
+
+    private boolean matches(String expected, int start, int end) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toUpperCase(buffer[start + i]) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAllDigits(int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(buffer[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && buffer[start] == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && buffer[end - 1] == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    // Index of the newline ending the current line, reading more input as needed; -1 at end of input
+    private int nextLine() throws IOException {
+        int scanFrom = position;
+        while (true) {
+            for (int i = scanFrom; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            if (endOfInput) {
+                if (position < limit) {
+                    // Last line without a trailing newline: terminate it in place
+                    ensureCapacity(limit + 1);
+                    buffer[limit] = '\n';
+                    return limit++;
+                }
+                return -1;
+            }
+            scanFrom = limit - position;
+            compact();
+            readMore();
+        }
+    }
+
+    private void compact() {
+        int remaining = limit - position;
+        if (remaining == buffer.length) {
+            ensureCapacity(buffer.length * 2);
+        }
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+    }
+
+    private void readMore() throws IOException {
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+            view = CharBuffer.wrap(buffer);
+        }
+    }
+}
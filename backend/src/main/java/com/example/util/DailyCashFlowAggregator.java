@@ -0,0 +1,75 @@
+package com.example.util;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.example.dto.CashFlowData;
+
+/**
+ * Folds streamed trades and dividends into one net amount per UTC day, so memory grows
+ * with the number of distinct days instead of the number of flows. Amounts are summed in
+ * micro-units and each day's flow is dated at its start. Flows after the cutoff are left
+ * out as in the per-trade pipeline, but still count toward the net quantity of their
+ * investment, which prices the closing value.
+ */
+public class DailyCashFlowAggregator {
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final Instant cutoff;
+    private final TreeMap<Long, long[]> dailyMicros = new TreeMap<>();
+    private final Map<Long, long[]> netQuantities = new HashMap<>();
+    private long flowCount;
+
+    public DailyCashFlowAggregator(Instant cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    public void addTrade(Long investmentId, Instant timestamp, boolean buy, int quantity, long priceMicros,
+            long feeMicros) {
+        netQuantities.computeIfAbsent(investmentId, id -> new long[1])[0] += buy ? quantity : -quantity;
+        long gross = Math.multiplyExact(priceMicros, (long) quantity);
+        add(timestamp, (buy ? -gross : gross) - feeMicros);
+    }
+
+    public void addDividend(Instant timestamp, long amountMicros) {
+        add(timestamp, amountMicros);
+    }
+
+    public long getNetQuantity(Long investmentId) {
+        long[] quantity = netQuantities.get(investmentId);
+        return quantity == null ? 0 : quantity[0];
+    }
+
+    // Flows folded in so far, including those that netted out
+    public long getFlowCount() {
+        return flowCount;
+    }
+
+    public int getDayCount() {
+        return dailyMicros.size();
+    }
+
+    // Chronological daily flows; days whose flows cancel out are dropped
+    public List<CashFlowData> toCashFlows() {
+        List<CashFlowData> cashFlows = new ArrayList<>(dailyMicros.size() + 1);
+        dailyMicros.forEach((day, micros) -> {
+            if (micros[0] != 0) {
+                cashFlows.add(new CashFlowData(FixedPoint.fromMicros(micros[0]),
+                        Instant.ofEpochSecond(day * SECONDS_PER_DAY)));
+            }
+        });
+        return cashFlows;
+    }
+
+    private void add(Instant timestamp, long amountMicros) {
+        if (timestamp.isAfter(cutoff)) {
+            return;
+        }
+        dailyMicros.computeIfAbsent(HoldingsIndex.toEpochDay(timestamp), day -> new long[1])[0] += amountMicros;
+        flowCount++;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money and price amounts stored as {@code long} micro-units (6 decimal places) for
+ * compact binary and off-heap representations.
+ */
+public final class FixedPoint {
+    public static final int SCALE = 6;
+    public static final long ONE = 1_000_000L;
+
+    private FixedPoint() {
+    }
+
+    public static long toMicros(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMicros(long micros) {
+        return BigDecimal.valueOf(micros, SCALE);
+    }
+
+    public static double toDouble(long micros) {
+        return micros / (double) ONE;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.util;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalLong;
+
+import com.example.enums.TransactionType;
+import com.example.model.Transaction;
+
+/**
+ * Point-in-time view of one investment's holdings. Transactions are bucketed by UTC
+ * epoch day; for every day with activity the index stores the net quantity, the net
+ * cash flow (sells minus buys, fees deducted, in micro units) accumulated up to and
+ * including that day, and the price of the day's last trade. A lookup at any date is a
+ * binary search over the sorted days.
+ *
+ * <p>Instances are immutable and safe to share between threads.
+ */
+public final class HoldingsIndex {
+    public static final HoldingsIndex EMPTY = new HoldingsIndex(new long[0], new long[0], new long[0], new long[0], 0);
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final long[] days;
+    private final long[] quantities;
+    private final long[] cashFlows;
+    private final long[] lastPrices;
+    private final int transactionCount;
+
+    private HoldingsIndex(long[] days, long[] quantities, long[] cashFlows, long[] lastPrices, int transactionCount) {
+        this.days = days;
+        this.quantities = quantities;
+        this.cashFlows = cashFlows;
+        this.lastPrices = lastPrices;
+        this.transactionCount = transactionCount;
+    }
+
+    public static HoldingsIndex build(List<Transaction> transactions) {
+        if (transactions == null || transactions.isEmpty()) {
+            return EMPTY;
+        }
+        List<Transaction> sorted = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            if (transaction.getTimestamp() != null) {
+                sorted.add(transaction);
+            }
+        }
+        sorted.sort(Comparator.comparing(Transaction::getTimestamp));
+
+        int capacity = sorted.size();
+        long[] days = new long[capacity];
+        long[] quantities = new long[capacity];
+        long[] cashFlows = new long[capacity];
+        long[] lastPrices = new long[capacity];
+        int size = 0;
+        long quantity = 0;
+        long cashFlow = 0;
+        for (Transaction transaction : sorted) {
+            long day = toEpochDay(transaction.getTimestamp());
+            long amount = FixedPoint.toMicros(transaction.getPrice()) * transaction.getQuantity();
+            long fee = FixedPoint.toMicros(transaction.getFee());
+            if (transaction.getType() == TransactionType.BUY) {
+                quantity += transaction.getQuantity();
+                cashFlow -= amount + fee;
+            } else {
+                quantity -= transaction.getQuantity();
+                cashFlow += amount - fee;
+            }
+            if (size == 0 || days[size - 1] != day) {
+                days[size++] = day;
+            }
+            quantities[size - 1] = quantity;
+            cashFlows[size - 1] = cashFlow;
+            lastPrices[size - 1] = FixedPoint.toMicros(transaction.getPrice());
+        }
+        return new HoldingsIndex(Arrays.copyOf(days, size), Arrays.copyOf(quantities, size),
+                Arrays.copyOf(cashFlows, size), Arrays.copyOf(lastPrices, size), sorted.size());
+    }
+
+    public static long toEpochDay(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_DAY);
+    }
+
+    public long quantityAt(Instant instant) {
+        return quantityAt(toEpochDay(instant));
+    }
+
+    // Holdings at the end of the given day
+    public long quantityAt(long epochDay) {
+        int index = floorIndex(epochDay);
+        return index < 0 ? 0 : quantities[index];
+    }
+
+    public long netCashFlowMicrosAt(long epochDay) {
+        int index = floorIndex(epochDay);
+        return index < 0 ? 0 : cashFlows[index];
+    }
+
+    public OptionalLong lastTradePriceMicrosAt(long epochDay) {
+        int index = floorIndex(epochDay);
+        return index < 0 ? OptionalLong.empty() : OptionalLong.of(lastPrices[index]);
+    }
+
+    // Index of the last day at or before the given one, or -1; for sweeping with the positional getters below
+    public int floorIndex(long epochDay) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] <= epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    public long getDay(int index) {
+        return days[index];
+    }
+
+    public long getQuantity(int index) {
+        return quantities[index];
+    }
+
+    public long getLastTradePriceMicros(int index) {
+        return lastPrices[index];
+    }
+
+    public boolean isEmpty() {
+        return days.length == 0;
+    }
+
+    public int getDayCount() {
+        return days.length;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public long getFirstDay() {
+        return days.length == 0 ? Long.MAX_VALUE : days[0];
+    }
+
+    public long getLastDay() {
+        return days.length == 0 ? Long.MIN_VALUE : days[days.length - 1];
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.util;
+
+import java.math.BigDecimal;
+
+import com.example.enums.CostBasisMethod;
+import com.example.enums.TransactionType;
+import com.example.model.Transaction;
+
+/**
+ * Open tax lots of one investment with realized gains, updated one transaction at a time.
+ * BUY opens a lot whose unit cost includes its fee; SELL closes quantity at its price
+ * minus its fee. Transactions must be applied in chronological order.
+ *
+ * <p>Lots are kept in a ring of parallel primitive arrays (quantity, unit cost in micro
+ * units, open time), so a history of a million trades costs a few arrays rather than a
+ * million objects. Under FIFO sells consume from the head; under average cost the lots
+ * are collapsed into a single pooled lot at the running average.
+ */
+public class LotLedger {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final CostBasisMethod method;
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private long[] unitCosts = new long[INITIAL_CAPACITY];
+    private long[] openTimes = new long[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    private long openQuantity;
+    private long costBasis;
+    private long realizedGain;
+    private long unmatchedQuantity;
+    private long appliedCount;
+    private long lastEpochSecond = Long.MIN_VALUE;
+
+    public LotLedger(CostBasisMethod method) {
+        if (method == null) {
+            throw new IllegalArgumentException("Cost basis method cannot be null");
+        }
+        this.method = method;
+    }
+
+    public void apply(Transaction transaction) {
+        BigDecimal fee = transaction.getFee() == null ? BigDecimal.ZERO : transaction.getFee();
+        apply(transaction.getType(), transaction.getQuantity(), FixedPoint.toMicros(transaction.getPrice()),
+                FixedPoint.toMicros(fee), transaction.getTimestamp().getEpochSecond());
+    }
+
+    public void apply(TransactionType type, long quantity, long priceMicros, long feeMicros, long epochSecond) {
+        if (epochSecond < lastEpochSecond) {
+            throw new IllegalArgumentException("Transactions must be applied in chronological order");
+        }
+        lastEpochSecond = epochSecond;
+        appliedCount++;
+        if (quantity <= 0) {
+            return;
+        }
+        if (type == TransactionType.BUY) {
+            buy(quantity, priceMicros, feeMicros, epochSecond);
+        } else {
+            sell(quantity, priceMicros, feeMicros);
+        }
+    }
+
+    public CostBasisMethod getMethod() {
+        return method;
+    }
+
+    public long getOpenQuantity() {
+        return openQuantity;
+    }
+
+    public long getCostBasisMicros() {
+        return costBasis;
+    }
+
+    public long getRealizedGainMicros() {
+        return realizedGain;
+    }
+
+    public long getUnrealizedGainMicros(long priceMicros) {
+        return priceMicros * openQuantity - costBasis;
+    }
+
+    // Quantity sold without an open lot to match, e.g. a history that starts mid-position
+    public long getUnmatchedQuantity() {
+        return unmatchedQuantity;
+    }
+
+    public int getLotCount() {
+        return size;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    public long getLastEpochSecond() {
+        return lastEpochSecond;
+    }
+
+    public long getLotQuantity(int index) {
+        return quantities[slot(index)];
+    }
+
+    public long getLotUnitCostMicros(int index) {
+        return unitCosts[slot(index)];
+    }
+
+    public long getLotOpenEpochSecond(int index) {
+        return openTimes[slot(index)];
+    }
+
+    private void buy(long quantity, long priceMicros, long feeMicros, long epochSecond) {
+        long lotCost = priceMicros * quantity + feeMicros;
+        openQuantity += quantity;
+        costBasis += lotCost;
+        if (method == CostBasisMethod.AVERAGE_COST) {
+            if (size == 0) {
+                push(quantity, 0, epochSecond);
+            }
+            int pooled = slot(0);
+            quantities[pooled] = openQuantity;
+            unitCosts[pooled] = Math.round((double) costBasis / openQuantity);
+        } else {
+            push(quantity, Math.round(priceMicros + (double) feeMicros / quantity), epochSecond);
+        }
+    }
+
+    private void sell(long quantity, long priceMicros, long feeMicros) {
+        long matched = Math.min(quantity, openQuantity);
+        unmatchedQuantity += quantity - matched;
+        if (matched == 0) {
+            return;
+        }
+
+        long releasedCost = method == CostBasisMethod.AVERAGE_COST ? releaseAverage(matched) : releaseFifo(matched);
+        // The fee is charged against the matched part only when part of the sell is unmatched
+        long fee = matched == quantity ? feeMicros : Math.round((double) feeMicros * matched / quantity);
+        realizedGain += priceMicros * matched - fee - releasedCost;
+        openQuantity -= matched;
+        costBasis -= releasedCost;
+    }
+
+    private long releaseFifo(long quantity) {
+        long released = 0;
+        long remaining = quantity;
+        while (remaining > 0) {
+            int first = slot(0);
+            long take = Math.min(remaining, quantities[first]);
+            released += take * unitCosts[first];
+            quantities[first] -= take;
+            remaining -= take;
+            if (quantities[first] == 0) {
+                head = (head + 1) % quantities.length;
+                size--;
+            }
+        }
+        // The last lot closed carries any rounding left from per-unit costs
+        return size == 0 ? costBasis : released;
+    }
+
+    private long releaseAverage(long quantity) {
+        int pooled = slot(0);
+        long released = quantity == openQuantity ? costBasis : Math.round((double) costBasis * quantity / openQuantity);
+        quantities[pooled] -= quantity;
+        if (quantities[pooled] == 0) {
+            head = 0;
+            size = 0;
+        }
+        return released;
+    }
+
+    private void push(long quantity, long unitCost, long epochSecond) {
+        if (size == quantities.length) {
+            grow();
+        }
+        int tail = slot(size);
+        quantities[tail] = quantity;
+        unitCosts[tail] = unitCost;
+        openTimes[tail] = epochSecond;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = quantities.length * 2;
+        quantities = unwrap(quantities, capacity);
+        unitCosts = unwrap(unitCosts, capacity);
+        openTimes = unwrap(openTimes, capacity);
+        head = 0;
+    }
+
+    private long[] unwrap(long[] values, int capacity) {
+        long[] copy = new long[capacity];
+        int firstPart = Math.min(size, values.length - head);
+        System.arraycopy(values, head, copy, 0, firstPart);
+        System.arraycopy(values, 0, copy, firstPart, size - firstPart);
+        return copy;
+    }
+
+    private int slot(int index) {
+        return (head + index) % quantities.length;
+    }
+}
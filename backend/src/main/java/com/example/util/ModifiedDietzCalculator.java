@@ -0,0 +1,55 @@
+package com.example.util;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Modified Dietz return, a single-pass closed-form approximation of XIRR. Takes the same
+ * input as {@link XirrCalculator}: chronological cash flows from the investor's side
+ * (purchases negative, sales and dividends positive) ending with the current value.
+ * Each flow is weighted by the fraction of the period it was invested for:
+ *
+ * <pre>
+ *   R = (EMV - sum F) / sum (w * F),   F = -cashFlow,   w = (end - t) / (end - start)
+ * </pre>
+ *
+ * The period return is annualized on the same 365-day basis as XIRR.
+ */
+@Component
+public class ModifiedDietzCalculator {
+    private static final double SECONDS_IN_YEAR = 365 * 86_400.0;
+
+    public BigDecimal calculateModifiedDietz(List<Instant> dates, List<BigDecimal> cashFlows) {
+        if (!Validator.isXirrInputValid(dates, cashFlows)) {
+            throw new IllegalArgumentException("Invalid input: dates or cash flows are invalid.");
+        }
+
+        int last = cashFlows.size() - 1;
+        long start = dates.get(0).getEpochSecond();
+        long end = dates.get(last).getEpochSecond();
+        if (end <= start) {
+            throw new IllegalArgumentException("Modified Dietz requires a period longer than zero");
+        }
+
+        double period = end - start;
+        double netInflow = 0.0;
+        double weightedInflow = 0.0;
+        for (int i = 0; i < last; i++) {
+            double inflow = -cashFlows.get(i).doubleValue();
+            netInflow += inflow;
+            weightedInflow += inflow * (end - dates.get(i).getEpochSecond()) / period;
+        }
+        if (weightedInflow <= 0) {
+            throw new IllegalArgumentException("Average invested capital must be positive");
+        }
+
+        double periodReturn = (cashFlows.get(last).doubleValue() - netInflow) / weightedInflow;
+        if (periodReturn <= -1) {
+            throw new IllegalArgumentException("Modified Dietz return is below -100%");
+        }
+        return BigDecimal.valueOf(Math.pow(1 + periodReturn, SECONDS_IN_YEAR / period) - 1);
+    }
+}
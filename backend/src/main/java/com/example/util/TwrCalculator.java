@@ -0,0 +1,59 @@
+package com.example.util;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Time-weighted return: the portfolio is valued at every external cash flow, each
+ * sub-period's growth is measured on the capital invested at its start, and the
+ * sub-period returns are chain-linked, so the size and timing of deposits do not affect
+ * the result.
+ *
+ * <p>Cash flows use the {@link XirrCalculator} convention. {@code valuesAfterFlows[i]} is
+ * the portfolio value at {@code dates[i]} once flow {@code i} has happened, so the value
+ * just before it is {@code valuesAfterFlows[i] + cashFlows[i]}; the final entry is the
+ * current value as a flow with nothing left after it. The chained return is annualized
+ * on a 365-day basis from the first date with invested capital.
+ */
+@Component
+public class TwrCalculator {
+    private static final double SECONDS_IN_YEAR = 365 * 86_400.0;
+
+    public BigDecimal calculateTwr(List<Instant> dates, List<BigDecimal> cashFlows,
+            List<BigDecimal> valuesAfterFlows) {
+        if (dates == null || cashFlows == null || valuesAfterFlows == null || dates.size() != cashFlows.size()
+                || dates.size() != valuesAfterFlows.size() || dates.size() < 2) {
+            throw new IllegalArgumentException("Invalid input: dates, cash flows and values must match in size.");
+        }
+
+        double growth = 1.0;
+        long start = Long.MIN_VALUE;
+        double previousAfter = valuesAfterFlows.get(0).doubleValue();
+        for (int i = 1; i < dates.size(); i++) {
+            if (dates.get(i).isBefore(dates.get(i - 1))) {
+                throw new IllegalArgumentException("Dates are not in chronological order");
+            }
+            double after = valuesAfterFlows.get(i).doubleValue();
+            // Sub-periods without invested capital have no return to link
+            if (previousAfter > 0) {
+                if (start == Long.MIN_VALUE) {
+                    start = dates.get(i - 1).getEpochSecond();
+                }
+                growth *= (after + cashFlows.get(i).doubleValue()) / previousAfter;
+            }
+            previousAfter = after;
+        }
+
+        long end = dates.get(dates.size() - 1).getEpochSecond();
+        if (start == Long.MIN_VALUE || end <= start) {
+            throw new IllegalArgumentException("No invested capital over a period longer than zero");
+        }
+        if (growth <= 0) {
+            throw new IllegalArgumentException("Time-weighted return is below -100%");
+        }
+        return BigDecimal.valueOf(Math.pow(growth, SECONDS_IN_YEAR / (end - start)) - 1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.util;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Binds and reads {@link Instant} columns through plain JDBC the way Hibernate does for
+ * the mapped entities: as UTC wall-clock time, whatever the JVM's default zone. Without a
+ * calendar the driver would use the default zone and shift the value by its offset.
+ */
+public final class UtcTimestamps {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private UtcTimestamps() {
+    }
+
+    public static void set(PreparedStatement statement, int index, Instant instant) throws SQLException {
+        statement.setTimestamp(index, instant == null ? null : Timestamp.from(instant), calendar());
+    }
+
+    public static Instant get(ResultSet resultSet, int index) throws SQLException {
+        return toInstant(resultSet.getTimestamp(index, calendar()));
+    }
+
+    public static Instant get(ResultSet resultSet, String column) throws SQLException {
+        return toInstant(resultSet.getTimestamp(column, calendar()));
+    }
+
+    // A new calendar per call, since drivers may modify the one they are given
+    private static Calendar calendar() {
+        return Calendar.getInstance(UTC);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
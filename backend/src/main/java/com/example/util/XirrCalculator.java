@@ -2,60 +2,290 @@ package com.example.util;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.example.diagnostics.RateLimitedLogger;
+import com.example.diagnostics.TraceSampler;
+import com.example.diagnostics.XirrSolveEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class XirrCalculator {
 
     private static final Logger logger = LoggerFactory.getLogger(XirrCalculator.class);
+    private static final RateLimitedLogger warnings = new RateLimitedLogger(logger, 10, Duration.ofMinutes(1));
     private static final int MAX_ITERATIONS = 1000;
     private static final double PRECISION = 1e-6;
     private static final double DEFAULT_RATE = 0.1;
     private static final double SMALL_DERIVATIVE = 1e-4;
     private static final int DAYS_IN_YEAR = 365;
+    private static final long SECONDS_PER_DAY = 86_400L;
 
-    public BigDecimal calculateXirr(List<Instant> dates, List<BigDecimal> cashFlows) {
-        logger.info("Starting XIRR calculation...");
+    // Outcome tags of xirr.solves
+    static final String CONVERGED = "converged";
+    static final String INVALID_INPUT = "invalid_input";
+    static final String DIVERGED = "diverged";
+    static final String LAST_KNOWN_RATE = "last_known_rate";
+    static final String MAX_ITERATIONS_REACHED = "max_iterations";
+    private static final List<String> OUTCOMES = List.of(CONVERGED, INVALID_INPUT, DIVERGED, LAST_KNOWN_RATE,
+            MAX_ITERATIONS_REACHED);
+
+    // Instances created outside Spring report to the global registry, which discards them unless one is attached
+    @Autowired(required = false)
+    MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    // Applies outside HTTP requests, which are sampled once per request instead
+    @Value("${diagnostics.trace.sample-rate:0}")
+    double traceSampleRate = 0;
+
+    private Timer validationTimer;
+    private Timer solveTimer;
+    private DistributionSummary flowsSummary;
+    private DistributionSummary iterationsSummary;
+    private Map<String, Counter> outcomeCounters;
 
-        if (!Validator.isXirrInputValid(dates, cashFlows)) {
-            throw new IllegalArgumentException("Invalid input: dates or cash flows are invalid.");
+    public XirrCalculator() {
+        registerMeters();
+    }
+
+    // Registered again once Spring has injected its registry
+    @PostConstruct
+    public void registerMeters() {
+        validationTimer = timer("xirr.validation", "Time to validate the input of one XIRR solve");
+        solveTimer = timer("xirr.solve", "Time of one XIRR calculation, validation included");
+        flowsSummary = DistributionSummary.builder("xirr.flows")
+                .description("Cash flows per XIRR solve")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        iterationsSummary = DistributionSummary.builder("xirr.iterations")
+                .description("Newton iterations per XIRR solve")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Map<String, Counter> counters = new HashMap<>();
+        for (String outcome : OUTCOMES) {
+            counters.put(outcome, Counter.builder("xirr.solves")
+                    .description("XIRR solves by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        outcomeCounters = counters;
+    }
+
+    public BigDecimal calculateXirr(List<Instant> dates, List<BigDecimal> cashFlows) {
+        XirrSolveEvent event = new XirrSolveEvent();
+        event.begin();
+        Timer.Sample solve = Timer.start(meterRegistry);
+        try {
+            Timer.Sample validation = Timer.start(meterRegistry);
+            boolean valid = Validator.isXirrInputValid(dates, cashFlows);
+            validation.stop(validationTimer);
+            if (!valid) {
+                countOutcome(event, INVALID_INPUT);
+                throw new IllegalArgumentException("Invalid input: dates or cash flows are invalid.");
+            }
+            event.flows = cashFlows.size();
+            flowsSummary.record(cashFlows.size());
+            return solve(dates, cashFlows, event);
+        } finally {
+            solve.stop(solveTimer);
+            event.commit();
         }
+    }
 
+    private BigDecimal solve(List<Instant> dates, List<BigDecimal> cashFlows, XirrSolveEvent event) {
         double rate = DEFAULT_RATE;
+        // Sampled solves collect their iterations and log them as one line at the end
+        StringBuilder trace = TraceSampler.shouldTrace(traceSampleRate) ? new StringBuilder() : null;
 
         for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
             Double npv = calculateNpv(rate, dates, cashFlows);
             Double npvDerivative = calculateNpvDerivative(rate, dates, cashFlows);
 
-            logger.info("Iteration {}: rate = {}, NPV = {}, NPV derivative = {}", iteration, rate, npv, npvDerivative);
+            if (trace != null) {
+                trace.append(" [").append(iteration).append(": rate=").append(rate).append(", npv=").append(npv)
+                        .append(", d=").append(npvDerivative).append(']');
+            }
 
             if (isInvalidNpvOrDerivative(npv, npvDerivative)) {
                 if (iteration == 0) {
+                    countOutcome(event, DIVERGED);
+                    logTrace(trace, cashFlows.size(), DIVERGED);
                     throw new IllegalArgumentException("Invalid NPV or derivative at iteration " + iteration);
                 }
-                logger.warn("Invalid NPV or derivative at iteration {}. Returning last known rate.", iteration);
+                warnings.warn("Invalid NPV or derivative at iteration {}. Returning last known rate.", iteration);
+                recordIterations(event, iteration, LAST_KNOWN_RATE);
+                logTrace(trace, cashFlows.size(), LAST_KNOWN_RATE);
                 return  BigDecimal.valueOf(rate);
             }
 
             double newRate = rate - npv / npvDerivative;
 
             if (Math.abs(newRate - rate) < PRECISION) {
-                logger.info("XIRR calculation successful. Final rate: {}", newRate);
+                recordIterations(event, iteration + 1, CONVERGED);
+                logTrace(trace, cashFlows.size(), CONVERGED);
                 return BigDecimal.valueOf(newRate);
             }
 
             rate = newRate;
         }
 
-        logger.warn("Max iterations reached. Returning last known rate: {}", rate);
+        warnings.warn("Max iterations reached. Returning last known rate: {}", rate);
+        recordIterations(event, MAX_ITERATIONS, MAX_ITERATIONS_REACHED);
+        logTrace(trace, cashFlows.size(), MAX_ITERATIONS_REACHED);
         return BigDecimal.valueOf(rate);
     }
 
+    private static void logTrace(StringBuilder trace, int flows, String outcome) {
+        if (trace != null) {
+            logger.info("XIRR trace over {} flows, {}:{}", flows, outcome, trace);
+        }
+    }
+
+    private void recordIterations(XirrSolveEvent event, int iterations, String outcome) {
+        iterationsSummary.record(iterations);
+        event.iterations = iterations;
+        countOutcome(event, outcome);
+    }
+
+    private void countOutcome(XirrSolveEvent event, String outcome) {
+        outcomeCounters.get(outcome).increment();
+        event.outcome = outcome;
+        event.converged = CONVERGED.equals(outcome);
+    }
+
+    private Timer timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Solves several XIRR windows over one chronological cash-flow buffer in a single batch.
+     * Window {@code w} takes the flows from {@code startIndexes[w]} to the end of the buffer,
+     * preceded by {@code openingFlows[w]} at {@code anchorSeconds[w]}, e.g. the negated value
+     * of the portfolio at the start of a period. Day counts are taken from the anchor the
+     * same way {@link #calculateXirr} takes them from the first date, so a window anchored
+     * at the first flow with no opening flow reproduces it.
+     *
+     * <p>The year fractions of every window are computed once up front. Each Newton step
+     * then advances all unconverged windows in one pass over the flows.
+     *
+     * @return the rate of each window, or NaN where the window has no sign change or diverges
+     */
+    public double[] calculateXirrs(CashFlowBuffer flows, int[] startIndexes, long[] anchorSeconds,
+            double[] openingFlows) {
+        int windows = startIndexes.length;
+        int size = flows.size();
+        double[] rates = new double[windows];
+        double[][] years = new double[windows][];
+        boolean[] active = new boolean[windows];
+        int firstIndex = size;
+        for (int w = 0; w < windows; w++) {
+            rates[w] = DEFAULT_RATE;
+            active[w] = isSolvable(flows, startIndexes[w], openingFlows[w]);
+            if (!active[w]) {
+                rates[w] = Double.NaN;
+                continue;
+            }
+            years[w] = new double[size - startIndexes[w]];
+            for (int i = startIndexes[w]; i < size; i++) {
+                long days = Math.floorDiv(flows.getEpochSecond(i) - anchorSeconds[w], SECONDS_PER_DAY);
+                years[w][i - startIndexes[w]] = (double) days / DAYS_IN_YEAR;
+            }
+            firstIndex = Math.min(firstIndex, startIndexes[w]);
+        }
+
+        double[] npv = new double[windows];
+        double[] derivative = new double[windows];
+        double[] logBase = new double[windows];
+        int remaining = countActive(active);
+        for (int iteration = 0; iteration < MAX_ITERATIONS && remaining > 0; iteration++) {
+            for (int w = 0; w < windows; w++) {
+                npv[w] = openingFlows[w];
+                derivative[w] = 0.0;
+                logBase[w] = Math.log1p(rates[w]);
+            }
+            for (int i = firstIndex; i < size; i++) {
+                double cashFlow = flows.getAmount(i);
+                if (cashFlow == 0) {
+                    continue;
+                }
+                for (int w = 0; w < windows; w++) {
+                    if (!active[w] || i < startIndexes[w]) {
+                        continue;
+                    }
+                    double t = years[w][i - startIndexes[w]];
+                    double discounted = cashFlow * Math.exp(-t * logBase[w]);
+                    npv[w] += discounted;
+                    derivative[w] -= t * discounted / (1 + rates[w]);
+                }
+            }
+
+            for (int w = 0; w < windows; w++) {
+                if (!active[w]) {
+                    continue;
+                }
+                double slope = derivative[w] == 0 ? SMALL_DERIVATIVE : derivative[w];
+                if (isInvalidNpvOrDerivative(npv[w], slope)) {
+                    // Mirrors calculateXirr: unusable from the start, otherwise keep the last rate
+                    if (iteration == 0) {
+                        rates[w] = Double.NaN;
+                    }
+                    active[w] = false;
+                    remaining--;
+                    continue;
+                }
+                double newRate = rates[w] - npv[w] / slope;
+                if (Math.abs(newRate - rates[w]) < PRECISION) {
+                    active[w] = false;
+                    remaining--;
+                }
+                rates[w] = newRate;
+            }
+        }
+        return rates;
+    }
+
+    private static boolean isSolvable(CashFlowBuffer flows, int startIndex, double openingFlow) {
+        int count = openingFlow != 0 ? 1 : 0;
+        boolean positive = openingFlow > 0;
+        boolean negative = openingFlow < 0;
+        for (int i = startIndex; i < flows.size(); i++) {
+            double amount = flows.getAmount(i);
+            count++;
+            positive |= amount > 0;
+            negative |= amount < 0;
+        }
+        return count >= 2 && positive && negative;
+    }
+
+    private static int countActive(boolean[] active) {
+        int count = 0;
+        for (boolean value : active) {
+            if (value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private static Double calculateNpv(double rate, List<Instant> dates, List<BigDecimal> cashFlows) {
         double npv = 0.0;
 
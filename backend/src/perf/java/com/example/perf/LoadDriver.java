@@ -0,0 +1,184 @@
+package com.example.perf;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.InvestmentApplication;
+
+/**
+ * Closed-loop HTTP load against the investment list and summary endpoints. Each worker
+ * alternates between the two endpoints, recording latencies into its own histograms,
+ * which are merged once the run ends; requests made during warm-up are not recorded.
+ *
+ * <p>Without {@code perf.url} the application is started in-process under the
+ * {@code perf} profile, so a run needs nothing but the local Maven repository:
+ * {@code mvn -Pperf compile exec:exec -Dperf.concurrency=16 -Dperf.duration-seconds=60}.
+ * Being closed-loop, the percentiles do not include time a request would have waited
+ * had it been issued on a fixed schedule.
+ */
+public class LoadDriver {
+    private static final long MAX_LATENCY_MICROS = 60_000_000L;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final List<URI> targets;
+    private final long warmupNanos;
+    private final long durationNanos;
+
+    public LoadDriver(String baseUrl, long userId, long warmupSeconds, long durationSeconds) {
+        String investments = baseUrl + "/api/investments/user/" + userId;
+        this.targets = List.of(URI.create(investments), URI.create(investments + "/summary"));
+        this.warmupNanos = Duration.ofSeconds(warmupSeconds).toNanos();
+        this.durationNanos = Duration.ofSeconds(durationSeconds).toNanos();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("perf.url", "");
+        int concurrency = Integer.getInteger("perf.concurrency", 8);
+        long userId = Long.getLong("perf.user-id", 1L);
+        long warmupSeconds = Long.getLong("perf.warmup-seconds", 10L);
+        long durationSeconds = Long.getLong("perf.duration-seconds", 30L);
+
+        ConfigurableApplicationContext context = null;
+        if (url.isBlank()) {
+            context = new SpringApplicationBuilder(InvestmentApplication.class)
+                    .profiles("perf")
+                    .properties("server.port=0")
+                    .run(args);
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            System.out.printf(Locale.ROOT, "Driving %s with %d workers: %d s warm-up, %d s measured%n",
+                    url, concurrency, warmupSeconds, durationSeconds);
+            new LoadDriver(url, userId, warmupSeconds, durationSeconds).run(concurrency);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    public void run(int concurrency) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(i);
+            futures.add(workers.submit(() -> worker.run(measureFrom, end)));
+        }
+
+        List<EndpointStats> totals = new ArrayList<>(targets.size());
+        for (URI target : targets) {
+            totals.add(new EndpointStats(target));
+        }
+        try {
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                for (int t = 0; t < targets.size(); t++) {
+                    totals.get(t).add(worker.stats.get(t));
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        double seconds = durationNanos / 1e9;
+        System.out.printf(Locale.ROOT, "%-60s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        EndpointStats overall = new EndpointStats(URI.create("total"));
+        for (EndpointStats stats : totals) {
+            stats.print(seconds);
+            overall.add(stats);
+        }
+        overall.print(seconds);
+    }
+
+    private class Worker {
+        private final List<EndpointStats> stats = new ArrayList<>(targets.size());
+        private int next;
+
+        Worker(int id) {
+            for (URI target : targets) {
+                stats.add(new EndpointStats(target));
+            }
+            // Stagger the starting endpoint so both see the same concurrency
+            next = id % targets.size();
+        }
+
+        Worker run(long measureFrom, long end) {
+            long now;
+            while ((now = System.nanoTime()) < end && !Thread.currentThread().isInterrupted()) {
+                int target = next;
+                next = (next + 1) % targets.size();
+                boolean ok = send(targets.get(target));
+                long finished = System.nanoTime();
+                if (now >= measureFrom) {
+                    stats.get(target).record((finished - now) / 1_000, ok);
+                }
+            }
+            return this;
+        }
+
+        private boolean send(URI target) {
+            HttpRequest request = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(30)).GET().build();
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                return status >= 200 && status < 300;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private static class EndpointStats {
+        private final URI target;
+        private final Histogram latencies = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        private long errors;
+
+        EndpointStats(URI target) {
+            this.target = target;
+        }
+
+        void record(long micros, boolean ok) {
+            latencies.recordValue(Math.min(Math.max(micros, 1), MAX_LATENCY_MICROS));
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void add(EndpointStats other) {
+            latencies.add(other.latencies);
+            errors += other.errors;
+        }
+
+        void print(double seconds) {
+            long requests = latencies.getTotalCount();
+            System.out.printf(Locale.ROOT, "%-60s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    target.getPath() == null ? target : target.getPath(), requests, errors, requests / seconds,
+                    millis(50), millis(99), millis(99.9), latencies.getMaxValue() / 1_000.0);
+        }
+
+        private double millis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.cli;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.dto.CsvImportReport;
+import com.example.service.CsvTransactionImporter;
+
+public class CsvImportRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @InjectMocks
+    private CsvImportRunner csvImportRunner;
+
+    @Mock
+    private CsvTransactionImporter csvTransactionImporter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void run_WithPath_ImportsFileFromResumeOffset() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("trades.csv"), "1,BUY,1,1,0,2024-01-01T00:00:00Z\n");
+        ReflectionTestUtils.setField(csvImportRunner, "path", file.toString());
+        ReflectionTestUtils.setField(csvImportRunner, "resumeFrom", 5L);
+        when(csvTransactionImporter.importCsv(any(), eq(5L))).thenReturn(new CsvImportReport());
+
+        csvImportRunner.run(null);
+
+        verify(csvTransactionImporter, times(1)).importCsv(any(), eq(5L));
+    }
+}
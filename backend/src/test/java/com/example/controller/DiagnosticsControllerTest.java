@@ -0,0 +1,119 @@
+package com.example.controller;
+
+import com.example.dto.FlightRecordingStatus;
+import com.example.service.FlightRecordingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class DiagnosticsControllerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private FlightRecordingService flightRecordingService;
+
+    @InjectMocks
+    private DiagnosticsController diagnosticsController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void startRecording_NoRecording_ReturnsStatus() {
+        FlightRecordingStatus status = new FlightRecordingStatus();
+        when(flightRecordingService.start("profile", Duration.ofMinutes(10))).thenReturn(status);
+
+        ResponseEntity<FlightRecordingStatus> response = diagnosticsController.startRecording("profile", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    public void startRecording_AlreadyRunning_ReturnsConflict() {
+        when(flightRecordingService.start(anyString(), any())).thenThrow(new IllegalStateException("running"));
+
+        ResponseEntity<FlightRecordingStatus> response = diagnosticsController.startRecording("default", 60);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    public void startRecording_UnknownSettings_ReturnsBadRequest() {
+        when(flightRecordingService.start(anyString(), any())).thenThrow(new IllegalArgumentException("unknown"));
+
+        ResponseEntity<FlightRecordingStatus> response = diagnosticsController.startRecording("verbose", 60);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void startRecording_MaxAgeOutOfRange_ReturnsBadRequest() {
+        ResponseEntity<FlightRecordingStatus> response = diagnosticsController.startRecording("default", 0);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(flightRecordingService);
+    }
+
+    @Test
+    public void stopRecording_NoneRunning_ReturnsConflict() {
+        when(flightRecordingService.stop()).thenThrow(new IllegalStateException("none"));
+
+        ResponseEntity<FlightRecordingStatus> response = diagnosticsController.stopRecording();
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    public void dumpRecording_NothingRecorded_ReturnsNotFound() {
+        when(flightRecordingService.dump()).thenReturn(Optional.empty());
+
+        ResponseEntity<StreamingResponseBody> response = diagnosticsController.dumpRecording();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void dumpRecording_WithRecording_StreamsAndDeletesFile() throws Exception {
+        Path dump = Files.writeString(tempDir.resolve("dump.jfr"), "recorded");
+        when(flightRecordingService.dump()).thenReturn(Optional.of(dump));
+
+        ResponseEntity<StreamingResponseBody> response = diagnosticsController.dumpRecording();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("recorded", output.toString(StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dump));
+    }
+
+    @Test
+    public void getRecording_NoneStarted_ReturnsNotFound() {
+        when(flightRecordingService.getStatus()).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, diagnosticsController.getRecording().getStatusCode());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.controller;
+
+import com.example.dto.CsvImportReport;
+import com.example.service.CsvTransactionImporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ImportControllerTest {
+
+    @Mock
+    private CsvTransactionImporter csvTransactionImporter;
+
+    @InjectMocks
+    private ImportController importController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private CsvImportReport createReport(boolean completed) {
+        CsvImportReport report = new CsvImportReport();
+        report.setCompleted(completed);
+        return report;
+    }
+
+    @Test
+    public void importTransactions_Completed_ReturnsReport() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("1,BUY,1,1,0,2024-01-01T00:00:00Z\n".getBytes());
+        CsvImportReport report = createReport(true);
+
+        when(csvTransactionImporter.importCsv(any(), eq(10L))).thenReturn(report);
+        ResponseEntity<CsvImportReport> response = importController.importTransactions(10L, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(report, response.getBody());
+    }
+
+    @Test
+    public void importTransactions_Failed_ReturnsServerErrorWithReport() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(new byte[0]);
+
+        when(csvTransactionImporter.importCsv(any(), eq(0L))).thenReturn(createReport(false));
+        ResponseEntity<CsvImportReport> response = importController.importTransactions(0L, request);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+}
@@ -1,8 +1,19 @@
 package com.example.controller;
 
+import com.example.dto.InvestmentGainsResponse;
 import com.example.dto.InvestmentResponse;
 import com.example.dto.InvestmentSummaryResponse;
+import com.example.dto.PeriodReturnResponse;
+import com.example.dto.PortfolioValuePoint;
+import com.example.enums.CostBasisMethod;
+import com.example.enums.HistoryResolution;
+import com.example.enums.ReturnPeriod;
+import com.example.metric.ReturnMetric;
+import com.example.metric.ReturnMetricRegistry;
 import com.example.service.InvestmentService;
+import com.example.service.PortfolioHistoryService;
+import com.example.service.PortfolioStreamService;
+import com.example.service.TaxLotService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -10,12 +21,18 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class InvestmentControllerTest {
@@ -23,12 +40,31 @@ public class InvestmentControllerTest {
     @Mock
     private InvestmentService investmentService;
 
+    @Mock
+    private PortfolioStreamService portfolioStreamService;
+
+    @Mock
+    private TaxLotService taxLotService;
+
+    @Mock
+    private PortfolioHistoryService portfolioHistoryService;
+
+    @Mock
+    private ReturnMetricRegistry returnMetricRegistry;
+
+    @Mock
+    private ReturnMetric xirr;
+
     @InjectMocks
     private InvestmentController investmentController;
 
+    private List<ReturnMetric> defaults;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        defaults = List.of(xirr);
+        when(returnMetricRegistry.resolve(null)).thenReturn(defaults);
     }
 
     // Tests for getInvestmentsByUserId
@@ -37,21 +73,24 @@ public class InvestmentControllerTest {
     public void getInvestmentsByUserId_UserDoesNotExist_ReturnsNotFound() {
         Long userId = 2L;
 
-        ResponseEntity<List<InvestmentResponse>> response = investmentController.getInvestmentsByUserId(userId);
+        ResponseEntity<List<InvestmentResponse>> response = investmentController.getInvestmentsByUserId(userId,
+                null);
         
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(investmentService, times(0)).getUserInvestments(userId);
+        verify(investmentService, never()).getUserInvestments(anyLong(), any());
     }
 
     @Test
     public void getInvestmentsByUserId_UserExistsNoInvestments_ReturnsNoContent() {
         Long userId = 1L;
 
-        when(investmentService.getUserInvestments(userId)).thenReturn(Collections.emptyList());
-        ResponseEntity<List<InvestmentResponse>> response = investmentController.getInvestmentsByUserId(userId);
+        when(investmentService.getUserInvestments(userId, defaults))
+                .thenReturn(Collections.emptyList());
+        ResponseEntity<List<InvestmentResponse>> response = investmentController.getInvestmentsByUserId(userId,
+                null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(investmentService, times(1)).getUserInvestments(userId);
+        verify(investmentService, times(1)).getUserInvestments(userId, defaults);
     }
 
     @Test
@@ -59,12 +98,40 @@ public class InvestmentControllerTest {
         Long userId = 1L;
         List<InvestmentResponse> investments = Arrays.asList(new InvestmentResponse(), new InvestmentResponse());
 
-        when(investmentService.getUserInvestments(userId)).thenReturn(investments);
-        ResponseEntity<List<InvestmentResponse>> response = investmentController.getInvestmentsByUserId(userId);
+        when(investmentService.getUserInvestments(userId, defaults)).thenReturn(investments);
+        ResponseEntity<List<InvestmentResponse>> response = investmentController.getInvestmentsByUserId(userId,
+                null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(investments, response.getBody());
-        verify(investmentService, times(1)).getUserInvestments(userId);
+        verify(investmentService, times(1)).getUserInvestments(userId, defaults);
+    }
+
+    @Test
+    public void getInvestmentsByUserId_WithMetrics_PassesResolvedMetricsToService() {
+        Long userId = 1L;
+        List<String> names = List.of("MODIFIED_DIETZ", "TWR");
+        List<ReturnMetric> resolved = List.of(mock(ReturnMetric.class), mock(ReturnMetric.class));
+        List<InvestmentResponse> investments = Arrays.asList(new InvestmentResponse());
+
+        when(returnMetricRegistry.resolve(names)).thenReturn(resolved);
+        when(investmentService.getUserInvestments(userId, resolved)).thenReturn(investments);
+        ResponseEntity<List<InvestmentResponse>> response = investmentController.getInvestmentsByUserId(userId,
+                names);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(investmentService, never()).getUserInvestments(userId, defaults);
+    }
+
+    @Test
+    public void getInvestmentsByUserId_UnknownMetric_ReturnsBadRequest() {
+        List<String> names = List.of("SHARPE");
+
+        when(returnMetricRegistry.resolve(names)).thenThrow(new IllegalArgumentException("Unknown return metric"));
+        ResponseEntity<List<InvestmentResponse>> response = investmentController.getInvestmentsByUserId(1L, names);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(investmentService);
     }
 
     // Tests for getUserInvestmentSummary
@@ -73,21 +140,23 @@ public class InvestmentControllerTest {
     public void getUserInvestmentSummary_UserDoesNotExist_ReturnsNotFound() {
         Long userId = 2L;
 
-        ResponseEntity<InvestmentSummaryResponse> response = investmentController.getUserInvestmentSummary(userId);
+        ResponseEntity<InvestmentSummaryResponse> response = investmentController.getUserInvestmentSummary(userId,
+                null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(investmentService, times(0)).getUserInvestmentSummary(userId);
+        verify(investmentService, never()).getUserInvestmentSummary(anyLong(), any());
     }
 
     @Test
     public void getUserInvestmentSummary_UserExistsNoSummary_ReturnsNoContent() {
         Long userId = 1L;
 
-        when(investmentService.getUserInvestmentSummary(userId)).thenReturn(null);
-        ResponseEntity<InvestmentSummaryResponse> response = investmentController.getUserInvestmentSummary(userId);
+        when(investmentService.getUserInvestmentSummary(userId, defaults)).thenReturn(null);
+        ResponseEntity<InvestmentSummaryResponse> response = investmentController.getUserInvestmentSummary(userId,
+                null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(investmentService, times(1)).getUserInvestmentSummary(userId);
+        verify(investmentService, times(1)).getUserInvestmentSummary(userId, defaults);
     }
 
     @Test
@@ -95,11 +164,153 @@ public class InvestmentControllerTest {
         Long userId = 1L;
         InvestmentSummaryResponse summary = new InvestmentSummaryResponse();
 
-        when(investmentService.getUserInvestmentSummary(userId)).thenReturn(summary);
-        ResponseEntity<InvestmentSummaryResponse> response = investmentController.getUserInvestmentSummary(userId);
+        when(investmentService.getUserInvestmentSummary(userId, defaults)).thenReturn(summary);
+        ResponseEntity<InvestmentSummaryResponse> response = investmentController.getUserInvestmentSummary(userId,
+                null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(summary, response.getBody());
-        verify(investmentService, times(1)).getUserInvestmentSummary(userId);
+        verify(investmentService, times(1)).getUserInvestmentSummary(userId, defaults);
+    }
+
+    @Test
+    public void getUserInvestmentSummary_UnknownMetric_ReturnsBadRequest() {
+        List<String> names = List.of("SHARPE");
+
+        when(returnMetricRegistry.resolve(names)).thenThrow(new IllegalArgumentException("Unknown return metric"));
+        ResponseEntity<InvestmentSummaryResponse> response = investmentController.getUserInvestmentSummary(1L, names);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(investmentService);
+    }
+
+    // Tests for streamUserInvestmentSummary
+
+    @Test
+    public void streamUserInvestmentSummary_UserDoesNotExist_ReturnsNotFound() {
+        Long userId = 2L;
+
+        ResponseEntity<SseEmitter> response = investmentController.streamUserInvestmentSummary(userId);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(portfolioStreamService, times(0)).subscribe(userId);
+    }
+
+    @Test
+    public void streamUserInvestmentSummary_UserExists_ReturnsEmitter() {
+        Long userId = 1L;
+        SseEmitter emitter = new SseEmitter();
+
+        when(portfolioStreamService.subscribe(userId)).thenReturn(emitter);
+        ResponseEntity<SseEmitter> response = investmentController.streamUserInvestmentSummary(userId);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(emitter, response.getBody());
+        verify(portfolioStreamService, times(1)).subscribe(userId);
+    }
+
+    // Tests for getUserGains
+
+    @Test
+    public void getUserGains_UserDoesNotExist_ReturnsNotFound() {
+        ResponseEntity<List<InvestmentGainsResponse>> response = investmentController.getUserGains(2L,
+                CostBasisMethod.FIFO);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verifyNoInteractions(taxLotService);
+    }
+
+    @Test
+    public void getUserGains_UserExistsWithInvestments_ReturnsOk() {
+        List<InvestmentGainsResponse> gains = List.of(new InvestmentGainsResponse());
+
+        when(taxLotService.getUserGains(1L, CostBasisMethod.AVERAGE_COST)).thenReturn(gains);
+        ResponseEntity<List<InvestmentGainsResponse>> response = investmentController.getUserGains(1L,
+                CostBasisMethod.AVERAGE_COST);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(gains, response.getBody());
+    }
+
+    @Test
+    public void getUserGains_UserExistsNoInvestments_ReturnsNoContent() {
+        when(taxLotService.getUserGains(1L, CostBasisMethod.FIFO)).thenReturn(Collections.emptyList());
+        ResponseEntity<List<InvestmentGainsResponse>> response = investmentController.getUserGains(1L,
+                CostBasisMethod.FIFO);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
+    // Tests for getPeriodReturns
+
+    @Test
+    public void getPeriodReturns_UserDoesNotExist_ReturnsNotFound() {
+        ResponseEntity<List<PeriodReturnResponse>> response = investmentController.getPeriodReturns(2L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(investmentService, never()).getPeriodReturns(anyLong());
+    }
+
+    @Test
+    public void getPeriodReturns_UserExistsWithInvestments_ReturnsOk() {
+        List<PeriodReturnResponse> returns = List.of(
+                new PeriodReturnResponse(ReturnPeriod.SINCE_INCEPTION, null, BigDecimal.TEN));
+
+        when(investmentService.getPeriodReturns(1L)).thenReturn(returns);
+        ResponseEntity<List<PeriodReturnResponse>> response = investmentController.getPeriodReturns(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(returns, response.getBody());
+    }
+
+    @Test
+    public void getPeriodReturns_UserExistsNoInvestments_ReturnsNoContent() {
+        when(investmentService.getPeriodReturns(1L)).thenReturn(Collections.emptyList());
+        ResponseEntity<List<PeriodReturnResponse>> response = investmentController.getPeriodReturns(1L);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
+    // Tests for getValueHistory
+
+    @Test
+    public void getValueHistory_YearsOutOfRange_ReturnsBadRequest() {
+        ResponseEntity<List<PortfolioValuePoint>> response = investmentController.getValueHistory(1L, 0,
+                HistoryResolution.DAILY);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(portfolioHistoryService);
+    }
+
+    @Test
+    public void getValueHistory_UserDoesNotExist_ReturnsNotFound() {
+        ResponseEntity<List<PortfolioValuePoint>> response = investmentController.getValueHistory(2L, 1,
+                HistoryResolution.DAILY);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verifyNoInteractions(portfolioHistoryService);
+    }
+
+    @Test
+    public void getValueHistory_UserExistsWithInvestments_ReturnsOk() {
+        List<PortfolioValuePoint> history = List.of(new PortfolioValuePoint(LocalDate.now(), BigDecimal.TEN));
+
+        when(portfolioHistoryService.getValueHistory(eq(1L), any(LocalDate.class), any(LocalDate.class),
+                eq(HistoryResolution.WEEKLY))).thenReturn(history);
+        ResponseEntity<List<PortfolioValuePoint>> response = investmentController.getValueHistory(1L, 2,
+                HistoryResolution.WEEKLY);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(history, response.getBody());
+    }
+
+    @Test
+    public void getValueHistory_UserExistsNoInvestments_ReturnsNoContent() {
+        when(portfolioHistoryService.getValueHistory(eq(1L), any(LocalDate.class), any(LocalDate.class),
+                eq(HistoryResolution.DAILY))).thenReturn(Collections.emptyList());
+        ResponseEntity<List<PortfolioValuePoint>> response = investmentController.getValueHistory(1L, 1,
+                HistoryResolution.DAILY);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 }
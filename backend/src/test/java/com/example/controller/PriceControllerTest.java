@@ -0,0 +1,56 @@
+package com.example.controller;
+
+import com.example.dto.PriceIngestionResponse;
+import com.example.dto.PriceTick;
+import com.example.service.PriceIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class PriceControllerTest {
+
+    @Mock
+    private PriceIngestionService priceIngestionService;
+
+    @InjectMocks
+    private PriceController priceController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void ingestPrices_ValidTicks_ReturnsAccepted() {
+        List<PriceTick> ticks = List.of(new PriceTick("Fund A", BigDecimal.TEN, Instant.now()));
+
+        when(priceIngestionService.submit(ticks)).thenReturn(new PriceIngestionResponse(1, 0));
+        ResponseEntity<PriceIngestionResponse> response = priceController.ingestPrices(ticks);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(1, response.getBody().getAccepted());
+        verify(priceIngestionService, times(1)).submit(ticks);
+    }
+
+    @Test
+    public void ingestPrices_NoValidTicks_ReturnsBadRequest() {
+        List<PriceTick> ticks = Collections.emptyList();
+
+        when(priceIngestionService.submit(ticks)).thenReturn(new PriceIngestionResponse(0, 0));
+        ResponseEntity<PriceIngestionResponse> response = priceController.ingestPrices(ticks);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
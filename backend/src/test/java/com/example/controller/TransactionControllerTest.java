@@ -0,0 +1,68 @@
+package com.example.controller;
+
+import com.example.dto.TransactionIngestionResponse;
+import com.example.dto.TransactionRequest;
+import com.example.service.TransactionIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TransactionControllerTest {
+
+    @Mock
+    private TransactionIngestionService transactionIngestionService;
+
+    @InjectMocks
+    private TransactionController transactionController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void ingestTransactions_InvestmentExists_ReturnsResults() {
+        List<TransactionRequest> requests = List.of(new TransactionRequest());
+        TransactionIngestionResponse result = new TransactionIngestionResponse();
+
+        when(transactionIngestionService.ingest(1L, requests)).thenReturn(Optional.of(result));
+        ResponseEntity<TransactionIngestionResponse> response = transactionController.ingestTransactions(1L, requests);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
+    @Test
+    public void ingestTransactions_InvestmentDoesNotExist_ReturnsNotFound() {
+        when(transactionIngestionService.ingest(any(), any())).thenReturn(Optional.empty());
+
+        ResponseEntity<TransactionIngestionResponse> response = transactionController.ingestTransactions(2L, List.of());
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void ingestTransactionStream_InvestmentExists_ReturnsResults() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("{}\n".getBytes());
+        TransactionIngestionResponse result = new TransactionIngestionResponse();
+
+        when(transactionIngestionService.ingestNdjson(eq(1L), any())).thenReturn(Optional.of(result));
+        ResponseEntity<TransactionIngestionResponse> response = transactionController.ingestTransactionStream(1L, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(transactionIngestionService, times(1)).ingestNdjson(eq(1L), any());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+public class QueryBudgetFilterTest {
+
+    @InjectMocks
+    private QueryBudgetFilter queryBudgetFilter;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(queryBudgetFilter, "statementBudget", 3L);
+    }
+
+    private FilterChain chainIssuing(int statements, int rows) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/investments/summary");
+            for (int i = 0; i < statements; i++) {
+                QueryCounter.recordStatement();
+            }
+            for (int i = 0; i < rows; i++) {
+                QueryCounter.recordRowLoaded();
+            }
+            response.getWriter().write("body");
+        };
+    }
+
+    private MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    @Test
+    public void doFilter_WithinBudget_ReportsCountsInHeaderAndMetrics() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        queryBudgetFilter.doFilter(request("/api/investments/summary"), response, chainIssuing(2, 7));
+
+        String serverTiming = response.getHeader(QueryBudgetFilter.SERVER_TIMING);
+        assertTrue(serverTiming.startsWith("db;desc=\"2 statements, 7 rows\", total;dur="));
+        assertEquals("body", response.getContentAsString());
+        assertEquals(2, meterRegistry.get("http.server.requests.statements")
+                .tag("uri", "/api/investments/summary").summary().totalAmount());
+        assertEquals(7, meterRegistry.get("http.server.requests.rows").summary().totalAmount());
+        assertNull(meterRegistry.find("http.server.requests.over_budget").counter());
+    }
+
+    @Test
+    public void doFilter_OverBudget_CountsAndStillResponds() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        queryBudgetFilter.doFilter(request("/api/investments"), response, chainIssuing(4, 0));
+
+        assertEquals(1, meterRegistry.get("http.server.requests.over_budget").counter().count());
+        assertEquals("body", response.getContentAsString());
+    }
+
+    @Test
+    public void doFilter_OverBudgetWhenEnforced_ThrowsException() throws Exception {
+        ReflectionTestUtils.setField(queryBudgetFilter, "enforce", true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        QueryBudgetFilter.QueryBudgetExceededException exception = assertThrows(
+                QueryBudgetFilter.QueryBudgetExceededException.class,
+                () -> queryBudgetFilter.doFilter(request("/api/investments"), response, chainIssuing(4, 0)));
+
+        assertTrue(exception.getMessage().contains("4 SQL statements"));
+        assertEquals("", response.getContentAsString().trim());
+    }
+
+    @Test
+    public void doFilter_OtherPathOrStream_IsNotCounted() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        queryBudgetFilter.doFilter(request("/api/diagnostics/recording"), response, chainIssuing(10, 0));
+        assertNull(response.getHeader(QueryBudgetFilter.SERVER_TIMING));
+
+        response = new MockHttpServletResponse();
+        queryBudgetFilter.doFilter(request("/api/investments/stream"), response, chainIssuing(10, 0));
+        assertNull(response.getHeader(QueryBudgetFilter.SERVER_TIMING));
+        assertNull(meterRegistry.find("http.server.requests.statements").summary());
+    }
+}
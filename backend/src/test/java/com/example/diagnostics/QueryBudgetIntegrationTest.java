@@ -0,0 +1,87 @@
+package com.example.diagnostics;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.example.repository.InvestmentRepository;
+
+/**
+ * Runs the investment endpoints against the real services with the statement budget
+ * enforced, so a request that starts issuing a query per investment fails here.
+ */
+@SpringBootTest(properties = "diagnostics.query-budget.enforce=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+class QueryBudgetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InvestmentRepository investmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QueryBudgetFilter queryBudgetFilter;
+
+    private Long userId;
+
+    @BeforeEach
+    public void setUp() {
+        userId = investmentRepository.findAll().get(0).getUserId();
+    }
+
+    private ResultActions getWithinBudget(String path) throws Exception {
+        return mockMvc.perform(get("/api/investments/user/{userId}" + path, userId))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().string(QueryBudgetFilter.SERVER_TIMING, startsWith("db;")));
+    }
+
+    @Test
+    public void investmentEndpoints_EnforcedBudget_StayWithinIt() throws Exception {
+        getWithinBudget("");
+        getWithinBudget("/summary");
+        getWithinBudget("/gains");
+        getWithinBudget("/returns");
+        getWithinBudget("/history?years=2&resolution=WEEKLY");
+    }
+
+    @Test
+    public void summary_OverEnforcedBudget_Fails() {
+        Object budget = ReflectionTestUtils.getField(queryBudgetFilter, "statementBudget");
+        ReflectionTestUtils.setField(queryBudgetFilter, "statementBudget", 1L);
+        try {
+            Exception exception = assertThrows(Exception.class,
+                    () -> mockMvc.perform(get("/api/investments/user/{userId}/summary", userId)));
+            assertInstanceOf(QueryBudgetFilter.QueryBudgetExceededException.class, exception);
+        } finally {
+            ReflectionTestUtils.setField(queryBudgetFilter, "statementBudget", budget);
+        }
+    }
+
+    @Test
+    public void jdbcTemplate_CountedLikeHibernate() {
+        long before = QueryCounter.current();
+
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM investments", Long.class);
+        investmentRepository.count();
+
+        assertEquals(2, QueryCounter.current() - before);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryCountingDataSourceTest {
+
+    private Connection connection;
+    private QueryCountingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DataSource target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        dataSource = new QueryCountingDataSource(target);
+    }
+
+    @Test
+    public void prepareStatement_ExecutedInBatch_CountsOnce() throws Exception {
+        long before = QueryCounter.current();
+
+        PreparedStatement statement = dataSource.getConnection().prepareStatement("insert into t values (?)");
+        statement.addBatch();
+        statement.addBatch();
+        statement.executeBatch();
+
+        assertEquals(1, QueryCounter.current() - before);
+    }
+
+    @Test
+    public void createStatement_EachSql_CountsOnce() throws Exception {
+        long before = QueryCounter.current();
+
+        Statement statement = dataSource.getConnection().createStatement();
+        statement.executeQuery("select 1");
+        statement.addBatch("delete from t");
+        statement.addBatch("delete from u");
+        statement.executeBatch();
+
+        assertEquals(3, QueryCounter.current() - before);
+    }
+
+    @Test
+    public void getConnection_Proxy_ComparesByIdentityAndDelegates() throws Exception {
+        Connection first = dataSource.getConnection();
+
+        first.close();
+
+        assertEquals(first, first);
+        assertNotEquals(first, dataSource.getConnection());
+        verify(connection).close();
+        assertSame(connection, dataSource.getTargetDataSource().getConnection());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+public class RateLimitedLoggerTest {
+
+    private Logger logger;
+
+    @BeforeEach
+    public void setUp() {
+        logger = mock(Logger.class);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        when(logger.isErrorEnabled()).thenReturn(true);
+    }
+
+    @Test
+    public void warn_BeyondPermits_DropsMessages() {
+        RateLimitedLogger warnings = new RateLimitedLogger(logger, 2, Duration.ofHours(1));
+
+        for (int i = 0; i < 5; i++) {
+            warnings.warn("Rejected {}", i);
+        }
+
+        verify(logger, times(2)).warn(eq("Rejected {}"), (Object[]) any());
+        assertEquals(3, warnings.getSuppressedCount());
+    }
+
+    @Test
+    public void warn_AfterInterval_ReportsSuppressedCount() throws InterruptedException {
+        RateLimitedLogger warnings = new RateLimitedLogger(logger, 1, Duration.ofMillis(20));
+        warnings.warn("first");
+        warnings.error("dropped");
+
+        Thread.sleep(30);
+        warnings.error("second");
+
+        verify(logger).warn("Suppressed {} log messages in the last {} ms", 1L, 20L);
+        verify(logger).error(eq("second"), (Object[]) any());
+        verify(logger, never()).error(eq("dropped"), (Object[]) any());
+        assertEquals(0, warnings.getSuppressedCount());
+    }
+
+    @Test
+    public void warn_LevelDisabled_DoesNotUsePermits() {
+        when(logger.isWarnEnabled()).thenReturn(false);
+        RateLimitedLogger warnings = new RateLimitedLogger(logger, 1, Duration.ofHours(1));
+
+        warnings.warn("disabled");
+        warnings.error("enabled");
+
+        verify(logger, never()).warn(anyString(), (Object[]) any());
+        verify(logger).error(eq("enabled"), (Object[]) any());
+    }
+
+    @Test
+    public void constructor_NonPositivePermits_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitedLogger(logger, 0, Duration.ofSeconds(1)));
+    }
+}
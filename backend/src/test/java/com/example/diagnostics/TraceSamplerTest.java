@@ -0,0 +1,29 @@
+package com.example.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TraceSamplerTest {
+
+    @AfterEach
+    public void tearDown() {
+        TraceSampler.endRequest();
+    }
+
+    @Test
+    public void shouldTrace_OutsideRequest_UsesRate() {
+        assertFalse(TraceSampler.shouldTrace(0));
+        assertTrue(TraceSampler.shouldTrace(1));
+    }
+
+    @Test
+    public void shouldTrace_InsideRequest_UsesRequestDecision() {
+        TraceSampler.beginRequest(true);
+        assertTrue(TraceSampler.shouldTrace(0));
+
+        TraceSampler.beginRequest(false);
+        assertFalse(TraceSampler.shouldTrace(1));
+    }
+}
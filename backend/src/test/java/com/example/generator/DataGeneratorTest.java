@@ -3,6 +3,7 @@ package com.example.generator;
 import static org.mockito.Mockito.*;
 
 import com.example.repository.InvestmentRepository;
+import com.example.service.PositionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -26,6 +27,9 @@ public class DataGeneratorTest {
     @Mock
     private DividendGenerator dividendGenerator;
 
+    @Mock
+    private PositionService positionService;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -36,5 +40,6 @@ public class DataGeneratorTest {
         dataGenerator.run();
 
         verify(investmentGenerator, times(1)).generateInvestmentData();
+        verify(positionService, times(1)).verify();
     }
 }
@@ -1,20 +1,28 @@
 package com.example.generator;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.List;
 
+import com.example.enums.TransactionType;
 import com.example.model.Dividend;
+import com.example.model.Instrument;
 import com.example.model.Investment;
 import com.example.model.Transaction;
 import com.example.repository.DividendRepository;
-import com.example.service.TransactionService;
+import com.example.service.HoldingsIndexService;
+import com.example.service.PositionService;
+import com.example.util.HoldingsIndex;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -28,11 +36,23 @@ public class DividendGeneratorTest {
     private DividendRepository dividendRepository;
 
     @Mock
-    private TransactionService transactionService;
+    private HoldingsIndexService holdingsIndexService;
+
+    @Mock
+    private PositionService positionService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(holdingsIndexService.getIndex(any(Investment.class))).thenAnswer(invocation ->
+                HoldingsIndex.build(invocation.getArgument(0, Investment.class).getTransactions()));
+    }
+
+    private Instrument createInstrument(String name, BigDecimal price) {
+        Instrument instrument = new Instrument();
+        instrument.setName(name);
+        instrument.setCurrentPrice(price);
+        return instrument;
     }
 
     private Investment createMockInvestment(String name, double price, int quantity) {
@@ -40,11 +60,11 @@ public class DividendGeneratorTest {
             price = 0; 
         }
         Investment investment = new Investment();
-        investment.setName(name);
-        investment.setCurrentPrice(BigDecimal.valueOf(price));
+        investment.setInstrument(createInstrument(name, BigDecimal.valueOf(price)));
         investment.setUserId(1L);
         
         Transaction transaction = new Transaction();
+        transaction.setType(TransactionType.BUY);
         transaction.setTimestamp(Instant.now());
         transaction.setQuantity(quantity); 
         investment.setTransactions(Collections.singletonList(transaction)); 
@@ -57,6 +77,7 @@ public class DividendGeneratorTest {
         Investment fundInvestment = createMockInvestment("Fund A", 100, 10);
         dividendGenerator.generateDividends(fundInvestment);
         verify(dividendRepository, times(4)).save(any(Dividend.class)); // 4 dividends for fund
+        verify(positionService, times(1)).applyDividends(argThat(dividends -> dividends.size() == 4));
     }
 
     @Test
@@ -69,8 +90,7 @@ public class DividendGeneratorTest {
     @Test
     public void generateDividends_ForEmptyInvestment_DoesNotCreateDividends() {
         Investment emptyInvestment = new Investment();
-        emptyInvestment.setName("Empty Investment");
-        emptyInvestment.setCurrentPrice(BigDecimal.valueOf(100));
+        emptyInvestment.setInstrument(createInstrument("Empty Investment", BigDecimal.valueOf(100)));
         emptyInvestment.setUserId(1L);
         emptyInvestment.setTransactions(Collections.emptyList()); 
         
@@ -100,12 +120,32 @@ public class DividendGeneratorTest {
     @Test
     public void generateDividends_WithNullAttributes_DoesNotCreateDividends() {
         Investment investment = new Investment();
-        investment.setName("Fund A");
-        investment.setCurrentPrice(BigDecimal.ZERO); 
+        investment.setInstrument(createInstrument("Fund A", BigDecimal.ZERO)); 
         investment.setTransactions(null); 
 
         dividendGenerator.generateDividends(investment); 
 
         verify(dividendRepository, never()).save(any(Dividend.class));
     }
+
+    @Test
+    public void generateDividends_PositionReducedLater_PaysOnUnitsHeldAtPaymentDate() {
+        Instant start = Instant.parse("2023-01-02T10:00:00Z");
+        Investment investment = createMockInvestment("Fund A", 100, 10);
+        investment.getTransactions().get(0).setTimestamp(start);
+        Transaction sell = new Transaction();
+        sell.setType(TransactionType.SELL);
+        sell.setQuantity(5);
+        sell.setPrice(BigDecimal.valueOf(100));
+        sell.setTimestamp(start.plus(100, ChronoUnit.DAYS));
+        investment.setTransactions(List.of(investment.getTransactions().get(0), sell));
+
+        dividendGenerator.generateDividends(investment);
+
+        ArgumentCaptor<Dividend> captor = ArgumentCaptor.forClass(Dividend.class);
+        verify(dividendRepository, times(4)).save(captor.capture());
+        List<Dividend> dividends = captor.getAllValues();
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(dividends.get(1).getAmount())); // 100 * 10 * 0.04
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(dividends.get(2).getAmount())); // 100 * 5 * 0.04
+    }
 }
@@ -1,15 +1,21 @@
 package com.example.generator;
 
+import com.example.model.Instrument;
 import com.example.model.Investment;
 import com.example.repository.InvestmentRepository;
+import com.example.service.InstrumentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,6 +29,9 @@ class InvestmentGeneratorTest {
     @Mock
     private InvestmentRepository investmentRepository;
 
+    @Mock
+    private InstrumentService instrumentService;
+
     @Mock
     private TransactionGenerator transactionGenerator;
 
@@ -32,6 +41,12 @@ class InvestmentGeneratorTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(instrumentService.findOrCreate(any(), any())).thenAnswer(invocation -> {
+            Instrument instrument = new Instrument();
+            instrument.setName(invocation.getArgument(0));
+            instrument.setCurrentPrice(invocation.getArgument(1));
+            return instrument;
+        });
     }
 
     // Tests for generateInvestmentData
@@ -47,6 +62,23 @@ class InvestmentGeneratorTest {
         verify(dividendGenerator, times(10)).generateDividends(any());
     }
 
+    @Test
+    void generateInvestmentData_ScaledCount_SuffixesRepeatedNames() {
+        ReflectionTestUtils.setField(investmentGenerator, "investmentCount", 25);
+        when(transactionGenerator.generateTransactions(any())).thenReturn(Collections.emptyList());
+
+        investmentGenerator.generateInvestmentData();
+
+        ArgumentCaptor<Investment> captor = ArgumentCaptor.forClass(Investment.class);
+        verify(investmentRepository, times(25)).save(captor.capture());
+        List<String> names = captor.getAllValues().stream().map(Investment::getName).collect(Collectors.toList());
+        assertEquals(25, names.stream().distinct().count());
+        assertEquals("Fund A", names.get(0));
+        assertEquals("Fund A 2", names.get(10));
+        assertEquals("Company E 2", names.get(19));
+        assertEquals("Company B 3", names.get(24));
+    }
+
     // Tests for createInvestment
     @Test
     void createInvestment_ValidName_CreatesInvestment() {
@@ -63,7 +95,7 @@ class InvestmentGeneratorTest {
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             investmentGenerator.createInvestment(null);
         });
-        assertEquals("Investment name cannot be null or empty.", exception.getMessage());
+        assertEquals("Instrument name cannot be null or empty.", exception.getMessage());
     }
 
     @Test
@@ -71,7 +103,7 @@ class InvestmentGeneratorTest {
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             investmentGenerator.createInvestment("  ");
         });
-        assertEquals("Investment name cannot be null or empty.", exception.getMessage());
+        assertEquals("Instrument name cannot be null or empty.", exception.getMessage());
     }
 
     @Test
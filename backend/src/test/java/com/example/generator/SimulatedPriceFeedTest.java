@@ -0,0 +1,68 @@
+package com.example.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.example.dto.PriceTick;
+import com.example.model.Instrument;
+import com.example.repository.InstrumentRepository;
+import com.example.service.PriceIngestionService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class SimulatedPriceFeedTest {
+
+    @InjectMocks
+    private SimulatedPriceFeed simulatedPriceFeed;
+
+    @Mock
+    private InstrumentRepository instrumentRepository;
+
+    @Mock
+    private PriceIngestionService priceIngestionService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private Instrument createInstrument(String name, BigDecimal price) {
+        Instrument instrument = new Instrument();
+        instrument.setName(name);
+        instrument.setCurrentPrice(price);
+        return instrument;
+    }
+
+    @Test
+    public void publishTicks_SeedsFromRepositoryAndSubmitsTicks() {
+        when(instrumentRepository.findAll()).thenReturn(List.of(
+                createInstrument("Fund A", BigDecimal.valueOf(100)),
+                createInstrument("Company A", BigDecimal.valueOf(80))));
+
+        simulatedPriceFeed.publishTicks();
+        simulatedPriceFeed.publishTicks();
+
+        verify(instrumentRepository, times(1)).findAll();
+        verify(priceIngestionService, times(2)).submit(anyList());
+    }
+
+    @Test
+    public void generateTicks_PricesStayAboveMinimum() {
+        when(instrumentRepository.findAll()).thenReturn(List.of(createInstrument("Fund A", BigDecimal.ONE)));
+        simulatedPriceFeed.publishTicks();
+
+        for (int i = 0; i < 100; i++) {
+            List<PriceTick> ticks = simulatedPriceFeed.generateTicks();
+            assertFalse(ticks.isEmpty());
+            ticks.forEach(tick -> assertTrue(tick.getPrice().compareTo(BigDecimal.ONE) >= 0));
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.example.generator;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 import com.example.enums.TransactionType;
+import com.example.model.Instrument;
 import com.example.model.Investment;
 import com.example.model.Transaction;
 import com.example.repository.TransactionRepository;
+import com.example.service.PositionService;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -25,23 +29,31 @@ public class TransactionGeneratorTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private PositionService positionService;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
     }
 
+    private Instrument createInstrument(String name, BigDecimal price) {
+        Instrument instrument = new Instrument();
+        instrument.setName(name);
+        instrument.setCurrentPrice(price);
+        return instrument;
+    }
+
     private Investment createMockInvestment() {
         Investment investment = new Investment();
-        investment.setName("Fund A");
-        investment.setCurrentPrice(BigDecimal.valueOf(100));
+        investment.setInstrument(createInstrument("Fund A", BigDecimal.valueOf(100)));
         investment.setUserId(1L);
         return investment;
     }
 
     private Investment createMockInvestmentWithPrice(BigDecimal price) {
         Investment investment = new Investment();
-        investment.setName("Fund B");
-        investment.setCurrentPrice(price);
+        investment.setInstrument(createInstrument("Fund B", price));
         investment.setUserId(2L);
         return investment;
     }
@@ -53,6 +65,7 @@ public class TransactionGeneratorTest {
         List<Transaction> transactions = transactionGenerator.generateTransactions(mockInvestment);
 
         assertEquals(100, transactions.size(), "There should be exactly 100 transactions generated for the investment.");
+        verify(positionService, times(1)).applyTransactions(transactions);
     }
 
     @Test
@@ -130,6 +143,19 @@ public class TransactionGeneratorTest {
         }
     }
 
+    @Test
+    public void generateTransactions_ScaledCount_KeepsHistoryInThePast() {
+        ReflectionTestUtils.setField(transactionGenerator, "transactionsPerInvestment", 5_000);
+        Investment mockInvestment = createMockInvestment();
+
+        List<Transaction> transactions = transactionGenerator.generateTransactions(mockInvestment);
+
+        assertEquals(5_000, transactions.size());
+        assertTrue(transactions.get(transactions.size() - 1).getTimestamp().isBefore(Instant.now()),
+                "Scaled histories should still end before now.");
+        verify(transactionRepository, times(1)).saveAll(transactions);
+    }
+
     @Test
     public void generateTransactions_WithZeroPriceInvestment_ShouldThrowException() {
         Investment zeroPriceInvestment = createMockInvestmentWithPrice(BigDecimal.ZERO);
@@ -0,0 +1,67 @@
+package com.example.metric;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ReturnMetricRegistryTest {
+
+    private ReturnMetricRegistry returnMetricRegistry;
+    private XirrReturnMetric xirr;
+    private ModifiedDietzReturnMetric modifiedDietz;
+    private TwrReturnMetric twr;
+
+    @BeforeEach
+    public void setUp() {
+        xirr = new XirrReturnMetric();
+        modifiedDietz = new ModifiedDietzReturnMetric();
+        twr = new TwrReturnMetric();
+        returnMetricRegistry = registryOf(xirr, modifiedDietz, twr);
+    }
+
+    private ReturnMetricRegistry registryOf(ReturnMetric... metrics) {
+        ReturnMetricRegistry registry = new ReturnMetricRegistry();
+        ReflectionTestUtils.setField(registry, "metrics", Arrays.asList(metrics));
+        registry.init();
+        return registry;
+    }
+
+    @Test
+    public void resolve_NoNames_ReturnsXirr() {
+        assertEquals(List.of(xirr), returnMetricRegistry.resolve(null));
+        assertEquals(List.of(xirr), returnMetricRegistry.resolve(List.of()));
+    }
+
+    @Test
+    public void resolve_SeveralNames_KeepsRequestOrder() {
+        assertEquals(List.of(twr, xirr), returnMetricRegistry.resolve(List.of("twr", " XIRR ")));
+    }
+
+    @Test
+    public void resolve_DuplicateNames_ReturnsEachMetricOnce() {
+        assertEquals(List.of(modifiedDietz), returnMetricRegistry.resolve(List.of("MODIFIED_DIETZ", "modified_dietz")));
+    }
+
+    @Test
+    public void resolve_None_ReturnsNoMetrics() {
+        assertTrue(returnMetricRegistry.resolve(List.of("NONE")).isEmpty());
+    }
+
+    @Test
+    public void resolve_UnknownName_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> returnMetricRegistry.resolve(List.of("XIRR", "SHARPE")));
+
+        assertEquals("Unknown return metric: SHARPE", exception.getMessage());
+    }
+
+    @Test
+    public void init_DuplicateMetricName_ThrowsException() {
+        assertThrows(IllegalStateException.class, () -> registryOf(xirr, new XirrReturnMetric()));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.metric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.dto.CashFlowData;
+import com.example.enums.CostClass;
+import com.example.util.TwrCalculator;
+
+public class TwrReturnMetricTest {
+
+    private TwrReturnMetric twrReturnMetric;
+
+    @BeforeEach
+    public void setUp() {
+        twrReturnMetric = new TwrReturnMetric();
+        ReflectionTestUtils.setField(twrReturnMetric, "twrCalculator", new TwrCalculator());
+    }
+
+    @Test
+    public void getCostClass_NeedsValuations_IsValuation() {
+        assertEquals(CostClass.VALUATION, twrReturnMetric.getCostClass());
+    }
+
+    @Test
+    public void calculate_SameDayFlows_NettedIntoOneSubPeriod() {
+        Instant now = Instant.now();
+        Instant tradeDay = now.minus(730, ChronoUnit.DAYS).truncatedTo(ChronoUnit.DAYS);
+        Instant firstBuy = tradeDay.plusSeconds(3_600);
+        Instant secondBuy = tradeDay.plusSeconds(7_200);
+        List<CashFlowData> cashFlows = List.of(new CashFlowData(BigDecimal.valueOf(-100), firstBuy),
+                new CashFlowData(BigDecimal.valueOf(-100), secondBuy),
+                new CashFlowData(BigDecimal.valueOf(400), now));
+        List<Instant> valuations = new ArrayList<>();
+
+        BigDecimal result = twrReturnMetric.calculate(new ReturnContext(cashFlows, asOf -> {
+            valuations.add(asOf);
+            return BigDecimal.valueOf(200);
+        }));
+
+        // One valuation at the close of the trade day, none for the terminal value
+        assertEquals(List.of(tradeDay.plus(1, ChronoUnit.DAYS).minusSeconds(1)), valuations);
+        // 200 invested on the trade day doubles by now
+        double years = (now.getEpochSecond() - secondBuy.getEpochSecond()) / (365 * 86_400.0);
+        assertEquals(Math.pow(2, 1 / years) - 1, result.doubleValue(), 1e-9);
+    }
+}
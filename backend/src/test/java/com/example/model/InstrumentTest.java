@@ -0,0 +1,78 @@
+package com.example.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentTest {
+
+    private Instrument instrument;
+
+    @BeforeEach
+    public void setUp() {
+        instrument = new Instrument();
+        instrument.setName("Fund A");
+        instrument.setCurrentPrice(BigDecimal.valueOf(100));
+    }
+
+    @Test
+    public void testGetId() {
+        instrument.setId(1L);
+        assertEquals(1L, instrument.getId());
+    }
+
+    @Test
+    public void testSetName() {
+        instrument.setName("Fund B");
+        assertEquals("Fund B", instrument.getName());
+    }
+
+    @Test
+    public void testSetName_NullValue_ThrowsIllegalArgumentException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            instrument.setName(null);
+        });
+        assertEquals("Instrument name cannot be null or empty.", exception.getMessage());
+    }
+
+    @Test
+    public void testSetName_EmptyValue_ThrowsIllegalArgumentException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            instrument.setName(""); // Empty string
+        });
+        assertEquals("Instrument name cannot be null or empty.", exception.getMessage());
+    }
+
+    @Test
+    public void testSetName_WhitespaceValue_ThrowsIllegalArgumentException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            instrument.setName("   "); // Only whitespace
+        });
+        assertEquals("Instrument name cannot be null or empty.", exception.getMessage());
+    }
+
+    @Test
+    public void testSetCurrentPrice_ValidValue() {
+        instrument.setCurrentPrice(BigDecimal.valueOf(150));
+        assertEquals(BigDecimal.valueOf(150), instrument.getCurrentPrice());
+    }
+
+    @Test
+    public void testSetCurrentPrice_NegativeValue() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            instrument.setCurrentPrice(BigDecimal.valueOf(-50));
+        });
+        assertEquals("Price cannot be negative or null", exception.getMessage());
+    }
+
+    @Test
+    public void testSetCurrentPrice_NullValue() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            instrument.setCurrentPrice(null);
+        });
+        assertEquals("Price cannot be negative or null", exception.getMessage());
+    }
+}
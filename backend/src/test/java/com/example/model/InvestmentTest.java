@@ -16,8 +16,10 @@ public class InvestmentTest {
     public void setUp() {
         investment = new Investment();
         investment.setUserId(1L);
-        investment.setName("Test Investment");
-        investment.setCurrentPrice(BigDecimal.valueOf(100));
+        Instrument instrument = new Instrument();
+        instrument.setName("Test Investment");
+        instrument.setCurrentPrice(BigDecimal.valueOf(100));
+        investment.setInstrument(instrument);
         investment.setTransactions(Collections.emptyList());
         investment.setDividends(Collections.emptyList());
     }
@@ -44,61 +46,22 @@ public class InvestmentTest {
         assertEquals("Test Investment", investment.getName());
     }
 
-    @Test
-    public void testSetName() {
-        investment.setName("Updated Investment");
-        assertEquals("Updated Investment", investment.getName());
-    }
-
-    @Test
-    public void testSetName_NullValue_ThrowsIllegalArgumentException() {
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-            investment.setName(null);
-        });
-        assertEquals("Investment name cannot be null or empty.", exception.getMessage());
-    }
-
-    @Test
-    public void testSetName_EmptyValue_ThrowsIllegalArgumentException() {
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-            investment.setName(""); // Empty string
-        });
-        assertEquals("Investment name cannot be null or empty.", exception.getMessage());
-    }
-
-    @Test
-    public void testSetName_WhitespaceValue_ThrowsIllegalArgumentException() {
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-            investment.setName("   "); // Only whitespace
-        });
-        assertEquals("Investment name cannot be null or empty.", exception.getMessage());
-    }
-
     @Test
     public void testGetCurrentPrice() {
         assertEquals(BigDecimal.valueOf(100), investment.getCurrentPrice());
     }
 
     @Test
-    public void testSetCurrentPrice_ValidValue() {
-        investment.setCurrentPrice(BigDecimal.valueOf(150));
+    public void testInstrumentPriceChange_VisibleThroughInvestment() {
+        investment.getInstrument().setCurrentPrice(BigDecimal.valueOf(150));
         assertEquals(BigDecimal.valueOf(150), investment.getCurrentPrice());
     }
 
     @Test
-    public void testSetCurrentPrice_NegativeValue() {
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-            investment.setCurrentPrice(BigDecimal.valueOf(-50));
-        });
-        assertEquals("Price cannot be negative or null", exception.getMessage());
-    }
-
-    @Test
-    public void testSetCurrentPrice_NullValue() {
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-            investment.setCurrentPrice(null);
-        });
-        assertEquals("Price cannot be negative or null", exception.getMessage());
+    public void testNoInstrument_ReturnsNullNameAndZeroPrice() {
+        investment.setInstrument(null);
+        assertNull(investment.getName());
+        assertEquals(BigDecimal.ZERO, investment.getCurrentPrice());
     }
 
     @Test
@@ -0,0 +1,71 @@
+package com.example.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionTest {
+
+    private Position position;
+
+    @BeforeEach
+    public void setUp() {
+        position = createPosition();
+    }
+
+    private Position createPosition() {
+        Position created = new Position();
+        created.setInvestmentId(1L);
+        created.setNetQuantity(10);
+        created.setTotalInvested(new BigDecimal("100.00"));
+        created.setTotalFees(BigDecimal.ONE);
+        created.setLastTradeTime(Instant.parse("2024-01-01T00:00:00Z"));
+        return created;
+    }
+
+    @Test
+    public void testNewPosition_DefaultsToZeroTotals() {
+        Position empty = new Position();
+        assertEquals(0, empty.getNetQuantity());
+        assertEquals(BigDecimal.ZERO, empty.getTotalProceeds());
+        assertEquals(BigDecimal.ZERO, empty.getDividendTotal());
+        assertNull(empty.getLastTradeTime());
+    }
+
+    @Test
+    public void testMatches_SameTotalsDifferentScale() {
+        Position other = createPosition();
+        other.setTotalInvested(new BigDecimal("100"));
+        assertTrue(position.matches(other));
+    }
+
+    @Test
+    public void testMatches_DifferentQuantity() {
+        Position other = createPosition();
+        other.setNetQuantity(9);
+        assertFalse(position.matches(other));
+    }
+
+    @Test
+    public void testMatches_DifferentTradeCount() {
+        Position other = createPosition();
+        other.setTradeCount(3);
+        assertFalse(position.matches(other));
+    }
+
+    @Test
+    public void testMatches_DifferentLastTradeTime() {
+        Position other = createPosition();
+        other.setLastTradeTime(null);
+        assertFalse(position.matches(other));
+    }
+
+    @Test
+    public void testMatches_Null() {
+        assertFalse(position.matches(null));
+    }
+}
@@ -124,4 +124,18 @@ public class TransactionTest {
         transaction.setInvestment(investment);
         assertEquals(investment, transaction.getInvestment());
     }
+
+    @Test
+    public void testSetExternalId_ValidValue() {
+        transaction.setExternalId("BRK-2024-0001");
+        assertEquals("BRK-2024-0001", transaction.getExternalId());
+    }
+
+    @Test
+    public void testSetExternalId_BlankValue() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            transaction.setExternalId(" ");
+        });
+        assertEquals("External ID must be 1 to 64 characters", exception.getMessage());
+    }
 }
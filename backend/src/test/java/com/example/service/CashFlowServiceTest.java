@@ -18,6 +18,7 @@ import org.mockito.MockitoAnnotations;
 import com.example.dto.CashFlowData;
 import com.example.enums.TransactionType;
 import com.example.model.Dividend;
+import com.example.model.Instrument;
 import com.example.model.Investment;
 import com.example.model.Transaction;
 
@@ -39,7 +40,9 @@ class CashFlowServiceTest {
     private Investment createInvestment(BigDecimal currentPrice, List<Transaction> transactions,
             List<Dividend> dividends) {
         Investment investment = new Investment();
-        investment.setCurrentPrice(currentPrice);
+        Instrument instrument = new Instrument();
+        instrument.setCurrentPrice(currentPrice);
+        investment.setInstrument(instrument);
         investment.setTransactions(transactions);
         investment.setDividends(dividends);
         return investment;
@@ -0,0 +1,193 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.dto.CsvImportReport;
+import com.example.enums.IngestionStatus;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.repository.InvestmentRepository;
+
+class CsvTransactionImporterTest {
+
+    @InjectMocks
+    private CsvTransactionImporter csvTransactionImporter;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Spy
+    private TransactionIngestionService transactionIngestionService = new TransactionIngestionService();
+
+    @Mock
+    private TransactionBatchWriter transactionBatchWriter;
+
+    @Mock
+    private TransactionDeduplicator transactionDeduplicator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AtomicInteger written = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Investment investment = new Investment();
+        investment.setId(1L);
+        investment.setUserId(1L);
+        when(investmentRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(investmentRepository.findById(1L)).thenReturn(Optional.of(investment));
+        when(transactionDeduplicator.findDuplicates(anyList())).thenReturn(new BitSet());
+        when(transactionBatchWriter.getBatchSize()).thenReturn(500);
+        when(transactionBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            written.addAndGet(transactions.size());
+            return transactions.size();
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        csvTransactionImporter.shutdown();
+    }
+
+    private String createCsv(int rows) {
+        StringBuilder csv = new StringBuilder("investment_id,type,quantity,price,fee,timestamp\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("1,BUY,").append(i % 10).append(",10.5,1,2024-01-01T00:00:00Z\n");
+        }
+        return csv.toString();
+    }
+
+    @Test
+    public void importCsv_ValidRows_ImportsAllAndReportsThroughput() {
+        CsvImportReport report = csvTransactionImporter.importCsv(new StringReader(createCsv(5_500)), 0);
+
+        assertTrue(report.isCompleted());
+        assertEquals(5_500, report.getRowsRead());
+        assertEquals(5_500, report.getRowsImported());
+        assertEquals(5_500, report.getResumeOffset());
+        assertTrue(report.getRowsPerSecond() > 0);
+        assertEquals(5_500, written.get());
+        verify(eventPublisher, times(1)).publishEvent(any(PortfolioChangedEvent.class));
+    }
+
+    @Test
+    public void importCsv_InvalidRows_ReportsErrorRows() {
+        String csv = "1,BUY,5,10,1,2024-01-01T00:00:00Z\n"
+                + "2,BUY,5,10,1,2024-01-01T00:00:00Z\n"
+                + "1,BUY,-5,10,1,2024-01-01T00:00:00Z\n"
+                + "1,BUY,5,10,1,not-a-date\n";
+
+        CsvImportReport report = csvTransactionImporter.importCsv(new StringReader(csv), 0);
+
+        assertTrue(report.isCompleted());
+        assertEquals(1, report.getRowsImported());
+        assertEquals(3, report.getRowsRejected());
+        assertEquals("Investment not found", report.getErrors().get(0).getMessage());
+        assertEquals(2L, report.getErrors().get(1).getRow());
+        assertEquals("Quantity cannot be negative", report.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    public void importCsv_ResumeFrom_SkipsCommittedRows() {
+        CsvImportReport report = csvTransactionImporter.importCsv(new StringReader(createCsv(2_000)), 1_500);
+
+        assertEquals(500, report.getRowsRead());
+        assertEquals(500, written.get());
+        assertEquals(2_000, report.getResumeOffset());
+    }
+
+    @Test
+    public void importCsv_WriterFailsMidChunk_StopsWithResumeOffsetOfLastCommittedBatch() {
+        AtomicInteger calls = new AtomicInteger();
+        when(transactionBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 4) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            return ((List<?>) invocation.getArgument(0)).size();
+        });
+
+        CsvImportReport report = csvTransactionImporter.importCsv(new StringReader(createCsv(50_000)), 0);
+
+        assertFalse(report.isCompleted());
+        assertEquals("Database unavailable", report.getFailure());
+        assertEquals(1_500, report.getResumeOffset());
+        assertEquals(1_500, report.getRowsImported());
+        verify(transactionBatchWriter, never()).write(argThat(list -> list.size() > 500));
+    }
+
+    @Test
+    public void importCsv_DuplicateExternalIds_SkipsDuplicates() {
+        String csv = "1,BUY,5,10,1,2024-01-01T00:00:00Z,T-1\n"
+                + "1,BUY,5,10,1,2024-01-01T00:00:00Z,T-2\n";
+        BitSet duplicates = new BitSet();
+        duplicates.set(0);
+        when(transactionDeduplicator.findDuplicates(anyList())).thenReturn(duplicates);
+
+        CsvImportReport report = csvTransactionImporter.importCsv(new StringReader(csv), 0);
+
+        assertEquals(1, report.getRowsImported());
+        assertEquals(1, report.getRowsDuplicate());
+        assertEquals(IngestionStatus.DUPLICATE, report.getErrors().get(0).getStatus());
+        assertEquals(1, written.get());
+    }
+
+    @Test
+    public void importCsv_BlankLinesThenResume_ImportsEveryRowOnce() {
+        String csv = "1,BUY,1,10,1,2024-01-01T00:00:00Z,T-1\n"
+                + "\n"
+                + "1,BUY,2,10,1,2024-01-01T00:00:00Z,T-2\n"
+                + "\n\n"
+                + "1,BUY,3,10,1,2024-01-01T00:00:00Z,T-3\n"
+                + "1,BUY,4,10,1,2024-01-01T00:00:00Z,T-4\n";
+        CsvImportReport first = csvTransactionImporter.importCsv(new StringReader(csv), 0);
+        List<Integer> quantities = new ArrayList<>();
+        when(transactionBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            transactions.forEach(transaction -> quantities.add(transaction.getQuantity()));
+            return transactions.size();
+        });
+
+        // Resuming after the first two rows, as if the import had stopped there
+        CsvImportReport resumed = csvTransactionImporter.importCsv(new StringReader(csv), 2);
+
+        assertEquals(4, first.getResumeOffset());
+        assertEquals(List.of(3, 4), quantities);
+        assertEquals(4, resumed.getResumeOffset());
+    }
+
+    @Test
+    public void importCsv_RejectedAndFailedRows_PublishNoChange() {
+        when(transactionBatchWriter.write(anyList())).thenThrow(new IllegalStateException("Database unavailable"));
+        String csv = "2,BUY,5,10,1,2024-01-01T00:00:00Z\n"
+                + "1,BUY,5,10,1,2024-01-01T00:00:00Z\n";
+
+        CsvImportReport report = csvTransactionImporter.importCsv(new StringReader(csv), 0);
+
+        assertFalse(report.isCompleted());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
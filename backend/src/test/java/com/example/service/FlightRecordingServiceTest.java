@@ -0,0 +1,105 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.dto.FlightRecordingStatus;
+import com.example.util.XirrCalculator;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecordingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FlightRecordingService flightRecordingService;
+
+    @BeforeEach
+    public void setUp() {
+        flightRecordingService = new FlightRecordingService();
+        ReflectionTestUtils.setField(flightRecordingService, "dumpDirectory", tempDir.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        flightRecordingService.closeRecording();
+    }
+
+    @Test
+    public void start_NoRecording_StartsRunning() {
+        FlightRecordingStatus status = flightRecordingService.start("default", Duration.ofMinutes(5));
+
+        assertEquals("RUNNING", status.getState());
+        assertEquals("default", status.getSettings());
+        assertNotNull(status.getStartTime());
+    }
+
+    @Test
+    public void start_AlreadyRunning_ThrowsException() {
+        flightRecordingService.start("default", Duration.ofMinutes(5));
+
+        assertThrows(IllegalStateException.class, () -> flightRecordingService.start("profile", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    public void start_UnknownSettings_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> flightRecordingService.start("verbose", Duration.ofMinutes(5)));
+        assertTrue(flightRecordingService.getStatus().isEmpty());
+    }
+
+    @Test
+    public void stop_NoRecording_ThrowsException() {
+        assertThrows(IllegalStateException.class, () -> flightRecordingService.stop());
+    }
+
+    @Test
+    public void dump_NoRecording_ReturnsEmpty() {
+        assertTrue(flightRecordingService.dump().isEmpty());
+    }
+
+    @Test
+    public void dump_AfterXirrSolve_ContainsSolveEvent() throws Exception {
+        flightRecordingService.start("default", Duration.ofMinutes(5));
+        Instant start = Instant.parse("2022-01-01T00:00:00Z");
+        new XirrCalculator().calculateXirr(List.of(start, start.plus(365, ChronoUnit.DAYS)),
+                List.of(BigDecimal.valueOf(-1000), BigDecimal.valueOf(1100)));
+        assertEquals("STOPPED", flightRecordingService.stop().getState());
+
+        Path dump = flightRecordingService.dump().orElseThrow();
+
+        List<RecordedEvent> solves = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("com.example.XirrSolve"))
+                .toList();
+        assertEquals(1, solves.size());
+        assertEquals(2, solves.get(0).getInt("flows"));
+        assertTrue(solves.get(0).getBoolean("converged"));
+        assertTrue(solves.get(0).getInt("iterations") > 0);
+    }
+
+    @Test
+    public void dump_Twice_WritesSeparateFiles() {
+        flightRecordingService.start("default", Duration.ofMinutes(5));
+
+        Path first = flightRecordingService.dump().orElseThrow();
+        Path second = flightRecordingService.dump().orElseThrow();
+
+        assertNotEquals(first, second);
+        assertTrue(Files.exists(first));
+        assertEquals(tempDir, second.getParent());
+    }
+}
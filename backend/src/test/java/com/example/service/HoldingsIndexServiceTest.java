@@ -0,0 +1,115 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.enums.TransactionType;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.util.HoldingsIndex;
+
+class HoldingsIndexServiceTest {
+
+    private HoldingsIndexService holdingsIndexService;
+    private Investment investment;
+
+    @BeforeEach
+    public void setUp() {
+        holdingsIndexService = new HoldingsIndexService();
+        investment = new Investment();
+        investment.setId(3L);
+        investment.setUserId(1L);
+        investment.setTransactions(new ArrayList<>());
+        addBuy(10);
+    }
+
+    private void addBuy(int quantity) {
+        Transaction transaction = new Transaction();
+        transaction.setType(TransactionType.BUY);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(BigDecimal.TEN);
+        transaction.setTimestamp(Instant.parse("2024-01-01T00:00:00Z"));
+        investment.getTransactions().add(transaction);
+    }
+
+    @Test
+    public void getIndex_CalledTwice_ReturnsCachedIndex() {
+        HoldingsIndex first = holdingsIndexService.getIndex(investment);
+        addBuy(5);
+
+        assertSame(first, holdingsIndexService.getIndex(investment));
+        assertEquals(1, holdingsIndexService.getCachedCount());
+    }
+
+    @Test
+    public void onPortfolioChanged_InvestmentChanged_RebuildsIndex() {
+        holdingsIndexService.getIndex(investment);
+        addBuy(5);
+
+        holdingsIndexService.onPortfolioChanged(new PortfolioChangedEvent(1L, Set.of(3L)));
+
+        assertEquals(15, holdingsIndexService.getIndex(investment).quantityAt(Instant.now()));
+    }
+
+    @Test
+    public void onPortfolioChanged_PriceOnly_KeepsIndex() {
+        HoldingsIndex first = holdingsIndexService.getIndex(investment);
+
+        holdingsIndexService.onPortfolioChanged(PortfolioChangedEvent.priceChanged(1L));
+
+        assertSame(first, holdingsIndexService.getIndex(investment));
+    }
+
+    @Test
+    public void getIndex_UnsavedInvestment_NotCached() {
+        investment.setId(null);
+
+        assertEquals(10, holdingsIndexService.getIndex(investment).quantityAt(Instant.now()));
+        assertEquals(0, holdingsIndexService.getCachedCount());
+        assertTrue(holdingsIndexService.getIndex(null).isEmpty());
+    }
+
+    @Test
+    public void getIndex_OverMaxEntries_DropsLeastRecentlyUsed() {
+        ReflectionTestUtils.setField(holdingsIndexService, "maxIndexes", 2);
+        Investment second = new Investment();
+        second.setId(4L);
+        second.setTransactions(new ArrayList<>());
+        Investment third = new Investment();
+        third.setId(5L);
+        third.setTransactions(new ArrayList<>());
+        HoldingsIndex first = holdingsIndexService.getIndex(investment);
+        holdingsIndexService.getIndex(second);
+        holdingsIndexService.getIndex(investment);
+
+        holdingsIndexService.getIndex(third);
+
+        assertEquals(2, holdingsIndexService.getCachedCount());
+        assertSame(first, holdingsIndexService.getIndex(investment));
+    }
+
+    @Test
+    public void getIndex_InvalidatedWhileBuilding_NotCached() {
+        Investment changing = new Investment() {
+            @Override
+            public List<Transaction> getTransactions() {
+                holdingsIndexService.onPortfolioChanged(new PortfolioChangedEvent(1L, Set.of(3L)));
+                return investment.getTransactions();
+            }
+        };
+        changing.setId(3L);
+
+        assertEquals(10, holdingsIndexService.getIndex(changing).quantityAt(Instant.now()));
+        assertEquals(0, holdingsIndexService.getCachedCount());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.example.dto.PriceTick;
+import com.example.model.Instrument;
+import com.example.model.Investment;
+import com.example.repository.InstrumentRepository;
+
+class InstrumentServiceTest {
+
+    @InjectMocks
+    private InstrumentService instrumentService;
+
+    @Mock
+    private InstrumentRepository instrumentRepository;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(instrumentRepository.save(any(Instrument.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private Instrument createInstrument(String name, BigDecimal price) {
+        Instrument instrument = new Instrument();
+        instrument.setName(name);
+        instrument.setCurrentPrice(price);
+        return instrument;
+    }
+
+    @Test
+    public void findByName_RepeatedLookups_HitsRepositoryOnce() {
+        when(instrumentRepository.findByName("Fund A"))
+                .thenReturn(Optional.of(createInstrument("Fund A", BigDecimal.TEN)));
+
+        Instrument first = instrumentService.findByName("Fund A").orElseThrow();
+        Instrument second = instrumentService.findByName("Fund A").orElseThrow();
+
+        assertSame(first, second);
+        verify(instrumentRepository, times(1)).findByName("Fund A");
+    }
+
+    @Test
+    public void findByName_Unknown_ReturnsEmpty() {
+        when(instrumentRepository.findByName("Unknown")).thenReturn(Optional.empty());
+
+        assertTrue(instrumentService.findByName("Unknown").isEmpty());
+    }
+
+    @Test
+    public void findOrCreate_SameNameTwice_SharesOneInstrument() {
+        when(instrumentRepository.findByName("Fund A")).thenReturn(Optional.empty());
+
+        Instrument first = instrumentService.findOrCreate("Fund A", BigDecimal.TEN);
+        Instrument second = instrumentService.findOrCreate("Fund A", BigDecimal.ONE);
+
+        assertSame(first, second);
+        assertEquals(BigDecimal.TEN, second.getCurrentPrice());
+        verify(instrumentRepository, times(1)).save(any(Instrument.class));
+    }
+
+    private Investment createInvestment(Long instrumentId) {
+        Instrument instrument = createInstrument("Fund A", BigDecimal.TEN);
+        instrument.setId(instrumentId);
+        Investment investment = new Investment();
+        investment.setInstrument(instrument);
+        return investment;
+    }
+
+    private Instrument createStoredInstrument(long id, BigDecimal price) {
+        Instrument instrument = createInstrument("Fund A", price);
+        instrument.setId(id);
+        return instrument;
+    }
+
+    @Test
+    public void attachPrices_RepeatedLoads_ReadsInstrumentsOnce() {
+        when(instrumentRepository.findAllById(List.of(3L)))
+                .thenReturn(List.of(createStoredInstrument(3L, BigDecimal.valueOf(11))));
+        Investment first = createInvestment(3L);
+        Investment second = createInvestment(3L);
+
+        instrumentService.attachPrices(List.of(first, second));
+        instrumentService.attachPrices(List.of(createInvestment(3L)));
+
+        assertEquals(BigDecimal.valueOf(11), first.getCurrentPrice());
+        assertEquals(BigDecimal.valueOf(11), second.getCurrentPrice());
+        verify(instrumentRepository, times(1)).findAllById(anyList());
+    }
+
+    @Test
+    public void applyPrices_CachedPrice_ReplacesSharedView() {
+        Instrument stored = createStoredInstrument(3L, BigDecimal.TEN);
+        when(instrumentRepository.findAllById(List.of(3L))).thenReturn(List.of(stored));
+        Investment before = createInvestment(3L);
+        instrumentService.attachPrices(List.of(before));
+
+        instrumentService.applyPrices(List.of(
+                new PriceTick("Fund A", BigDecimal.valueOf(12), Instant.now()),
+                new PriceTick("Unknown", BigDecimal.ONE, Instant.now())));
+        Investment after = createInvestment(3L);
+        instrumentService.attachPrices(List.of(after));
+
+        assertEquals(BigDecimal.valueOf(12), after.getCurrentPrice());
+        // Views already attached and the entity itself are never mutated
+        assertEquals(BigDecimal.TEN, before.getCurrentPrice());
+        assertEquals(BigDecimal.TEN, stored.getCurrentPrice());
+        verify(instrumentRepository, times(1)).findAllById(anyList());
+    }
+
+    @Test
+    public void attachPrices_UpdateDuringLoad_DoesNotCacheOlderPrice() {
+        when(instrumentRepository.findAllById(List.of(3L))).thenAnswer(invocation -> {
+            // The tick is committed after this read saw the old price
+            instrumentService.applyPrices(List.of(new PriceTick("Fund A", BigDecimal.valueOf(12), Instant.now())));
+            return List.of(createStoredInstrument(3L, BigDecimal.TEN));
+        }).thenReturn(List.of(createStoredInstrument(3L, BigDecimal.valueOf(12))));
+
+        Investment racing = createInvestment(3L);
+        instrumentService.attachPrices(List.of(racing));
+        Investment next = createInvestment(3L);
+        instrumentService.attachPrices(List.of(next));
+
+        assertEquals(BigDecimal.TEN, racing.getCurrentPrice());
+        assertEquals(BigDecimal.valueOf(12), next.getCurrentPrice());
+        verify(instrumentRepository, times(2)).findAllById(anyList());
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.diagnostics.QueryCounter;
+import com.example.dto.InvestmentSummaryResponse;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.repository.InvestmentRepository;
+
+/**
+ * Regression gates for the portfolio summary on the fixed-seed portfolio from
+ * application-performance.properties. The budgets are set with headroom over measured
+ * values, so a failure means an optimization was undone rather than ordinary noise.
+ * Latency is compared with a calibration loop timed on the same machine, so the gate
+ * holds on slower hardware. Run with {@code mvn -Pperformance test}.
+ */
+@Tag("performance")
+@SpringBootTest
+@ActiveProfiles("performance")
+public class InvestmentServicePerformanceTest {
+    private static final long USER_ID = 1L;
+    private static final int WARMUP_ITERATIONS = 30;
+    private static final int MEASURED_ITERATIONS = 21;
+
+    // Every statement, JDBC included: investments and positions, with prices from the shared views
+    // and cash flows from the packed store
+    private static final long MAX_STATEMENTS = 2;
+    // The packed store's JDBC reads of evicted transactions and dividends on top
+    private static final long COLD_STATEMENTS = MAX_STATEMENTS + 2;
+    // Measured at about 1.0 MB and 2x the calibration loop
+    private static final long MAX_ALLOCATED_BYTES = 1_500_000;
+    private static final double MAX_LATENCY_TO_CALIBRATION = 4;
+
+    @Autowired
+    private InvestmentService investmentService;
+
+    @Autowired
+    private PackedCashFlowService packedCashFlowService;
+
+    @Autowired
+    private InvestmentRepository investmentRepository;
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @BeforeEach
+    public void warmUp() {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            investmentService.getUserInvestmentSummary(USER_ID);
+            calibrationLoop();
+        }
+    }
+
+    @Test
+    public void getUserInvestmentSummary_FixedPortfolio_StaysWithinStatementBudget() {
+        long before = QueryCounter.current();
+        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(USER_ID);
+        long statements = QueryCounter.current() - before;
+
+        assertEquals(20, summary.getNumberOfInvestments());
+        assertTrue(statements <= MAX_STATEMENTS, "Summary issued " + statements + " SQL statements");
+    }
+
+    @Test
+    public void getUserInvestmentSummary_EvictedCashFlows_CountsJdbcReads() {
+        Set<Long> investmentIds = investmentRepository.findAllByUserId(USER_ID).stream()
+                .map(Investment::getId)
+                .collect(Collectors.toSet());
+        packedCashFlowService.onPortfolioChanged(new PortfolioChangedEvent(USER_ID, investmentIds));
+
+        long before = QueryCounter.current();
+        investmentService.getUserInvestmentSummary(USER_ID);
+        long statements = QueryCounter.current() - before;
+
+        assertEquals(COLD_STATEMENTS, statements);
+    }
+
+    @Test
+    public void getUserInvestmentSummary_FixedPortfolio_StaysWithinAllocationBudget() {
+        assertTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        long threadId = Thread.currentThread().getId();
+
+        long allocated = median(() -> {
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            investmentService.getUserInvestmentSummary(USER_ID);
+            return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+        });
+
+        assertTrue(allocated <= MAX_ALLOCATED_BYTES, "Summary allocated " + allocated + " bytes");
+    }
+
+    @Test
+    public void getUserInvestmentSummary_FixedPortfolio_StaysWithinLatencyBudget() {
+        long summaryNanos = median(() -> {
+            long started = System.nanoTime();
+            investmentService.getUserInvestmentSummary(USER_ID);
+            return System.nanoTime() - started;
+        });
+        long calibrationNanos = median(() -> {
+            long started = System.nanoTime();
+            calibrationLoop();
+            return System.nanoTime() - started;
+        });
+
+        double ratio = (double) summaryNanos / calibrationNanos;
+        assertTrue(ratio <= MAX_LATENCY_TO_CALIBRATION, String.format(
+                "Summary median %.2f ms is %.1fx the calibration loop", summaryNanos / 1e6, ratio));
+    }
+
+    // The streamed path folds trades into daily flows, which must not move the rounded XIRR on this portfolio
+    @Test
+    public void getUserInvestmentSummary_Streamed_MatchesMaterializedXirr() {
+        InvestmentSummaryResponse materialized = investmentService.getUserInvestmentSummary(USER_ID);
+        ReflectionTestUtils.setField(investmentService, "streamingMinTransactions", 0L);
+        try {
+            long before = QueryCounter.current();
+            InvestmentSummaryResponse streamed = investmentService.getUserInvestmentSummary(USER_ID);
+            long statements = QueryCounter.current() - before;
+
+            assertEquals(materialized.getTotalValue(), streamed.getTotalValue());
+            assertEquals(materialized.getProfitability(), streamed.getProfitability());
+            // The two streams replace the cash flow store's JDBC reads
+            assertEquals(MAX_STATEMENTS + 2, statements);
+        } finally {
+            ReflectionTestUtils.setField(investmentService, "streamingMinTransactions", 1_000_000L);
+        }
+    }
+
+    // The revaluation job values users in chunks; the statements must not grow with the chunk
+    @Test
+    public void getInvestmentSummaries_Chunk_MatchesLiveSummaryWithinStatementBudget() {
+        InvestmentSummaryResponse live = investmentService.getUserInvestmentSummary(USER_ID);
+        long before = QueryCounter.current();
+        Map<Long, InvestmentSummaryResponse> summaries = investmentService.getInvestmentSummaries(
+                List.of(USER_ID, USER_ID + 1, USER_ID + 2));
+        long statements = QueryCounter.current() - before;
+
+        assertEquals(Map.of(USER_ID, live), summaries);
+        assertTrue(statements <= MAX_STATEMENTS, "Chunk issued " + statements + " SQL statements");
+    }
+
+    private long median(LongSupplier measurement) {
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = measurement.getAsLong();
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    // Fixed CPU and memory work that scales with the machine the same way the summary does
+    private static double calibrationLoop() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble();
+        }
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+}
@@ -8,45 +8,106 @@ import static org.mockito.Mockito.*;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.example.dto.CashFlowData;
 import com.example.dto.InvestmentResponse;
 import com.example.dto.InvestmentSummaryResponse;
+import com.example.dto.PeriodReturnResponse;
 import com.example.model.Dividend;
+import com.example.model.Instrument;
 import com.example.model.Investment;
+import com.example.model.Position;
 import com.example.model.Transaction;
+import com.example.enums.ReturnPeriod;
 import com.example.enums.TransactionType;
+import com.example.metric.ModifiedDietzReturnMetric;
+import com.example.metric.ReturnMetric;
+import com.example.metric.ReturnMetricRegistry;
+import com.example.metric.XirrReturnMetric;
 import com.example.repository.InvestmentRepository;
+import com.example.repository.PositionRepository;
+import com.example.util.HoldingsIndex;
+import com.example.util.ModifiedDietzCalculator;
 import com.example.util.XirrCalculator;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class InvestmentServiceTest {
 
     @InjectMocks
     private InvestmentService investmentService;
 
+    @Mock
+    private InstrumentService instrumentService;
+
     @Mock
     private InvestmentRepository investmentRepository;
 
     @Mock
     private CashFlowService cashFlowService;
 
+    @Mock
+    private PackedCashFlowService packedCashFlowService;
+
+    @Mock
+    private StreamingCashFlowService streamingCashFlowService;
+
     @Mock
     private TransactionService transactionService;
 
     @Mock
     private XirrCalculator xirrCalculator;
 
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    @Mock
+    private PositionRepository positionRepository;
+
+    @Mock
+    private HoldingsIndexService holdingsIndexService;
+
+    @Mock
+    private ModifiedDietzCalculator modifiedDietzCalculator;
+
+    @Mock
+    private PortfolioSnapshotService portfolioSnapshotService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReturnMetricRegistry returnMetricRegistry;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        investmentService.registerMeters();
+        XirrReturnMetric xirr = new XirrReturnMetric();
+        ReflectionTestUtils.setField(xirr, "xirrCalculator", xirrCalculator);
+        ModifiedDietzReturnMetric modifiedDietz = new ModifiedDietzReturnMetric();
+        ReflectionTestUtils.setField(modifiedDietz, "modifiedDietzCalculator", modifiedDietzCalculator);
+        returnMetricRegistry = new ReturnMetricRegistry();
+        ReflectionTestUtils.setField(returnMetricRegistry, "metrics", List.<ReturnMetric>of(xirr, modifiedDietz));
+        returnMetricRegistry.init();
+        ReflectionTestUtils.setField(investmentService, "returnMetricRegistry", returnMetricRegistry);
     }
 
     // Helper methods for test setup
@@ -54,8 +115,10 @@ class InvestmentServiceTest {
             List<Dividend> dividends) {
         Investment investment = new Investment();
         investment.setUserId(1L);
-        investment.setName("Name 1");
-        investment.setCurrentPrice(currentPrice);
+        Instrument instrument = new Instrument();
+        instrument.setName("Name 1");
+        instrument.setCurrentPrice(currentPrice);
+        investment.setInstrument(instrument);
         investment.setTransactions(transactions);
         investment.setDividends(dividends);
         return investment;
@@ -230,6 +293,23 @@ class InvestmentServiceTest {
         assertEquals(BigDecimal.valueOf(100), totalValue); // 20 * 5
     }
 
+    @Test
+    public void calculateTotalValue_WithPosition_UsesNetQuantityWithoutHistory() {
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(createTransaction()),
+                Collections.emptyList());
+        investment.setId(4L);
+        Position position = new Position();
+        position.setInvestmentId(4L);
+        position.setNetQuantity(7);
+
+        when(positionRepository.findAllById(List.of(4L))).thenReturn(List.of(position));
+
+        BigDecimal totalValue = investmentService.calculateTotalValue(investment);
+
+        assertEquals(BigDecimal.valueOf(140), totalValue); // 20 * 7
+        verify(transactionService, never()).calculateTotalQuantity(anyList());
+    }
+
     @Test
     public void calculateTotalValue_WithNullInvestment_ReturnsZero() {
         BigDecimal totalValue = investmentService.calculateTotalValue(null);
@@ -237,6 +317,294 @@ class InvestmentServiceTest {
         assertEquals(BigDecimal.ZERO, totalValue);
     }
 
+    // Tests for calculateTotalValueAsOf
+    @Test
+    public void calculateTotalValueAsOf_WithRecordedPrice_UsesHistoricalPrice() {
+        Transaction transaction = createTransaction();
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(transaction),
+                Collections.emptyList());
+        investment.getInstrument().setId(7L);
+        Instant asOf = Instant.now();
+
+        when(holdingsIndexService.getIndex(investment)).thenReturn(HoldingsIndex.build(List.of(transaction)));
+        when(priceHistoryService.getPriceAsOf(7L, asOf)).thenReturn(Optional.of(BigDecimal.valueOf(11)));
+
+        BigDecimal totalValue = investmentService.calculateTotalValueAsOf(investment, asOf);
+
+        assertEquals(BigDecimal.valueOf(55), totalValue); // 11 * 5
+    }
+
+    @Test
+    public void calculateTotalValueAsOf_WithoutRecordedPrice_UsesLastTradePrice() {
+        Transaction transaction = createTransaction();
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(transaction),
+                Collections.emptyList());
+
+        when(holdingsIndexService.getIndex(investment)).thenReturn(HoldingsIndex.build(List.of(transaction)));
+
+        BigDecimal totalValue = investmentService.calculateTotalValueAsOf(investment, Instant.now());
+
+        assertEquals(0, BigDecimal.valueOf(50).compareTo(totalValue)); // 10 * 5
+    }
+
+    @Test
+    public void calculateTotalValueAsOf_BeforeFirstTransaction_ReturnsZero() {
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(createTransaction()),
+                Collections.emptyList());
+        when(holdingsIndexService.getIndex(investment))
+                .thenReturn(HoldingsIndex.build(investment.getTransactions()));
+
+        BigDecimal totalValue = investmentService.calculateTotalValueAsOf(investment,
+                Instant.now().minusSeconds(2 * 86400));
+
+        assertEquals(BigDecimal.ZERO, totalValue);
+        verifyNoInteractions(priceHistoryService);
+    }
+
+    // Tests for the selectable return metrics
+    @Test
+    public void getUserInvestmentSummary_ModifiedDietz_SkipsXirr() {
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(createTransaction()),
+                Collections.emptyList());
+        List<CashFlowData> cashFlows = List.of(new CashFlowData(BigDecimal.valueOf(-55), Instant.now()));
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(transactionService.calculateTotalQuantity(anyList())).thenReturn(5);
+        when(cashFlowService.collectAndFilterCashFlows(anyList())).thenReturn(cashFlows);
+        when(modifiedDietzCalculator.calculateModifiedDietz(any(), any())).thenReturn(new BigDecimal("0.123"));
+
+        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(1L,
+                returnMetricRegistry.resolve(List.of("MODIFIED_DIETZ")));
+
+        assertEquals(new BigDecimal("12.30"), summary.getProfitability());
+        assertEquals(Map.of("MODIFIED_DIETZ", new BigDecimal("12.30")), summary.getReturns());
+        verifyNoInteractions(xirrCalculator);
+    }
+
+    @Test
+    public void getUserInvestmentSummary_SeveralMetrics_FirstIsProfitability() {
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(createTransaction()),
+                Collections.emptyList());
+        List<CashFlowData> cashFlows = List.of(new CashFlowData(BigDecimal.valueOf(-55), Instant.now()));
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(transactionService.calculateTotalQuantity(anyList())).thenReturn(5);
+        when(cashFlowService.collectAndFilterCashFlows(anyList())).thenReturn(cashFlows);
+        when(modifiedDietzCalculator.calculateModifiedDietz(any(), any())).thenReturn(new BigDecimal("0.123"));
+        when(xirrCalculator.calculateXirr(anyList(), anyList())).thenReturn(new BigDecimal("0.2"));
+
+        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(1L,
+                returnMetricRegistry.resolve(List.of("XIRR", "MODIFIED_DIETZ")));
+
+        assertEquals(new BigDecimal("20.00"), summary.getProfitability());
+        assertEquals(List.of("XIRR", "MODIFIED_DIETZ"), List.copyOf(summary.getReturns().keySet()));
+        verify(cashFlowService, times(1)).collectAndFilterCashFlows(anyList());
+    }
+
+    @Test
+    public void getUserInvestmentSummary_PackedStoreEnabled_ReadsCashFlowsFromStore() {
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(createTransaction()),
+                Collections.emptyList());
+        List<CashFlowData> cashFlows = List.of(new CashFlowData(BigDecimal.valueOf(-55), Instant.now()));
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(packedCashFlowService.isEnabled()).thenReturn(true);
+        when(packedCashFlowService.collectAndFilterCashFlows(anyList())).thenReturn(cashFlows);
+        when(xirrCalculator.calculateXirr(anyList(), anyList())).thenReturn(new BigDecimal("0.2"));
+
+        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(1L,
+                returnMetricRegistry.resolve(List.of("XIRR")));
+
+        assertEquals(new BigDecimal("20.00"), summary.getProfitability());
+        verify(cashFlowService, never()).collectAndFilterCashFlows(anyList());
+    }
+
+    @Test
+    public void getUserInvestmentSummary_ManyTrades_StreamsDailyCashFlows() {
+        ReflectionTestUtils.setField(investmentService, "streamingMinTransactions", 10L);
+        Investment investment = createInvestment(BigDecimal.valueOf(20), Collections.emptyList(),
+                Collections.emptyList());
+        investment.setId(4L);
+        Position position = new Position();
+        position.setInvestmentId(4L);
+        position.setNetQuantity(7);
+        position.setTradeCount(10);
+        List<CashFlowData> dailyFlows = List.of(new CashFlowData(BigDecimal.valueOf(-55), Instant.now()));
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(positionRepository.findAllById(List.of(4L))).thenReturn(List.of(position));
+        when(streamingCashFlowService.collectDailyCashFlows(eq(1L), anyList())).thenReturn(dailyFlows);
+        when(xirrCalculator.calculateXirr(anyList(), anyList())).thenReturn(new BigDecimal("0.2"));
+
+        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(1L,
+                returnMetricRegistry.resolve(List.of("XIRR")));
+
+        assertEquals(BigDecimal.valueOf(140), summary.getTotalValue());
+        assertEquals(new BigDecimal("20.00"), summary.getProfitability());
+        verify(cashFlowService, never()).collectAndFilterCashFlows(anyList());
+        verify(packedCashFlowService, never()).collectAndFilterCashFlows(anyList());
+        assertEquals(1, meterRegistry.get("valuation.request").tag("request", "summary_streamed").timer().count());
+    }
+
+    @Test
+    public void getUserInvestmentSummary_FewTrades_DoesNotStream() {
+        ReflectionTestUtils.setField(investmentService, "streamingMinTransactions", 10L);
+        Investment investment = createInvestment(BigDecimal.valueOf(20), Collections.emptyList(),
+                Collections.emptyList());
+        investment.setId(4L);
+        Position position = new Position();
+        position.setInvestmentId(4L);
+        position.setTradeCount(9);
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(positionRepository.findAllById(List.of(4L))).thenReturn(List.of(position));
+        when(cashFlowService.collectAndFilterCashFlows(anyList())).thenReturn(Collections.emptyList());
+
+        investmentService.getUserInvestmentSummary(1L, returnMetricRegistry.resolve(List.of("XIRR")));
+
+        verifyNoInteractions(streamingCashFlowService);
+        verify(cashFlowService, times(1)).collectAndFilterCashFlows(anyList());
+    }
+
+    @Test
+    public void getUserInvestmentSummary_WithMetrics_TimesEachStage() {
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(createTransaction()),
+                Collections.emptyList());
+        List<CashFlowData> cashFlows = List.of(new CashFlowData(BigDecimal.valueOf(-55), Instant.now()));
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(transactionService.calculateTotalQuantity(anyList())).thenReturn(5);
+        when(cashFlowService.collectAndFilterCashFlows(anyList())).thenReturn(cashFlows);
+        when(xirrCalculator.calculateXirr(anyList(), anyList())).thenReturn(new BigDecimal("0.2"));
+
+        investmentService.getUserInvestmentSummary(1L);
+
+        for (String stage : List.of("load", "positions", "cash_flows", "metric.xirr")) {
+            assertEquals(1, meterRegistry.find("valuation.stage").tag("stage", stage).timer().count(), stage);
+        }
+        assertEquals(1, meterRegistry.find("valuation.request").tag("request", "summary")
+                .tag("investments", "0-10").timer().count());
+    }
+
+    @Test
+    public void getUserInvestmentSummary_NoMetrics_SkipsCashFlowCollection() {
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(createTransaction()),
+                Collections.emptyList());
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(transactionService.calculateTotalQuantity(anyList())).thenReturn(5);
+
+        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(1L,
+                returnMetricRegistry.resolve(List.of(ReturnMetricRegistry.NONE)));
+
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(summary.getTotalValue()));
+        assertNull(summary.getProfitability());
+        assertTrue(summary.getReturns().isEmpty());
+        verifyNoInteractions(cashFlowService, xirrCalculator, modifiedDietzCalculator);
+    }
+
+    @Test
+    public void getUserInvestmentSummary_FreshSnapshot_SkipsValuation() {
+        InvestmentSummaryResponse snapshot = new InvestmentSummaryResponse(BigDecimal.TEN, new BigDecimal("5.00"), 2,
+                Map.of("XIRR", new BigDecimal("5.00")));
+        when(portfolioSnapshotService.findFresh(1L)).thenReturn(Optional.of(snapshot));
+
+        InvestmentSummaryResponse summary = investmentService.getUserInvestmentSummary(1L);
+
+        assertSame(snapshot, summary);
+        verifyNoInteractions(investmentRepository, positionRepository, cashFlowService, xirrCalculator);
+        assertEquals(1, meterRegistry.get("valuation.request").tag("request", "summary_snapshot").timer().count());
+    }
+
+    @Test
+    public void getUserInvestmentSummary_NonDefaultMetrics_IgnoresSnapshot() {
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(Collections.emptyList());
+
+        investmentService.getUserInvestmentSummary(1L, returnMetricRegistry.resolve(List.of("MODIFIED_DIETZ")));
+
+        verifyNoInteractions(portfolioSnapshotService);
+        verify(investmentRepository, times(1)).findAllByUserId(1L);
+    }
+
+    // Tests for getInvestmentSummaries
+    @Test
+    public void getInvestmentSummaries_SeveralUsers_LoadsOnceForAll() {
+        Investment first = createInvestment(BigDecimal.valueOf(20), Collections.emptyList(), Collections.emptyList());
+        first.setId(4L);
+        Investment second = createInvestment(BigDecimal.valueOf(10), Collections.emptyList(), Collections.emptyList());
+        second.setId(5L);
+        second.setUserId(2L);
+        Position firstPosition = new Position();
+        firstPosition.setInvestmentId(4L);
+        firstPosition.setNetQuantity(3);
+        Position secondPosition = new Position();
+        secondPosition.setInvestmentId(5L);
+        secondPosition.setNetQuantity(7);
+
+        when(investmentRepository.findAllByUserIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(first, second));
+        when(positionRepository.findAllById(List.of(4L, 5L))).thenReturn(List.of(firstPosition, secondPosition));
+        when(packedCashFlowService.isEnabled()).thenReturn(true);
+        when(packedCashFlowService.collectAndFilterCashFlows(anyList())).thenReturn(Collections.emptyList());
+
+        Map<Long, InvestmentSummaryResponse> summaries = investmentService.getInvestmentSummaries(List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(1L, 2L), List.copyOf(summaries.keySet()));
+        assertEquals(0, BigDecimal.valueOf(60).compareTo(summaries.get(1L).getTotalValue()));
+        assertEquals(0, BigDecimal.valueOf(70).compareTo(summaries.get(2L).getTotalValue()));
+        assertEquals(List.of("XIRR"), List.copyOf(summaries.get(2L).getReturns().keySet()));
+        verify(packedCashFlowService, times(1)).preload(List.of(first, second));
+        verify(positionRepository, times(1)).findAllById(anyList());
+        verifyNoInteractions(portfolioSnapshotService);
+    }
+
+    // Tests for getPeriodReturns
+    @Test
+    public void getPeriodReturns_UserHasNoInvestments_ReturnsEmptyList() {
+        when(investmentRepository.findAllByUserId(2L)).thenReturn(Collections.emptyList());
+
+        assertTrue(investmentService.getPeriodReturns(2L).isEmpty());
+        verifyNoInteractions(xirrCalculator);
+    }
+
+    @Test
+    public void getPeriodReturns_WithHistory_SinceInceptionMatchesProfitability() {
+        ReflectionTestUtils.setField(investmentService, "xirrCalculator", new XirrCalculator());
+        Instant now = Instant.now();
+        Transaction buy = createTransaction();
+        buy.setQuantity(10);
+        buy.setFee(BigDecimal.ZERO);
+        buy.setTimestamp(now.minus(400, ChronoUnit.DAYS));
+        Investment investment = createInvestment(BigDecimal.valueOf(20), List.of(buy), Collections.emptyList());
+        List<CashFlowData> cashFlows = List.of(new CashFlowData(BigDecimal.valueOf(-100), buy.getTimestamp()),
+                new CashFlowData(BigDecimal.valueOf(200), now));
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(cashFlowService.collectAndFilterCashFlows(anyList())).thenReturn(cashFlows);
+        when(cashFlowService.extractDates(cashFlows)).thenReturn(List.of(buy.getTimestamp(), now));
+        when(cashFlowService.extractCashFlows(cashFlows))
+                .thenReturn(List.of(BigDecimal.valueOf(-100), BigDecimal.valueOf(200)));
+        when(holdingsIndexService.getIndex(investment)).thenReturn(HoldingsIndex.build(List.of(buy)));
+
+        List<PeriodReturnResponse> returns = investmentService.getPeriodReturns(1L);
+
+        assertEquals(ReturnPeriod.values().length, returns.size());
+        Map<ReturnPeriod, PeriodReturnResponse> byPeriod = returns.stream()
+                .collect(Collectors.toMap(PeriodReturnResponse::getPeriod, Function.identity()));
+        assertEquals(investmentService.calculateProfitability(cashFlows),
+                byPeriod.get(ReturnPeriod.SINCE_INCEPTION).getProfitability());
+        assertNull(byPeriod.get(ReturnPeriod.THREE_YEARS).getProfitability());
+        assertNull(byPeriod.get(ReturnPeriod.FIVE_YEARS).getProfitability());
+
+        // The one-year window opens with the 10 units held a year ago, valued at the last trade price of 10
+        LocalDate start = LocalDate.now(ZoneOffset.UTC).minusYears(1);
+        BigDecimal expected = new XirrCalculator()
+                .calculateXirr(List.of(start.atStartOfDay(ZoneOffset.UTC).toInstant(), now),
+                        List.of(BigDecimal.valueOf(-100), BigDecimal.valueOf(200)))
+                .multiply(BigDecimal.valueOf(100)).setScale(2, RoundingMode.HALF_UP);
+        assertEquals(start, byPeriod.get(ReturnPeriod.ONE_YEAR).getStartDate());
+        assertEquals(expected, byPeriod.get(ReturnPeriod.ONE_YEAR).getProfitability());
+    }
+
     // Tests for calculateProfitability
     @Test
     public void calculateProfitability_EmptyCashFlowData_ReturnsNull() {
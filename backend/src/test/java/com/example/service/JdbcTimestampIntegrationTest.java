@@ -0,0 +1,142 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.TimeZone;
+
+import org.h2.util.DateTimeUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.dto.PriceTick;
+import com.example.enums.TransactionType;
+import com.example.model.Instrument;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.repository.InstrumentRepository;
+import com.example.repository.InvestmentRepository;
+import com.example.repository.PositionRepository;
+import com.example.repository.TransactionRepository;
+import com.example.store.PackedCashFlows;
+
+/**
+ * Timestamps written or read with plain JDBC must agree with Hibernate's on a server whose
+ * default zone is not UTC. Runs on its own database, created after the zone is switched.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:investments-timezone;MODE=MySQL;"
+        + "DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("integration")
+class JdbcTimestampIntegrationTest {
+    private static TimeZone defaultZone;
+
+    @Autowired
+    private TransactionBatchWriter transactionBatchWriter;
+
+    @Autowired
+    private InvestmentRepository investmentRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PositionRepository positionRepository;
+
+    @Autowired
+    private PackedCashFlowService packedCashFlowService;
+
+    @Autowired
+    private PriceIngestionService priceIngestionService;
+
+    @Autowired
+    private InstrumentRepository instrumentRepository;
+
+    @BeforeAll
+    public static void useNonUtcZone() {
+        defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        // H2 caches the default zone on first use
+        DateTimeUtils.resetCalendar();
+    }
+
+    @AfterAll
+    public static void restoreZone() {
+        TimeZone.setDefault(defaultZone);
+        DateTimeUtils.resetCalendar();
+    }
+
+    private Transaction createTransaction(Investment investment, Instant timestamp, String externalId) {
+        Transaction transaction = new Transaction();
+        transaction.setInvestment(investment);
+        transaction.setType(TransactionType.BUY);
+        transaction.setQuantity(1);
+        transaction.setPrice(BigDecimal.TEN);
+        transaction.setFee(BigDecimal.ZERO);
+        transaction.setTimestamp(timestamp);
+        transaction.setExternalId(externalId);
+        return transaction;
+    }
+
+    @Test
+    public void write_NonUtcDefaultZone_ReadsBackSameInstantThroughJpa() {
+        Investment investment = investmentRepository.findAll().get(0);
+        Instant timestamp = Instant.parse("2024-03-01T10:00:00Z");
+
+        transactionBatchWriter.write(List.of(createTransaction(investment, timestamp, "timezone-1")));
+
+        Transaction stored = transactionRepository.findByInvestmentId(investment.getId()).stream()
+                .filter(candidate -> "timezone-1".equals(candidate.getExternalId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(timestamp, stored.getTimestamp());
+    }
+
+    @Test
+    public void write_NonUtcDefaultZone_StoresPositionLastTradeTimeAsUtc() {
+        Investment investment = investmentRepository.findAll().get(1);
+        // Later than every generated trade, so it becomes the position's last trade
+        Instant timestamp = Instant.parse("2100-01-01T00:00:00Z");
+
+        transactionBatchWriter.write(List.of(createTransaction(investment, timestamp, "timezone-2")));
+
+        assertEquals(timestamp, positionRepository.findById(investment.getId()).orElseThrow().getLastTradeTime());
+    }
+
+    @Test
+    public void load_NonUtcDefaultZone_MatchesEntityTimestamps() {
+        Long investmentId = investmentRepository.findAll().get(2).getId();
+        List<Long> expected = transactionRepository.findByInvestmentId(investmentId).stream()
+                .sorted(Comparator.comparing(Transaction::getId))
+                .map(transaction -> ChronoUnit.MICROS.between(Instant.EPOCH, transaction.getTimestamp()))
+                .toList();
+
+        PackedCashFlows flows = packedCashFlowService.load(List.of(investmentId)).get(investmentId);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, IntStream.range(0, expected.size()).mapToObj(flows::getEpochMicros).toList());
+    }
+
+    @Test
+    public void applyPending_OlderTickInLaterWindow_KeepsNewerPrice() {
+        String name = instrumentRepository.findAll().get(0).getName();
+        Instant newer = Instant.parse("2024-03-01T10:00:01Z");
+
+        priceIngestionService.submit(List.of(new PriceTick(name, new BigDecimal("120.00"), newer)));
+        priceIngestionService.applyPending();
+        priceIngestionService.submit(List.of(new PriceTick(name, new BigDecimal("80.00"), newer.minusSeconds(1))));
+        priceIngestionService.applyPending();
+
+        Instrument stored = instrumentRepository.findByName(name).orElseThrow();
+        assertEquals(0, new BigDecimal("120.00").compareTo(stored.getCurrentPrice()));
+        assertEquals(newer, stored.getLastPriceAt());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.dto.CashFlowData;
+import com.example.enums.TransactionType;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Dividend;
+import com.example.model.Instrument;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.store.PackedCashFlows;
+import com.example.util.FixedPoint;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PackedCashFlowServiceTest {
+
+    private PackedCashFlowService packedCashFlowService;
+
+    private CashFlowService cashFlowService;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Map<Long, PackedCashFlows> rows = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        cashFlowService = new CashFlowService();
+        ReflectionTestUtils.setField(cashFlowService, "transactionService", new TransactionService());
+        packedCashFlowService = spy(new PackedCashFlowService());
+        packedCashFlowService.cashFlowService = cashFlowService;
+        packedCashFlowService.meterRegistry = meterRegistry;
+        packedCashFlowService.init();
+        doAnswer(invocation -> {
+            Map<Long, PackedCashFlows> loaded = new HashMap<>();
+            for (Long id : invocation.<List<Long>>getArgument(0)) {
+                loaded.put(id, rows.get(id));
+            }
+            return loaded;
+        }).when(packedCashFlowService).load(anyList());
+    }
+
+    private Investment createInvestment(Long id, String price) {
+        Investment investment = new Investment();
+        investment.setId(id);
+        Instrument instrument = new Instrument();
+        instrument.setCurrentPrice(new BigDecimal(price));
+        investment.setInstrument(instrument);
+        investment.setTransactions(new ArrayList<>());
+        investment.setDividends(new ArrayList<>());
+        return investment;
+    }
+
+    private void addTransaction(Investment investment, TransactionType type, int quantity, String price,
+            String fee, Instant timestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(new BigDecimal(price));
+        transaction.setFee(new BigDecimal(fee));
+        transaction.setTimestamp(timestamp);
+        investment.getTransactions().add(transaction);
+    }
+
+    private void addDividend(Investment investment, String amount, Instant timestamp) {
+        Dividend dividend = new Dividend();
+        dividend.setAmount(new BigDecimal(amount));
+        dividend.setTimestamp(timestamp);
+        investment.getDividends().add(dividend);
+    }
+
+    // Packs the investment as the JDBC load would find it
+    private void store(Investment investment) {
+        PackedCashFlows.Builder builder = PackedCashFlows.builder(1);
+        for (Transaction transaction : investment.getTransactions()) {
+            builder.add(ChronoUnit.MICROS.between(Instant.EPOCH, transaction.getTimestamp()),
+                    transaction.getType() == TransactionType.BUY ? PackedCashFlows.BUY : PackedCashFlows.SELL,
+                    transaction.getQuantity(), FixedPoint.toMicros(transaction.getPrice()),
+                    FixedPoint.toMicros(transaction.getFee()));
+        }
+        for (Dividend dividend : investment.getDividends()) {
+            builder.add(ChronoUnit.MICROS.between(Instant.EPOCH, dividend.getTimestamp()), PackedCashFlows.DIVIDEND,
+                    0, FixedPoint.toMicros(dividend.getAmount()), 0L);
+        }
+        rows.put(investment.getId(), builder.build());
+    }
+
+    private void assertSameFlows(List<CashFlowData> expected, List<CashFlowData> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(0, expected.get(i).getAmount().compareTo(actual.get(i).getAmount()), "amount " + i);
+            // The current value is stamped with the time of each call
+            if (i < expected.size() - 2) {
+                assertEquals(expected.get(i).getDate(), actual.get(i).getDate(), "date " + i);
+            }
+        }
+    }
+
+    @Test
+    public void collectAndFilterCashFlows_MatchesEntityPipeline() {
+        Instant start = Instant.parse("2022-01-03T10:15:30.123456Z");
+        Investment fund = createInvestment(1L, "120.50");
+        addTransaction(fund, TransactionType.BUY, 10, "100.25", "4.99", start);
+        addTransaction(fund, TransactionType.SELL, 4, "130", "2.50", start.plus(40, ChronoUnit.DAYS));
+        addDividend(fund, "24.10", start.plus(90, ChronoUnit.DAYS));
+        Investment company = createInvestment(2L, "55");
+        addTransaction(company, TransactionType.BUY, 7, "50", "0", start.plus(10, ChronoUnit.DAYS));
+        addTransaction(company, TransactionType.BUY, 3, "52.75", "1", start.plus(200, ChronoUnit.DAYS));
+        Investment unpriced = createInvestment(3L, "0");
+        addTransaction(unpriced, TransactionType.BUY, 5, "10", "1", start);
+        List<Investment> investments = List.of(fund, company, unpriced);
+        investments.forEach(this::store);
+
+        List<CashFlowData> packed = packedCashFlowService.collectAndFilterCashFlows(investments);
+
+        assertSameFlows(cashFlowService.collectAndFilterCashFlows(investments), packed);
+        assertEquals(7, packed.size());
+        assertEquals(0, new BigDecimal("-1007.49").compareTo(packed.get(0).getAmount()));
+        assertEquals(start, packed.get(0).getDate());
+    }
+
+    @Test
+    public void collectAndFilterCashFlows_SecondCall_ServedFromStore() {
+        Investment investment = createInvestment(1L, "10");
+        addTransaction(investment, TransactionType.BUY, 2, "8", "0", Instant.now().minus(5, ChronoUnit.DAYS));
+        store(investment);
+
+        packedCashFlowService.collectAndFilterCashFlows(List.of(investment));
+        packedCashFlowService.collectAndFilterCashFlows(List.of(investment));
+
+        verify(packedCashFlowService, times(1)).load(anyList());
+        assertEquals(1, meterRegistry.get("cashflows.store.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(PackedCashFlows.RECORD_SIZE, meterRegistry.get("cashflows.store.bytes").gauge().value());
+    }
+
+    @Test
+    public void onPortfolioChanged_ReloadsChangedInvestment() {
+        Investment investment = createInvestment(1L, "10");
+        addTransaction(investment, TransactionType.BUY, 2, "8", "0", Instant.now().minus(5, ChronoUnit.DAYS));
+        store(investment);
+        packedCashFlowService.collectAndFilterCashFlows(List.of(investment));
+
+        addTransaction(investment, TransactionType.BUY, 1, "9", "0", Instant.now().minus(1, ChronoUnit.DAYS));
+        store(investment);
+        packedCashFlowService.onPortfolioChanged(new PortfolioChangedEvent(1L, Set.of(1L)));
+        List<CashFlowData> cashFlows = packedCashFlowService.collectAndFilterCashFlows(List.of(investment));
+
+        verify(packedCashFlowService, times(2)).load(anyList());
+        assertEquals(3, cashFlows.size());
+        assertEquals(0, new BigDecimal("30").compareTo(cashFlows.get(2).getAmount()));
+    }
+
+    @Test
+    public void collectAndFilterCashFlows_UnsavedInvestment_UsesEntities() {
+        Investment investment = createInvestment(null, "10");
+        addTransaction(investment, TransactionType.BUY, 2, "8", "1", Instant.now().minus(5, ChronoUnit.DAYS));
+
+        List<CashFlowData> cashFlows = packedCashFlowService.collectAndFilterCashFlows(List.of(investment));
+
+        verify(packedCashFlowService, never()).load(anyList());
+        assertEquals(2, cashFlows.size());
+        assertEquals(0, new BigDecimal("-17").compareTo(cashFlows.get(0).getAmount()));
+    }
+}
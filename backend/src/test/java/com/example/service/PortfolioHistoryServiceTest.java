@@ -0,0 +1,181 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.example.dto.PortfolioValuePoint;
+import com.example.enums.HistoryResolution;
+import com.example.enums.TransactionType;
+import com.example.model.Instrument;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.repository.InvestmentRepository;
+import com.example.store.PriceSeries;
+import com.example.util.FixedPoint;
+import com.example.util.HoldingsIndex;
+
+class PortfolioHistoryServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @InjectMocks
+    private PortfolioHistoryService portfolioHistoryService;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private HoldingsIndexService holdingsIndexService;
+
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    @Mock
+    private InstrumentService instrumentService;
+
+    private Investment investment;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        investment = createInvestment(7L);
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(holdingsIndexService.getIndex(any(Investment.class))).thenAnswer(invocation ->
+                HoldingsIndex.build(invocation.getArgument(0, Investment.class).getTransactions()));
+    }
+
+    private Investment createInvestment(Long instrumentId) {
+        Instrument instrument = new Instrument();
+        instrument.setId(instrumentId);
+        instrument.setName("Fund A");
+        instrument.setCurrentPrice(BigDecimal.TEN);
+        Investment created = new Investment();
+        created.setUserId(1L);
+        created.setInstrument(instrument);
+        created.setTransactions(new ArrayList<>());
+        addTransaction(created, TransactionType.BUY, 10, 10, START.plusDays(1));
+        addTransaction(created, TransactionType.SELL, 4, 12, START.plusDays(3));
+        return created;
+    }
+
+    private void addTransaction(Investment target, TransactionType type, int quantity, long price, LocalDate date) {
+        Transaction transaction = new Transaction();
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(BigDecimal.valueOf(price));
+        transaction.setFee(BigDecimal.ZERO);
+        transaction.setTimestamp(at(date, 12));
+        target.getTransactions().add(transaction);
+    }
+
+    private Instant at(LocalDate date, int hour) {
+        return Instant.ofEpochSecond(date.toEpochDay() * 86_400 + hour * 3_600L);
+    }
+
+    private List<BigDecimal> values(List<PortfolioValuePoint> points) {
+        return points.stream().map(point -> point.getValue().stripTrailingZeros()).toList();
+    }
+
+    private BigDecimal value(long amount) {
+        return BigDecimal.valueOf(amount).stripTrailingZeros();
+    }
+
+    @Test
+    public void getValueHistory_NoPriceTicks_ValuesAtLastTradePrice() {
+        List<PortfolioValuePoint> points = portfolioHistoryService.getValueHistory(1L, START, START.plusDays(4),
+                HistoryResolution.DAILY);
+
+        assertEquals(5, points.size());
+        assertEquals(START, points.get(0).getDate());
+        assertEquals(List.of(value(0), value(100), value(100), value(72), value(72)), values(points));
+    }
+
+    @Test
+    public void getValueHistory_WithPriceTicks_UsesLastTickOfEachDay() {
+        when(priceHistoryService.getPriceAsOf(eq(7L), any(Instant.class))).thenReturn(Optional.of(BigDecimal.valueOf(9)));
+        doAnswer(invocation -> {
+            PriceSeries.TickConsumer consumer = invocation.getArgument(3);
+            consumer.accept(at(START.plusDays(2), 9).getEpochSecond(), 11 * FixedPoint.ONE);
+            consumer.accept(at(START.plusDays(2), 15).getEpochSecond(), 13 * FixedPoint.ONE);
+            return null;
+        }).when(priceHistoryService).scan(eq(7L), any(Instant.class), any(Instant.class), any());
+
+        List<PortfolioValuePoint> points = portfolioHistoryService.getValueHistory(1L, START, START.plusDays(4),
+                HistoryResolution.DAILY);
+
+        // Opening price 9 until the ticks on day 2, then 13 regardless of the later trade at 12
+        assertEquals(List.of(value(0), value(90), value(130), value(78), value(78)), values(points));
+    }
+
+    @Test
+    public void getValueHistory_MultipleInvestments_SumsValues() {
+        Investment second = createInvestment(null);
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment, second));
+
+        List<PortfolioValuePoint> points = portfolioHistoryService.getValueHistory(1L, START.plusDays(1),
+                START.plusDays(1), HistoryResolution.DAILY);
+
+        assertEquals(List.of(value(200)), values(points));
+    }
+
+    @Test
+    public void getValueHistory_ZeroPricedInvestment_SkipsIt() {
+        Investment unpriced = createInvestment(8L);
+        unpriced.getInstrument().setCurrentPrice(BigDecimal.ZERO);
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment, unpriced));
+
+        List<PortfolioValuePoint> points = portfolioHistoryService.getValueHistory(1L, START.plusDays(1),
+                START.plusDays(1), HistoryResolution.DAILY);
+
+        assertEquals(List.of(value(100)), values(points));
+        verify(instrumentService).attachPrices(List.of(investment, unpriced));
+        verify(holdingsIndexService, never()).getIndex(unpriced);
+    }
+
+    @Test
+    public void getValueHistory_Weekly_ReturnsSundaysAndLastDay() {
+        List<PortfolioValuePoint> points = portfolioHistoryService.getValueHistory(1L, START, START.plusDays(17),
+                HistoryResolution.WEEKLY);
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 7), LocalDate.of(2024, 1, 14), LocalDate.of(2024, 1, 18)),
+                points.stream().map(PortfolioValuePoint::getDate).toList());
+    }
+
+    @Test
+    public void getValueHistory_Monthly_ReturnsMonthEndsAndLastDay() {
+        List<PortfolioValuePoint> points = portfolioHistoryService.getValueHistory(1L, START,
+                LocalDate.of(2024, 3, 10), HistoryResolution.MONTHLY);
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 10)),
+                points.stream().map(PortfolioValuePoint::getDate).toList());
+    }
+
+    @Test
+    public void getValueHistory_NoInvestments_ReturnsEmptyList() {
+        when(investmentRepository.findAllByUserId(2L)).thenReturn(Collections.emptyList());
+
+        assertTrue(portfolioHistoryService.getValueHistory(2L, START, START, HistoryResolution.DAILY).isEmpty());
+    }
+
+    @Test
+    public void getValueHistory_RangeReversed_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () ->
+                portfolioHistoryService.getValueHistory(1L, START, START.minusDays(1), HistoryResolution.DAILY));
+    }
+}
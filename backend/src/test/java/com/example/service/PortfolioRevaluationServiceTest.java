@@ -0,0 +1,212 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.dto.InvestmentSummaryResponse;
+import com.example.enums.RevaluationStatus;
+import com.example.model.RevaluationRun;
+import com.example.repository.InvestmentRepository;
+import com.example.repository.RevaluationRunRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PortfolioRevaluationServiceTest {
+
+    @InjectMocks
+    private PortfolioRevaluationService portfolioRevaluationService;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private InvestmentService investmentService;
+
+    @Mock
+    private PortfolioSnapshotService portfolioSnapshotService;
+
+    @Mock
+    private RevaluationRunRepository revaluationRunRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(portfolioRevaluationService, "chunkSize", 2);
+        ReflectionTestUtils.setField(portfolioRevaluationService, "maxUsersPerSecond", 1_000_000.0);
+        portfolioRevaluationService.init();
+        when(portfolioSnapshotService.getTrustedSince()).thenReturn(Instant.now().minusSeconds(60));
+        when(revaluationRunRepository.save(any())).then(AdditionalAnswers.returnsFirstArg());
+        when(investmentService.getInvestmentSummaries(anyList())).thenAnswer(invocation -> {
+            Map<Long, InvestmentSummaryResponse> summaries = new LinkedHashMap<>();
+            for (Long userId : invocation.<List<Long>>getArgument(0)) {
+                summaries.put(userId, new InvestmentSummaryResponse(BigDecimal.TEN, null, 1, null));
+            }
+            return summaries;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        portfolioRevaluationService.shutdown();
+    }
+
+    private void givenUsers(Long... userIds) {
+        when(investmentRepository.countUsers()).thenReturn((long) userIds.length);
+        long after = 0;
+        for (int from = 0; from < userIds.length; from += 2) {
+            List<Long> page = List.of(userIds).subList(from, Math.min(from + 2, userIds.length));
+            when(investmentRepository.findUserIdsAfter(eq(after), any(Pageable.class))).thenReturn(page);
+            after = page.get(page.size() - 1);
+        }
+        when(investmentRepository.findUserIdsAfter(eq(after), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+    }
+
+    private RevaluationRun createRun(long checkpointUserId, long usersValued) {
+        RevaluationRun run = new RevaluationRun();
+        run.setId(7L);
+        run.setStartedAt(Instant.now());
+        run.setCheckpointUserId(checkpointUserId);
+        run.setUsersValued(usersValued);
+        return run;
+    }
+
+    @Test
+    public void revalue_AllUsers_ValuesEveryChunkAndCompletes() {
+        givenUsers(1L, 2L, 3L);
+        RevaluationRun run = createRun(0, 0);
+
+        portfolioRevaluationService.revalue(run);
+
+        verify(investmentService, times(1)).getInvestmentSummaries(List.of(1L, 2L));
+        verify(investmentService, times(1)).getInvestmentSummaries(List.of(3L));
+        verify(portfolioSnapshotService, times(2)).saveAll(any(), any(), eq(7L));
+        assertEquals(RevaluationStatus.COMPLETED, run.getStatus());
+        assertNotNull(run.getFinishedAt());
+        assertEquals(3L, run.getCheckpointUserId());
+        assertEquals(3L, run.getUsersValued());
+        assertEquals(1.0, meterRegistry.get("revaluation.progress").gauge().value());
+        assertEquals(3, meterRegistry.get("revaluation.users").tag("trigger", "scheduled").counter().count());
+        assertEquals(2, meterRegistry.get("revaluation.chunk").timer().count());
+    }
+
+    @Test
+    public void revalue_ResumedRun_StartsAfterCheckpoint() {
+        givenUsers(1L, 2L, 3L);
+        RevaluationRun run = createRun(2, 2);
+        when(revaluationRunRepository.findFirstByStatusOrderByIdDesc(RevaluationStatus.RUNNING))
+                .thenReturn(Optional.of(run));
+
+        portfolioRevaluationService.revalue(portfolioRevaluationService.startOrResume());
+
+        verify(investmentService, never()).getInvestmentSummaries(List.of(1L, 2L));
+        verify(investmentService, times(1)).getInvestmentSummaries(List.of(3L));
+        assertEquals(RevaluationStatus.COMPLETED, run.getStatus());
+        assertEquals(3L, run.getUsersValued());
+    }
+
+    @Test
+    public void startOrResume_RunFromPreviousInstance_StartsOverFromFirstUser() {
+        givenUsers(1L, 2L, 3L);
+        RevaluationRun run = createRun(2, 2);
+        run.setStartedAt(Instant.now().minusSeconds(3_600));
+        when(revaluationRunRepository.findFirstByStatusOrderByIdDesc(RevaluationStatus.RUNNING))
+                .thenReturn(Optional.of(run));
+
+        portfolioRevaluationService.revalue(portfolioRevaluationService.startOrResume());
+
+        verify(investmentService, times(1)).getInvestmentSummaries(List.of(1L, 2L));
+        verify(investmentService, times(1)).getInvestmentSummaries(List.of(3L));
+        assertEquals(RevaluationStatus.COMPLETED, run.getStatus());
+        assertEquals(3L, run.getUsersValued());
+    }
+
+    @Test
+    public void startOrResume_NoRunningRun_StartsNewRun() {
+        when(revaluationRunRepository.findFirstByStatusOrderByIdDesc(RevaluationStatus.RUNNING))
+                .thenReturn(Optional.empty());
+
+        RevaluationRun run = portfolioRevaluationService.startOrResume();
+
+        assertEquals(RevaluationStatus.RUNNING, run.getStatus());
+        assertEquals(0L, run.getCheckpointUserId());
+        assertNotNull(run.getStartedAt());
+        verify(revaluationRunRepository, times(1)).save(run);
+    }
+
+    @Test
+    public void revalue_ChunkFails_QueuesItsUsersAndMovesOn() {
+        givenUsers(1L, 2L, 3L);
+        when(investmentService.getInvestmentSummaries(List.of(1L, 2L))).thenThrow(new IllegalStateException("boom"));
+        RevaluationRun run = createRun(0, 0);
+
+        portfolioRevaluationService.revalue(run);
+
+        verify(portfolioSnapshotService, times(1)).markPending(List.of(1L, 2L));
+        verify(portfolioSnapshotService, times(1)).saveAll(any(), any(), eq(7L));
+        assertEquals(1, meterRegistry.get("revaluation.failures").counter().count());
+        assertEquals(RevaluationStatus.COMPLETED, run.getStatus());
+        assertEquals(3L, run.getCheckpointUserId());
+    }
+
+    @Test
+    public void revalueChanged_PendingUsers_ValuesThemInChunks() {
+        when(portfolioSnapshotService.drainPending(4)).thenReturn(List.of(5L, 6L, 9L));
+
+        portfolioRevaluationService.revalueChanged();
+
+        verify(portfolioSnapshotService, timeout(1000).times(2)).saveAll(any(), any(), isNull());
+        verify(investmentService, times(1)).getInvestmentSummaries(List.of(5L, 6L));
+        verify(investmentService, times(1)).getInvestmentSummaries(List.of(9L));
+    }
+
+    @Test
+    public void revalueChanged_Disabled_DrainsNothing() {
+        ReflectionTestUtils.setField(portfolioRevaluationService, "enabled", false);
+
+        portfolioRevaluationService.revalueChanged();
+        portfolioRevaluationService.revalueAll();
+
+        verifyNoInteractions(portfolioSnapshotService, investmentService, revaluationRunRepository);
+    }
+
+    @Test
+    public void reserve_OverRate_SpacesChunksApart() {
+        ReflectionTestUtils.setField(portfolioRevaluationService, "maxUsersPerSecond", 100.0);
+
+        long first = portfolioRevaluationService.reserve(50);
+        long second = portfolioRevaluationService.reserve(50);
+        long third = portfolioRevaluationService.reserve(50);
+
+        assertEquals(0, first);
+        assertTrue(second > 400_000_000L && second <= 500_000_000L, "second waits " + second);
+        assertTrue(third > 900_000_000L && third <= 1_000_000_000L, "third waits " + third);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.dto.InvestmentSummaryResponse;
+import com.example.repository.InvestmentRepository;
+
+@SpringBootTest
+@ActiveProfiles("integration")
+class PortfolioSnapshotIntegrationTest {
+
+    @Autowired
+    private InvestmentService investmentService;
+
+    @Autowired
+    private PortfolioSnapshotService portfolioSnapshotService;
+
+    @Autowired
+    private InvestmentRepository investmentRepository;
+
+    @Test
+    public void findFresh_SavedSnapshot_ReturnsLiveSummary() {
+        Long userId = investmentRepository.findAll().get(0).getUserId();
+        InvestmentSummaryResponse live = investmentService.getUserInvestmentSummary(userId);
+        ReflectionTestUtils.setField(portfolioSnapshotService, "enabled", true);
+        try {
+            // Saved twice to cover the update branch of the upsert
+            portfolioSnapshotService.saveAll(Map.of(userId, live), Instant.now(), 1L);
+            portfolioSnapshotService.saveAll(Map.of(userId, live), Instant.now(), null);
+
+            assertEquals(live, portfolioSnapshotService.findFresh(userId).orElseThrow());
+        } finally {
+            ReflectionTestUtils.setField(portfolioSnapshotService, "enabled", false);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.dto.InvestmentSummaryResponse;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.PortfolioSnapshot;
+import com.example.repository.PortfolioSnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PortfolioSnapshotServiceTest {
+
+    @InjectMocks
+    private PortfolioSnapshotService portfolioSnapshotService;
+
+    @Mock
+    private PortfolioSnapshotRepository snapshotRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private PortfolioSnapshot createSnapshot(Long userId, Instant valuedAt) {
+        PortfolioSnapshot snapshot = new PortfolioSnapshot();
+        snapshot.setUserId(userId);
+        snapshot.setTotalValue(new BigDecimal("150.00"));
+        snapshot.setProfitability(new BigDecimal("12.34"));
+        snapshot.setNumberOfInvestments(2);
+        snapshot.setReturns("{\"XIRR\":12.34}");
+        snapshot.setValuedAt(valuedAt);
+        return snapshot;
+    }
+
+    @Test
+    public void findFresh_RecentSnapshot_ReturnsSummary() {
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.of(createSnapshot(1L, Instant.now())));
+
+        InvestmentSummaryResponse summary = portfolioSnapshotService.findFresh(1L).orElseThrow();
+
+        assertEquals(new BigDecimal("150.00"), summary.getTotalValue());
+        assertEquals(new BigDecimal("12.34"), summary.getProfitability());
+        assertEquals(2, summary.getNumberOfInvestments());
+        assertEquals(Map.of("XIRR", new BigDecimal("12.34")), summary.getReturns());
+        assertEquals(1, meterRegistry.get("portfolio.snapshot.reads").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    public void findFresh_NoSnapshot_ReturnsEmpty() {
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(portfolioSnapshotService.findFresh(1L).isEmpty());
+        assertEquals(1, meterRegistry.get("portfolio.snapshot.reads").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    public void findFresh_ChangedAfterValuation_ReturnsEmpty() {
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.of(createSnapshot(1L, Instant.now())));
+
+        portfolioSnapshotService.onPortfolioChanged(new PortfolioChangedEvent(1L, Set.of(4L)));
+
+        assertTrue(portfolioSnapshotService.findFresh(1L).isEmpty());
+        assertEquals(1, meterRegistry.get("portfolio.snapshot.reads").tag("result", "stale").counter().count());
+    }
+
+    @Test
+    public void findFresh_ValuedBeforeStartup_ReturnsEmpty() {
+        when(snapshotRepository.findById(1L))
+                .thenReturn(Optional.of(createSnapshot(1L, Instant.now().minus(1, ChronoUnit.HOURS))));
+
+        assertTrue(portfolioSnapshotService.findFresh(1L).isEmpty());
+    }
+
+    @Test
+    public void findFresh_Disabled_SkipsRepository() {
+        ReflectionTestUtils.setField(portfolioSnapshotService, "enabled", false);
+
+        assertTrue(portfolioSnapshotService.findFresh(1L).isEmpty());
+        verifyNoInteractions(snapshotRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void saveAll_Summaries_UpsertsOneBatch() {
+        Map<String, BigDecimal> returns = new LinkedHashMap<>();
+        returns.put("XIRR", new BigDecimal("12.34"));
+        returns.put("TWR", null);
+        Map<Long, InvestmentSummaryResponse> summaries = new LinkedHashMap<>();
+        summaries.put(1L, new InvestmentSummaryResponse(BigDecimal.TEN, new BigDecimal("12.34"), 1, returns));
+        summaries.put(2L, new InvestmentSummaryResponse(BigDecimal.ONE, null, 1, null));
+
+        portfolioSnapshotService.saveAll(summaries, Instant.now(), 7L);
+
+        ArgumentCaptor<Collection<Object[]>> captured = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), captured.capture(), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        List<Object[]> rows = new ArrayList<>(captured.getValue());
+        assertEquals("{\"XIRR\":12.34,\"TWR\":null}", rows.get(0)[4]);
+        assertNull(rows.get(1)[4]);
+        assertEquals(7L, rows.get(1)[6]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void saveAll_ValuedAt_BoundAsUtc() throws Exception {
+        Instant valuedAt = Instant.parse("2024-05-01T10:00:00Z");
+        portfolioSnapshotService.saveAll(Map.of(1L, new InvestmentSummaryResponse(BigDecimal.TEN, null, 1, null)),
+                valuedAt, null);
+        ArgumentCaptor<Collection<Object[]>> rows = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object[]>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), anyInt(), setter.capture());
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.getParameterMetaData()).thenReturn(mock(ParameterMetaData.class));
+
+        setter.getValue().setValues(statement, rows.getValue().iterator().next());
+
+        verify(statement).setTimestamp(eq(6), eq(Timestamp.from(valuedAt)),
+                argThat(calendar -> "UTC".equals(calendar.getTimeZone().getID())));
+    }
+
+    @Test
+    public void saveAll_NoSummaries_SkipsWrite() {
+        portfolioSnapshotService.saveAll(Map.of(), Instant.now(), null);
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    public void saveAll_AfterChange_ServesNewSnapshot() {
+        portfolioSnapshotService.onPortfolioChanged(new PortfolioChangedEvent(1L, Set.of(4L)));
+        Instant valuedAt = Instant.now().plusMillis(1);
+        portfolioSnapshotService.saveAll(Map.of(1L, new InvestmentSummaryResponse(BigDecimal.TEN, null, 1, null)),
+                valuedAt, null);
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.of(createSnapshot(1L, valuedAt)));
+
+        assertTrue(portfolioSnapshotService.findFresh(1L).isPresent());
+    }
+
+    @Test
+    public void drainPending_MoreThanMax_LeavesRestQueued() {
+        for (long userId = 1; userId <= 5; userId++) {
+            portfolioSnapshotService.onPortfolioChanged(PortfolioChangedEvent.priceChanged(userId));
+        }
+
+        List<Long> drained = portfolioSnapshotService.drainPending(3);
+
+        assertEquals(3, drained.size());
+        assertEquals(2, portfolioSnapshotService.getPendingCount());
+        portfolioSnapshotService.markPending(drained);
+        assertEquals(5, portfolioSnapshotService.getPendingCount());
+    }
+}
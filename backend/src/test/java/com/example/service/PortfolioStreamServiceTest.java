@@ -0,0 +1,122 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.dto.InvestmentSummaryResponse;
+import com.example.event.PortfolioChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class PortfolioStreamServiceTest {
+
+    @InjectMocks
+    private PortfolioStreamService portfolioStreamService;
+
+    @Mock
+    private InvestmentService investmentService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        portfolioStreamService.init();
+        when(investmentService.getUserInvestmentSummary(1L))
+                .thenReturn(new InvestmentSummaryResponse(BigDecimal.TEN, BigDecimal.ONE, 1, null));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        portfolioStreamService.shutdown();
+    }
+
+    @Test
+    public void subscribe_SendsInitialSummaryAndRegistersSubscriber() {
+        portfolioStreamService.subscribe(1L);
+
+        assertEquals(1, portfolioStreamService.getSubscriberCount(1L));
+        verify(investmentService, times(1)).getUserInvestmentSummary(1L);
+    }
+
+    @Test
+    public void onPortfolioChanged_NoSubscribers_DoesNotRecompute() throws InterruptedException {
+        portfolioStreamService.onPortfolioChanged(PortfolioChangedEvent.priceChanged(1L));
+
+        Thread.sleep(500);
+        verifyNoInteractions(investmentService);
+    }
+
+    @Test
+    public void onPortfolioChanged_BurstOfChanges_RecomputesOnce() throws InterruptedException {
+        portfolioStreamService.subscribe(1L);
+
+        for (int i = 0; i < 50; i++) {
+            portfolioStreamService.onPortfolioChanged(new PortfolioChangedEvent(1L, Set.of(1L)));
+        }
+
+        Thread.sleep(750);
+        // One for the initial snapshot, one for the coalesced burst
+        verify(investmentService, times(2)).getUserInvestmentSummary(1L);
+    }
+
+    @Test
+    public void onPortfolioChanged_OtherUser_DoesNotRecompute() throws InterruptedException {
+        portfolioStreamService.subscribe(1L);
+
+        portfolioStreamService.onPortfolioChanged(PortfolioChangedEvent.priceChanged(2L));
+
+        Thread.sleep(500);
+        verify(investmentService, never()).getUserInvestmentSummary(2L);
+        verify(investmentService, times(1)).getUserInvestmentSummary(1L);
+    }
+
+    @Test
+    public void onPortfolioChanged_SlowUser_DoesNotDelayOtherUsers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(investmentService.getUserInvestmentSummary(2L))
+                .thenReturn(new InvestmentSummaryResponse(BigDecimal.ONE, BigDecimal.ONE, 1, null))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return null;
+                });
+        portfolioStreamService.subscribe(1L);
+        portfolioStreamService.subscribe(2L);
+
+        portfolioStreamService.onPortfolioChanged(PortfolioChangedEvent.priceChanged(2L));
+        Thread.sleep(100);
+        portfolioStreamService.onPortfolioChanged(PortfolioChangedEvent.priceChanged(1L));
+
+        try {
+            verify(investmentService, timeout(1000).times(2)).getUserInvestmentSummary(1L);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void send_OlderSummaryAfterNewer_IsDropped() throws Exception {
+        SseEmitter emitter = mock(SseEmitter.class);
+        PortfolioStreamService.Subscription subscription = new PortfolioStreamService.Subscription(emitter);
+
+        portfolioStreamService.send(1L, subscription, "{\"totalValue\":2}", 2);
+        portfolioStreamService.send(1L, subscription, "{\"totalValue\":1}", 1);
+
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(2, subscription.lastVersion);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.enums.TransactionType;
+import com.example.model.Dividend;
+import com.example.model.Investment;
+import com.example.model.Position;
+import com.example.model.Transaction;
+
+class PositionServiceTest {
+
+    @InjectMocks
+    private PositionService positionService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Position> upserted = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+                    upserted.addAll(invocation.getArgument(1));
+                    return new int[0][0];
+                });
+    }
+
+    private Investment createInvestment(long id) {
+        Investment investment = new Investment();
+        investment.setId(id);
+        return investment;
+    }
+
+    private Transaction createTransaction(Investment investment, TransactionType type, int quantity, String price,
+            String fee, Instant timestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setInvestment(investment);
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(new BigDecimal(price));
+        transaction.setFee(fee == null ? null : new BigDecimal(fee));
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+
+    private Position createPosition(long investmentId, int quantity) {
+        Position position = new Position();
+        position.setInvestmentId(investmentId);
+        position.setNetQuantity(quantity);
+        return position;
+    }
+
+    @Test
+    public void applyTransactions_MixedInvestments_UpsertsOneDeltaPerInvestment() {
+        Investment first = createInvestment(1L);
+        Investment second = createInvestment(2L);
+        Instant early = Instant.parse("2024-01-01T00:00:00Z");
+        Instant late = Instant.parse("2024-02-01T00:00:00Z");
+
+        positionService.applyTransactions(List.of(
+                createTransaction(first, TransactionType.BUY, 10, "10", "1.004", late),
+                createTransaction(first, TransactionType.SELL, 4, "12.5", null, early),
+                createTransaction(second, TransactionType.BUY, 1, "3", "0", early)));
+
+        assertEquals(2, upserted.size());
+        Position delta = upserted.get(0);
+        assertEquals(1L, delta.getInvestmentId());
+        assertEquals(6, delta.getNetQuantity());
+        assertEquals(0, new BigDecimal("100").compareTo(delta.getTotalInvested()));
+        assertEquals(0, new BigDecimal("50").compareTo(delta.getTotalProceeds()));
+        assertEquals(new BigDecimal("1.00"), delta.getTotalFees());
+        assertEquals(late, delta.getLastTradeTime());
+        assertEquals(2, delta.getTradeCount());
+        assertEquals(1, upserted.get(1).getNetQuantity());
+    }
+
+    @Test
+    public void applyDividends_RoundsToStoredScale() {
+        Dividend dividend = new Dividend();
+        dividend.setInvestment(createInvestment(1L));
+        dividend.setAmount(new BigDecimal("4.005"));
+        dividend.setTimestamp(Instant.now());
+
+        positionService.applyDividends(List.of(dividend, dividend));
+
+        assertEquals(new BigDecimal("8.02"), upserted.get(0).getDividendTotal());
+        assertNull(upserted.get(0).getLastTradeTime());
+    }
+
+    @Test
+    public void applyTransactions_EmptyList_DoesNothing() {
+        positionService.applyTransactions(List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void verify_StoredMatchesHistory_DoesNotRebuild() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of(createPosition(1L, 5)));
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(mockPositionRow(1L, 5));
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        assertEquals(0, positionService.verify());
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void verify_DriftedAndMissingPositions_Rebuilds() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class)))
+                .thenReturn(List.of(createPosition(1L, 5), createPosition(2L, 3)));
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(mockPositionRow(1L, 4));
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        assertEquals(2, positionService.verify());
+        verify(jdbcTemplate, times(1)).update(eq("DELETE FROM positions"));
+        verify(jdbcTemplate, times(2)).update(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void verify_LastTradeTime_ReadAsUtc() {
+        Instant lastTrade = Instant.parse("2024-03-01T10:00:00Z");
+        Position expected = createPosition(1L, 5);
+        expected.setLastTradeTime(lastTrade);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of(expected));
+        doAnswer(invocation -> {
+            ResultSet resultSet = mockPositionRow(1L, 5);
+            when(resultSet.getTimestamp(eq("last_trade_time"),
+                    argThat(calendar -> "UTC".equals(calendar.getTimeZone().getID()))))
+                    .thenReturn(Timestamp.from(lastTrade));
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        assertEquals(0, positionService.verify());
+    }
+
+    private ResultSet mockPositionRow(long investmentId, int quantity) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong("investment_id")).thenReturn(investmentId);
+        when(resultSet.getInt("net_quantity")).thenReturn(quantity);
+        when(resultSet.getBigDecimal(anyString())).thenReturn(BigDecimal.ZERO);
+        return resultSet;
+    }
+}
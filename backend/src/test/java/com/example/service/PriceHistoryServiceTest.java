@@ -0,0 +1,101 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class PriceHistoryServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PriceHistoryService priceHistoryService;
+
+    @BeforeEach
+    public void setUp() {
+        priceHistoryService = new PriceHistoryService();
+        ReflectionTestUtils.setField(priceHistoryService, "directory", tempDir.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        priceHistoryService.close();
+    }
+
+    @Test
+    public void getPriceAsOf_RecordedTicks_ReturnsPriceAtDate() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        priceHistoryService.record(1L, start, new BigDecimal("100.25"));
+        priceHistoryService.record(1L, start.plusSeconds(3600), new BigDecimal("101.50"));
+
+        Optional<BigDecimal> price = priceHistoryService.getPriceAsOf(1L, start.plusSeconds(1800));
+
+        assertTrue(price.isPresent());
+        assertEquals(0, new BigDecimal("100.25").compareTo(price.get()));
+    }
+
+    @Test
+    public void getPriceAsOf_UnknownInstrument_ReturnsEmpty() {
+        assertTrue(priceHistoryService.getPriceAsOf(2L, Instant.now()).isEmpty());
+        assertTrue(priceHistoryService.getPriceAsOf(null, Instant.now()).isEmpty());
+    }
+
+    @Test
+    public void getPriceAsOf_NoHistory_CreatesNoFile() throws Exception {
+        priceHistoryService.getPriceAsOf(2L, Instant.now());
+        priceHistoryService.scan(2L, Instant.EPOCH, Instant.now(), (second, price) -> fail("No ticks expected"));
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void init_RecreatedSchema_ClearsPreviousHistory() {
+        priceHistoryService.record(1L, Instant.parse("2024-01-01T00:00:00Z"), BigDecimal.TEN);
+        priceHistoryService.flush();
+        priceHistoryService.close();
+
+        PriceHistoryService restarted = new PriceHistoryService();
+        ReflectionTestUtils.setField(restarted, "directory", tempDir.toString());
+        ReflectionTestUtils.setField(restarted, "schemaAction", "create-drop");
+        restarted.init();
+
+        assertTrue(restarted.getPriceAsOf(1L, Instant.now()).isEmpty());
+        restarted.close();
+    }
+
+    @Test
+    public void init_PersistentSchema_KeepsHistory() {
+        priceHistoryService.record(1L, Instant.parse("2024-01-01T00:00:00Z"), BigDecimal.TEN);
+        priceHistoryService.flush();
+        priceHistoryService.close();
+
+        PriceHistoryService restarted = new PriceHistoryService();
+        ReflectionTestUtils.setField(restarted, "directory", tempDir.toString());
+        ReflectionTestUtils.setField(restarted, "schemaAction", "update");
+        restarted.init();
+
+        assertEquals(0, BigDecimal.TEN.compareTo(restarted.getPriceAsOf(1L, Instant.now()).orElseThrow()));
+        restarted.close();
+    }
+
+    @Test
+    public void record_OutOfOrderTick_IsSkipped() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        priceHistoryService.record(1L, start, BigDecimal.TEN);
+        priceHistoryService.record(1L, start.minusSeconds(60), BigDecimal.ONE);
+
+        assertEquals(0, BigDecimal.TEN.compareTo(priceHistoryService.getPriceAsOf(1L, start).get()));
+    }
+}
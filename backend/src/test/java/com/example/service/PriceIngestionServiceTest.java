@@ -0,0 +1,200 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import com.example.dto.PriceIngestionResponse;
+import com.example.dto.PriceTick;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Instrument;
+import com.example.repository.InvestmentRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PriceIngestionServiceTest {
+
+    @InjectMocks
+    private PriceIngestionService priceIngestionService;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private InstrumentService instrumentService;
+
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<PriceTick> written = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(instrumentService.findByName(anyString())).thenReturn(Optional.of(new Instrument()));
+        stubBatchUpdate(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubBatchUpdate(int rowsPerTick) {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+                    Collection<PriceTick> ticks = invocation.getArgument(1);
+                    written.addAll(ticks);
+                    int[] counts = new int[ticks.size()];
+                    Arrays.fill(counts, rowsPerTick);
+                    return new int[][] { counts };
+                });
+    }
+
+    private boolean wrote(String name, long price) {
+        return written.stream().anyMatch(tick -> tick.getName().equals(name)
+                && tick.getPrice().equals(BigDecimal.valueOf(price)));
+    }
+
+    private PriceTick createTick(String name, long price, Instant timestamp) {
+        return new PriceTick(name, BigDecimal.valueOf(price), timestamp);
+    }
+
+    @Test
+    public void submit_ValidAndInvalidTicks_CountsBoth() {
+        PriceIngestionResponse response = priceIngestionService.submit(Arrays.asList(
+                createTick("Fund A", 100, Instant.now()),
+                createTick("", 100, Instant.now()),
+                new PriceTick("Fund B", BigDecimal.valueOf(-1), Instant.now()),
+                null));
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(3, response.getRejected());
+        assertEquals(1, priceIngestionService.getPendingCount());
+    }
+
+    @Test
+    public void flush_DuplicateTicks_AppliesLatestOncePerInstrument() {
+        Instant now = Instant.now();
+        priceIngestionService.submit(List.of(
+                createTick("Fund A", 100, now.minusSeconds(2)),
+                createTick("Fund A", 105, now),
+                createTick("Fund A", 101, now.minusSeconds(1)),
+                createTick("Company B", 50, now)));
+
+        int applied = priceIngestionService.applyPending();
+
+        assertEquals(2, applied);
+        assertEquals(2, written.size());
+        assertTrue(wrote("Fund A", 105));
+        assertEquals(0, priceIngestionService.getPendingCount());
+        verify(instrumentService, times(1)).applyPrices(anyList());
+    }
+
+    @Test
+    public void flush_AffectedUsers_PublishesPriceChangedEvents() {
+        priceIngestionService.submit(List.of(createTick("Fund A", 100, Instant.now())));
+        when(investmentRepository.findUserIdsByInstrumentNameIn(anyList())).thenReturn(List.of(1L, 2L));
+
+        priceIngestionService.applyPending();
+
+        verify(eventPublisher, times(1)).publishEvent(eq(PortfolioChangedEvent.priceChanged(1L)));
+        verify(eventPublisher, times(1)).publishEvent(eq(PortfolioChangedEvent.priceChanged(2L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void flush_WriteFails_KeepsTicksForNextWindow() {
+        Instant now = Instant.now();
+        priceIngestionService.submit(List.of(createTick("Fund A", 100, now.minusSeconds(1)),
+                createTick("Company B", 50, now)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenThrow(new QueryTimeoutException("timeout"));
+
+        int applied = priceIngestionService.applyPending();
+        // A newer tick submitted before the retry replaces the failed one
+        priceIngestionService.submit(List.of(createTick("Fund A", 110, now)));
+
+        assertEquals(0, applied);
+        assertEquals(2, priceIngestionService.getPendingCount());
+        assertEquals(1, meterRegistry.get("prices.ingestion.failures").counter().count());
+        verify(instrumentService, never()).applyPrices(anyList());
+        verifyNoInteractions(eventPublisher);
+
+        reset(jdbcTemplate);
+        stubBatchUpdate(1);
+        assertEquals(2, priceIngestionService.applyPending());
+        assertTrue(wrote("Fund A", 110));
+    }
+
+    @Test
+    public void flush_NothingPending_DoesNotTouchDatabase() {
+        int applied = priceIngestionService.applyPending();
+
+        assertEquals(0, applied);
+        verifyNoInteractions(jdbcTemplate, investmentRepository, instrumentService, eventPublisher);
+    }
+
+    @Test
+    public void submit_EmptyList_AcceptsNothing() {
+        PriceIngestionResponse response = priceIngestionService.submit(Collections.emptyList());
+
+        assertEquals(0, response.getAccepted());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void submit_UnknownInstrument_RejectsTick() {
+        when(instrumentService.findByName("Unknown")).thenReturn(Optional.empty());
+
+        PriceIngestionResponse response = priceIngestionService.submit(List.of(
+                createTick("Fund A", 100, Instant.now()), createTick("Unknown", 100, Instant.now())));
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(1, response.getRejected());
+        assertEquals(1, priceIngestionService.getPendingCount());
+    }
+
+    @Test
+    public void flush_OlderThanStoredPrice_SkipsTick() {
+        stubBatchUpdate(0);
+        priceIngestionService.submit(List.of(createTick("Fund A", 90, Instant.now().minusSeconds(60))));
+
+        int applied = priceIngestionService.applyPending();
+
+        assertEquals(0, applied);
+        assertEquals(1, written.size());
+        verify(instrumentService, never()).applyPrices(anyList());
+        verifyNoInteractions(priceHistoryService, eventPublisher);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.example.dto.CashFlowData;
+import com.example.dto.CashFlowRow;
+import com.example.enums.TransactionType;
+import com.example.model.Instrument;
+import com.example.model.Investment;
+import com.example.repository.DividendRepository;
+import com.example.repository.TransactionRepository;
+
+class StreamingCashFlowServiceTest {
+
+    @InjectMocks
+    private StreamingCashFlowService streamingCashFlowService;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private DividendRepository dividendRepository;
+
+    private final Instant start = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(30, ChronoUnit.DAYS);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(dividendRepository.streamCashFlowRowsByUserId(1L)).thenReturn(Stream.empty());
+    }
+
+    private Investment createInvestment(Long id, String price) {
+        Investment investment = new Investment();
+        investment.setId(id);
+        Instrument instrument = new Instrument();
+        instrument.setCurrentPrice(new BigDecimal(price));
+        investment.setInstrument(instrument);
+        return investment;
+    }
+
+    private CashFlowRow trade(Long investmentId, long days, TransactionType type, int quantity, String price) {
+        return new CashFlowRow(investmentId, start.plus(days, ChronoUnit.DAYS).plusSeconds(3_600), type, quantity,
+                new BigDecimal(price), BigDecimal.ZERO);
+    }
+
+    @Test
+    public void collectDailyCashFlows_FoldsTradesAndEndsWithCurrentValue() {
+        when(transactionRepository.streamCashFlowRowsByUserId(1L)).thenReturn(Stream.of(
+                trade(1L, 0, TransactionType.BUY, 10, "10"),
+                trade(1L, 0, TransactionType.BUY, 5, "10"),
+                trade(2L, 3, TransactionType.BUY, 2, "50"),
+                trade(1L, 5, TransactionType.SELL, 3, "12")));
+        when(dividendRepository.streamCashFlowRowsByUserId(1L)).thenReturn(Stream.of(
+                new CashFlowRow(1L, start.plus(5, ChronoUnit.DAYS), new BigDecimal("4"))));
+
+        List<CashFlowData> cashFlows = streamingCashFlowService.collectDailyCashFlows(1L,
+                List.of(createInvestment(1L, "11"), createInvestment(2L, "60")));
+
+        assertEquals(4, cashFlows.size());
+        assertEquals(start, cashFlows.get(0).getDate());
+        assertEquals(0, new BigDecimal("-150").compareTo(cashFlows.get(0).getAmount()));
+        assertEquals(0, new BigDecimal("-100").compareTo(cashFlows.get(1).getAmount()));
+        assertEquals(0, new BigDecimal("40").compareTo(cashFlows.get(2).getAmount())); // 36 + 4
+        assertEquals(0, new BigDecimal("252").compareTo(cashFlows.get(3).getAmount())); // 12 * 11 + 2 * 60
+    }
+
+    @Test
+    public void collectDailyCashFlows_UnpricedInvestment_IsLeftOut() {
+        when(transactionRepository.streamCashFlowRowsByUserId(1L)).thenReturn(Stream.of(
+                trade(1L, 0, TransactionType.BUY, 10, "10"),
+                trade(2L, 1, TransactionType.BUY, 2, "50")));
+
+        List<CashFlowData> cashFlows = streamingCashFlowService.collectDailyCashFlows(1L,
+                List.of(createInvestment(1L, "0"), createInvestment(2L, "60")));
+
+        assertEquals(2, cashFlows.size());
+        assertEquals(0, new BigDecimal("-100").compareTo(cashFlows.get(0).getAmount()));
+        assertEquals(0, new BigDecimal("120").compareTo(cashFlows.get(1).getAmount()));
+    }
+
+    @Test
+    public void collectDailyCashFlows_ClosesStreams() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionRepository.streamCashFlowRowsByUserId(1L))
+                .thenReturn(Stream.<CashFlowRow>empty().onClose(() -> closed.set(true)));
+
+        List<CashFlowData> cashFlows = streamingCashFlowService.collectDailyCashFlows(1L,
+                List.of(createInvestment(1L, "10")));
+
+        assertTrue(cashFlows.isEmpty());
+        assertTrue(closed.get());
+    }
+}
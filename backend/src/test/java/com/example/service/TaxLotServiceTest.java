@@ -0,0 +1,177 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.dto.InvestmentGainsResponse;
+import com.example.enums.CostBasisMethod;
+import com.example.enums.TransactionType;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Instrument;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.repository.InvestmentRepository;
+import com.example.repository.TransactionRepository;
+
+class TaxLotServiceTest {
+
+    @InjectMocks
+    private TaxLotService taxLotService;
+
+    @Mock
+    private InstrumentService instrumentService;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private Investment investment;
+    private final List<Transaction> history = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        investment = new Investment();
+        investment.setId(5L);
+        investment.setUserId(1L);
+        Instrument instrument = new Instrument();
+        instrument.setName("Fund A");
+        instrument.setCurrentPrice(BigDecimal.valueOf(25));
+        investment.setInstrument(instrument);
+
+        when(investmentRepository.findAllByUserId(1L)).thenReturn(List.of(investment));
+        when(transactionRepository.findByInvestmentIdOrderByTimestampAscIdAsc(5L)).thenAnswer(invocation ->
+                history.stream()
+                        .sorted((left, right) -> left.getTimestamp().compareTo(right.getTimestamp()))
+                        .toList());
+        when(transactionRepository.findByInvestmentIdAndIdGreaterThanOrderByTimestampAscIdAsc(eq(5L), anyLong()))
+                .thenAnswer(invocation -> history.stream()
+                        .filter(transaction -> transaction.getId() > invocation.getArgument(1, Long.class))
+                        .sorted((left, right) -> left.getTimestamp().compareTo(right.getTimestamp()))
+                        .toList());
+        when(transactionRepository.countByInvestmentId(5L)).thenAnswer(invocation -> (long) history.size());
+    }
+
+    private void addTransaction(long id, TransactionType type, int quantity, long price, String timestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setInvestment(investment);
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(BigDecimal.valueOf(price));
+        transaction.setFee(BigDecimal.ZERO);
+        transaction.setTimestamp(Instant.parse(timestamp));
+        history.add(transaction);
+    }
+
+    @Test
+    public void getUserGains_Fifo_ReturnsRealizedAndUnrealized() {
+        addTransaction(1, TransactionType.BUY, 10, 10, "2024-01-01T00:00:00Z");
+        addTransaction(2, TransactionType.BUY, 10, 20, "2024-02-01T00:00:00Z");
+        addTransaction(3, TransactionType.SELL, 15, 30, "2024-03-01T00:00:00Z");
+
+        InvestmentGainsResponse gains = taxLotService.getUserGains(1L, CostBasisMethod.FIFO).get(0);
+
+        assertEquals(5, gains.getOpenQuantity());
+        assertEquals(0, BigDecimal.valueOf(250).compareTo(gains.getRealizedGain()));
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(gains.getCostBasis()));
+        assertEquals(0, BigDecimal.valueOf(125).compareTo(gains.getMarketValue()));
+        assertEquals(0, BigDecimal.valueOf(25).compareTo(gains.getUnrealizedGain()));
+    }
+
+    @Test
+    public void calculateGains_NewTransactions_AppliedIncrementally() {
+        addTransaction(1, TransactionType.BUY, 10, 10, "2024-01-01T00:00:00Z");
+        taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+        addTransaction(2, TransactionType.SELL, 4, 15, "2024-02-01T00:00:00Z");
+
+        InvestmentGainsResponse gains = taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+
+        assertEquals(6, gains.getOpenQuantity());
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(gains.getRealizedGain()));
+        verify(transactionRepository, never()).findByInvestmentIdOrderByTimestampAscIdAsc(anyLong());
+        verify(transactionRepository, times(1))
+                .findByInvestmentIdAndIdGreaterThanOrderByTimestampAscIdAsc(5L, 1L);
+    }
+
+    @Test
+    public void calculateGains_BackfilledTransaction_ReplaysHistory() {
+        addTransaction(1, TransactionType.BUY, 10, 20, "2024-02-01T00:00:00Z");
+        taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+        addTransaction(2, TransactionType.BUY, 10, 10, "2024-01-01T00:00:00Z");
+        addTransaction(3, TransactionType.SELL, 10, 30, "2024-03-01T00:00:00Z");
+
+        InvestmentGainsResponse gains = taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+
+        assertEquals(0, BigDecimal.valueOf(200).compareTo(gains.getRealizedGain())); // Sells the older 10 @ 10
+        verify(transactionRepository, times(1)).findByInvestmentIdOrderByTimestampAscIdAsc(5L);
+    }
+
+    @Test
+    public void calculateGains_MethodsKeepSeparateLedgers() {
+        addTransaction(1, TransactionType.BUY, 10, 10, "2024-01-01T00:00:00Z");
+        addTransaction(2, TransactionType.BUY, 10, 20, "2024-02-01T00:00:00Z");
+        addTransaction(3, TransactionType.SELL, 15, 30, "2024-03-01T00:00:00Z");
+
+        InvestmentGainsResponse fifo = taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+        InvestmentGainsResponse average = taxLotService.calculateGains(investment, CostBasisMethod.AVERAGE_COST);
+
+        assertEquals(0, BigDecimal.valueOf(250).compareTo(fifo.getRealizedGain()));
+        assertEquals(0, BigDecimal.valueOf(225).compareTo(average.getRealizedGain()));
+    }
+
+    @Test
+    public void calculateGains_LateCommittedLowerId_ReplaysHistoryAfterEvent() {
+        addTransaction(2, TransactionType.BUY, 10, 10, "2024-01-01T00:00:00Z");
+        taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+        addTransaction(1, TransactionType.SELL, 4, 15, "2024-02-01T00:00:00Z");
+        taxLotService.onPortfolioChanged(new PortfolioChangedEvent(1L, Set.of(5L)));
+
+        InvestmentGainsResponse gains = taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+
+        assertEquals(6, gains.getOpenQuantity());
+        verify(transactionRepository, times(1)).findByInvestmentIdOrderByTimestampAscIdAsc(5L);
+    }
+
+    @Test
+    public void calculateGains_ChangedWithoutGap_SkipsReplay() {
+        addTransaction(1, TransactionType.BUY, 10, 10, "2024-01-01T00:00:00Z");
+        taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+        addTransaction(2, TransactionType.SELL, 4, 15, "2024-02-01T00:00:00Z");
+        taxLotService.onPortfolioChanged(new PortfolioChangedEvent(1L, Set.of(5L)));
+
+        InvestmentGainsResponse gains = taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+
+        assertEquals(6, gains.getOpenQuantity());
+        verify(transactionRepository, times(1)).countByInvestmentId(5L);
+        verify(transactionRepository, never()).findByInvestmentIdOrderByTimestampAscIdAsc(anyLong());
+    }
+
+    @Test
+    public void calculateGains_BeyondMaxEntries_EvictsLeastRecentlyUsed() {
+        ReflectionTestUtils.setField(taxLotService, "maxLedgers", 1);
+        addTransaction(1, TransactionType.BUY, 10, 10, "2024-01-01T00:00:00Z");
+
+        taxLotService.calculateGains(investment, CostBasisMethod.FIFO);
+        taxLotService.calculateGains(investment, CostBasisMethod.AVERAGE_COST);
+
+        assertEquals(1, taxLotService.getCachedCount());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.enums.TransactionType;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+
+class TransactionBatchWriterTest {
+
+    @InjectMocks
+    private TransactionBatchWriter transactionBatchWriter;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PositionService positionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transactionBatchWriter, "batchSize", 3);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private List<Transaction> createTransactions(int count) {
+        Investment investment = new Investment();
+        investment.setId(1L);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setInvestment(investment);
+            transaction.setType(TransactionType.BUY);
+            transaction.setQuantity(i);
+            transaction.setPrice(BigDecimal.TEN);
+            transaction.setFee(BigDecimal.ONE);
+            transaction.setTimestamp(Instant.now());
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void write_MoreRowsThanBatchSize_OneTransactionPerChunk() {
+        int written = transactionBatchWriter.write(createTransactions(7));
+
+        assertEquals(7, written);
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(positionService, times(3)).applyTransactions(anyList());
+    }
+
+    @Test
+    public void write_EmptyList_DoesNothing() {
+        assertEquals(0, transactionBatchWriter.write(List.of()));
+        verifyNoInteractions(transactionTemplate, jdbcTemplate);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.model.Transaction;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransactionDeduplicatorTest {
+
+    @InjectMocks
+    private TransactionDeduplicator transactionDeduplicator;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transactionDeduplicator, "expectedIds", 1_000L);
+        ReflectionTestUtils.setField(transactionDeduplicator, "falsePositiveRate", 0.0001);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString(1)).thenReturn("stored-1");
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), (Object[]) any()))
+                .thenReturn(List.of("stored-1"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L);
+        transactionDeduplicator.init();
+        transactionDeduplicator.load();
+    }
+
+    private Transaction createTransaction(String externalId) {
+        Transaction transaction = new Transaction();
+        transaction.setExternalId(externalId);
+        return transaction;
+    }
+
+    @Test
+    public void findDuplicates_StoredAndRepeatedIds_FlagsBoth() {
+        List<Transaction> transactions = List.of(createTransaction("stored-1"), createTransaction("new-1"),
+                createTransaction("new-1"), createTransaction(null));
+
+        BitSet duplicates = transactionDeduplicator.findDuplicates(transactions);
+
+        assertTrue(duplicates.get(0));
+        assertFalse(duplicates.get(1));
+        assertTrue(duplicates.get(2));
+        assertFalse(duplicates.get(3));
+    }
+
+    @Test
+    public void findDuplicates_UnknownIds_SkipsDatabaseLookup() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            transactions.add(createTransaction("fresh-" + i));
+        }
+
+        BitSet duplicates = transactionDeduplicator.findDuplicates(transactions);
+
+        assertTrue(duplicates.isEmpty());
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), (Object[]) any());
+    }
+
+    @Test
+    public void register_WrittenIds_ConfirmedOnNextLookup() {
+        transactionDeduplicator.register(List.of(createTransaction("replayed-1")));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), (Object[]) any()))
+                .thenReturn(List.of("replayed-1"));
+
+        BitSet duplicates = transactionDeduplicator.findDuplicates(List.of(createTransaction("replayed-1")));
+
+        assertTrue(duplicates.get(0));
+    }
+
+    @Test
+    public void findDuplicates_FilterNotLoaded_ConfirmsEveryIdInDatabase() {
+        TransactionDeduplicator unloaded = new TransactionDeduplicator();
+        unloaded.jdbcTemplate = jdbcTemplate;
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), (Object[]) any()))
+                .thenReturn(List.of("stored-1"));
+
+        BitSet duplicates = unloaded.findDuplicates(List.of(createTransaction("stored-1"),
+                createTransaction("fresh-1")));
+
+        assertTrue(duplicates.get(0));
+        assertFalse(duplicates.get(1));
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class), (Object[]) any());
+        verify(jdbcTemplate, timeout(1_000).times(2)).query(anyString(), any(RowCallbackHandler.class));
+        unloaded.shutdown();
+    }
+
+    @Test
+    public void register_BeyondCapacity_RebuildsLargerFilter() throws Exception {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1_500L);
+        List<Transaction> written = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            written.add(createTransaction("written-" + i));
+        }
+
+        transactionDeduplicator.register(written);
+
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (capacity() < 3_000.0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3_000.0, capacity(), 0.0);
+    }
+
+    private double capacity() {
+        return meterRegistry.get("ingestion.dedup.filter.capacity").gauge().value();
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.example.dto.TransactionIngestionResponse;
+import com.example.dto.TransactionRequest;
+import com.example.enums.IngestionStatus;
+import com.example.enums.TransactionType;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+import com.example.repository.InvestmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TransactionIngestionServiceTest {
+
+    @InjectMocks
+    private TransactionIngestionService transactionIngestionService;
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private TransactionBatchWriter transactionBatchWriter;
+
+    @Mock
+    private TransactionDeduplicator transactionDeduplicator;
+
+    @Mock
+    private WriteBehindTransactionQueue writeBehindQueue;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final List<List<Transaction>> writtenChunks = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Investment investment = new Investment();
+        investment.setId(3L);
+        investment.setUserId(1L);
+        when(investmentRepository.findById(3L)).thenReturn(Optional.of(investment));
+        when(transactionBatchWriter.getBatchSize()).thenReturn(2);
+        when(transactionDeduplicator.findDuplicates(anyList())).thenReturn(new BitSet());
+        when(transactionBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<Transaction> chunk = new ArrayList<>(invocation.getArgument(0));
+            writtenChunks.add(chunk);
+            return chunk.size();
+        });
+    }
+
+    private TransactionRequest createRequest(int quantity, long price) {
+        return new TransactionRequest(TransactionType.BUY, quantity, BigDecimal.valueOf(price), BigDecimal.ONE,
+                Instant.parse("2024-01-01T00:00:00Z"), null);
+    }
+
+    @Test
+    public void ingest_UnknownInvestment_ReturnsEmpty() {
+        assertTrue(transactionIngestionService.ingest(9L, List.of(createRequest(1, 10))).isEmpty());
+        verifyNoInteractions(transactionBatchWriter, eventPublisher);
+    }
+
+    @Test
+    public void ingest_ValidRows_WritesInChunksAndPublishesEvent() {
+        TransactionIngestionResponse response = transactionIngestionService.ingest(3L, List.of(
+                createRequest(1, 10), createRequest(2, 11), createRequest(3, 12)))
+                .orElseThrow();
+
+        assertEquals(3, response.getAccepted());
+        assertEquals(0, response.getRejected());
+        assertEquals(2, writtenChunks.size());
+        assertEquals(2, writtenChunks.get(0).size());
+        assertEquals(BigDecimal.ONE, writtenChunks.get(1).get(0).getFee());
+        verify(eventPublisher, times(1)).publishEvent(any(PortfolioChangedEvent.class));
+    }
+
+    @Test
+    public void ingest_InvalidRows_RejectedWithSetterMessages() {
+        TransactionRequest negativeQuantity = createRequest(-1, 10);
+        TransactionRequest negativePrice = createRequest(1, -10);
+        TransactionRequest missingType = createRequest(1, 10);
+        missingType.setType(null);
+
+        TransactionIngestionResponse response = transactionIngestionService.ingest(3L, List.of(
+                negativeQuantity, createRequest(1, 10), negativePrice, missingType))
+                .orElseThrow();
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(3, response.getRejected());
+        assertEquals(IngestionStatus.REJECTED, response.getRows().get(0).getStatus());
+        assertEquals("Quantity cannot be negative", response.getRows().get(0).getMessage());
+        assertEquals(IngestionStatus.ACCEPTED, response.getRows().get(1).getStatus());
+        assertEquals("Price cannot be negative or null", response.getRows().get(2).getMessage());
+        assertEquals("Type cannot be null", response.getRows().get(3).getMessage());
+    }
+
+    @Test
+    public void ingest_AllRowsRejected_DoesNotPublishEvent() {
+        transactionIngestionService.ingest(3L, List.of(createRequest(-1, 10)));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void ingestNdjson_MixedLines_ReportsPerRowResults() throws Exception {
+        String body = "{\"type\":\"BUY\",\"quantity\":5,\"price\":10,\"fee\":1,\"timestamp\":\"2024-01-01T00:00:00Z\"}\n"
+                + "\n"
+                + "not json\n"
+                + "{\"type\":\"SELL\",\"quantity\":2,\"price\":12,\"timestamp\":\"2024-02-01T00:00:00Z\"}\n";
+
+        TransactionIngestionResponse response = transactionIngestionService.ingestNdjson(3L,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))).orElseThrow();
+
+        assertEquals(2, response.getAccepted());
+        assertEquals(1, response.getRejected());
+        assertEquals(IngestionStatus.REJECTED, response.getRows().get(1).getStatus());
+        assertEquals(TransactionType.SELL, writtenChunks.get(0).get(1).getType());
+        assertEquals(BigDecimal.ZERO, writtenChunks.get(0).get(1).getFee());
+    }
+
+    @Test
+    public void ingest_ReplayedExternalIds_ReportsDuplicatesAndWritesRest() {
+        TransactionRequest replayed = createRequest(1, 10);
+        replayed.setExternalId("T-1");
+        TransactionRequest fresh = createRequest(2, 10);
+        fresh.setExternalId("T-2");
+        BitSet duplicates = new BitSet();
+        duplicates.set(0);
+        when(transactionDeduplicator.findDuplicates(anyList())).thenReturn(duplicates);
+
+        TransactionIngestionResponse response = transactionIngestionService.ingest(3L, List.of(replayed, fresh))
+                .orElseThrow();
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(1, response.getDuplicates());
+        assertEquals(IngestionStatus.DUPLICATE, response.getRows().get(0).getStatus());
+        assertEquals(1, writtenChunks.get(0).size());
+        assertEquals("T-2", writtenChunks.get(0).get(0).getExternalId());
+        verify(transactionDeduplicator, times(1)).register(anyList());
+    }
+
+    @Test
+    public void ingest_OnlyDuplicates_DoesNotWriteOrPublish() {
+        TransactionRequest replayed = createRequest(1, 10);
+        replayed.setExternalId("T-1");
+        BitSet duplicates = new BitSet();
+        duplicates.set(0);
+        when(transactionDeduplicator.findDuplicates(anyList())).thenReturn(duplicates);
+
+        transactionIngestionService.ingest(3L, List.of(replayed));
+
+        verify(transactionBatchWriter, never()).write(anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void ingest_WriteBehindEnabled_QueuesRowsWithoutWriting() {
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.enqueue(any(Investment.class), anyList())).thenReturn(true);
+
+        TransactionIngestionResponse response = transactionIngestionService.ingest(3L, List.of(
+                createRequest(1, 10), createRequest(2, 11), createRequest(3, 12)))
+                .orElseThrow();
+
+        assertEquals(3, response.getAccepted());
+        assertEquals(IngestionStatus.QUEUED, response.getRows().get(2).getStatus());
+        verify(writeBehindQueue, times(2)).enqueue(any(Investment.class), anyList());
+        verify(transactionBatchWriter, never()).write(anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void ingest_WriteBehindQueueFull_RejectsRows() {
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.enqueue(any(Investment.class), anyList())).thenReturn(false);
+
+        TransactionIngestionResponse response = transactionIngestionService.ingest(3L, List.of(createRequest(1, 10)))
+                .orElseThrow();
+
+        assertEquals(1, response.getRejected());
+        assertEquals("Write-behind queue is full", response.getRows().get(0).getMessage());
+    }
+
+    @Test
+    public void ingest_LaterChunkFails_ReportsFailedRowsAndPublishesChange() {
+        when(transactionBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<Transaction> chunk = new ArrayList<>(invocation.getArgument(0));
+            writtenChunks.add(chunk);
+            return chunk.size();
+        }).thenThrow(new DataIntegrityViolationException("constraint violated"))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        TransactionIngestionResponse response = transactionIngestionService.ingest(3L, List.of(
+                createRequest(1, 10), createRequest(2, 10), createRequest(3, 10), createRequest(4, 10),
+                createRequest(5, 10))).orElseThrow();
+
+        assertEquals(3, response.getAccepted());
+        assertEquals(2, response.getFailed());
+        assertEquals(IngestionStatus.ACCEPTED, response.getRows().get(1).getStatus());
+        assertEquals(IngestionStatus.FAILED, response.getRows().get(2).getStatus());
+        assertEquals(IngestionStatus.FAILED, response.getRows().get(3).getStatus());
+        assertEquals(IngestionStatus.ACCEPTED, response.getRows().get(4).getStatus());
+        verify(eventPublisher, times(1)).publishEvent(any(PortfolioChangedEvent.class));
+        verify(transactionDeduplicator, times(2)).register(anyList());
+    }
+
+    @Test
+    public void ingestNdjson_BodyBreaksAfterChunk_PublishesChangeForStoredRows() {
+        String first = "{\"type\":\"BUY\",\"quantity\":1,\"price\":10,\"timestamp\":\"2024-01-01T00:00:00Z\"}\n";
+        InputStream body = new SequenceInputStream(
+                new ByteArrayInputStream((first + first).getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("connection reset");
+                    }
+                });
+
+        assertThrows(IOException.class, () -> transactionIngestionService.ingestNdjson(3L, body));
+        assertEquals(1, writtenChunks.size());
+        verify(eventPublisher, times(1)).publishEvent(any(PortfolioChangedEvent.class));
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.enums.JournalDurability;
+import com.example.enums.TransactionType;
+import com.example.event.PortfolioChangedEvent;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WriteBehindTransactionQueueTest {
+
+    @TempDir
+    Path tempDir;
+
+    @InjectMocks
+    private WriteBehindTransactionQueue writeBehindQueue;
+
+    @Mock
+    private TransactionBatchWriter transactionBatchWriter;
+
+    @Mock
+    private TransactionDeduplicator transactionDeduplicator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger written = new AtomicInteger();
+    private final Investment investment = new Investment();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        investment.setId(3L);
+        investment.setUserId(1L);
+        configure(writeBehindQueue);
+        when(transactionDeduplicator.findDuplicates(anyList())).thenReturn(new BitSet());
+        when(transactionBatchWriter.getBatchSize()).thenReturn(100);
+        when(transactionBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            int size = ((List<?>) invocation.getArgument(0)).size();
+            written.addAndGet(size);
+            return size;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writeBehindQueue.shutdown();
+    }
+
+    private void configure(WriteBehindTransactionQueue queue) {
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "partitionCount", 2);
+        ReflectionTestUtils.setField(queue, "capacity", 8);
+        ReflectionTestUtils.setField(queue, "flushIntervalMs", 5L);
+        ReflectionTestUtils.setField(queue, "journalDirectory", tempDir.toString());
+    }
+
+    private Transaction createTransaction(int quantity) {
+        Transaction transaction = new Transaction();
+        transaction.setInvestment(investment);
+        transaction.setType(TransactionType.BUY);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(BigDecimal.TEN);
+        transaction.setFee(BigDecimal.ZERO);
+        transaction.setTimestamp(Instant.parse("2024-01-01T00:00:00Z"));
+        return transaction;
+    }
+
+    private void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void enqueue_Enabled_PersistsInBackgroundAndPublishesEvent() throws Exception {
+        writeBehindQueue.start();
+
+        assertTrue(writeBehindQueue.enqueue(investment, List.of(createTransaction(1), createTransaction(2))));
+
+        awaitCondition(() -> written.get() == 2);
+        awaitCondition(() -> writeBehindQueue.getQueueDepth() == 0);
+        verify(eventPublisher, atLeastOnce()).publishEvent(any(PortfolioChangedEvent.class));
+        assertEquals(2.0, meterRegistry.counter("ingestion.write_behind.rows", "outcome", "written").count());
+        assertEquals(2, meterRegistry.find("ingestion.write_behind.queue.depth").gauges().size());
+    }
+
+    @Test
+    public void enqueue_PartitionFull_ReturnsFalse() {
+        when(transactionBatchWriter.write(anyList())).thenThrow(new TransientDataAccessResourceException("Database unavailable"));
+        writeBehindQueue.start();
+
+        assertTrue(writeBehindQueue.enqueue(investment, List.of(createTransaction(1), createTransaction(2),
+                createTransaction(3), createTransaction(4), createTransaction(5))));
+
+        assertFalse(writeBehindQueue.enqueue(investment, List.of(createTransaction(6), createTransaction(7),
+                createTransaction(8), createTransaction(9))));
+        assertEquals(5, writeBehindQueue.getQueueDepth());
+    }
+
+    @Test
+    public void drain_WriterFailsOnce_RetriesBatch() throws Exception {
+        AtomicBoolean failed = new AtomicBoolean();
+        when(transactionBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new TransientDataAccessResourceException("Database unavailable");
+            }
+            int size = ((List<?>) invocation.getArgument(0)).size();
+            written.addAndGet(size);
+            return size;
+        });
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(investment, List.of(createTransaction(1)));
+
+        awaitCondition(() -> written.get() == 1);
+        assertEquals(1.0, meterRegistry.counter("ingestion.write_behind.flush.failures").count());
+    }
+
+    @Test
+    public void drain_RowFailsPermanently_DeadLettersIt() throws Exception {
+        when(transactionBatchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<?> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(row -> ((Transaction) row).getQuantity() == 2)) {
+                throw new DataIntegrityViolationException("Quantity check failed");
+            }
+            written.addAndGet(batch.size());
+            return batch.size();
+        });
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(investment, List.of(createTransaction(1), createTransaction(2), createTransaction(3)));
+        awaitCondition(() -> written.get() == 2);
+        writeBehindQueue.enqueue(investment, List.of(createTransaction(4)));
+
+        awaitCondition(() -> written.get() == 3);
+        List<Transaction> deadLetters = writeBehindQueue.getDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertEquals(2, deadLetters.get(0).getQuantity());
+        assertEquals(1.0, meterRegistry.counter("ingestion.write_behind.rows", "outcome", "dead_letter").count());
+        assertEquals(0.0, meterRegistry.counter("ingestion.write_behind.rows", "outcome", "duplicate").count());
+        assertEquals(0.0, meterRegistry.counter("ingestion.write_behind.flush.failures").count());
+    }
+
+    @Test
+    public void start_JournaledRowsFromPreviousRun_RecoversThem() throws Exception {
+        when(transactionBatchWriter.write(anyList())).thenThrow(new TransientDataAccessResourceException("Database unavailable"));
+        writeBehindQueue.start();
+        writeBehindQueue.enqueue(investment, List.of(createTransaction(1), createTransaction(2)));
+        writeBehindQueue.shutdown();
+
+        WriteBehindTransactionQueue restarted = new WriteBehindTransactionQueue();
+        configure(restarted);
+        restarted.transactionBatchWriter = mock(TransactionBatchWriter.class);
+        restarted.transactionDeduplicator = transactionDeduplicator;
+        restarted.eventPublisher = eventPublisher;
+        restarted.meterRegistry = new SimpleMeterRegistry();
+        when(restarted.transactionBatchWriter.getBatchSize()).thenReturn(100);
+        when(restarted.transactionBatchWriter.write(anyList())).thenAnswer(invocation ->
+                ((List<?>) invocation.getArgument(0)).size());
+
+        restarted.start();
+        restarted.shutdown();
+
+        verify(restarted.transactionBatchWriter, times(1)).write(argThat(list -> list.size() == 2));
+    }
+
+    @Test
+    public void start_RowsStoredBeforeCheckpoint_SkipsThemOnReplay() throws Exception {
+        when(transactionBatchWriter.write(anyList())).thenThrow(new TransientDataAccessResourceException("Database unavailable"));
+        writeBehindQueue.start();
+        Transaction unidentified = createTransaction(1);
+        writeBehindQueue.enqueue(investment, List.of(unidentified, createTransaction(2)));
+        writeBehindQueue.shutdown();
+        assertTrue(unidentified.getExternalId().startsWith("wb-"));
+
+        WriteBehindTransactionQueue restarted = new WriteBehindTransactionQueue();
+        configure(restarted);
+        restarted.transactionBatchWriter = mock(TransactionBatchWriter.class);
+        restarted.transactionDeduplicator = mock(TransactionDeduplicator.class);
+        restarted.eventPublisher = eventPublisher;
+        restarted.meterRegistry = new SimpleMeterRegistry();
+        when(restarted.transactionBatchWriter.getBatchSize()).thenReturn(100);
+        when(restarted.transactionBatchWriter.write(anyList())).thenAnswer(invocation ->
+                ((List<?>) invocation.getArgument(0)).size());
+        BitSet stored = new BitSet();
+        stored.set(0);
+        when(restarted.transactionDeduplicator.findDuplicates(argThat(list -> list.size() == 2
+                && unidentified.getExternalId().equals(list.get(0).getExternalId())))).thenReturn(stored);
+
+        restarted.start();
+        restarted.shutdown();
+
+        verify(restarted.transactionBatchWriter, times(1)).write(argThat(list -> list.size() == 1
+                && list.get(0).getQuantity() == 2));
+    }
+
+    @Test
+    public void drain_JournalOverLimit_CompactsPersistedRows() throws Exception {
+        ReflectionTestUtils.setField(writeBehindQueue, "journalMaxBytes", 512L);
+        writeBehindQueue.start();
+
+        for (int i = 0; i < 40; i++) {
+            writeBehindQueue.enqueue(investment, List.of(createTransaction(i)));
+            awaitCondition(() -> writeBehindQueue.getQueueDepth() == 0);
+        }
+
+        awaitCondition(() -> written.get() == 40);
+        assertTrue(tempDir.resolve("partition-1.journal").toFile().length() <= 1_024);
+    }
+
+    @Test
+    public void start_DurabilityNone_SkipsJournal() throws Exception {
+        ReflectionTestUtils.setField(writeBehindQueue, "durability", JournalDurability.NONE);
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(investment, List.of(createTransaction(1)));
+
+        awaitCondition(() -> written.get() == 1);
+        assertFalse(tempDir.resolve("partition-0.journal").toFile().exists());
+    }
+
+    @Test
+    public void enqueue_Disabled_ThrowsException() {
+        ReflectionTestUtils.setField(writeBehindQueue, "enabled", false);
+        writeBehindQueue.start();
+
+        assertFalse(writeBehindQueue.isEnabled());
+        assertThrows(IllegalStateException.class,
+                () -> writeBehindQueue.enqueue(investment, List.of(createTransaction(1))));
+    }
+}
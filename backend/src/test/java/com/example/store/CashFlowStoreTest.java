@@ -0,0 +1,125 @@
+package com.example.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class CashFlowStoreTest {
+
+    private static PackedCashFlows records(int count) {
+        PackedCashFlows.Builder builder = PackedCashFlows.builder(count);
+        for (int i = 0; i < count; i++) {
+            builder.add(i, PackedCashFlows.BUY, 1, 1_000_000L, 0L);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void get_SecondAccess_DoesNotLoadAgain() {
+        CashFlowStore store = new CashFlowStore(1024);
+        AtomicInteger loads = new AtomicInteger();
+
+        store.get(1L, id -> {
+            loads.incrementAndGet();
+            return records(2);
+        });
+        PackedCashFlows flows = store.get(1L, id -> {
+            loads.incrementAndGet();
+            return records(2);
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(2, flows.size());
+        assertEquals(1, store.getHits());
+        assertEquals(1, store.getMisses());
+        assertEquals(2L * PackedCashFlows.RECORD_SIZE, store.getUsedBytes());
+    }
+
+    @Test
+    void put_OverBudget_EvictsLeastRecentlyUsed() {
+        CashFlowStore store = new CashFlowStore(3L * PackedCashFlows.RECORD_SIZE);
+        store.put(1L, records(1));
+        store.put(2L, records(1));
+        store.put(3L, records(1));
+        store.get(1L, id -> records(1)); // 2 is now the eldest
+
+        store.put(4L, records(1));
+
+        assertEquals(3, store.size());
+        assertEquals(1, store.getEvictions());
+        assertEquals(3L * PackedCashFlows.RECORD_SIZE, store.getUsedBytes());
+        AtomicInteger loads = new AtomicInteger();
+        store.get(2L, id -> {
+            loads.incrementAndGet();
+            return records(1);
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void put_LargerThanBudget_IsNotKept() {
+        CashFlowStore store = new CashFlowStore(PackedCashFlows.RECORD_SIZE);
+        store.put(1L, records(1));
+
+        PackedCashFlows flows = store.get(2L, id -> records(2));
+
+        assertEquals(2, flows.size());
+        assertEquals(1, store.size());
+        assertEquals(PackedCashFlows.RECORD_SIZE, store.getUsedBytes());
+    }
+
+    @Test
+    void getAll_LoadsOnlyMissingInOneCall() {
+        CashFlowStore store = new CashFlowStore(1024);
+        store.put(1L, records(1));
+        List<List<Long>> requested = new ArrayList<>();
+
+        Map<Long, PackedCashFlows> flows = store.getAll(List.of(1L, 2L, 3L), missing -> {
+            requested.add(missing);
+            Map<Long, PackedCashFlows> loaded = new HashMap<>();
+            loaded.put(2L, records(3));
+            return loaded;
+        });
+
+        assertEquals(List.of(List.of(2L, 3L)), requested);
+        assertEquals(1, flows.get(1L).size());
+        assertEquals(3, flows.get(2L).size());
+        assertSame(PackedCashFlows.EMPTY, flows.get(3L));
+    }
+
+    @Test
+    void getAll_InvalidatedWhileLoading_ReturnsButDoesNotKeep() {
+        CashFlowStore store = new CashFlowStore(1024);
+
+        PackedCashFlows flows = store.get(1L, id -> {
+            store.invalidate(1L);
+            return records(1);
+        });
+
+        assertEquals(1, flows.size());
+        assertEquals(0, store.size());
+        assertEquals(0, store.getUsedBytes());
+    }
+
+    @Test
+    void invalidate_ReleasesBytes() {
+        CashFlowStore store = new CashFlowStore(1024);
+        store.put(1L, records(4));
+
+        store.invalidate(1L);
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.getUsedBytes());
+    }
+
+    @Test
+    void constructor_NonPositiveBudget_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new CashFlowStore(0));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PackedCashFlowsTest {
+
+    @Test
+    void build_GrowsPastExpectedSize_KeepsEveryRecord() {
+        PackedCashFlows.Builder builder = PackedCashFlows.builder(1);
+        for (int i = 0; i < 100; i++) {
+            builder.add(i * 1_000_000L, PackedCashFlows.BUY, i, 2_000_000L, 0L);
+        }
+
+        PackedCashFlows flows = builder.build();
+
+        assertEquals(100, flows.size());
+        assertEquals(100L * PackedCashFlows.RECORD_SIZE, flows.byteSize());
+        assertEquals(99_000_000L, flows.getEpochMicros(99));
+        assertEquals(99, flows.getQuantity(99));
+        assertEquals(4950, flows.getNetQuantity());
+    }
+
+    @Test
+    void getAmountMicros_ByType_IsSignedFromInvestorSide() {
+        PackedCashFlows flows = PackedCashFlows.builder(3)
+                .add(1L, PackedCashFlows.BUY, 10, 100_250_000L, 4_990_000L)
+                .add(2L, PackedCashFlows.SELL, 4, 130_000_000L, 2_500_000L)
+                .add(3L, PackedCashFlows.DIVIDEND, 0, 24_100_000L, 0L)
+                .build();
+
+        assertEquals(-1_007_490_000L, flows.getAmountMicros(0));
+        assertEquals(517_500_000L, flows.getAmountMicros(1));
+        assertEquals(24_100_000L, flows.getAmountMicros(2));
+        assertEquals(PackedCashFlows.DIVIDEND, flows.getType(2));
+        assertEquals(6, flows.getNetQuantity());
+        assertTrue(flows.byteSize() > 0);
+    }
+
+    @Test
+    void add_UnknownType_ThrowsException() {
+        PackedCashFlows.Builder builder = PackedCashFlows.builder(1);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(1L, (byte) 7, 1, 1L, 0L));
+    }
+
+    @Test
+    void empty_HasNoRecords() {
+        assertEquals(0, PackedCashFlows.EMPTY.size());
+        assertEquals(0, PackedCashFlows.EMPTY.byteSize());
+        assertEquals(0, PackedCashFlows.EMPTY.getNetQuantity());
+    }
+}
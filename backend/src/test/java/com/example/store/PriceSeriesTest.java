@@ -0,0 +1,117 @@
+package com.example.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PriceSeriesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void priceAsOf_EmptySeries_ReturnsEmpty() {
+        try (PriceSeries series = new PriceSeries(tempDir.resolve("1.prices"))) {
+            assertTrue(series.isEmpty());
+            assertFalse(series.priceAsOf(1_000).isPresent());
+        }
+    }
+
+    @Test
+    void priceAsOf_BeforeFirstTick_ReturnsEmpty() {
+        try (PriceSeries series = new PriceSeries(tempDir.resolve("1.prices"))) {
+            series.append(1_000, 5_000_000);
+
+            assertFalse(series.priceAsOf(999).isPresent());
+        }
+    }
+
+    @Test
+    void priceAsOf_BetweenTicks_ReturnsLatestAtOrBefore() {
+        try (PriceSeries series = new PriceSeries(tempDir.resolve("1.prices"))) {
+            series.append(1_000, 5_000_000);
+            series.append(2_000, 5_500_000);
+            series.append(3_000, 4_900_000);
+
+            assertEquals(OptionalLong.of(5_000_000), series.priceAsOf(1_999));
+            assertEquals(OptionalLong.of(5_500_000), series.priceAsOf(2_000));
+            assertEquals(OptionalLong.of(4_900_000), series.priceAsOf(10_000));
+        }
+    }
+
+    @Test
+    void priceAsOf_ManyBlocks_MatchesLinearLookup() {
+        try (PriceSeries series = new PriceSeries(tempDir.resolve("1.prices"))) {
+            long[] times = new long[50_000];
+            long[] prices = new long[50_000];
+            long time = 1_600_000_000L;
+            long price = 100_000_000L;
+            for (int i = 0; i < times.length; i++) {
+                time += 15 + (i % 7);
+                price += (i % 2 == 0 ? 1 : -1) * (i % 13) * 10_000L;
+                times[i] = time;
+                prices[i] = price;
+                series.append(time, price);
+            }
+
+            assertTrue(series.getBlockCount() > 1);
+            for (int i = 0; i < times.length; i += 997) {
+                assertEquals(OptionalLong.of(prices[i]), series.priceAsOf(times[i]));
+                assertEquals(OptionalLong.of(prices[i]), series.priceAsOf(times[i] + 1));
+            }
+        }
+    }
+
+    @Test
+    void scan_Range_ReturnsTicksInsideRangeInOrder() {
+        try (PriceSeries series = new PriceSeries(tempDir.resolve("1.prices"))) {
+            for (int i = 0; i < 10_000; i++) {
+                series.append(i * 10L, i * 1_000L);
+            }
+
+            List<Long> times = new ArrayList<>();
+            series.scan(50_005, 50_100, (time, price) -> {
+                assertEquals(time * 100, price);
+                times.add(time);
+            });
+
+            assertEquals(List.of(50_010L, 50_020L, 50_030L, 50_040L, 50_050L, 50_060L, 50_070L, 50_080L,
+                    50_090L, 50_100L), times);
+        }
+    }
+
+    @Test
+    void append_OutOfOrder_ThrowsIllegalArgumentException() {
+        try (PriceSeries series = new PriceSeries(tempDir.resolve("1.prices"))) {
+            series.append(2_000, 1);
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+                series.append(1_000, 1);
+            });
+            assertEquals("Price ticks must be appended in chronological order", exception.getMessage());
+        }
+    }
+
+    @Test
+    void reopen_AfterClose_RestoresTicksAndAcceptsAppends() {
+        Path file = tempDir.resolve("1.prices");
+        try (PriceSeries series = new PriceSeries(file)) {
+            for (int i = 0; i < 5_000; i++) {
+                series.append(i, i);
+            }
+        }
+
+        try (PriceSeries series = new PriceSeries(file)) {
+            assertEquals(OptionalLong.of(2_500), series.priceAsOf(2_500));
+            series.append(5_000, 42);
+            assertEquals(OptionalLong.of(42), series.priceAsOf(6_000));
+            assertEquals(OptionalLong.of(4_999), series.priceAsOf(4_999));
+        }
+    }
+}
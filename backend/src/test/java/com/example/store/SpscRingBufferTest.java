@@ -0,0 +1,93 @@
+package com.example.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SpscRingBufferTest {
+
+    @Test
+    void offer_Full_ReturnsFalse() {
+        SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.remainingCapacity());
+    }
+
+    @Test
+    void peek_WithoutAdvance_KeepsItemsForRetry() {
+        SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(4);
+        ring.offer(1);
+        ring.offer(2);
+        List<Integer> first = new ArrayList<>();
+        List<Integer> second = new ArrayList<>();
+
+        ring.peek(first, 10);
+        ring.peek(second, 10);
+        ring.advance(1);
+
+        assertEquals(List.of(1, 2), first);
+        assertEquals(first, second);
+        assertEquals(1, ring.size());
+        assertEquals(1, ring.headPosition());
+    }
+
+    @Test
+    void offer_WrapsAround_PreservesOrder() {
+        SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ring.offer(i);
+            ring.peek(drained, 1);
+            ring.advance(1);
+        }
+
+        assertEquals(10, drained.size());
+        assertEquals(9, drained.get(9));
+        assertEquals(10, ring.nextPosition());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void offer_ConcurrentConsumer_DeliversEveryItemInOrder() throws Exception {
+        SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(64);
+        int items = 50_000;
+        List<Integer> received = new ArrayList<>(items);
+        Thread consumer = new Thread(() -> {
+            List<Integer> batch = new ArrayList<>();
+            while (received.size() < items) {
+                batch.clear();
+                int count = ring.peek(batch, 16);
+                if (count == 0) {
+                    Thread.yield();
+                }
+                received.addAll(batch);
+                ring.advance(count);
+            }
+        });
+        consumer.start();
+
+        for (int i = 0; i < items; i++) {
+            while (!ring.offer(i)) {
+                Thread.yield();
+            }
+        }
+        consumer.join(10_000);
+
+        assertEquals(items, received.size());
+        for (int i = 0; i < items; i++) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    void constructor_CapacityNotPowerOfTwo_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new SpscRingBuffer<>(10));
+    }
+}
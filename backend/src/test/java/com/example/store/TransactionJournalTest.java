@@ -0,0 +1,173 @@
+package com.example.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.enums.TransactionType;
+import com.example.model.Investment;
+import com.example.model.Transaction;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TransactionJournal open(boolean fsync) {
+        return new TransactionJournal(tempDir.resolve("0.journal"), tempDir.resolve("0.checkpoint"), fsync);
+    }
+
+    private Transaction createTransaction(int quantity, String externalId) {
+        Investment investment = new Investment();
+        investment.setId(7L);
+        investment.setUserId(1L);
+        Transaction transaction = new Transaction();
+        transaction.setInvestment(investment);
+        transaction.setType(TransactionType.SELL);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(new BigDecimal("123.456789"));
+        transaction.setFee(quantity % 2 == 0 ? null : BigDecimal.ONE);
+        transaction.setTimestamp(Instant.parse("2024-03-01T10:00:00.123456789Z"));
+        transaction.setExternalId(externalId);
+        return transaction;
+    }
+
+    @Test
+    void replay_AfterReopen_RestoresAllFields() {
+        try (TransactionJournal journal = open(true)) {
+            journal.append(0, List.of(createTransaction(1, "T-1"), createTransaction(2, null)));
+        }
+
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(true)) {
+            assertEquals(2, journal.replay(0, replayed::add));
+        }
+
+        Transaction first = replayed.get(0);
+        assertEquals(7L, first.getInvestment().getId());
+        assertEquals(1L, first.getInvestment().getUserId());
+        assertEquals(TransactionType.SELL, first.getType());
+        assertEquals(new BigDecimal("123.456789"), first.getPrice());
+        assertEquals(BigDecimal.ONE, first.getFee());
+        assertEquals(Instant.parse("2024-03-01T10:00:00.123456789Z"), first.getTimestamp());
+        assertEquals("T-1", first.getExternalId());
+        assertNull(replayed.get(1).getFee());
+        assertNull(replayed.get(1).getExternalId());
+    }
+
+    @Test
+    void replay_FromCheckpoint_SkipsPersistedRecords() {
+        try (TransactionJournal journal = open(false)) {
+            journal.append(0, List.of(createTransaction(1, null), createTransaction(2, null)));
+            journal.append(2, List.of(createTransaction(3, null)));
+            journal.checkpoint(2);
+        }
+
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(false)) {
+            journal.replay(journal.readCheckpoint(), replayed::add);
+        }
+
+        assertEquals(1, replayed.size());
+        assertEquals(3, replayed.get(0).getQuantity());
+    }
+
+    @Test
+    void replay_TornTail_StopsAtLastIntactRecord() throws IOException {
+        try (TransactionJournal journal = open(false)) {
+            journal.append(0, List.of(createTransaction(1, null), createTransaction(2, null)));
+        }
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("0.journal"), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(false)) {
+            journal.replay(0, replayed::add);
+        }
+
+        assertEquals(1, replayed.size());
+    }
+
+    @Test
+    void append_WriteFailsHalfway_TruncatesTornRecord() throws IOException {
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(false)) {
+            journal.append(0, List.of(createTransaction(1, null)));
+            FileChannel channel = (FileChannel) ReflectionTestUtils.getField(journal, "journal");
+            FileChannel failing = mock(FileChannel.class);
+            when(failing.position()).thenAnswer(invocation -> channel.position());
+            when(failing.write(any(ByteBuffer.class))).thenAnswer(invocation -> {
+                ByteBuffer buffer = invocation.getArgument(0);
+                channel.write(buffer.slice().limit(10));
+                throw new IOException("Disk full");
+            });
+            when(failing.truncate(anyLong())).thenAnswer(invocation -> channel.truncate(invocation.getArgument(0)));
+            when(failing.position(anyLong())).thenAnswer(invocation -> channel.position(invocation.getArgument(0)));
+            ReflectionTestUtils.setField(journal, "journal", failing);
+
+            assertThrows(UncheckedIOException.class, () -> journal.append(1, List.of(createTransaction(2, null))));
+
+            ReflectionTestUtils.setField(journal, "journal", channel);
+            journal.append(1, List.of(createTransaction(3, null)));
+            journal.replay(0, replayed::add);
+        }
+
+        assertEquals(2, replayed.size());
+        assertEquals(3, replayed.get(1).getQuantity());
+    }
+
+    @Test
+    void reset_EmptiesJournalAndCheckpoint() {
+        try (TransactionJournal journal = open(false)) {
+            journal.append(0, List.of(createTransaction(1, null)));
+            journal.checkpoint(1);
+
+            journal.reset();
+
+            assertEquals(0, journal.size());
+            assertEquals(0, journal.readCheckpoint());
+            assertEquals(0, journal.replay(0, transaction -> { }));
+        }
+    }
+
+    @Test
+    void compact_PersistedRecords_DropsThemAndKeepsSequences() {
+        try (TransactionJournal journal = open(true)) {
+            journal.append(0, List.of(createTransaction(1, null), createTransaction(2, null)));
+            journal.append(2, List.of(createTransaction(3, "T-3")));
+            journal.checkpoint(2);
+            long before = journal.size();
+
+            assertEquals(1, journal.compact(journal.readCheckpoint()));
+            journal.append(3, List.of(createTransaction(4, null)));
+
+            assertTrue(journal.size() < before);
+            assertEquals(2, journal.readCheckpoint());
+        }
+
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(true)) {
+            journal.replay(2, replayed::add);
+        }
+        assertEquals(2, replayed.size());
+        assertEquals("T-3", replayed.get(0).getExternalId());
+        assertEquals(4, replayed.get(1).getQuantity());
+    }
+}
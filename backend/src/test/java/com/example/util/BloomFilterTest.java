@@ -0,0 +1,67 @@
+package com.example.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedValues_AlwaysTrue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("trade-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("trade-" + i));
+        }
+        assertEquals(10_000, filter.getInsertions());
+    }
+
+    @Test
+    void mightContain_AbsentValues_FalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("trade-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_EmptyFilter_ReturnsFalse() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertFalse(filter.mightContain(""));
+        assertFalse(filter.mightContain("a-long-external-identifier-over-sixteen-bytes"));
+    }
+
+    @Test
+    void constructor_InvalidArguments_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+
+    @Test
+    void getFalsePositiveRate_PastExpectedInsertions_Climbs() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put("id-" + i);
+        }
+        double atCapacity = filter.getFalsePositiveRate();
+        for (int i = 1_000; i < 3_000; i++) {
+            filter.put("id-" + i);
+        }
+
+        assertEquals(0.01, atCapacity, 0.005);
+        assertTrue(filter.getFalsePositiveRate() > 0.1);
+    }
+}
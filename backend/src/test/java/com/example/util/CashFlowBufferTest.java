@@ -0,0 +1,60 @@
+package com.example.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.dto.CashFlowData;
+
+class CashFlowBufferTest {
+
+    @Test
+    void testOf_CopiesFlowsInOrder() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        CashFlowBuffer buffer = CashFlowBuffer.of(List.of(
+                new CashFlowData(BigDecimal.valueOf(-100), start),
+                new CashFlowData(new BigDecimal("25.5"), start.plusSeconds(60))));
+
+        assertEquals(2, buffer.size());
+        assertEquals(start.getEpochSecond(), buffer.getEpochSecond(0));
+        assertEquals(-100.0, buffer.getAmount(0));
+        assertEquals(25.5, buffer.getAmount(1));
+    }
+
+    @Test
+    void testAdd_GrowsBeyondInitialCapacity() {
+        CashFlowBuffer buffer = new CashFlowBuffer(1);
+        for (int i = 0; i < 100; i++) {
+            buffer.add(i, i);
+        }
+
+        assertEquals(100, buffer.size());
+        assertEquals(99.0, buffer.getAmount(99));
+    }
+
+    @Test
+    void testAdd_OutOfOrder_ThrowsException() {
+        CashFlowBuffer buffer = new CashFlowBuffer(2);
+        buffer.add(10, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> buffer.add(9, 1));
+    }
+
+    @Test
+    void testFirstIndexAtOrAfter() {
+        CashFlowBuffer buffer = new CashFlowBuffer(4);
+        buffer.add(10, 1);
+        buffer.add(20, 1);
+        buffer.add(20, 1);
+        buffer.add(30, 1);
+
+        assertEquals(0, buffer.firstIndexAtOrAfter(5));
+        assertEquals(1, buffer.firstIndexAtOrAfter(20));
+        assertEquals(3, buffer.firstIndexAtOrAfter(21));
+        assertEquals(4, buffer.firstIndexAtOrAfter(31));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.enums.TransactionType;
+
+class CsvTransactionParserTest {
+
+    private static final String HEADER = "investment_id,type,quantity,price,fee,timestamp\n";
+
+    @Test
+    void fill_ValidRowsWithHeader_ParsesColumns() throws Exception {
+        String csv = HEADER
+                + "1,BUY,10,12.50,0.99,2024-01-02T10:15:30Z\n"
+                + "2, sell ,3,13,,1704190530000, T-42 \r\n";
+        CsvTransactionParser parser = new CsvTransactionParser(new StringReader(csv));
+        CsvTransactionParser.Chunk chunk = new CsvTransactionParser.Chunk(10);
+
+        assertTrue(parser.fill(chunk));
+
+        assertEquals(2, chunk.size());
+        assertNull(chunk.errors[0]);
+        assertEquals(1L, chunk.investmentIds[0]);
+        assertEquals(TransactionType.BUY, chunk.types[0]);
+        assertEquals(10, chunk.quantities[0]);
+        assertEquals(new BigDecimal("12.50"), chunk.prices[0]);
+        assertEquals(new BigDecimal("0.99"), chunk.fees[0]);
+        assertEquals(Instant.parse("2024-01-02T10:15:30Z"), chunk.timestamps[0]);
+        assertNull(chunk.errors[1]);
+        assertEquals(TransactionType.SELL, chunk.types[1]);
+        assertNull(chunk.fees[1]);
+        assertEquals(Instant.ofEpochMilli(1704190530000L), chunk.timestamps[1]);
+        assertNull(chunk.externalIds[0]);
+        assertEquals("T-42", chunk.externalIds[1]);
+        assertFalse(parser.fill(chunk));
+    }
+
+    @Test
+    void fill_MalformedRows_RecordsErrorsAndContinues() throws Exception {
+        String csv = "1,BUY,x,12,1,2024-01-02T10:15:30Z\n"
+                + "1,HOLD,1,12,1,2024-01-02T10:15:30Z\n"
+                + "1,BUY,1\n"
+                + "1,BUY,1,12,1,yesterday\n"
+                + "1,BUY,1,12,1,2024-01-02T10:15:30Z";
+        CsvTransactionParser parser = new CsvTransactionParser(new StringReader(csv));
+        CsvTransactionParser.Chunk chunk = new CsvTransactionParser.Chunk(10);
+
+        parser.fill(chunk);
+
+        assertEquals(5, chunk.size());
+        assertNotNull(chunk.errors[0]);
+        assertEquals("Unknown transaction type", chunk.errors[1]);
+        assertEquals("Expected 6 fields but found 3", chunk.errors[2]);
+        assertNotNull(chunk.errors[3]);
+        assertNull(chunk.errors[4]);
+        assertEquals(4L, chunk.rowNumbers[4]);
+    }
+
+    @Test
+    void fill_SmallBufferAndManyRows_SplitsIntoChunks() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 2_500; i++) {
+            csv.append(i).append(",BUY,").append(i % 50).append(",100.25,1.5,2024-01-02T10:15:30Z\n");
+        }
+        CsvTransactionParser parser = new CsvTransactionParser(new StringReader(csv.toString()), 16);
+        CsvTransactionParser.Chunk chunk = new CsvTransactionParser.Chunk(1_000);
+
+        long rows = 0;
+        while (parser.fill(chunk)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                assertNull(chunk.errors[i]);
+                assertEquals(chunk.rowNumbers[i], chunk.investmentIds[i]);
+            }
+            rows += chunk.size();
+        }
+
+        assertEquals(2_500, rows);
+    }
+
+    @Test
+    void skipRows_ResumeOffset_ContinuesAtRow() throws Exception {
+        String csv = HEADER
+                + "1,BUY,1,1,0,2024-01-01T00:00:00Z\n"
+                + "2,BUY,1,1,0,2024-01-01T00:00:00Z\n"
+                + "3,BUY,1,1,0,2024-01-01T00:00:00Z\n";
+        CsvTransactionParser parser = new CsvTransactionParser(new StringReader(csv));
+        CsvTransactionParser.Chunk chunk = new CsvTransactionParser.Chunk(10);
+
+        assertEquals(2, parser.skipRows(2));
+        parser.fill(chunk);
+
+        assertEquals(1, chunk.size());
+        assertEquals(3L, chunk.investmentIds[0]);
+        assertEquals(2L, chunk.rowNumbers[0]);
+    }
+
+    @Test
+    void skipRows_BlankLines_CountsRowsLikeFill() throws Exception {
+        String csv = HEADER
+                + "1,BUY,1,1,0,2024-01-01T00:00:00Z\n"
+                + "\r\n"
+                + "\n"
+                + "2,BUY,1,1,0,2024-01-01T00:00:00Z\n"
+                + "3,BUY,1,1,0,2024-01-01T00:00:00Z\n";
+        CsvTransactionParser parser = new CsvTransactionParser(new StringReader(csv));
+        CsvTransactionParser.Chunk chunk = new CsvTransactionParser.Chunk(10);
+
+        assertEquals(2, parser.skipRows(2));
+        parser.fill(chunk);
+
+        assertEquals(1, chunk.size());
+        assertEquals(3L, chunk.investmentIds[0]);
+        assertEquals(2L, chunk.rowNumbers[0]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.dto.CashFlowData;
+
+class DailyCashFlowAggregatorTest {
+
+    private static final long DAY = 19_000; // 2022-01-08
+    private static final Instant CUTOFF = Instant.ofEpochSecond((DAY + 10) * 86_400);
+
+    private static Instant at(long epochDay, long secondOfDay) {
+        return Instant.ofEpochSecond(epochDay * 86_400 + secondOfDay);
+    }
+
+    @Test
+    void toCashFlows_SameDayFlows_AreNettedAtStartOfDay() {
+        DailyCashFlowAggregator aggregator = new DailyCashFlowAggregator(CUTOFF);
+        aggregator.addTrade(1L, at(DAY + 2, 3_600), true, 10, 10_000_000L, 1_000_000L);
+        aggregator.addTrade(1L, at(DAY, 50_000), false, 4, 12_500_000L, 0L);
+        aggregator.addTrade(2L, at(DAY, 100), true, 2, 3_000_000L, 0L);
+        aggregator.addDividend(at(DAY + 2, 7_200), 5_000_000L);
+
+        List<CashFlowData> cashFlows = aggregator.toCashFlows();
+
+        assertEquals(2, cashFlows.size());
+        assertEquals(at(DAY, 0), cashFlows.get(0).getDate());
+        assertEquals(0, new BigDecimal("44").compareTo(cashFlows.get(0).getAmount())); // 50 - 6
+        assertEquals(at(DAY + 2, 0), cashFlows.get(1).getDate());
+        assertEquals(0, new BigDecimal("-96").compareTo(cashFlows.get(1).getAmount())); // -100 - 1 + 5
+        assertEquals(6, aggregator.getNetQuantity(1L));
+        assertEquals(2, aggregator.getNetQuantity(2L));
+        assertEquals(0, aggregator.getNetQuantity(3L));
+    }
+
+    @Test
+    void toCashFlows_ManyFlowsOnFewDays_KeepsOneEntryPerDay() {
+        DailyCashFlowAggregator aggregator = new DailyCashFlowAggregator(CUTOFF);
+        for (int i = 0; i < 100_000; i++) {
+            aggregator.addTrade(1L, at(DAY + i % 5, i % 86_400), true, 1, 1_000_000L, 0L);
+        }
+
+        assertEquals(100_000, aggregator.getFlowCount());
+        assertEquals(5, aggregator.getDayCount());
+        assertEquals(5, aggregator.toCashFlows().size());
+        assertEquals(0, new BigDecimal("-20000").compareTo(aggregator.toCashFlows().get(0).getAmount()));
+    }
+
+    @Test
+    void toCashFlows_FlowsAfterCutoff_OnlyCountTowardQuantity() {
+        DailyCashFlowAggregator aggregator = new DailyCashFlowAggregator(CUTOFF);
+        aggregator.addTrade(1L, CUTOFF.plusSeconds(1), true, 3, 1_000_000L, 0L);
+        aggregator.addDividend(CUTOFF.plusSeconds(1), 1_000_000L);
+
+        assertTrue(aggregator.toCashFlows().isEmpty());
+        assertEquals(3, aggregator.getNetQuantity(1L));
+    }
+
+    @Test
+    void toCashFlows_DayNettingToZero_IsDropped() {
+        DailyCashFlowAggregator aggregator = new DailyCashFlowAggregator(CUTOFF);
+        aggregator.addTrade(1L, at(DAY, 0), true, 1, 5_000_000L, 0L);
+        aggregator.addTrade(1L, at(DAY, 60), false, 1, 5_000_000L, 0L);
+
+        assertTrue(aggregator.toCashFlows().isEmpty());
+        assertEquals(1, aggregator.getDayCount());
+    }
+}
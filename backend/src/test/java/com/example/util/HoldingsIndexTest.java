@@ -0,0 +1,114 @@
+package com.example.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.enums.TransactionType;
+import com.example.model.Transaction;
+
+class HoldingsIndexTest {
+
+    private static final long DAY = 19_000; // 2022-01-08
+
+    private Transaction createTransaction(TransactionType type, int quantity, long price, long fee, long epochDay,
+            long secondOfDay) {
+        Transaction transaction = new Transaction();
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(BigDecimal.valueOf(price));
+        transaction.setFee(BigDecimal.valueOf(fee));
+        transaction.setTimestamp(Instant.ofEpochSecond(epochDay * 86_400 + secondOfDay));
+        return transaction;
+    }
+
+    @Test
+    void build_UnsortedTransactions_ReturnsQuantityAtEachDay() {
+        HoldingsIndex index = HoldingsIndex.build(List.of(
+                createTransaction(TransactionType.SELL, 4, 12, 0, DAY + 5, 0),
+                createTransaction(TransactionType.BUY, 10, 10, 0, DAY, 0),
+                createTransaction(TransactionType.BUY, 3, 11, 0, DAY + 2, 0)));
+
+        assertEquals(0, index.quantityAt(DAY - 1));
+        assertEquals(10, index.quantityAt(DAY));
+        assertEquals(10, index.quantityAt(DAY + 1));
+        assertEquals(13, index.quantityAt(DAY + 2));
+        assertEquals(9, index.quantityAt(DAY + 5));
+        assertEquals(9, index.quantityAt(DAY + 500));
+        assertEquals(3, index.getDayCount());
+    }
+
+    @Test
+    void build_SameDayTransactions_CollapsedIntoEndOfDayValues() {
+        HoldingsIndex index = HoldingsIndex.build(List.of(
+                createTransaction(TransactionType.BUY, 10, 10, 1, DAY, 3_600),
+                createTransaction(TransactionType.SELL, 2, 15, 1, DAY, 7_200)));
+
+        assertEquals(1, index.getDayCount());
+        assertEquals(2, index.getTransactionCount());
+        assertEquals(8, index.quantityAt(Instant.ofEpochSecond(DAY * 86_400)));
+        assertEquals(-72 * FixedPoint.ONE, index.netCashFlowMicrosAt(DAY)); // -(100 + 1) + (30 - 1)
+        assertEquals(15 * FixedPoint.ONE, index.lastTradePriceMicrosAt(DAY).getAsLong());
+    }
+
+    @Test
+    void lastTradePriceMicrosAt_BeforeFirstTrade_ReturnsEmpty() {
+        HoldingsIndex index = HoldingsIndex.build(List.of(createTransaction(TransactionType.BUY, 1, 10, 0, DAY, 0)));
+
+        assertTrue(index.lastTradePriceMicrosAt(DAY - 1).isEmpty());
+        assertEquals(0, index.netCashFlowMicrosAt(DAY - 1));
+    }
+
+    @Test
+    void build_ManyTransactions_MatchesLinearScan() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            transactions.add(createTransaction(i % 3 == 0 ? TransactionType.SELL : TransactionType.BUY, 1 + i % 7,
+                    10, 0, DAY + i / 4, i));
+        }
+        HoldingsIndex index = HoldingsIndex.build(transactions);
+
+        for (long day = DAY - 1; day < DAY + 260; day += 13) {
+            long expected = 0;
+            for (Transaction transaction : transactions) {
+                if (HoldingsIndex.toEpochDay(transaction.getTimestamp()) <= day) {
+                    expected += transaction.getType() == TransactionType.BUY ? transaction.getQuantity()
+                            : -transaction.getQuantity();
+                }
+            }
+            assertEquals(expected, index.quantityAt(day));
+        }
+    }
+
+    @Test
+    void build_NullOrEmpty_ReturnsEmptyIndex() {
+        assertTrue(HoldingsIndex.build(null).isEmpty());
+        assertTrue(HoldingsIndex.build(List.of()).isEmpty());
+        assertEquals(0, HoldingsIndex.EMPTY.quantityAt(DAY));
+    }
+
+    @Test
+    void toEpochDay_BeforeEpoch_RoundsDown() {
+        assertEquals(-1, HoldingsIndex.toEpochDay(Instant.ofEpochSecond(-1)));
+        assertEquals(0, HoldingsIndex.toEpochDay(Instant.ofEpochSecond(86_399)));
+    }
+
+    @Test
+    void floorIndex_PositionalGetters_AllowSweeping() {
+        HoldingsIndex index = HoldingsIndex.build(List.of(
+                createTransaction(TransactionType.BUY, 10, 10, 0, DAY, 0),
+                createTransaction(TransactionType.BUY, 5, 12, 0, DAY + 3, 0)));
+
+        assertEquals(-1, index.floorIndex(DAY - 1));
+        assertEquals(0, index.floorIndex(DAY + 2));
+        assertEquals(1, index.floorIndex(DAY + 3));
+        assertEquals(DAY + 3, index.getDay(1));
+        assertEquals(15, index.getQuantity(1));
+        assertEquals(12 * FixedPoint.ONE, index.getLastTradePriceMicros(1));
+    }
+}
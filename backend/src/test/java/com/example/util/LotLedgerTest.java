@@ -0,0 +1,117 @@
+package com.example.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.enums.CostBasisMethod;
+import com.example.enums.TransactionType;
+import com.example.model.Transaction;
+
+class LotLedgerTest {
+
+    private static final long ONE = FixedPoint.ONE;
+
+    private LotLedger createLedger(CostBasisMethod method) {
+        LotLedger ledger = new LotLedger(method);
+        ledger.apply(TransactionType.BUY, 10, 10 * ONE, 0, 1);
+        ledger.apply(TransactionType.BUY, 10, 20 * ONE, 0, 2);
+        ledger.apply(TransactionType.SELL, 15, 30 * ONE, 0, 3);
+        return ledger;
+    }
+
+    @Test
+    void apply_Fifo_SellConsumesOldestLotsFirst() {
+        LotLedger ledger = createLedger(CostBasisMethod.FIFO);
+
+        assertEquals(250 * ONE, ledger.getRealizedGainMicros()); // 450 - (10 * 10 + 5 * 20)
+        assertEquals(5, ledger.getOpenQuantity());
+        assertEquals(100 * ONE, ledger.getCostBasisMicros());
+        assertEquals(1, ledger.getLotCount());
+        assertEquals(20 * ONE, ledger.getLotUnitCostMicros(0));
+        assertEquals(2, ledger.getLotOpenEpochSecond(0));
+        assertEquals(25 * ONE, ledger.getUnrealizedGainMicros(25 * ONE));
+    }
+
+    @Test
+    void apply_AverageCost_SellUsesAverageCost() {
+        LotLedger ledger = createLedger(CostBasisMethod.AVERAGE_COST);
+
+        assertEquals(225 * ONE, ledger.getRealizedGainMicros()); // 450 - 15 * 15
+        assertEquals(5, ledger.getOpenQuantity());
+        assertEquals(75 * ONE, ledger.getCostBasisMicros());
+        assertEquals(1, ledger.getLotCount());
+        assertEquals(15 * ONE, ledger.getLotUnitCostMicros(0));
+    }
+
+    @Test
+    void apply_Fees_IncludedInCostAndDeductedFromProceeds() {
+        LotLedger ledger = new LotLedger(CostBasisMethod.FIFO);
+        Transaction buy = new Transaction();
+        buy.setType(TransactionType.BUY);
+        buy.setQuantity(10);
+        buy.setPrice(BigDecimal.TEN);
+        buy.setFee(BigDecimal.valueOf(5));
+        buy.setTimestamp(Instant.parse("2024-01-01T00:00:00Z"));
+        Transaction sell = new Transaction();
+        sell.setType(TransactionType.SELL);
+        sell.setQuantity(10);
+        sell.setPrice(BigDecimal.valueOf(12));
+        sell.setTimestamp(Instant.parse("2024-02-01T00:00:00Z"));
+        sell.setFee(BigDecimal.valueOf(2));
+
+        ledger.apply(buy);
+        ledger.apply(sell);
+
+        assertEquals(13 * ONE, ledger.getRealizedGainMicros()); // 120 - 2 - 105
+        assertEquals(0, ledger.getCostBasisMicros());
+        assertEquals(0, ledger.getLotCount());
+        assertEquals(2, ledger.getAppliedCount());
+    }
+
+    @Test
+    void apply_SellMoreThanOpen_RecordsUnmatchedQuantity() {
+        LotLedger ledger = new LotLedger(CostBasisMethod.FIFO);
+        ledger.apply(TransactionType.BUY, 5, 10 * ONE, 0, 1);
+        ledger.apply(TransactionType.SELL, 8, 10 * ONE, 8 * ONE, 2);
+
+        assertEquals(3, ledger.getUnmatchedQuantity());
+        assertEquals(0, ledger.getOpenQuantity());
+        assertEquals(-5 * ONE, ledger.getRealizedGainMicros()); // Fee share of the 5 matched units
+    }
+
+    @Test
+    void apply_ManyLotsWithWrapAround_KeepsFifoOrder() {
+        LotLedger ledger = new LotLedger(CostBasisMethod.FIFO);
+        for (int i = 1; i <= 100; i++) {
+            ledger.apply(TransactionType.BUY, 2, i * ONE, 0, i);
+            ledger.apply(TransactionType.SELL, 1, i * ONE, 0, i);
+        }
+
+        assertEquals(100, ledger.getOpenQuantity());
+        assertEquals(50, ledger.getLotCount());
+        assertEquals(51 * ONE, ledger.getLotUnitCostMicros(0));
+        assertEquals(100 * ONE, ledger.getLotUnitCostMicros(49));
+        long expectedCost = 0;
+        for (int i = 51; i <= 100; i++) {
+            expectedCost += 2 * i * ONE;
+        }
+        assertEquals(expectedCost, ledger.getCostBasisMicros());
+    }
+
+    @Test
+    void apply_OutOfOrder_ThrowsException() {
+        LotLedger ledger = new LotLedger(CostBasisMethod.FIFO);
+        ledger.apply(TransactionType.BUY, 1, ONE, 0, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> ledger.apply(TransactionType.BUY, 1, ONE, 0, 9));
+    }
+
+    @Test
+    void constructor_NullMethod_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new LotLedger(null));
+    }
+}
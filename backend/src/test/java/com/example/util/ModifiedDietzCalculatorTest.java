@@ -0,0 +1,63 @@
+package com.example.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ModifiedDietzCalculatorTest {
+
+    private final ModifiedDietzCalculator modifiedDietzCalculator = new ModifiedDietzCalculator();
+
+    private final Instant start = Instant.parse("2022-01-01T00:00:00Z");
+
+    @Test
+    void testCalculateModifiedDietz_SingleDeposit_MatchesSimpleReturn() {
+        BigDecimal result = modifiedDietzCalculator.calculateModifiedDietz(
+                Arrays.asList(start, start.plus(365, ChronoUnit.DAYS)),
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(1100)));
+
+        assertEquals(0.1, result.doubleValue(), 1e-12);
+    }
+
+    @Test
+    void testCalculateModifiedDietz_MidPeriodDeposit_WeightsByTimeInvested() {
+        BigDecimal result = modifiedDietzCalculator.calculateModifiedDietz(
+                Arrays.asList(start, start.plus(365 * 12, ChronoUnit.HOURS), start.plus(365, ChronoUnit.DAYS)),
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(-1000), new BigDecimal(2300)));
+
+        assertEquals(0.2, result.doubleValue(), 1e-12); // 300 / (1000 + 1000 * 0.5)
+    }
+
+    @Test
+    void testCalculateModifiedDietz_CloseToXirr() {
+        List<Instant> dates = Arrays.asList(start, start.plus(90, ChronoUnit.DAYS), start.plus(300, ChronoUnit.DAYS),
+                start.plus(400, ChronoUnit.DAYS));
+        List<BigDecimal> cashFlows = Arrays.asList(new BigDecimal(-1000), new BigDecimal(-500), new BigDecimal(200),
+                new BigDecimal(1450));
+
+        double dietz = modifiedDietzCalculator.calculateModifiedDietz(dates, cashFlows).doubleValue();
+        double xirr = new XirrCalculator().calculateXirr(dates, cashFlows).doubleValue();
+
+        assertEquals(xirr, dietz, 0.005);
+    }
+
+    @Test
+    void testCalculateModifiedDietz_InvalidInput_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> modifiedDietzCalculator.calculateModifiedDietz(
+                Arrays.asList(start, start.plus(1, ChronoUnit.DAYS)),
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(-10))));
+    }
+
+    @Test
+    void testCalculateModifiedDietz_NetWithdrawnCapital_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> modifiedDietzCalculator.calculateModifiedDietz(
+                Arrays.asList(start, start.plus(1, ChronoUnit.DAYS), start.plus(2, ChronoUnit.DAYS)),
+                Arrays.asList(new BigDecimal(-10), new BigDecimal(1000), new BigDecimal(10))));
+    }
+}
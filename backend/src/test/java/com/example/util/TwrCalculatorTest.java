@@ -0,0 +1,67 @@
+package com.example.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TwrCalculatorTest {
+
+    private final TwrCalculator twrCalculator = new TwrCalculator();
+
+    private final Instant start = Instant.parse("2022-01-01T00:00:00Z");
+
+    private final List<Instant> dates = Arrays.asList(start, start.plus(365 * 12, ChronoUnit.HOURS),
+            start.plus(365, ChronoUnit.DAYS));
+
+    @Test
+    void testCalculateTwr_ChainsSubPeriodReturns() {
+        // +10% on 1000, then a 1000 deposit, then +10% on 2100
+        BigDecimal result = twrCalculator.calculateTwr(dates,
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(-1000), new BigDecimal(2310)),
+                Arrays.asList(new BigDecimal(1000), new BigDecimal(2100), BigDecimal.ZERO));
+
+        assertEquals(0.21, result.doubleValue(), 1e-12);
+    }
+
+    @Test
+    void testCalculateTwr_IndependentOfDepositSize() {
+        BigDecimal small = twrCalculator.calculateTwr(dates,
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(-10), new BigDecimal(1221)),
+                Arrays.asList(new BigDecimal(1000), new BigDecimal(1110), BigDecimal.ZERO));
+        BigDecimal large = twrCalculator.calculateTwr(dates,
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(-100_000), new BigDecimal(111_210)),
+                Arrays.asList(new BigDecimal(1000), new BigDecimal(101_100), BigDecimal.ZERO));
+
+        assertEquals(small.doubleValue(), large.doubleValue(), 1e-12);
+    }
+
+    @Test
+    void testCalculateTwr_SkipsPeriodsWithoutCapital() {
+        // Everything is sold halfway and nothing is held until the end
+        BigDecimal result = twrCalculator.calculateTwr(dates,
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(1100), BigDecimal.ZERO),
+                Arrays.asList(new BigDecimal(1000), BigDecimal.ZERO, BigDecimal.ZERO));
+
+        assertEquals(0.1, result.doubleValue(), 1e-9); // The idle half year links in as 0%
+    }
+
+    @Test
+    void testCalculateTwr_MismatchedSizes_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> twrCalculator.calculateTwr(dates,
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(1100)),
+                Arrays.asList(new BigDecimal(1000), BigDecimal.ZERO, BigDecimal.ZERO)));
+    }
+
+    @Test
+    void testCalculateTwr_NoInvestedCapital_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> twrCalculator.calculateTwr(dates,
+                Arrays.asList(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO),
+                Arrays.asList(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO)));
+    }
+}
@@ -4,14 +4,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,9 +27,13 @@ class XirrCalculatorTest {
     @InjectMocks
     private XirrCalculator xirrCalculator;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        xirrCalculator.registerMeters();
     }
 
     @Test
@@ -47,6 +58,47 @@ class XirrCalculatorTest {
                 result.setScale(10, RoundingMode.HALF_UP));
     }
 
+    @Test
+    void testCalculateXirr_Converges_RecordsSolveMetrics() {
+        Instant startDate = Instant.parse("2022-01-01T00:00:00Z");
+        List<Instant> dates = Arrays.asList(startDate, startDate.plus(365, ChronoUnit.DAYS));
+        List<BigDecimal> cashFlows = Arrays.asList(new BigDecimal(-1000), new BigDecimal(1100));
+
+        xirrCalculator.calculateXirr(dates, cashFlows);
+
+        assertEquals(1.0, meterRegistry.counter("xirr.solves", "outcome", XirrCalculator.CONVERGED).count());
+        DistributionSummary iterations = meterRegistry.find("xirr.iterations").summary();
+        assertEquals(1, iterations.count());
+        assertTrue(iterations.totalAmount() >= 1);
+        assertEquals(2.0, meterRegistry.find("xirr.flows").summary().totalAmount());
+        assertEquals(1, meterRegistry.find("xirr.solve").timer().count());
+        assertEquals(1, meterRegistry.find("xirr.validation").timer().count());
+    }
+
+    @Test
+    void testCalculateXirr_TracedSolve_SameResult() {
+        Instant startDate = Instant.parse("2022-01-01T00:00:00Z");
+        List<Instant> dates = Arrays.asList(startDate, startDate.plus(365, ChronoUnit.DAYS));
+        List<BigDecimal> cashFlows = Arrays.asList(new BigDecimal(-1000), new BigDecimal(1100));
+        BigDecimal untraced = xirrCalculator.calculateXirr(dates, cashFlows);
+
+        xirrCalculator.traceSampleRate = 1;
+
+        assertEquals(untraced, xirrCalculator.calculateXirr(dates, cashFlows));
+    }
+
+    @Test
+    void testCalculateXirr_InvalidInput_CountsRejection() {
+        List<Instant> dates = Arrays.asList(Instant.now().minusSeconds(86400), Instant.now());
+        List<BigDecimal> cashFlows = Arrays.asList(new BigDecimal(-1000), new BigDecimal(-100));
+
+        assertThrows(IllegalArgumentException.class, () -> xirrCalculator.calculateXirr(dates, cashFlows));
+
+        assertEquals(1.0, meterRegistry.counter("xirr.solves", "outcome", XirrCalculator.INVALID_INPUT).count());
+        assertEquals(0, meterRegistry.find("xirr.iterations").summary().count());
+        assertEquals(1, meterRegistry.find("xirr.solve").timer().count());
+    }
+
     @Test
     void testCalculateXirr_ValidInputWithZeroCashFlow() {
         Instant now = Instant.now();
@@ -283,4 +335,75 @@ class XirrCalculatorTest {
 
         assertEquals("Invalid input: dates or cash flows are invalid.", exception.getMessage());
     }
+
+    @Test
+    void testCalculateXirrs_SinceInception_MatchesCalculateXirr() {
+        Random random = new Random(7);
+        for (int run = 0; run < 20; run++) {
+            Instant date = Instant.parse("2019-03-04T10:15:00Z");
+            List<Instant> dates = new ArrayList<>();
+            List<BigDecimal> cashFlows = new ArrayList<>();
+            CashFlowBuffer buffer = new CashFlowBuffer(4);
+            for (int i = 0; i < 30; i++) {
+                date = date.plusSeconds(random.nextInt(40 * 86_400));
+                BigDecimal amount = BigDecimal.valueOf(-100 - random.nextInt(1000));
+                if (i > 0 && random.nextInt(4) == 0) {
+                    amount = amount.negate();
+                }
+                dates.add(date);
+                cashFlows.add(amount);
+                buffer.add(date.getEpochSecond(), amount.doubleValue());
+            }
+            date = date.plusSeconds(3_600);
+            dates.add(date);
+            cashFlows.add(BigDecimal.valueOf(20_000));
+            buffer.add(date.getEpochSecond(), 20_000);
+
+            double expected = xirrCalculator.calculateXirr(dates, cashFlows).doubleValue();
+            double[] rates = xirrCalculator.calculateXirrs(buffer, new int[] { 0 },
+                    new long[] { dates.get(0).getEpochSecond() }, new double[] { 0 });
+
+            assertEquals(expected, rates[0], 1e-9);
+        }
+    }
+
+    @Test
+    void testCalculateXirrs_PeriodWindow_MatchesXirrOfTruncatedFlows() {
+        Instant start = Instant.parse("2020-01-01T00:00:00Z");
+        CashFlowBuffer buffer = new CashFlowBuffer(4);
+        buffer.add(start.getEpochSecond(), -1000);
+        buffer.add(start.plus(200, ChronoUnit.DAYS).getEpochSecond(), -500);
+        buffer.add(start.plus(500, ChronoUnit.DAYS).getEpochSecond(), 300);
+        buffer.add(start.plus(800, ChronoUnit.DAYS).getEpochSecond(), 2000);
+        Instant anchor = start.plus(365, ChronoUnit.DAYS);
+
+        double[] rates = xirrCalculator.calculateXirrs(buffer, new int[] { 0, 2 },
+                new long[] { start.getEpochSecond(), anchor.getEpochSecond() }, new double[] { 0, -1600 });
+
+        double expectedWindow = xirrCalculator.calculateXirr(
+                Arrays.asList(anchor, start.plus(500, ChronoUnit.DAYS), start.plus(800, ChronoUnit.DAYS)),
+                Arrays.asList(new BigDecimal(-1600), new BigDecimal(300), new BigDecimal(2000))).doubleValue();
+        double expectedInception = xirrCalculator.calculateXirr(
+                Arrays.asList(start, start.plus(200, ChronoUnit.DAYS), start.plus(500, ChronoUnit.DAYS),
+                        start.plus(800, ChronoUnit.DAYS)),
+                Arrays.asList(new BigDecimal(-1000), new BigDecimal(-500), new BigDecimal(300),
+                        new BigDecimal(2000))).doubleValue();
+        assertEquals(expectedInception, rates[0], 1e-9);
+        assertEquals(expectedWindow, rates[1], 1e-9);
+    }
+
+    @Test
+    void testCalculateXirrs_WindowWithoutSignChange_ReturnsNaN() {
+        Instant start = Instant.parse("2020-01-01T00:00:00Z");
+        CashFlowBuffer buffer = new CashFlowBuffer(2);
+        buffer.add(start.getEpochSecond(), -1000);
+        buffer.add(start.plus(100, ChronoUnit.DAYS).getEpochSecond(), 1100);
+
+        double[] rates = xirrCalculator.calculateXirrs(buffer, new int[] { 1, 0 },
+                new long[] { start.plus(50, ChronoUnit.DAYS).getEpochSecond(), start.getEpochSecond() },
+                new double[] { 0, 0 });
+
+        assertTrue(Double.isNaN(rates[0]));
+        assertTrue(rates[1] > 0);
+    }
 }